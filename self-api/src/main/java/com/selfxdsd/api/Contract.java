@@ -24,6 +24,7 @@ package com.selfxdsd.api;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.Objects;
 
 /**
@@ -274,10 +275,10 @@ public interface Contract {
         @Override
         public int hashCode() {
             return Objects.hash(
-                this.repoFullName,
-                this.contributorUsername,
-                this.provider,
-                this.role
+                this.repoFullName.toLowerCase(Locale.ROOT),
+                this.contributorUsername.toLowerCase(Locale.ROOT),
+                this.provider.toLowerCase(Locale.ROOT),
+                this.role.toLowerCase(Locale.ROOT)
             );
         }
 
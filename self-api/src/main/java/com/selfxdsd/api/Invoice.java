@@ -91,6 +91,17 @@ public interface Invoice {
      */
     BigDecimal commission();
 
+    /**
+     * Value, commission, total and number of the invoiced tasks, computed
+     * together. By default, they are aggregated in one pass over the
+     * tasks; implementations may cache them or read them from an
+     * aggregate query.
+     * @return Totals.
+     */
+    default Totals totals() {
+        return this.tasks().totals();
+    }
+
     /**
      * An invoice is active until payment is done.
      * @return Boolean
@@ -110,4 +121,91 @@ public interface Invoice {
      * @throws IOException If any I/O problems.
      */
     void toPdf(OutputStream out) throws IOException;
+
+    /**
+     * Totals of an Invoice's tasks.
+     */
+    final class Totals {
+
+        /**
+         * Value of the tasks, without the PM's commission.
+         */
+        private final BigDecimal amount;
+
+        /**
+         * PM's commission.
+         */
+        private final BigDecimal commission;
+
+        /**
+         * Number of tasks.
+         */
+        private final int tasks;
+
+        /**
+         * Ctor.
+         * @param amount Value of the tasks, without the PM's commission.
+         * @param commission PM's commission.
+         * @param tasks Number of tasks.
+         */
+        public Totals(
+            final BigDecimal amount,
+            final BigDecimal commission,
+            final int tasks
+        ) {
+            this.amount = amount;
+            this.commission = commission;
+            this.tasks = tasks;
+        }
+
+        /**
+         * Totals of the given InvoicedTasks, aggregated in one pass.
+         * @param invoiced InvoicedTasks.
+         * @return Totals.
+         */
+        public static Totals of(final Iterable<InvoicedTask> invoiced) {
+            BigDecimal amount = BigDecimal.valueOf(0);
+            BigDecimal commission = BigDecimal.valueOf(0);
+            int count = 0;
+            for(final InvoicedTask task : invoiced) {
+                amount = amount.add(task.value());
+                commission = commission.add(task.commission());
+                count = count + 1;
+            }
+            return new Totals(amount, commission, count);
+        }
+
+        /**
+         * Value of the tasks, without the PM's commission (what the
+         * Contributor will get).
+         * @return BigDecimal.
+         */
+        public BigDecimal amount() {
+            return this.amount;
+        }
+
+        /**
+         * Value of the PM's commission.
+         * @return BigDecimal.
+         */
+        public BigDecimal commission() {
+            return this.commission;
+        }
+
+        /**
+         * Total, value plus commission.
+         * @return BigDecimal.
+         */
+        public BigDecimal total() {
+            return this.amount.add(this.commission);
+        }
+
+        /**
+         * Number of invoiced tasks.
+         * @return Integer.
+         */
+        public int tasks() {
+            return this.tasks;
+        }
+    }
 }
@@ -51,4 +51,14 @@ public interface InvoicedTasks extends Iterable<InvoicedTask> {
         final Task finished,
         final BigDecimal commission
     );
+
+    /**
+     * Totals of these InvoicedTasks. By default, they are aggregated in
+     * one pass; a storage may compute them with an aggregate query
+     * instead (e.g. SELECT SUM(value), SUM(commission), COUNT(*)).
+     * @return Totals.
+     */
+    default Invoice.Totals totals() {
+        return Invoice.Totals.of(this);
+    }
 }
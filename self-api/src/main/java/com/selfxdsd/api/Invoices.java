@@ -55,4 +55,21 @@ public interface Invoices extends Iterable<Invoice> {
         final BigDecimal contributorVat,
         final BigDecimal eurToRon
     );
+
+    /**
+     * Number of payment attempts of an Invoice which failed (e.g. the
+     * card was declined). The Wallets use it in the idempotency key of
+     * the next attempt: a retry after a failure is a new payment, while
+     * a retry after a crash (no answer) repeats the same one, so the
+     * counter has to be persisted by every Storage.
+     * @param invoice Invoice.
+     * @return Number of failed attempts.
+     */
+    int failedPayments(Invoice invoice);
+
+    /**
+     * Register a failed payment attempt of an Invoice.
+     * @param invoice Invoice.
+     */
+    void registerFailedPayment(Invoice invoice);
 }
@@ -98,6 +98,15 @@ public interface PlatformInvoice {
      */
     BigDecimal vat();
 
+    /**
+     * Euro to RON exchange rate of the payment. For instance, if this
+     * value is 487, it means 1 EUR = 4,87 RON.
+     * @return BigDecimal or null if it is not known.
+     */
+    default BigDecimal eurToRon() {
+        return null;
+    }
+
     /**
      * Total amount (commission + vat).
      * @return BigDecimal.
@@ -22,6 +22,8 @@
  */
 package com.selfxdsd.api;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Self-todos microservice.
  * @author Mihai Andronache (amihaiemil@gmail.com)
@@ -37,4 +39,14 @@ public interface SelfTodos {
      */
     void post(final Project project, final String push);
 
+    /**
+     * Post the push event to self-todos, as the raw payload received
+     * from the Provider.
+     * @param project Project in question.
+     * @param push Push event, UTF-8 bytes.
+     */
+    default void post(final Project project, final byte[] push) {
+        this.post(project, new String(push, StandardCharsets.UTF_8));
+    }
+
 }
@@ -108,4 +108,15 @@ public interface Tasks extends Iterable<Task> {
      */
     boolean remove(final Task task);
 
+    /**
+     * These Tasks, with their Contracts, Contributors and Projects
+     * loaded in one pass, so calling project(), assignee(), role() or
+     * value() on each of them does not go to the Storage again.<br><br>
+     * Storage implementations should override it to fetch everything
+     * at once (e.g. with a join). By default, it returns the same Tasks.
+     * @return Tasks.
+     */
+    default Tasks withDetails() {
+        return this;
+    }
 }
@@ -25,6 +25,7 @@ package com.selfxdsd.api;
 import com.stripe.model.SetupIntent;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 /**
  * A project's wallet.
@@ -66,6 +67,22 @@ public interface Wallet {
      */
     Wallet pay(final Invoice invoice);
 
+    /**
+     * Pay several Invoices of this Wallet's Project in one run (e.g. the
+     * end-of-month payouts). By default, they are paid one by one;
+     * implementations should check the total against the cash limit
+     * once, before paying anything, and share the per-payment overhead.
+     * @param invoices The Invoices to be paid.
+     * @return Wallet having cash deducted with the paid Invoices' amount.
+     */
+    default Wallet payAll(final List<Invoice> invoices) {
+        Wallet wallet = this;
+        for(final Invoice invoice : invoices) {
+            wallet = wallet.pay(invoice);
+        }
+        return wallet;
+    }
+
     /**
      * Type of this wallet.
      * @return String type.
@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core;
+
+import com.selfxdsd.api.BillingInfo;
+import com.selfxdsd.api.PayoutMethod;
+import com.selfxdsd.api.storage.Storage;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the BillingInfo kept at Stripe, keyed by the Stripe Customer
+ * or Connect Account id. An entry is fetched again once it is older than
+ * the TTL; whoever changes the billing info at Stripe should call
+ * {@link #invalidate(String)}, or {@link #put(String, BillingInfo)} with
+ * the new info, so the change is visible right away.<br><br>
+ *
+ * The cache is bounded: once it is full, the least recently used entry
+ * is evicted. There is one cache per Storage (see {@link #of(Storage)}),
+ * shared by the Storage's Wallets, PayoutMethods, Projects and
+ * Contributors.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class BillingInfoCache {
+
+    /**
+     * Cache of each Storage. The Storages are weakly referenced, so they
+     * are not kept alive by this map.
+     */
+    private static final Map<Storage, BillingInfoCache> STORAGES =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Default maximum number of entries.
+     */
+    private static final int SIZE = 10_000;
+
+    /**
+     * How long an entry is used before it is fetched again.
+     */
+    private final Duration ttl;
+
+    /**
+     * Current time.
+     */
+    private final Supplier<Instant> now;
+
+    /**
+     * Cached entries, least recently used first.
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * Ctor. Up to 10.000 entries.
+     * @param ttl How long an entry is used before it is fetched again.
+     */
+    public BillingInfoCache(final Duration ttl) {
+        this(ttl, SIZE);
+    }
+
+    /**
+     * Ctor.
+     * @param ttl How long an entry is used before it is fetched again.
+     * @param size Maximum number of entries.
+     */
+    public BillingInfoCache(final Duration ttl, final int size) {
+        this(ttl, size, Instant::now);
+    }
+
+    /**
+     * Ctor. Up to 10.000 entries.
+     * @param ttl How long an entry is used before it is fetched again.
+     * @param now Current time.
+     */
+    public BillingInfoCache(final Duration ttl, final Supplier<Instant> now) {
+        this(ttl, SIZE, now);
+    }
+
+    /**
+     * Ctor.
+     * @param ttl How long an entry is used before it is fetched again.
+     * @param size Maximum number of entries.
+     * @param now Current time.
+     */
+    public BillingInfoCache(
+        final Duration ttl,
+        final int size,
+        final Supplier<Instant> now
+    ) {
+        this.ttl = ttl;
+        this.now = now;
+        this.entries = Collections.synchronizedMap(new Lru(size));
+    }
+
+    /**
+     * Cache of the given Storage: up to 10.000 entries, used for 30
+     * minutes.
+     * @param storage Storage.
+     * @return BillingInfoCache.
+     */
+    public static BillingInfoCache of(final Storage storage) {
+        return STORAGES.computeIfAbsent(
+            storage, key -> new BillingInfoCache(Duration.ofMinutes(30))
+        );
+    }
+
+    /**
+     * Get the BillingInfo with the given id, fetching it if it is not
+     * cached or if it expired. Failed fetches are not cached.
+     * @param id Stripe Customer or Account id.
+     * @param fetch Fetches the BillingInfo from Stripe.
+     * @return BillingInfo.
+     */
+    public BillingInfo get(
+        final String id,
+        final Function<String, BillingInfo> fetch
+    ) {
+        final Instant time = this.now.get();
+        Entry entry = this.entries.get(id);
+        if(entry == null || entry.expired(time)) {
+            entry = new Entry(fetch.apply(id), time.plus(this.ttl));
+            this.entries.put(id, entry);
+        }
+        return entry.info;
+    }
+
+    /**
+     * Get the BillingInfo of a PayoutMethod, fetching it from the
+     * PayoutMethod if it is not cached or if it expired. Only the Stripe
+     * PayoutMethods are cached, by their Connect Account id. This way the
+     * billing info is cached no matter how the PayoutMethod was built.
+     * @param method PayoutMethod.
+     * @return BillingInfo.
+     */
+    public BillingInfo get(final PayoutMethod method) {
+        final BillingInfo info;
+        if(PayoutMethod.Type.STRIPE.equals(method.type())) {
+            info = this.get(method.identifier(), id -> method.billingInfo());
+        } else {
+            info = method.billingInfo();
+        }
+        return info;
+    }
+
+    /**
+     * Cache the given BillingInfo, e.g. right after it was sent to Stripe.
+     * @param id Stripe Customer or Account id.
+     * @param info BillingInfo.
+     */
+    public void put(final String id, final BillingInfo info) {
+        this.entries.put(
+            id, new Entry(info, this.now.get().plus(this.ttl))
+        );
+    }
+
+    /**
+     * Forget the BillingInfo with the given id, so it is fetched again
+     * on the next call.
+     * @param id Stripe Customer or Account id.
+     */
+    public void invalidate(final String id) {
+        this.entries.remove(id);
+    }
+
+    /**
+     * Number of cached entries.
+     * @return Integer.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Entries in access order, evicting the least recently used one once
+     * there are too many.
+     */
+    private static final class Lru extends LinkedHashMap<String, Entry> {
+
+        /**
+         * Serialization id.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Maximum number of entries.
+         */
+        private final int max;
+
+        /**
+         * Ctor.
+         * @param max Maximum number of entries.
+         */
+        Lru(final int max) {
+            super(16, 0.75f, true);
+            this.max = max;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(
+            final Map.Entry<String, Entry> eldest
+        ) {
+            return this.size() > this.max;
+        }
+    }
+
+    /**
+     * Cached BillingInfo and its expiry time.
+     */
+    private static final class Entry {
+
+        /**
+         * BillingInfo.
+         */
+        private final BillingInfo info;
+
+        /**
+         * When it expires.
+         */
+        private final Instant expires;
+
+        /**
+         * Ctor.
+         * @param info BillingInfo.
+         * @param expires When it expires.
+         */
+        Entry(final BillingInfo info, final Instant expires) {
+            this.info = info;
+            this.expires = expires;
+        }
+
+        /**
+         * Is this entry expired?
+         * @param time Current time.
+         * @return True or false.
+         */
+        boolean expired(final Instant time) {
+            return !time.isBefore(this.expires);
+        }
+    }
+}
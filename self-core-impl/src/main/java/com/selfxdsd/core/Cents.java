@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money, in cents, backed by a long. Self's API carries
+ * money as BigDecimal cents; convert with {@link #of(BigDecimal)} and
+ * {@link #decimal()} at the boundary and do the arithmetic here, without
+ * allocating intermediate BigDecimals. Every operation is checked for
+ * overflow (ArithmeticException) and divisions round HALF_UP, like the
+ * BigDecimal computations they replace.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class Cents implements Comparable<Cents> {
+
+    /**
+     * Zero cents.
+     */
+    public static final Cents ZERO = new Cents(0);
+
+    /**
+     * Basis points in 100%.
+     */
+    private static final long WHOLE = 10_000;
+
+    /**
+     * The amount.
+     */
+    private final long amount;
+
+    /**
+     * Ctor.
+     * @param amount Amount, in cents.
+     */
+    public Cents(final long amount) {
+        this.amount = amount;
+    }
+
+    /**
+     * Convert a BigDecimal amount of cents. It can have any scale (e.g.
+     * 2500.00, read from a DECIMAL column), but it must be a whole number
+     * of cents: rounding a fraction here, before a ratio or a percentage
+     * is applied, would round twice and could be one cent off.
+     * @param value Amount, in cents.
+     * @return Cents.
+     * @throws ArithmeticException If the value has a fraction of a cent
+     *  or does not fit in a long.
+     */
+    public static Cents of(final BigDecimal value) {
+        return new Cents(value.stripTrailingZeros().longValueExact());
+    }
+
+    /**
+     * Convert a percentage into basis points (hundredths of a percent),
+     * rounding it HALF_UP to 2 decimals. Compute it once and reuse it
+     * with {@link #percent(long)}.
+     * @param percentage Percentage (e.g. 8.5).
+     * @return Basis points (e.g. 850).
+     */
+    public static long basisPoints(final double percentage) {
+        return BigDecimal.valueOf(percentage)
+            .setScale(2, RoundingMode.HALF_UP)
+            .unscaledValue()
+            .longValueExact();
+    }
+
+    /**
+     * The amount.
+     * @return Amount, in cents.
+     */
+    public long amount() {
+        return this.amount;
+    }
+
+    /**
+     * The amount as BigDecimal, for the API.
+     * @return BigDecimal with scale 0.
+     */
+    public BigDecimal decimal() {
+        return BigDecimal.valueOf(this.amount);
+    }
+
+    /**
+     * Add some cents.
+     * @param other Cents to add.
+     * @return Sum.
+     */
+    public Cents plus(final Cents other) {
+        return new Cents(Math.addExact(this.amount, other.amount));
+    }
+
+    /**
+     * Subtract some cents.
+     * @param other Cents to subtract.
+     * @return Difference.
+     */
+    public Cents minus(final Cents other) {
+        return new Cents(Math.subtractExact(this.amount, other.amount));
+    }
+
+    /**
+     * Multiply by a fraction, rounding HALF_UP.
+     * @param numerator Numerator.
+     * @param denominator Denominator, positive.
+     * @return This amount * numerator / denominator.
+     */
+    public Cents ratio(final long numerator, final long denominator) {
+        if(denominator <= 0) {
+            throw new IllegalArgumentException(
+                "The denominator must be positive, got " + denominator + "."
+            );
+        }
+        final long product = Math.multiplyExact(this.amount, numerator);
+        final long remainder = Math.abs(product % denominator);
+        long quotient = product / denominator;
+        if(remainder >= denominator - remainder) {
+            quotient = quotient + Long.signum(product);
+        }
+        return new Cents(quotient);
+    }
+
+    /**
+     * A percentage of this amount, rounding HALF_UP.
+     * @param basisPoints Percentage, in basis points.
+     * @return Percentage of this amount.
+     * @see #basisPoints(double)
+     */
+    public Cents percent(final long basisPoints) {
+        return this.ratio(basisPoints, WHOLE);
+    }
+
+    @Override
+    public int compareTo(final Cents other) {
+        return Long.compare(this.amount, other.amount);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return this == other || other instanceof Cents
+            && this.amount == ((Cents) other).amount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.amount);
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(this.amount);
+    }
+}
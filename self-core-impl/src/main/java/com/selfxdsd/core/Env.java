@@ -96,4 +96,10 @@ public final class Env {
      */
     public static final String PDD_PRIVATE_KEY = "self_pdd_privatekey";
 
+    /**
+     * File where the last known EUR-RON exchange rate is kept, so it
+     * survives restarts and BNR outages.
+     */
+    public static final String BNR_RATE_FILE = "self_bnr_rate_file";
+
 }
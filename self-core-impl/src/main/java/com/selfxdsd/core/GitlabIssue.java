@@ -61,7 +61,8 @@ final class GitlabIssue implements Issue {
     private final URI issueUri;
 
     /**
-     * Issue JSON as returned by Gitlab's API.
+     * Issue JSON as returned by Gitlab's API, or as built from a webhook
+     * payload, which may lack some fields (see {@link #with(String)}).
      */
     private final JsonObject json;
 
@@ -75,6 +76,12 @@ final class GitlabIssue implements Issue {
      */
     private final JsonResources resources;
 
+    /**
+     * Issue JSON fetched from the API, null until a field is needed which
+     * the given JSON lacks.
+     */
+    private JsonObject fetched;
+
     /**
      * Ctor.
      * @param issueUri Issues base URI.
@@ -117,7 +124,7 @@ final class GitlabIssue implements Issue {
 
     @Override
     public String repoFullName() {
-        return this.json
+        return this.with("references")
             .getJsonObject("references")
             .getString("full")
             .split("[#!]")[0];
@@ -125,17 +132,18 @@ final class GitlabIssue implements Issue {
 
     @Override
     public String author() {
-        return this.json.getJsonObject("author").getString("username");
+        return this.with("author")
+            .getJsonObject("author").getString("username");
     }
 
     @Override
     public String body() {
-        return this.json.getString("description");
+        return this.with("description").getString("description");
     }
 
     @Override
     public String assignee() {
-        final JsonValue assignee = this.json.get("assignee");
+        final JsonValue assignee = this.with("assignee").get("assignee");
         final String username;
         if (assignee instanceof JsonObject) {
             username = ((JsonObject) assignee).getString("username");
@@ -299,14 +307,14 @@ final class GitlabIssue implements Issue {
 
     @Override
     public boolean isClosed() {
-        final String state = this.json.getString("state", "");
+        final String state = this.with("state").getString("state", "");
         return "closed".equalsIgnoreCase(state)
             || "merged".equalsIgnoreCase(state);
     }
 
     @Override
     public boolean isPullRequest() {
-        return this.json.getString("web_url")
+        return this.with("web_url").getString("web_url")
             .endsWith("/merge_requests/" + this.issueId());
     }
 
@@ -320,10 +328,42 @@ final class GitlabIssue implements Issue {
         return new GitlabIssueLabels(
             this.issueUri,
             this.resources,
-            this.json
+            this.with("labels")
         );
     }
 
+    /**
+     * The Issue JSON which has the given field: the given JSON or, if it
+     * was built from a webhook payload (it has the hook's object_kind) and
+     * lacks the field, the JSON fetched (once) from the API.
+     * @param field Field.
+     * @return JsonObject.
+     */
+    private JsonObject with(final String field) {
+        final JsonObject found;
+        if(this.json.containsKey(field)
+            || !this.json.containsKey("object_kind")) {
+            found = this.json;
+        } else {
+            if(this.fetched == null) {
+                LOG.debug(
+                    "Field " + field + " is missing, fetching Issue ["
+                    + this.issueUri + "]..."
+                );
+                final Resource resource = this.resources.get(this.issueUri);
+                if(resource.statusCode() != HttpURLConnection.HTTP_OK) {
+                    throw new IllegalStateException(
+                        "Could not fetch Issue [" + this.issueUri + "]. "
+                        + "Expected 200 OK, but got " + resource.statusCode()
+                    );
+                }
+                this.fetched = resource.asJsonObject();
+            }
+            found = this.fetched;
+        }
+        return found;
+    }
+
     /**
      * Find user id by searching it in projects/repo members.
      * @param username Username to query.
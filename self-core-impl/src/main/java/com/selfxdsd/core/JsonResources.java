@@ -26,6 +26,7 @@ import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonObject;
 import javax.json.JsonValue;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.net.URI;
@@ -74,6 +75,21 @@ public interface JsonResources {
         final JsonValue body
     );
 
+    /**
+     * Post raw JSON bytes to the specified URI, e.g. a payload received
+     * from a Provider, which is forwarded as it is.
+     * @param uri URI.
+     * @param body JSON body of the request, UTF-8 bytes.
+     * @return Resource.
+     * @throws IllegalStateException If IOException or InterruptedException
+     *  occur while making the HTTP request.
+     */
+    default Resource post(final URI uri, final byte[] body) {
+        return this.post(
+            uri, Json.createReader(new ByteArrayInputStream(body)).read()
+        );
+    }
+
     /**
      * Patch a JsonObject at the specified URI.
      * @param uri URI.
@@ -122,6 +138,12 @@ public interface JsonResources {
      */
     final class JdkHttp implements JsonResources {
 
+        /**
+         * HTTP client shared by all the instances: it is thread-safe and
+         * it keeps the connections alive, so they can be reused.
+         */
+        private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
         /**
          * Access token.
          */
@@ -150,15 +172,14 @@ public interface JsonResources {
         @Override
         public Resource get(final URI uri) {
             try {
-                final HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(
-                        this.request(
-                            uri,
-                            "GET",
-                            HttpRequest.BodyPublishers.noBody()
-                        ),
-                        HttpResponse.BodyHandlers.ofString()
-                    );
+                final HttpResponse<String> response = CLIENT.send(
+                    this.request(
+                        uri,
+                        "GET",
+                        HttpRequest.BodyPublishers.noBody()
+                    ),
+                    HttpResponse.BodyHandlers.ofString()
+                );
                 return new JsonResponse(
                     response.statusCode(), response.body()
                 );
@@ -176,17 +197,16 @@ public interface JsonResources {
             final JsonValue body
         ) {
             try {
-                final HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(
-                        this.request(
-                            uri,
-                            "POST",
-                            HttpRequest.BodyPublishers.ofString(
-                                body.toString()
-                            )
-                        ),
-                        HttpResponse.BodyHandlers.ofString()
-                    );
+                final HttpResponse<String> response = CLIENT.send(
+                    this.request(
+                        uri,
+                        "POST",
+                        HttpRequest.BodyPublishers.ofString(
+                            body.toString()
+                        )
+                    ),
+                    HttpResponse.BodyHandlers.ofString()
+                );
                 return new JsonResponse(
                     response.statusCode(), response.body()
                 );
@@ -199,23 +219,45 @@ public interface JsonResources {
             }
         }
 
+        @Override
+        public Resource post(final URI uri, final byte[] body) {
+            try {
+                final HttpResponse<String> response = CLIENT.send(
+                    this.request(
+                        uri,
+                        "POST",
+                        HttpRequest.BodyPublishers.ofByteArray(body)
+                    ),
+                    HttpResponse.BodyHandlers.ofString()
+                );
+                return new JsonResponse(
+                    response.statusCode(), response.body()
+                );
+            } catch (final IOException | InterruptedException ex) {
+                throw new IllegalStateException(
+                    "Couldn't POST " + body.length + " bytes"
+                  + " to [" + uri.toString() +"]",
+                    ex
+                );
+            }
+        }
+
         @Override
         public Resource patch(
             final URI uri,
             final JsonValue body
         ) {
             try {
-                final HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(
-                        this.request(
-                            uri,
-                            "PATCH",
-                            HttpRequest.BodyPublishers.ofString(
-                                body.toString()
-                            )
-                        ),
-                        HttpResponse.BodyHandlers.ofString()
-                    );
+                final HttpResponse<String> response = CLIENT.send(
+                    this.request(
+                        uri,
+                        "PATCH",
+                        HttpRequest.BodyPublishers.ofString(
+                            body.toString()
+                        )
+                    ),
+                    HttpResponse.BodyHandlers.ofString()
+                );
                 return new JsonResponse(
                     response.statusCode(), response.body()
                 );
@@ -231,17 +273,16 @@ public interface JsonResources {
         @Override
         public Resource put(final URI uri, final JsonValue body) {
             try {
-                final HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(
-                        this.request(
-                            uri,
-                            "PUT",
-                            HttpRequest.BodyPublishers.ofString(
-                                body.toString()
-                            )
-                        ),
-                        HttpResponse.BodyHandlers.ofString()
-                    );
+                final HttpResponse<String> response = CLIENT.send(
+                    this.request(
+                        uri,
+                        "PUT",
+                        HttpRequest.BodyPublishers.ofString(
+                            body.toString()
+                        )
+                    ),
+                    HttpResponse.BodyHandlers.ofString()
+                );
                 return new JsonResponse(
                     response.statusCode(), response.body()
                 );
@@ -257,17 +298,16 @@ public interface JsonResources {
         @Override
         public Resource delete(final URI uri, final JsonValue body) {
             try {
-                final HttpResponse<String> response = HttpClient.newHttpClient()
-                    .send(
-                        this.request(
-                            uri,
-                            "DELETE",
-                            HttpRequest.BodyPublishers.ofString(
-                                body.toString()
-                            )
-                        ),
-                        HttpResponse.BodyHandlers.ofString()
-                    );
+                final HttpResponse<String> response = CLIENT.send(
+                    this.request(
+                        uri,
+                        "DELETE",
+                        HttpRequest.BodyPublishers.ofString(
+                            body.toString()
+                        )
+                    ),
+                    HttpResponse.BodyHandlers.ofString()
+                );
                 return new JsonResponse(
                     response.statusCode(), response.body()
                 );
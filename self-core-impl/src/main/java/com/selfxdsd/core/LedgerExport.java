@@ -0,0 +1,380 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core;
+
+import com.selfxdsd.api.Contract;
+import com.selfxdsd.api.Contracts;
+import com.selfxdsd.api.Invoice;
+import com.selfxdsd.api.PlatformInvoice;
+import com.selfxdsd.api.PlatformInvoices;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Accounting ledger of paid Invoices and their PlatformInvoices, exported
+ * as CSV or as a JSON array.<br><br>
+ *
+ * There is one row per paid Invoice (or per PlatformInvoice), with the
+ * Invoice's amount, commission and total, Self's commission and VAT and
+ * their value in RON, at the exchange rate of the payment. Amounts are in
+ * EUR (or RON), with 2 decimals. The rows are computed in one pass, while
+ * the storage is iterated, and written to the output right away, so only
+ * one row is in memory at any time.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class LedgerExport {
+
+    /**
+     * Names of the columns.
+     */
+    private static final String[] COLUMNS = {
+        "invoice", "project", "provider", "contributor", "role",
+        "transaction", "paidAt", "amount", "commission", "total",
+        "platformInvoice", "platformCommission", "vat", "platformTotal",
+        "eurToRon", "platformCommissionRon", "vatRon", "platformTotalRon",
+    };
+
+    /**
+     * Payments to export. Each one builds its Row only if it is not
+     * filtered out.
+     */
+    private final Supplier<Stream<Payment>> payments;
+
+    /**
+     * Ctor. Exports the given PlatformInvoices, each one with its
+     * Invoice, if it still exists. They are filtered by the
+     * PlatformInvoice's payment time.
+     * @param invoices PlatformInvoices.
+     */
+    public LedgerExport(final PlatformInvoices invoices) {
+        this(
+            () -> LedgerExport.stream(invoices).map(
+                platform -> new Payment(
+                    platform.paymentTime(),
+                    () -> new Row(platform.invoice(), platform)
+                )
+            )
+        );
+    }
+
+    /**
+     * Ctor. Exports the paid Invoices of all the given Contracts, each one
+     * with its PlatformInvoice, if it was paid with a real Wallet.
+     * @param contracts Contracts.
+     */
+    public LedgerExport(final Contracts contracts) {
+        this(
+            () -> LedgerExport.stream(contracts).flatMap(
+                contract -> LedgerExport.stream(contract.invoices())
+            ).filter(Invoice::isPaid).map(
+                invoice -> new Payment(
+                    invoice.paymentTime(),
+                    () -> new Row(invoice, invoice.platformInvoice())
+                )
+            )
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param payments Payments to export.
+     */
+    private LedgerExport(final Supplier<Stream<Payment>> payments) {
+        this.payments = payments;
+    }
+
+    /**
+     * Export only the rows paid in the given interval.
+     * @param from Start, inclusive.
+     * @param until End, exclusive.
+     * @return LedgerExport.
+     */
+    public LedgerExport paidBetween(
+        final LocalDateTime from,
+        final LocalDateTime until
+    ) {
+        return new LedgerExport(
+            () -> this.payments.get().filter(
+                payment -> !payment.time.isBefore(from)
+                    && payment.time.isBefore(until)
+            )
+        );
+    }
+
+    /**
+     * Write the ledger as CSV (UTF-8), with a header line.
+     * @param out Where to write. It is not closed.
+     * @throws IOException If something goes wrong.
+     */
+    public void csv(final OutputStream out) throws IOException {
+        final Writer writer = new BufferedWriter(
+            new OutputStreamWriter(out, StandardCharsets.UTF_8)
+        );
+        LedgerExport.line(writer, COLUMNS.length, idx -> COLUMNS[idx]);
+        try (Stream<Payment> all = this.payments.get()) {
+            final Iterator<Payment> rows = all.iterator();
+            while(rows.hasNext()) {
+                final Row row = rows.next().row.get();
+                LedgerExport.line(writer, COLUMNS.length, row::value);
+            }
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write the ledger as a JSON array of objects (UTF-8).
+     * @param out Where to write. It is not closed.
+     */
+    public void json(final OutputStream out) {
+        final JsonGenerator json = Json.createGenerator(out);
+        json.writeStartArray();
+        try (Stream<Payment> all = this.payments.get()) {
+            final Iterator<Payment> rows = all.iterator();
+            while(rows.hasNext()) {
+                final Row row = rows.next().row.get();
+                json.writeStartObject();
+                for(int idx = 0; idx < COLUMNS.length; ++idx) {
+                    LedgerExport.write(json, COLUMNS[idx], row.value(idx));
+                }
+                json.writeEnd();
+            }
+        }
+        json.writeEnd();
+        json.flush();
+    }
+
+    /**
+     * Write a CSV line.
+     * @param writer Writer.
+     * @param size Number of fields.
+     * @param fields Fields by index; nulls are written as empty fields.
+     * @throws IOException If something goes wrong.
+     */
+    private static void line(
+        final Writer writer,
+        final int size,
+        final IntFunction<Object> fields
+    ) throws IOException {
+        for(int idx = 0; idx < size; ++idx) {
+            if(idx > 0) {
+                writer.write(',');
+            }
+            final Object field = fields.apply(idx);
+            if(field != null) {
+                writer.write(LedgerExport.escape(field.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Quote a CSV field, if needed.
+     * @param value Value.
+     * @return Escaped value.
+     */
+    private static String escape(final String value) {
+        final String escaped;
+        if(value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+            || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            escaped = '"' + value.replace("\"", "\"\"") + '"';
+        } else {
+            escaped = value;
+        }
+        return escaped;
+    }
+
+    /**
+     * Write a JSON attribute.
+     * @param json JsonGenerator.
+     * @param name Name.
+     * @param value Value (String, BigDecimal or null).
+     */
+    private static void write(
+        final JsonGenerator json,
+        final String name,
+        final Object value
+    ) {
+        if(value == null) {
+            json.writeNull(name);
+        } else if(value instanceof BigDecimal) {
+            json.write(name, (BigDecimal) value);
+        } else {
+            json.write(name, value.toString());
+        }
+    }
+
+    /**
+     * Sequential stream of an Iterable.
+     * @param iterable Iterable.
+     * @param <T> Type of the elements.
+     * @return Stream.
+     */
+    private static <T> Stream<T> stream(final Iterable<T> iterable) {
+        return StreamSupport.stream(iterable.spliterator(), false);
+    }
+
+    /**
+     * A payment to export: its time, known without any lookup, and its
+     * Row, built only when it is written.
+     */
+    private static final class Payment {
+
+        /**
+         * Payment time.
+         */
+        private final LocalDateTime time;
+
+        /**
+         * Builds the Row.
+         */
+        private final Supplier<Row> row;
+
+        /**
+         * Ctor.
+         * @param time Payment time.
+         * @param row Builds the Row.
+         */
+        Payment(final LocalDateTime time, final Supplier<Row> row) {
+            this.time = time;
+            this.row = row;
+        }
+    }
+
+    /**
+     * A row of the ledger.
+     */
+    private static final class Row {
+
+        /**
+         * Values, by column.
+         */
+        private final Map<String, Object> values = new HashMap<>();
+
+        /**
+         * Ctor.
+         * @param invoice Paid Invoice, null if it's missing.
+         * @param platform PlatformInvoice, null if it's missing.
+         */
+        Row(final Invoice invoice, final PlatformInvoice platform) {
+            final LocalDateTime paid;
+            if(invoice == null) {
+                paid = platform.paymentTime();
+                this.values.put("transaction", platform.transactionId());
+            } else {
+                paid = invoice.paymentTime();
+                this.values.put("transaction", invoice.transactionId());
+                this.invoice(invoice);
+            }
+            this.values.put("paidAt", paid.toString());
+            if(platform != null) {
+                this.platform(platform);
+            }
+        }
+
+        /**
+         * Value of a column.
+         * @param column Index of the column.
+         * @return Value, null if it is missing.
+         */
+        Object value(final int column) {
+            return this.values.get(COLUMNS[column]);
+        }
+
+        /**
+         * Fill in the Invoice's columns.
+         * @param invoice Invoice.
+         */
+        private void invoice(final Invoice invoice) {
+            final Contract.Id contract = invoice.contract().contractId();
+            final Invoice.Totals totals = invoice.totals();
+            this.values.put("invoice", "SLFX-" + invoice.invoiceId());
+            this.values.put("project", contract.getRepoFullName());
+            this.values.put("provider", contract.getProvider());
+            this.values.put("contributor", contract.getContributorUsername());
+            this.values.put("role", contract.getRole());
+            this.values.put("amount", Row.euro(totals.amount()));
+            this.values.put("commission", Row.euro(totals.commission()));
+            this.values.put("total", Row.euro(totals.total()));
+        }
+
+        /**
+         * Fill in the PlatformInvoice's columns.
+         * @param platform PlatformInvoice.
+         */
+        private void platform(final PlatformInvoice platform) {
+            final BigDecimal rate = platform.eurToRon();
+            final BigDecimal total = platform.commission().add(platform.vat());
+            this.values.put("platformInvoice", platform.serialNumber());
+            this.values.put(
+                "platformCommission", Row.euro(platform.commission())
+            );
+            this.values.put("vat", Row.euro(platform.vat()));
+            this.values.put("platformTotal", Row.euro(total));
+            if(rate != null) {
+                this.values.put("eurToRon", rate.movePointLeft(2));
+                this.values.put(
+                    "platformCommissionRon",
+                    StoredPlatformInvoice.euroToRon(
+                        platform.commission(), rate
+                    )
+                );
+                this.values.put(
+                    "vatRon",
+                    StoredPlatformInvoice.euroToRon(platform.vat(), rate)
+                );
+                this.values.put(
+                    "platformTotalRon",
+                    StoredPlatformInvoice.euroToRon(total, rate)
+                );
+            }
+        }
+
+        /**
+         * Cents to EUR.
+         * @param cents Value in cents.
+         * @return Value in EUR, with 2 decimals.
+         */
+        private static BigDecimal euro(final BigDecimal cents) {
+            return cents.movePointLeft(2).setScale(2, RoundingMode.HALF_UP);
+        }
+    }
+}
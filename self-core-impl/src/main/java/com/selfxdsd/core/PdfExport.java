@@ -0,0 +1,395 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core;
+
+import com.selfxdsd.api.Contracts;
+import com.selfxdsd.api.Invoice;
+import com.selfxdsd.api.Invoices;
+import com.selfxdsd.api.PlatformInvoice;
+import com.selfxdsd.api.PlatformInvoices;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bulk export of Invoices or PlatformInvoices as PDFs, either as a ZIP
+ * archive (one PDF per invoice) or merged into a single PDF.<br><br>
+ *
+ * The PDFs are rendered in parallel on a bounded pool, but only a few of
+ * them (twice the pool's size) are in memory at any time: they are written
+ * to the output, in order, as soon as they are ready. When merging, the
+ * rendered PDFs are kept in temporary files which are deleted at the end.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class PdfExport {
+
+    /**
+     * PDFs to export.
+     */
+    private final Supplier<Stream<Pdf>> pdfs;
+
+    /**
+     * Number of rendering threads.
+     */
+    private final int threads;
+
+    /**
+     * Ctor. Exports the given Invoices (e.g. the Invoices of a Contract).
+     * @param invoices Invoices.
+     */
+    public PdfExport(final Invoices invoices) {
+        this(() -> PdfExport.stream(invoices).map(PdfExport::pdf));
+    }
+
+    /**
+     * Ctor. Exports the Invoices of all the given Contracts (e.g. the
+     * Contracts of a Project).
+     * @param contracts Contracts.
+     */
+    public PdfExport(final Contracts contracts) {
+        this(
+            () -> PdfExport.stream(contracts).flatMap(
+                contract -> PdfExport.stream(contract.invoices())
+            ).map(PdfExport::pdf)
+        );
+    }
+
+    /**
+     * Ctor. Exports the given PlatformInvoices.
+     * @param invoices PlatformInvoices.
+     */
+    public PdfExport(final PlatformInvoices invoices) {
+        this(
+            () -> PdfExport.stream(invoices).map(
+                invoice -> new Pdf(
+                    invoice.serialNumber() + ".pdf",
+                    invoice.createdAt(),
+                    invoice::toPdf
+                )
+            )
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param pdfs PDFs to export.
+     */
+    private PdfExport(final Supplier<Stream<Pdf>> pdfs) {
+        this(
+            pdfs,
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()))
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param pdfs PDFs to export.
+     * @param threads Number of rendering threads.
+     */
+    private PdfExport(final Supplier<Stream<Pdf>> pdfs, final int threads) {
+        this.pdfs = pdfs;
+        this.threads = threads;
+    }
+
+    /**
+     * Export only the invoices created in the given interval.
+     * @param from Start, inclusive.
+     * @param until End, exclusive.
+     * @return PdfExport.
+     */
+    public PdfExport createdBetween(
+        final LocalDateTime from,
+        final LocalDateTime until
+    ) {
+        return new PdfExport(
+            () -> this.pdfs.get().filter(
+                pdf -> !pdf.createdAt.isBefore(from)
+                    && pdf.createdAt.isBefore(until)
+            ),
+            this.threads
+        );
+    }
+
+    /**
+     * Render the PDFs on the given number of threads.
+     * @param count Number of threads, at least 1.
+     * @return PdfExport.
+     */
+    public PdfExport threads(final int count) {
+        if(count < 1) {
+            throw new IllegalArgumentException(
+                "The number of threads must be at least 1."
+            );
+        }
+        return new PdfExport(this.pdfs, count);
+    }
+
+    /**
+     * Write a ZIP archive with one PDF entry per invoice.
+     * @param out Where to write the archive. It is not closed.
+     * @throws IOException If something goes wrong.
+     */
+    public void zip(final OutputStream out) throws IOException {
+        final ZipOutputStream zip = new ZipOutputStream(out);
+        this.render(
+            (pdf, bytes) -> {
+                zip.putNextEntry(new ZipEntry(pdf.name));
+                zip.write(bytes);
+                zip.closeEntry();
+            }
+        );
+        zip.finish();
+    }
+
+    /**
+     * Write all the invoices merged into a single PDF.
+     * @param out Where to write the PDF. It is not closed.
+     * @throws IOException If something goes wrong.
+     */
+    public void merge(final OutputStream out) throws IOException {
+        final Path dir = Files.createTempDirectory("self-pdf-export");
+        try {
+            final PDFMergerUtility merger = new PDFMergerUtility();
+            this.render(
+                (pdf, bytes) -> {
+                    final Path file = Files.createTempFile(dir, "pdf", ".pdf");
+                    Files.write(file, bytes);
+                    merger.addSource(file.toFile());
+                }
+            );
+            merger.setDestinationStream(out);
+            merger.mergeDocuments(MemoryUsageSetting.setupTempFileOnly());
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                files.forEach(PdfExport::delete);
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    /**
+     * Render the PDFs in parallel and hand them, in order, to the sink.
+     * At most twice the number of threads are in flight.
+     * @param sink Where the rendered PDFs go.
+     * @throws IOException If a PDF cannot be rendered or written.
+     */
+    private void render(final Sink sink) throws IOException {
+        final ExecutorService pool = Executors.newFixedThreadPool(
+            this.threads
+        );
+        final Deque<Pending> pending = new ArrayDeque<>();
+        try (Stream<Pdf> all = this.pdfs.get()) {
+            final Iterator<Pdf> pdfs = all.iterator();
+            while(pdfs.hasNext()) {
+                final Pdf pdf = pdfs.next();
+                pending.add(new Pending(pdf, pool.submit(pdf::bytes)));
+                if(pending.size() >= 2 * this.threads) {
+                    pending.poll().drain(sink);
+                }
+            }
+            while(!pending.isEmpty()) {
+                pending.poll().drain(sink);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Invoice as a PDF to export.
+     * @param invoice Invoice.
+     * @return Pdf.
+     */
+    private static Pdf pdf(final Invoice invoice) {
+        return new Pdf(
+            "SLFX-" + invoice.invoiceId() + ".pdf",
+            invoice.createdAt(),
+            invoice::toPdf
+        );
+    }
+
+    /**
+     * Sequential stream of an Iterable.
+     * @param iterable Iterable.
+     * @param <T> Type of the elements.
+     * @return Stream.
+     */
+    private static <T> Stream<T> stream(final Iterable<T> iterable) {
+        return StreamSupport.stream(iterable.spliterator(), false);
+    }
+
+    /**
+     * Delete a temporary file.
+     * @param file File.
+     */
+    private static void delete(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Writes a PDF somewhere.
+     */
+    private interface Render {
+
+        /**
+         * Write the PDF.
+         * @param out Output.
+         * @throws IOException If something goes wrong.
+         */
+        void toPdf(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Receives the rendered PDFs.
+     */
+    private interface Sink {
+
+        /**
+         * Receive a rendered PDF.
+         * @param pdf The PDF.
+         * @param bytes Its bytes.
+         * @throws IOException If something goes wrong.
+         */
+        void accept(Pdf pdf, byte[] bytes) throws IOException;
+    }
+
+    /**
+     * A PDF to export.
+     */
+    private static final class Pdf {
+
+        /**
+         * File name.
+         */
+        private final String name;
+
+        /**
+         * Creation time of the invoice.
+         */
+        private final LocalDateTime createdAt;
+
+        /**
+         * Renders the PDF.
+         */
+        private final Render render;
+
+        /**
+         * Ctor.
+         * @param name File name.
+         * @param createdAt Creation time of the invoice.
+         * @param render Renders the PDF.
+         */
+        Pdf(
+            final String name,
+            final LocalDateTime createdAt,
+            final Render render
+        ) {
+            this.name = name;
+            this.createdAt = createdAt;
+            this.render = render;
+        }
+
+        /**
+         * Render the PDF.
+         * @return Bytes.
+         * @throws IOException If something goes wrong.
+         */
+        byte[] bytes() throws IOException {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            this.render.toPdf(out);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * A PDF which is being rendered.
+     */
+    private static final class Pending {
+
+        /**
+         * The PDF.
+         */
+        private final Pdf pdf;
+
+        /**
+         * Its bytes, when ready.
+         */
+        private final Future<byte[]> bytes;
+
+        /**
+         * Ctor.
+         * @param pdf The PDF.
+         * @param bytes Its bytes, when ready.
+         */
+        Pending(final Pdf pdf, final Future<byte[]> bytes) {
+            this.pdf = pdf;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Wait for the PDF and hand it to the sink.
+         * @param sink Sink.
+         * @throws IOException If the PDF could not be rendered or written.
+         */
+        void drain(final Sink sink) throws IOException {
+            try {
+                sink.accept(this.pdf, this.bytes.get());
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(
+                    "Interrupted while rendering " + this.pdf.name
+                );
+            } catch (final ExecutionException ex) {
+                throw new IOException(
+                    "Could not render " + this.pdf.name, ex.getCause()
+                );
+            }
+        }
+    }
+}
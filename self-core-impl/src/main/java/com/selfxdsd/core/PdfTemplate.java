@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A PDF template from the classpath (e.g. the Invoice template). The
+ * template's bytes are read only once; each call of {@link #document()}
+ * parses them into a fresh, independent PDDocument, entirely in memory,
+ * so nothing is copied to temporary files. It is thread-safe.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class PdfTemplate {
+
+    /**
+     * Template of the Invoices.
+     */
+    public static final PdfTemplate INVOICE = new PdfTemplate(
+        "invoice_template.pdf"
+    );
+
+    /**
+     * Template of the PlatformInvoices.
+     */
+    public static final PdfTemplate PLATFORM_INVOICE = new PdfTemplate(
+        "platform_invoice_template.pdf"
+    );
+
+    /**
+     * Classpath resource.
+     */
+    private final String resource;
+
+    /**
+     * The template's bytes, read at the first use.
+     */
+    private volatile byte[] bytes;
+
+    /**
+     * Ctor.
+     * @param resource Classpath resource.
+     */
+    public PdfTemplate(final String resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * A fresh PDDocument of this template. The caller fills it in and
+     * has to close it.
+     * @return PDDocument.
+     * @throws IOException If the template cannot be read or parsed.
+     */
+    public PDDocument document() throws IOException {
+        return PDDocument.load(this.bytes());
+    }
+
+    /**
+     * The template's bytes, read from the classpath only once.
+     * @return Bytes. They must not be modified.
+     * @throws IOException If the template cannot be read.
+     */
+    private byte[] bytes() throws IOException {
+        byte[] read = this.bytes;
+        if(read == null) {
+            synchronized (this) {
+                read = this.bytes;
+                if(read == null) {
+                    try (InputStream stream = PdfTemplate.class
+                        .getClassLoader()
+                        .getResourceAsStream(this.resource)) {
+                        if(stream == null) {
+                            throw new IOException(
+                                "PDF template " + this.resource
+                                + " not found on the classpath."
+                            );
+                        }
+                        read = stream.readAllBytes();
+                    }
+                    this.bytes = read;
+                }
+            }
+        }
+        return read;
+    }
+}
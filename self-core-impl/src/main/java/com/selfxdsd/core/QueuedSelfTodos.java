@@ -0,0 +1,660 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core;
+
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.SelfTodos;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SelfTodos which forwards the push events asynchronously, so the webhook
+ * thread is never blocked by self-todos.<br><br>
+ *
+ * Only the latest push of a repo matters for PDD scanning, so a push
+ * replaces the repo's push which is still waiting. A failed push is
+ * retried, with backoff; if it still fails, self-todos is considered
+ * down: the push is spilled to disk and the next ones are tried only
+ * once, until one goes through. The spilled pushes (and those which didn't
+ * fit in the queue) are loaded back after a push goes through. While
+ * self-todos is down and no push arrives, one spilled push is loaded back
+ * periodically, to find out when self-todos is up again.
+ * Without a spill directory, they are dropped.<br><br>
+ *
+ * A spilled push is forced to disk before it is moved into the spill
+ * directory, so it is never partial. A push which failed is older than
+ * a push of the same repo which arrived meanwhile (waiting or spilled),
+ * so it is only spilled if there is no such push.<br><br>
+ *
+ * An exception thrown while forwarding a push counts as a failed attempt,
+ * it never stops the forwarding thread.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ * @checkstyle ClassDataAbstractionCoupling (500 lines)
+ * @checkstyle ClassFanOutComplexity (500 lines)
+ * @checkstyle IllegalCatch (500 lines)
+ */
+public final class QueuedSelfTodos implements SelfTodos, AutoCloseable {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(
+        QueuedSelfTodos.class
+    );
+
+    /**
+     * Extension of the spilled pushes.
+     */
+    private static final String EXTENSION = ".push";
+
+    /**
+     * Returned by {@link #next()} when it is time to retry a spilled push.
+     */
+    private static final Push RETRY = new Push("", "", new byte[0]);
+
+    /**
+     * Forwards a push to self-todos.
+     */
+    private final Forward forward;
+
+    /**
+     * Spill directory, can be null.
+     */
+    private final Path spill;
+
+    /**
+     * How many repos can wait in memory.
+     */
+    private final int capacity;
+
+    /**
+     * How many times a push is tried while self-todos is up.
+     */
+    private final int attempts;
+
+    /**
+     * Delay before the first retry, doubled after each one.
+     */
+    private final Duration backoff;
+
+    /**
+     * How often a spilled push is retried while self-todos is down.
+     */
+    private final Duration retry;
+
+    /**
+     * Waiting pushes, per repo, in the order they arrived.
+     */
+    private final Map<String, Push> pending = new LinkedHashMap<>();
+
+    /**
+     * Lock for the spill directory. It is never taken while holding
+     * the lock of this object.
+     */
+    private final Object disk = new Object();
+
+    /**
+     * Forwarding thread.
+     */
+    private final Thread worker;
+
+    /**
+     * Number of pushes replaced by a later one of the same repo.
+     */
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Number of spilled pushes.
+     */
+    private final AtomicLong spilled = new AtomicLong();
+
+    /**
+     * Number of dropped pushes.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Number of forwarded pushes.
+     */
+    private final AtomicLong forwarded = new AtomicLong();
+
+    /**
+     * Is self-todos down?
+     */
+    private boolean down;
+
+    /**
+     * Is this closed?
+     */
+    private boolean closed;
+
+    /**
+     * Ctor. Up to 1000 repos wait in memory; a push is tried 3 times,
+     * 1 second apart at first. While self-todos is down, a spilled push is
+     * retried every minute.
+     * @param todos Self-todos.
+     * @param spill Spill directory, can be null.
+     */
+    public QueuedSelfTodos(final RestfulSelfTodos todos, final Path spill) {
+        this(todos::forward, spill, 1000, 3, Duration.ofSeconds(1));
+    }
+
+    /**
+     * Ctor. While self-todos is down, a spilled push is retried every
+     * minute.
+     * @param forward Forwards a push to self-todos.
+     * @param spill Spill directory, can be null.
+     * @param capacity How many repos can wait in memory.
+     * @param attempts How many times a push is tried while self-todos
+     *  is up.
+     * @param backoff Delay before the first retry, doubled after each one.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    QueuedSelfTodos(
+        final Forward forward,
+        final Path spill,
+        final int capacity,
+        final int attempts,
+        final Duration backoff
+    ) {
+        this(
+            forward, spill, capacity, attempts, backoff, Duration.ofMinutes(1)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param forward Forwards a push to self-todos.
+     * @param spill Spill directory, can be null.
+     * @param capacity How many repos can wait in memory.
+     * @param attempts How many times a push is tried while self-todos
+     *  is up.
+     * @param backoff Delay before the first retry, doubled after each one.
+     * @param retry How often a spilled push is retried while self-todos
+     *  is down.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    QueuedSelfTodos(
+        final Forward forward,
+        final Path spill,
+        final int capacity,
+        final int attempts,
+        final Duration backoff,
+        final Duration retry
+    ) {
+        this.forward = forward;
+        this.spill = spill;
+        this.capacity = capacity;
+        this.attempts = attempts;
+        this.backoff = backoff;
+        this.retry = retry;
+        this.worker = new Thread(this::work, "selftodos");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void post(final Project project, final String push) {
+        this.post(project, push.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void post(final Project project, final byte[] push) {
+        this.offer(
+            new Push(project.provider(), project.repoFullName(), push)
+        );
+    }
+
+    /**
+     * Number of repos with a push waiting in memory.
+     * @return Integer.
+     */
+    public synchronized int depth() {
+        return this.pending.size();
+    }
+
+    /**
+     * Number of pushes replaced by a later one of the same repo.
+     * @return Long.
+     */
+    public long coalesced() {
+        return this.coalesced.get();
+    }
+
+    /**
+     * Number of pushes spilled to disk.
+     * @return Long.
+     */
+    public long spilled() {
+        return this.spilled.get();
+    }
+
+    /**
+     * Number of dropped pushes.
+     * @return Long.
+     */
+    public long dropped() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Number of pushes forwarded to self-todos.
+     * @return Long.
+     */
+    public long forwarded() {
+        return this.forwarded.get();
+    }
+
+    /**
+     * Stop accepting pushes, forward (once) the waiting ones and spill
+     * whatever is left.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            this.closed = true;
+            this.notifyAll();
+        }
+        this.worker.join(Duration.ofSeconds(30).toMillis());
+        final List<Push> left;
+        synchronized (this) {
+            left = List.copyOf(this.pending.values());
+            this.pending.clear();
+        }
+        left.forEach(this::spill);
+    }
+
+    /**
+     * Queue a push, replacing the repo's waiting push, if any.
+     * @param push Push.
+     */
+    private void offer(final Push push) {
+        final boolean queued;
+        synchronized (this) {
+            if(this.closed) {
+                queued = false;
+            } else if(this.pending.containsKey(push.key)) {
+                this.pending.put(push.key, push);
+                this.coalesced.incrementAndGet();
+                queued = true;
+            } else if(this.pending.size() < this.capacity) {
+                this.pending.put(push.key, push);
+                this.notifyAll();
+                queued = true;
+            } else {
+                queued = false;
+            }
+        }
+        if(!queued) {
+            this.spill(push);
+        }
+    }
+
+    /**
+     * Forward the waiting pushes, until closed.
+     */
+    private void work() {
+        Push next = this.next();
+        while(next != null) {
+            try {
+                if(next == RETRY) {
+                    this.reload(1);
+                } else {
+                    this.deliver(next);
+                }
+            } catch (final RuntimeException ex) {
+                LOG.error("Unexpected error while forwarding pushes.", ex);
+            }
+            next = this.next();
+        }
+    }
+
+    /**
+     * Forward a push. If it goes through, reload the spilled pushes,
+     * otherwise spill it, unless a newer push of the repo arrived
+     * meanwhile.
+     * @param push Push.
+     */
+    private void deliver(final Push push) {
+        if(this.send(push)) {
+            this.forwarded.incrementAndGet();
+            this.reload(this.capacity);
+        } else {
+            synchronized (this.disk) {
+                final boolean newer;
+                synchronized (this) {
+                    newer = this.pending.containsKey(push.key);
+                }
+                if(newer || this.spill != null
+                    && Files.exists(this.file(push.key))) {
+                    this.coalesced.incrementAndGet();
+                } else {
+                    this.spill(push);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait for the next push. While self-todos is down and there are
+     * spilled pushes, the wait is bounded, so one of them is retried.
+     * @return Push, {@link #RETRY} or null if this was closed and nothing
+     *  is waiting.
+     */
+    private synchronized Push next() {
+        boolean retrying = false;
+        while(this.pending.isEmpty() && !this.closed && !retrying) {
+            try {
+                if(this.down && this.spill != null) {
+                    this.wait(this.retry.toMillis());
+                    retrying = this.pending.isEmpty() && this.down;
+                } else {
+                    this.wait();
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                this.closed = true;
+            }
+        }
+        Push next = null;
+        if(retrying && !this.closed) {
+            next = RETRY;
+        }
+        final Iterator<Push> oldest = this.pending.values().iterator();
+        if(oldest.hasNext()) {
+            next = oldest.next();
+            oldest.remove();
+        }
+        return next;
+    }
+
+    /**
+     * Send a push, retrying with backoff while self-todos is up.
+     * @param push Push.
+     * @return True if it was forwarded.
+     */
+    private boolean send(final Push push) {
+        final int tries;
+        synchronized (this) {
+            if(this.down || this.closed) {
+                tries = 1;
+            } else {
+                tries = this.attempts;
+            }
+        }
+        boolean sent = this.attempt(push);
+        long delay = this.backoff.toMillis();
+        for(int attempt = 1; !sent && attempt < tries; ++attempt) {
+            if(QueuedSelfTodos.pause(delay)) {
+                sent = this.attempt(push);
+            }
+            delay = delay * 2;
+        }
+        synchronized (this) {
+            if(sent && this.down) {
+                LOG.info("SelfTodos is up again.");
+            } else if(!sent && !this.down) {
+                LOG.warn("SelfTodos is down, spilling push events.");
+            }
+            this.down = !sent;
+        }
+        return sent;
+    }
+
+    /**
+     * Try to forward a push once. An exception counts as a failure.
+     * @param push Push.
+     * @return True if it was forwarded.
+     */
+    private boolean attempt(final Push push) {
+        boolean sent;
+        try {
+            sent = this.forward.forward(push.provider, push.repo, push.body);
+        } catch (final RuntimeException ex) {
+            LOG.error("Could not forward push event of " + push.key, ex);
+            sent = false;
+        }
+        return sent;
+    }
+
+    /**
+     * Spill a push to disk, replacing the repo's spilled push, if any.
+     * It is written to a temporary file, forced to disk and then moved.
+     * @param push Push.
+     */
+    private void spill(final Push push) {
+        if(this.spill == null) {
+            this.dropped.incrementAndGet();
+            LOG.warn("Dropping push event of " + push.key + ".");
+        } else {
+            final Path file = this.file(push.key);
+            final Path temp = this.spill.resolve(
+                URLEncoder.encode(push.key, StandardCharsets.UTF_8) + ".tmp"
+            );
+            synchronized (this.disk) {
+                try {
+                    try (FileChannel out = FileChannel.open(
+                        temp,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE
+                    )) {
+                        final ByteBuffer buffer = ByteBuffer.wrap(push.body);
+                        while(buffer.hasRemaining()) {
+                            out.write(buffer);
+                        }
+                        out.force(true);
+                    }
+                    Files.move(
+                        temp,
+                        file,
+                        StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE
+                    );
+                    this.spilled.incrementAndGet();
+                } catch (final IOException ex) {
+                    this.dropped.incrementAndGet();
+                    LOG.error(
+                        "Could not spill push event of " + push.key, ex
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * File of a repo's spilled push.
+     * @param key Key of the repo.
+     * @return Path.
+     */
+    private Path file(final String key) {
+        return this.spill.resolve(
+            URLEncoder.encode(key, StandardCharsets.UTF_8) + EXTENSION
+        );
+    }
+
+    /**
+     * Load the spilled pushes back into the queue, as long as there is
+     * room. A spilled push is older than the repo's waiting push, if any,
+     * so it is only deleted in that case. A spilled push is read and
+     * deleted under the spill lock, so a newer one spilled meanwhile is
+     * not deleted with it.
+     * @param max Maximum number of spilled pushes to load.
+     */
+    private void reload(final int max) {
+        final Iterator<Path> files = QueuedSelfTodos.spilled(this.spill)
+            .iterator();
+        int count = 0;
+        while(count < max && files.hasNext()) {
+            final Path file = files.next();
+            final String name = file.getFileName().toString();
+            final String[] key = URLDecoder.decode(
+                name.substring(0, name.length() - EXTENSION.length()),
+                StandardCharsets.UTF_8
+            ).split("/", 2);
+            synchronized (this.disk) {
+                try {
+                    if(this.load(new Push(
+                        key[0], key[1], Files.readAllBytes(file)
+                    ))) {
+                        Files.deleteIfExists(file);
+                        ++count;
+                    }
+                } catch (final IOException ex) {
+                    LOG.error("Could not reload spilled push " + file, ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Queue a spilled push, if its repo is already waiting (then the
+     * waiting push is newer and stays) or if there is room.
+     * @param push Spilled push.
+     * @return True if the spilled push can be deleted.
+     */
+    private synchronized boolean load(final Push push) {
+        final boolean loaded = this.pending.containsKey(push.key)
+            || this.pending.size() < this.capacity;
+        if(loaded) {
+            this.pending.putIfAbsent(push.key, push);
+            this.notifyAll();
+        }
+        return loaded;
+    }
+
+    /**
+     * Wait before retrying.
+     * @param millis Milliseconds.
+     * @return False if interrupted, so it should not retry.
+     */
+    private static boolean pause(final long millis) {
+        boolean paused;
+        try {
+            Thread.sleep(millis);
+            paused = true;
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            paused = false;
+        }
+        return paused;
+    }
+
+    /**
+     * Spilled pushes.
+     * @param spill Spill directory, can be null.
+     * @return Files.
+     */
+    private static List<Path> spilled(final Path spill) {
+        final List<Path> files;
+        if(spill == null) {
+            files = List.of();
+        } else {
+            try (Stream<Path> all = Files.list(spill)) {
+                files = all.filter(
+                    file -> file.getFileName().toString().endsWith(EXTENSION)
+                ).collect(Collectors.toList());
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Forwards a push to self-todos.
+     */
+    interface Forward {
+
+        /**
+         * Forward the push.
+         * @param provider Provider of the Project.
+         * @param repo Full name of the Project's repo.
+         * @param push Push event, UTF-8 bytes.
+         * @return True if self-todos accepted it.
+         */
+        boolean forward(String provider, String repo, byte[] push);
+    }
+
+    /**
+     * A push event.
+     */
+    private static final class Push {
+
+        /**
+         * Provider.
+         */
+        private final String provider;
+
+        /**
+         * Repo full name.
+         */
+        private final String repo;
+
+        /**
+         * Key of the repo.
+         */
+        private final String key;
+
+        /**
+         * Payload.
+         */
+        private final byte[] body;
+
+        /**
+         * Ctor.
+         * @param provider Provider.
+         * @param repo Repo full name.
+         * @param body Payload.
+         */
+        Push(final String provider, final String repo, final byte[] body) {
+            this.provider = provider;
+            this.repo = repo;
+            this.key = provider + "/" + repo;
+            this.body = body;
+        }
+    }
+}
@@ -27,10 +27,9 @@ import com.selfxdsd.api.SelfTodos;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.json.Json;
-import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Restful self-todos.
@@ -78,8 +77,31 @@ public final class RestfulSelfTodos implements SelfTodos {
 
     @Override
     public void post(final Project project, final String push) {
-        final String provider = project.provider();
-        final String repoFullName = project.repoFullName();
+        this.post(project, push.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The payload is forwarded as it is, without being parsed.
+     */
+    @Override
+    public void post(final Project project, final byte[] push) {
+        this.forward(project.provider(), project.repoFullName(), push);
+    }
+
+    /**
+     * Forward the push event to self-todos.
+     * @param provider Provider of the Project.
+     * @param repoFullName Full name of the Project's repo.
+     * @param push Push event, UTF-8 bytes.
+     * @return True if self-todos accepted it, false otherwise.
+     */
+    boolean forward(
+        final String provider,
+        final String repoFullName,
+        final byte[] push
+    ) {
         final URI pdd = URI.create(
             this.uri.toString() + "/pdd/" + provider + "/" + repoFullName
         );
@@ -87,13 +109,12 @@ public final class RestfulSelfTodos implements SelfTodos {
             "Posting PUSH event from " + repoFullName + " at " + provider + " "
             + "to self-todos at [" + pdd.toString() + "]..."
         );
+        boolean forwarded = false;
         try {
-            final Resource response = this.resources.post(
-                pdd,
-                Json.createReader(new StringReader(push)).readObject()
-            );
+            final Resource response = this.resources.post(pdd, push);
             if (response.statusCode() == HttpURLConnection.HTTP_OK) {
                 LOG.debug("Post successful!");
+                forwarded = true;
             } else {
                 LOG.warn(
                     "Post received response status code "
@@ -106,5 +127,6 @@ public final class RestfulSelfTodos implements SelfTodos {
                 ex
             );
         }
+        return forwarded;
     }
 }
@@ -29,7 +29,8 @@ import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDDocumentCatalog;
 import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.NumberFormat;
@@ -159,6 +160,11 @@ public final class StoredPlatformInvoice implements PlatformInvoice {
         return this.vat;
     }
 
+    @Override
+    public BigDecimal eurToRon() {
+        return this.eurToRon;
+    }
+
     @Override
     public Invoice invoice() {
         return this.storage.invoices().getById(this.invoiceId);
@@ -176,9 +182,7 @@ public final class StoredPlatformInvoice implements PlatformInvoice {
 
     @Override
     public void toPdf(final OutputStream outputStream) throws IOException {
-        final PDDocument doc = PDDocument.load(
-            this.getResourceAsFile("platform_invoice_template.pdf")
-        );
+        final PDDocument doc = PdfTemplate.PLATFORM_INVOICE.document();
         final PDDocumentCatalog docCatalog = doc.getDocumentCatalog();
         final PDAcroForm acroForm = docCatalog.getAcroForm();
 
@@ -257,36 +261,23 @@ public final class StoredPlatformInvoice implements PlatformInvoice {
      * @return Value in RON.
      */
     private BigDecimal euroToRon(final BigDecimal euro) {
-        return euro.multiply(this.eurToRon).divide(
-            BigDecimal.valueOf(10000),
-            2,
-            RoundingMode.HALF_UP
-        );
+        return StoredPlatformInvoice.euroToRon(euro, this.eurToRon);
     }
 
     /**
-     * Convenience method to get the PDF template resource as a File.
-     * @param resourcePath Name of the file.
-     * @throws IOException If something goes wrong.
-     * @return File.
+     * Convert Euro cents to RON, at the given exchange rate.
+     * @param euro Value in EUR cents.
+     * @param eurToRon Exchange rate (487 means 1 EUR = 4,87 RON).
+     * @return Value in RON, with 2 decimals.
      */
-    private File getResourceAsFile(
-        final String resourcePath
-    ) throws IOException {
-        final InputStream stream = this.getClass().getClassLoader()
-            .getResourceAsStream(resourcePath);
-        final File tempFile = File.createTempFile(
-            String.valueOf(stream.hashCode()), ".tmp"
+    static BigDecimal euroToRon(
+        final BigDecimal euro,
+        final BigDecimal eurToRon
+    ) {
+        return euro.multiply(eurToRon).divide(
+            BigDecimal.valueOf(10000),
+            2,
+            RoundingMode.HALF_UP
         );
-        tempFile.deleteOnExit();
-
-        try (FileOutputStream out = new FileOutputStream(tempFile)) {
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-            while ((bytesRead = stream.read(buffer)) != -1) {
-                out.write(buffer, 0, bytesRead);
-            }
-        }
-        return tempFile;
     }
 }
@@ -25,9 +25,10 @@ package com.selfxdsd.core.contracts;
 import com.selfxdsd.api.Contract;
 import com.selfxdsd.api.Contracts;
 import com.selfxdsd.api.Contributor;
-import com.selfxdsd.api.Project;
 import com.selfxdsd.api.exceptions.ContractsException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ContractKey;
+import com.selfxdsd.core.keys.ProjectKey;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -82,15 +83,11 @@ public final class ContributorContracts implements Contracts {
         final String repoFullName,
         final String repoProvider
     ) {
+        final ProjectKey project = new ProjectKey(repoFullName, repoProvider);
         final Supplier<Stream<Contract>> ofProject = () -> this.contracts
             .get()
             .filter(
-                contract -> {
-                    final Project project = contract.project();
-                    //LineLength (1 line)
-                    return project.repoFullName().equalsIgnoreCase(repoFullName)
-                        && project.provider().equalsIgnoreCase(repoProvider);
-                }
+                contract -> project.matches(contract.project())
             );
         return new ProjectContracts(
             repoFullName, repoProvider, ofProject, this.storage
@@ -127,11 +124,10 @@ public final class ContributorContracts implements Contracts {
 
     @Override
     public Contract findById(final Contract.Id id) {
+        final ContractKey key = new ContractKey(id);
         return this.contracts.get()
-            .filter(c -> new Contract.Id(c.project().repoFullName(),
-                c.contributor().username(),
-                c.project().provider(),
-                c.role()).equals(id)).findFirst()
+            .filter(c -> key.matches(c))
+            .findFirst()
             .orElse(null);
     }
 
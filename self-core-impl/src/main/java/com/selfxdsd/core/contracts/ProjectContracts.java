@@ -27,6 +27,7 @@ import com.selfxdsd.api.Contracts;
 import com.selfxdsd.api.Contributor;
 import com.selfxdsd.api.exceptions.ContractsException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ContractKey;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -145,11 +146,10 @@ public final class ProjectContracts implements Contracts {
 
     @Override
     public Contract findById(final Contract.Id id) {
+        final ContractKey key = new ContractKey(id);
         return this.contracts.get()
-            .filter(c -> new Contract.Id(c.project().repoFullName(),
-                c.contributor().username(),
-                c.project().provider(),
-                c.role()).equals(id)).findFirst()
+            .filter(c -> key.matches(c))
+            .findFirst()
             .orElse(null);
     }
 
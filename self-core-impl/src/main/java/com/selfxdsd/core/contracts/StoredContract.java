@@ -43,14 +43,16 @@ public final class StoredContract implements Contract {
     private final Contract.Id id;
 
     /**
-     * Project of this Contract.
+     * Project of this Contract. If not given in the ctor, it is read
+     * from the Storage the first time it's needed, then memoized.
      */
-    private final Project project;
+    private Project project;
 
     /**
-     * Contributor of this Contract.
+     * Contributor of this Contract. If not given in the ctor, it is read
+     * from the Storage the first time it's needed, then memoized.
      */
-    private final Contributor contributor;
+    private Contributor contributor;
 
     /**
      * Project ID.
@@ -135,15 +137,12 @@ public final class StoredContract implements Contract {
      */
     @Override
     public Project project() {
-        final Project proj;
         if(this.project == null) {
-            proj = this.storage.projects().getProjectById(
+            this.project = this.storage.projects().getProjectById(
                 this.id.getRepoFullName(), this.id.getProvider()
             );
-        } else {
-            proj = this.project;
         }
-        return proj;
+        return this.project;
     }
 
     /**
@@ -153,15 +152,12 @@ public final class StoredContract implements Contract {
      */
     @Override
     public Contributor contributor() {
-        final Contributor cont;
         if(this.contributor == null) {
-            cont = this.storage.contributors().getById(
+            this.contributor = this.storage.contributors().getById(
                 this.id.getContributorUsername(), this.id.getProvider()
             );
-        } else {
-            cont = this.contributor;
         }
-        return cont;
+        return this.contributor;
     }
 
     /**
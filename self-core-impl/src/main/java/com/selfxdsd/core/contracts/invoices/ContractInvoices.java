@@ -105,6 +105,16 @@ public final class ContractInvoices implements Invoices {
         );
     }
 
+    @Override
+    public int failedPayments(final Invoice invoice) {
+        return this.storage.invoices().failedPayments(invoice);
+    }
+
+    @Override
+    public void registerFailedPayment(final Invoice invoice) {
+        this.storage.invoices().registerFailedPayment(invoice);
+    }
+
     @Override
     public Invoice getById(final int id) {
         Invoice found = null;
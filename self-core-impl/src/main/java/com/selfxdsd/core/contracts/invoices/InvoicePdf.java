@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.contracts.invoices;
+
+import com.selfxdsd.core.PdfTemplate;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentCatalog;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * PDF of an Invoice, rendered from its snapshot (see
+ * {@link SealedInvoice#snapshot(com.selfxdsd.api.Invoice)}), so a live
+ * and a sealed Invoice look the same. A live Invoice is rendered from a
+ * snapshot with only the lines which fit on the page.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ * @checkstyle ExecutableStatementCount (200 lines)
+ * @checkstyle TrailingComment (200 lines)
+ * @todo #826:60min Modify the PDF template and the code in write()
+ *  such that more tasks are written on more pages. At the moment
+ *  only 40 tasks are written to the 1-page PDF.
+ */
+final class InvoicePdf {
+
+    /**
+     * How many tasks fit on the page.
+     */
+    static final int LINES = 40;
+
+    /**
+     * Snapshot of the Invoice.
+     */
+    private final JsonObject snapshot;
+
+    /**
+     * Ctor.
+     * @param snapshot Snapshot of the Invoice.
+     */
+    InvoicePdf(final JsonObject snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Write the PDF.
+     * @param out Output.
+     * @throws IOException If any I/O problems.
+     */
+    void write(final OutputStream out) throws IOException {
+        final PDDocument doc = PdfTemplate.INVOICE.document();
+        final PDDocumentCatalog docCatalog = doc.getDocumentCatalog();
+        final PDAcroForm acroForm = docCatalog.getAcroForm();
+
+        acroForm.getField("invoiceId").setValue(
+            "SLFX-" + this.snapshot.getInt("id")
+        );
+        acroForm.getField("createdAt").setValue(
+            SealedInvoice.date(this.snapshot, "created")
+                .toLocalDate().toString()
+        );
+        acroForm.getField("billedBy").setValue(
+            SealedInvoice.string(this.snapshot, "billedBy")
+        );
+        acroForm.getField("billedTo").setValue(
+            SealedInvoice.string(this.snapshot, "billedTo")
+        );
+        acroForm.getField("project").setValue(
+            this.snapshot.getString("project")
+        );
+        acroForm.getField("role").setValue(this.snapshot.getString("role"));
+        acroForm.getField("hourlyRate").setValue(
+            InvoicePdf.euro(SealedInvoice.decimal(this.snapshot, "rate"))
+        );
+        acroForm.getField("totalDue").setValue(
+            InvoicePdf.euro(
+                SealedInvoice.decimal(this.snapshot, "amount").add(
+                    SealedInvoice.decimal(this.snapshot, "commission")
+                )
+            )
+        );
+        if(SealedInvoice.date(this.snapshot, "paid") != null) {
+            acroForm.getField("status").setValue("Paid");
+        } else {
+            acroForm.getField("status").setValue("Active (not paid)");
+        }
+        final StringBuilder taskIds = new StringBuilder();
+        final StringBuilder estimations = new StringBuilder();
+        final StringBuilder values = new StringBuilder();
+        final StringBuilder commissions = new StringBuilder();
+
+        final JsonArray lines = this.snapshot.getJsonArray("lines");
+        int count = 0;
+        for(final JsonArray line : lines.getValuesAs(JsonArray.class)) {
+            if(count == LINES) {
+                break;
+            }
+            taskIds.append(line.getString(0)).append("\n");
+            estimations.append(line.getInt(1)).append("\n");
+            values.append(
+                line.getJsonNumber(2).bigDecimalValue()
+                    .divide(BigDecimal.valueOf(100))
+            ).append("\n");
+            commissions.append(
+                line.getJsonNumber(3).bigDecimalValue()
+                    .divide(BigDecimal.valueOf(100))
+            ).append("\n");
+            count++;
+        }
+        if(this.snapshot.getInt("tasks", lines.size()) > count) {
+            taskIds.append("...");
+            estimations.append("...");
+            values.append("...");
+            commissions.append("...");
+        }
+
+        acroForm.getField("taskIds").setValue(taskIds.toString());
+        acroForm.getField("estimations").setValue(estimations.toString());
+        acroForm.getField("values").setValue(values.toString());
+        acroForm.getField("commissions").setValue(commissions.toString());
+
+        acroForm.flatten();
+
+        doc.addPage(docCatalog.getPages().get(0));
+        doc.removePage(1); //remove trailing blank page
+
+        doc.save(out);
+        doc.close();
+    }
+
+    /**
+     * Format cents as Euro.
+     * @param cents Amount in cents.
+     * @return Formatted amount.
+     */
+    private static String euro(final BigDecimal cents) {
+        return NumberFormat
+            .getCurrencyInstance(Locale.GERMANY)
+            .format(cents.divide(BigDecimal.valueOf(100)));
+    }
+}
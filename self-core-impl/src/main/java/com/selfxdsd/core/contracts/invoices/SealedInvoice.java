@@ -0,0 +1,386 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.contracts.invoices;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.storage.Storage;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A paid Invoice, frozen at payment time. Its attributes, task lines
+ * and totals are read from a JSON snapshot taken once, when the Invoice
+ * is registered as paid, so reading or rendering a historical Invoice
+ * no longer queries the InvoicedTasks, the Tasks or Stripe. Only
+ * {@link #tasks()} still goes to the Storage.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class SealedInvoice implements Invoice {
+
+    /**
+     * Contract.
+     */
+    private final Contract contract;
+
+    /**
+     * The snapshot.
+     */
+    private final JsonObject seal;
+
+    /**
+     * Self storage context.
+     */
+    private final Storage storage;
+
+    /**
+     * Creation time.
+     */
+    private final LocalDateTime createdAt;
+
+    /**
+     * Payment time.
+     */
+    private final LocalDateTime paymentTime;
+
+    /**
+     * Totals of the invoiced tasks.
+     */
+    private final Totals totals;
+
+    /**
+     * Ctor.
+     * @param contract Contract.
+     * @param seal The snapshot, as returned by {@link #json()}.
+     * @param storage Self storage context.
+     */
+    public SealedInvoice(
+        final Contract contract,
+        final JsonObject seal,
+        final Storage storage
+    ) {
+        this.contract = contract;
+        this.seal = seal;
+        this.storage = storage;
+        this.createdAt = SealedInvoice.date(seal, "created");
+        this.paymentTime = SealedInvoice.date(seal, "paid");
+        this.totals = new Totals(
+            SealedInvoice.decimal(seal, "amount"),
+            SealedInvoice.decimal(seal, "commission"),
+            seal.getInt("tasks", seal.getJsonArray("lines").size())
+        );
+    }
+
+    /**
+     * Seal a paid Invoice: take the snapshot of its task lines and totals.
+     * @param paid Paid Invoice.
+     * @param storage Self storage context.
+     * @return SealedInvoice.
+     * @throws IllegalArgumentException If the Invoice is not paid.
+     */
+    public static SealedInvoice seal(
+        final Invoice paid,
+        final Storage storage
+    ) {
+        if(!paid.isPaid()) {
+            throw new IllegalArgumentException(
+                "Invoice #" + paid.invoiceId() + " is not paid, "
+                + "it cannot be sealed."
+            );
+        }
+        return new SealedInvoice(
+            paid.contract(), SealedInvoice.snapshot(paid), storage
+        );
+    }
+
+    /**
+     * The snapshot, to be stored along with the Invoice.
+     * @return JsonObject.
+     */
+    public JsonObject json() {
+        return this.seal;
+    }
+
+    @Override
+    public int invoiceId() {
+        return this.seal.getInt("id");
+    }
+
+    @Override
+    public InvoicedTask register(
+        final Task task,
+        final BigDecimal commission
+    ) {
+        throw new IllegalStateException(
+            "Invoice is already paid, can't add a new Task to it!"
+        );
+    }
+
+    @Override
+    public Contract contract() {
+        return this.contract;
+    }
+
+    @Override
+    public LocalDateTime createdAt() {
+        return this.createdAt;
+    }
+
+    @Override
+    public LocalDateTime paymentTime() {
+        return this.paymentTime;
+    }
+
+    @Override
+    public String transactionId() {
+        return SealedInvoice.string(this.seal, "transaction");
+    }
+
+    @Override
+    public String billedBy() {
+        return SealedInvoice.string(this.seal, "billedBy");
+    }
+
+    @Override
+    public String billedTo() {
+        return SealedInvoice.string(this.seal, "billedTo");
+    }
+
+    @Override
+    public InvoicedTasks tasks() {
+        return this.storage.invoicedTasks().ofInvoice(this);
+    }
+
+    @Override
+    public boolean isPaid() {
+        return this.paymentTime != null && this.transactionId() != null;
+    }
+
+    @Override
+    public PlatformInvoice platformInvoice() {
+        final PlatformInvoice found;
+        final String transaction = this.transactionId();
+        if(transaction.startsWith("fake_payment_")) {
+            found = null;
+        } else {
+            found = this.storage.platformInvoices().getByPayment(
+                transaction, this.paymentTime
+            );
+        }
+        return found;
+    }
+
+    @Override
+    public void toPdf(final OutputStream out) throws IOException {
+        new InvoicePdf(this.seal).write(out);
+    }
+
+    @Override
+    public Totals totals() {
+        return this.totals;
+    }
+
+    @Override
+    public BigDecimal totalAmount() {
+        return this.totals.total();
+    }
+
+    @Override
+    public BigDecimal amount() {
+        return this.totals.amount();
+    }
+
+    @Override
+    public BigDecimal commission() {
+        return this.totals.commission();
+    }
+
+    @Override
+    public int hashCode() {
+        return this.invoiceId();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return this == obj || (obj instanceof Invoice
+            && this.invoiceId() == ((Invoice) obj).invoiceId());
+    }
+
+    /**
+     * Snapshot of an Invoice: its attributes, the Contract's details
+     * printed on it, one line per invoiced task ([issue id, estimation,
+     * value, commission]) and the totals of the lines. The tasks are
+     * read once.
+     * @param invoice Invoice.
+     * @return JsonObject.
+     */
+    static JsonObject snapshot(final Invoice invoice) {
+        final JsonArrayBuilder lines = Json.createArrayBuilder();
+        BigDecimal amount = BigDecimal.valueOf(0);
+        BigDecimal commission = BigDecimal.valueOf(0);
+        int count = 0;
+        for(final InvoicedTask invoiced : invoice.tasks()) {
+            lines.add(SealedInvoice.line(invoiced));
+            amount = amount.add(invoiced.value());
+            commission = commission.add(invoiced.commission());
+            count = count + 1;
+        }
+        return SealedInvoice.snapshot(
+            invoice, lines, new Totals(amount, commission, count)
+        );
+    }
+
+    /**
+     * Snapshot of an Invoice with only its first lines (e.g. the ones
+     * which fit in the PDF), so the Task of every other invoiced task is
+     * not read. The totals are those of all the tasks.
+     * @param invoice Invoice.
+     * @param limit Maximum number of lines.
+     * @return JsonObject.
+     */
+    static JsonObject snapshot(final Invoice invoice, final int limit) {
+        final JsonArrayBuilder lines = Json.createArrayBuilder();
+        int count = 0;
+        for(final InvoicedTask invoiced : invoice.tasks()) {
+            if(count == limit) {
+                break;
+            }
+            lines.add(SealedInvoice.line(invoiced));
+            count = count + 1;
+        }
+        return SealedInvoice.snapshot(invoice, lines, invoice.totals());
+    }
+
+    /**
+     * Line of an invoiced task: [issue id, estimation, value, commission].
+     * @param invoiced Invoiced task.
+     * @return JsonArrayBuilder.
+     */
+    private static JsonArrayBuilder line(final InvoicedTask invoiced) {
+        final Task task = invoiced.task();
+        return Json.createArrayBuilder()
+            .add(task.issueId())
+            .add(task.estimation())
+            .add(invoiced.value())
+            .add(invoiced.commission());
+    }
+
+    /**
+     * Snapshot of an Invoice with the given lines and totals.
+     * @param invoice Invoice.
+     * @param lines Lines of the invoiced tasks.
+     * @param totals Totals of all the invoiced tasks.
+     * @return JsonObject.
+     */
+    private static JsonObject snapshot(
+        final Invoice invoice,
+        final JsonArrayBuilder lines,
+        final Totals totals
+    ) {
+        final Contract contract = invoice.contract();
+        return Json.createObjectBuilder()
+            .add("id", invoice.invoiceId())
+            .add("created", invoice.createdAt().toString())
+            .add("paid", SealedInvoice.nullable(invoice.paymentTime()))
+            .add(
+                "transaction",
+                SealedInvoice.nullable(invoice.transactionId())
+            )
+            .add("billedBy", SealedInvoice.nullable(invoice.billedBy()))
+            .add("billedTo", SealedInvoice.nullable(invoice.billedTo()))
+            .add("project", contract.project().repoFullName())
+            .add("role", contract.role())
+            .add("rate", contract.hourlyRate())
+            .add("amount", totals.amount())
+            .add("commission", totals.commission())
+            .add("tasks", totals.tasks())
+            .add("lines", lines)
+            .build();
+    }
+
+    /**
+     * Nullable String attribute of the snapshot.
+     * @param seal Snapshot.
+     * @param name Name of the attribute.
+     * @return String or null.
+     */
+    static String string(final JsonObject seal, final String name) {
+        final String value;
+        if(seal.containsKey(name) && !seal.isNull(name)) {
+            value = seal.getString(name);
+        } else {
+            value = null;
+        }
+        return value;
+    }
+
+    /**
+     * Nullable date attribute of the snapshot.
+     * @param seal Snapshot.
+     * @param name Name of the attribute.
+     * @return LocalDateTime or null.
+     */
+    static LocalDateTime date(final JsonObject seal, final String name) {
+        final String value = SealedInvoice.string(seal, name);
+        final LocalDateTime date;
+        if(value == null) {
+            date = null;
+        } else {
+            date = LocalDateTime.parse(value);
+        }
+        return date;
+    }
+
+    /**
+     * Decimal attribute of the snapshot.
+     * @param seal Snapshot.
+     * @param name Name of the attribute.
+     * @return BigDecimal.
+     */
+    static BigDecimal decimal(final JsonObject seal, final String name) {
+        return seal.getJsonNumber(name).bigDecimalValue();
+    }
+
+    /**
+     * Nullable value, as JSON.
+     * @param value Value, can be null.
+     * @return JsonValue.
+     */
+    private static JsonValue nullable(final Object value) {
+        final JsonValue json;
+        if(value == null) {
+            json = JsonValue.NULL;
+        } else {
+            json = Json.createValue(value.toString());
+        }
+        return json;
+    }
+}
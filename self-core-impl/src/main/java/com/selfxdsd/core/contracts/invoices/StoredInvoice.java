@@ -2,30 +2,17 @@ package com.selfxdsd.core.contracts.invoices;
 
 import com.selfxdsd.api.*;
 import com.selfxdsd.api.storage.Storage;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.PDDocumentCatalog;
-import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.time.LocalDateTime;
-import java.util.Locale;
 
 /**
  * An Invoice stored in self.
  * @author criske
  * @version $Id$
  * @since 0.0.3
- * @checkstyle ExecutableStatementCount (500 lines)
- * @checkstyle TrailingComment (500 lines)
- * @todo #826:60min Modify the PDF template and the code in toPdf()
- *  such that more tasks are written on more pages. At the moment
- *  only 40 tasks are written to the 1-page PDF.
  */
 public final class StoredInvoice implements Invoice {
 
@@ -69,6 +56,12 @@ public final class StoredInvoice implements Invoice {
      */
     private final Storage storage;
 
+    /**
+     * Totals of the invoiced tasks, aggregated the first time they are
+     * needed. Registering a new task through this instance resets them.
+     */
+    private volatile Totals totals;
+
     /**
      * Ctor.
      * @param id Invoice id.
@@ -126,9 +119,10 @@ public final class StoredInvoice implements Invoice {
                     "Invoice is already paid, can't add a new Task to it!"
                 );
             }
-            return this.storage.invoicedTasks().register(
-                this, task, commission
-            );
+            final InvoicedTask registered = this.storage.invoicedTasks()
+                .register(this, task, commission);
+            this.totals = null;
+            return registered;
         }
     }
 
@@ -203,110 +197,34 @@ public final class StoredInvoice implements Invoice {
 
     @Override
     public void toPdf(final OutputStream out) throws IOException {
-        final PDDocument doc = PDDocument.load(
-            this.getResourceAsFile("invoice_template.pdf")
-        );
-        final PDDocumentCatalog docCatalog = doc.getDocumentCatalog();
-        final PDAcroForm acroForm = docCatalog.getAcroForm();
-
-        acroForm.getField("invoiceId").setValue("SLFX-" + this.id);
-        acroForm.getField("createdAt").setValue(
-            this.createdAt.toLocalDate().toString()
-        );
-        acroForm.getField("billedBy").setValue(this.billedBy());
-        acroForm.getField("billedTo").setValue(this.billedTo());
-        acroForm.getField("project").setValue(
-            this.contract.project().repoFullName()
-        );
-        acroForm.getField("role").setValue(
-            this.contract.role()
-        );
-        acroForm.getField("hourlyRate").setValue(
-            NumberFormat
-                .getCurrencyInstance(Locale.GERMANY)
-                .format(
-                    this.contract.hourlyRate()
-                        .divide(BigDecimal.valueOf(100))
-                )
-        );
-
-        acroForm.getField("totalDue").setValue(
-            NumberFormat
-                .getCurrencyInstance(Locale.GERMANY)
-                .format(
-                    this.totalAmount()
-                        .divide(BigDecimal.valueOf(100))
-                )
-        );
-        if(this.isPaid()) {
-            acroForm.getField("status").setValue("Paid");
-        } else {
-            acroForm.getField("status").setValue("Active (not paid)");
-        }
-        final StringBuilder taskIds = new StringBuilder();
-        final StringBuilder estimations = new StringBuilder();
-        final StringBuilder values = new StringBuilder();
-        final StringBuilder commissions = new StringBuilder();
+        new InvoicePdf(
+            SealedInvoice.snapshot(this, InvoicePdf.LINES)
+        ).write(out);
+    }
 
-        int count = 0;
-        for(final InvoicedTask invoiced : this.tasks()) {
-            if(count == 40) {
-                taskIds.append("...");
-                estimations.append("...");
-                values.append("...");
-                commissions.append("...");
-                break;
-            }
-            final Task task = invoiced.task();
-            taskIds.append(task.issueId()).append("\n");
-            estimations.append(task.estimation()).append("\n");
-            values.append(invoiced.value().divide(BigDecimal.valueOf(100)))
-                .append("\n");
-            commissions.append(
-                invoiced.commission().divide(BigDecimal.valueOf(100))
-            ).append("\n");
-            count++;
+    @Override
+    public Totals totals() {
+        Totals aggregated = this.totals;
+        if(aggregated == null) {
+            aggregated = this.tasks().totals();
+            this.totals = aggregated;
         }
-
-        acroForm.getField("taskIds").setValue(taskIds.toString());
-        acroForm.getField("estimations").setValue(estimations.toString());
-        acroForm.getField("values").setValue(values.toString());
-        acroForm.getField("commissions").setValue(commissions.toString());
-
-        acroForm.flatten();
-
-        doc.addPage(docCatalog.getPages().get(0));
-        doc.removePage(1); //remove trailing blank page
-
-        doc.save(out);
-        doc.close();
+        return aggregated;
     }
 
     @Override
     public BigDecimal totalAmount() {
-        BigDecimal total = BigDecimal.valueOf(0);
-        for(final InvoicedTask task : this.tasks()) {
-            total = total.add(task.totalAmount());
-        }
-        return total;
+        return this.totals().total();
     }
 
     @Override
     public BigDecimal amount() {
-        BigDecimal revenue = BigDecimal.valueOf(0);
-        for (final InvoicedTask task : this.tasks()) {
-            revenue = revenue.add(task.value());
-        }
-        return revenue;
+        return this.totals().amount();
     }
 
     @Override
     public BigDecimal commission() {
-        BigDecimal commission = BigDecimal.valueOf(0);
-        for(final InvoicedTask task : this.tasks()) {
-            commission = commission.add(task.commission());
-        }
-        return commission;
+        return this.totals().commission();
     }
 
     @Override
@@ -319,30 +237,4 @@ public final class StoredInvoice implements Invoice {
         return this == obj || (obj instanceof Invoice
             && this.id == ((Invoice) obj).invoiceId());
     }
-
-    /**
-     * Convenience method to get the PDF template resource as a File.
-     * @param resourcePath Name of the file.
-     * @throws IOException If something goes wrong.
-     * @return File.
-     */
-    private File getResourceAsFile(
-        final String resourcePath
-    ) throws IOException {
-        final InputStream stream = this.getClass().getClassLoader()
-            .getResourceAsStream(resourcePath);
-        final File tempFile = File.createTempFile(
-            String.valueOf(stream.hashCode()), ".tmp"
-        );
-        tempFile.deleteOnExit();
-
-        try (FileOutputStream out = new FileOutputStream(tempFile)) {
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-            while ((bytesRead = stream.read(buffer)) != -1) {
-                out.write(buffer, 0, bytesRead);
-            }
-        }
-        return tempFile;
-    }
 }
@@ -25,10 +25,11 @@ package com.selfxdsd.core.contributors;
 import com.selfxdsd.api.*;
 import com.selfxdsd.api.exceptions.ContributorsException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ContributorKey;
 import com.selfxdsd.core.BasePaged;
+import com.selfxdsd.core.Cents;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -143,11 +144,11 @@ public final class ProjectContributors extends BasePaged
         final String provider
     ) {
         final Page page = super.current();
+        final ContributorKey key = new ContributorKey(username, provider);
         return this.contributors.get()
             .skip((page.getNumber() - 1) * page.getSize())
             .limit(page.getSize())
-            .filter(c -> c.username().equalsIgnoreCase(username)
-                && c.provider().equalsIgnoreCase(provider))
+            .filter(c -> key.matches(c))
             .findFirst()
             .orElse(null);
     }
@@ -204,6 +205,8 @@ public final class ProjectContributors extends BasePaged
                 .Election(project.repoFullName(), project.provider());
         }
         final Page page = super.current();
+        final ProjectManager manager = this.project.projectManager();
+        final Cents budget = Cents.of(this.project.wallet().available());
         final List<Resignation> resignations = StreamSupport
             .stream(task.resignations().spliterator(), false)
             .collect(Collectors.toList());
@@ -225,23 +228,16 @@ public final class ProjectContributors extends BasePaged
                 .noneMatch(r -> r.contributor().equals(contributor)))
             .filter(
                 contributor -> {
-                    final ProjectManager manager = this.project
-                        .projectManager();
                     for(final Contract contract : contributor.contracts()) {
                         if(contract.role().equals(task.role())
                             && contract.markedForRemoval() == null
                         ) {
-                            BigDecimal price = contract.hourlyRate()
-                                .multiply(
-                                    BigDecimal.valueOf(task.estimation())
-                                ).divide(
-                                    BigDecimal.valueOf(60),
-                                    RoundingMode.HALF_UP
-                                );
-                            price = price.add(manager.commission(price));
-                            final BigDecimal budget = this.project
-                                .wallet()
-                                .available();
+                            final Cents value = Cents
+                                .of(contract.hourlyRate())
+                                .ratio(task.estimation(), 60);
+                            final Cents price = value.plus(
+                                Cents.of(manager.commission(value.decimal()))
+                            );
                             return price.compareTo(budget) <= 0;
                         }
                     }
@@ -28,6 +28,7 @@ import com.selfxdsd.api.Project;
 import com.selfxdsd.api.Task;
 import com.selfxdsd.api.exceptions.ContributorsException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ContributorKey;
 import com.selfxdsd.core.BasePaged;
 
 import java.util.Iterator;
@@ -110,11 +111,11 @@ public final class ProviderContributors extends BasePaged
         final String provider
     ) {
         final Page page = super.current();
+        final ContributorKey key = new ContributorKey(username, provider);
         return this.contributors.get()
             .skip((page.getNumber() - 1) * page.getSize())
             .limit(page.getSize())
-            .filter(c -> c.username().equalsIgnoreCase(username)
-                && c.provider().equalsIgnoreCase(provider))
+            .filter(c -> key.matches(c))
             .findFirst()
             .orElse(null);
     }
@@ -24,7 +24,10 @@ package com.selfxdsd.core.contributors;
 
 import com.selfxdsd.api.*;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.BillingInfoCache;
 import com.selfxdsd.core.Env;
+import com.selfxdsd.core.keys.ContributorKey;
+import com.selfxdsd.core.projects.AccountBillingInfo;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Account;
@@ -33,7 +36,6 @@ import static com.stripe.param.AccountCreateParams.BusinessType.*;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * A Contributor stored in Self.
@@ -69,6 +71,11 @@ public final class StoredContributor implements Contributor {
      */
     private final Storage storage;
 
+    /**
+     * Key of this Contributor, computed on first use.
+     */
+    private volatile ContributorKey key;
+
     /**
      * Constructor.
      * @param username Username.
@@ -174,6 +181,9 @@ public final class StoredContributor implements Contributor {
             final Account account = Account.create(
                 this.accountParams(billingInfo)
             );
+            BillingInfoCache.of(this.storage).put(
+                account.getId(), new AccountBillingInfo(account)
+            );
             return methods.register(
                 this,
                 PayoutMethod.Type.STRIPE,
@@ -199,7 +209,7 @@ public final class StoredContributor implements Contributor {
             }
         }
         if(active != null) {
-            info = active.billingInfo();
+            info = BillingInfoCache.of(this.storage).get(active);
         } else {
             info = new BillingInfo() {
                 @Override
@@ -269,7 +279,12 @@ public final class StoredContributor implements Contributor {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.username, this.provider);
+        ContributorKey computed = this.key;
+        if(computed == null) {
+            computed = new ContributorKey(this);
+            this.key = computed;
+        }
+        return computed.hashCode();
     }
 
     @Override
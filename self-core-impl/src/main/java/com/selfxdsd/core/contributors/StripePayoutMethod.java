@@ -25,6 +25,7 @@ package com.selfxdsd.core.contributors;
 import com.selfxdsd.api.BillingInfo;
 import com.selfxdsd.api.Contributor;
 import com.selfxdsd.api.PayoutMethod;
+import com.selfxdsd.core.BillingInfoCache;
 import com.selfxdsd.core.Env;
 import com.selfxdsd.core.projects.AccountBillingInfo;
 import com.stripe.Stripe;
@@ -34,6 +35,7 @@ import com.stripe.model.Account;
 import javax.json.Json;
 import javax.json.JsonObject;
 import java.io.StringReader;
+import java.time.Duration;
 
 /**
  * A Contributor's Stripe PayoutMethod.
@@ -59,7 +61,14 @@ public final class StripePayoutMethod implements PayoutMethod {
     private final boolean active;
 
     /**
-     * Ctor.
+     * Cache of the BillingInfo.
+     */
+    private final BillingInfoCache cache;
+
+    /**
+     * Ctor. This PayoutMethod itself fetches the BillingInfo from Stripe
+     * every time; the Storage's Contributors and Wallets cache it, in
+     * {@link BillingInfoCache#of(com.selfxdsd.api.storage.Storage)}.
      * @param contributor Contributor owner.
      * @param identifier Identifier.
      * @param active Active or not active.
@@ -68,10 +77,31 @@ public final class StripePayoutMethod implements PayoutMethod {
         final Contributor contributor,
         final String identifier,
         final boolean active
+    ) {
+        this(
+            contributor, identifier, active,
+            new BillingInfoCache(Duration.ZERO, 1)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param contributor Contributor owner.
+     * @param identifier Identifier.
+     * @param active Active or not active.
+     * @param cache Cache of the BillingInfo, usually the Storage's
+     *  (see {@link BillingInfoCache#of(com.selfxdsd.api.storage.Storage)}).
+     */
+    public StripePayoutMethod(
+        final Contributor contributor,
+        final String identifier,
+        final boolean active,
+        final BillingInfoCache cache
     ) {
         this.contributor = contributor;
         this.identifier = identifier;
         this.active = active;
+        this.cache = cache;
     }
 
     @Override
@@ -96,6 +126,15 @@ public final class StripePayoutMethod implements PayoutMethod {
 
     @Override
     public BillingInfo billingInfo() {
+        return this.cache.get(this.identifier, this::account);
+    }
+
+    /**
+     * Fetch the BillingInfo of a Stripe Connect Account.
+     * @param identifier Account id.
+     * @return BillingInfo.
+     */
+    private BillingInfo account(final String identifier) {
         final String apiToken = System.getenv(Env.STRIPE_API_TOKEN);
         if(apiToken == null || apiToken.trim().isEmpty()) {
             throw new IllegalStateException(
@@ -106,7 +145,7 @@ public final class StripePayoutMethod implements PayoutMethod {
         }
         Stripe.apiKey = apiToken;
         try {
-            final Account account = Account.retrieve(this.identifier);
+            final Account account = Account.retrieve(identifier);
             System.out.println(
                 Json.createReader(
                     new StringReader(
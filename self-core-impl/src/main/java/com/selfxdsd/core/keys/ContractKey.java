@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.keys;
+
+import com.selfxdsd.api.Contract;
+import com.selfxdsd.api.Contributor;
+import com.selfxdsd.api.Project;
+
+/**
+ * Canonical identity of a Contract: Project, Contributor and role,
+ * normalized once (case-insensitive), with a cached hash. Unlike
+ * {@link Contract.Id}, it can be compared and hashed without
+ * lowercasing any String again.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class ContractKey {
+
+    /**
+     * Interned keys.
+     */
+    private static final Interner<ContractKey> INTERNED = new Interner<>();
+
+    /**
+     * Key of the Project.
+     */
+    private final ProjectKey project;
+
+    /**
+     * Key of the Contributor.
+     */
+    private final ContributorKey contributor;
+
+    /**
+     * Normalized role.
+     */
+    private final String role;
+
+    /**
+     * Cached hash.
+     */
+    private final int hash;
+
+    /**
+     * Ctor.
+     * @param id Contract.Id.
+     */
+    public ContractKey(final Contract.Id id) {
+        this(
+            new ProjectKey(id.getRepoFullName(), id.getProvider()),
+            new ContributorKey(id.getContributorUsername(), id.getProvider()),
+            id.getRole()
+        );
+    }
+
+    /**
+     * Ctor. It reads the Project and the Contributor of the Contract,
+     * not its Contract.Id.
+     * @param contract Contract.
+     */
+    public ContractKey(final Contract contract) {
+        this(contract.project(), contract.contributor(), contract.role());
+    }
+
+    /**
+     * Ctor.
+     * @param project Project.
+     * @param contributor Contributor.
+     * @param role Role.
+     */
+    public ContractKey(
+        final Project project,
+        final Contributor contributor,
+        final String role
+    ) {
+        this(
+            new ProjectKey(project),
+            new ContributorKey(contributor.username(), project.provider()),
+            role
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param project Key of the Project.
+     * @param contributor Key of the Contributor.
+     * @param role Role.
+     */
+    public ContractKey(
+        final ProjectKey project,
+        final ContributorKey contributor,
+        final String role
+    ) {
+        this.project = project;
+        this.contributor = contributor;
+        this.role = Lowercase.of(role);
+        this.hash = 31 * (31 * project.hashCode() + contributor.hashCode())
+            + this.role.hashCode();
+    }
+
+    /**
+     * Key of the Contract's Project.
+     * @return ProjectKey.
+     */
+    public ProjectKey project() {
+        return this.project;
+    }
+
+    /**
+     * Key of the Contract's Contributor.
+     * @return ContributorKey.
+     */
+    public ContributorKey contributor() {
+        return this.contributor;
+    }
+
+    /**
+     * Normalized (lowercase) role.
+     * @return String.
+     */
+    public String role() {
+        return this.role;
+    }
+
+    /**
+     * Is this the key of the given Contract? Like
+     * {@link #ContractKey(Contract)}, it reads the Project and the
+     * Contributor of the Contract, comparing the fields directly.
+     * @param contract Contract.
+     * @return True or false.
+     */
+    public boolean matches(final Contract contract) {
+        return this.matches(
+            contract.project(), contract.contributor(), contract.role()
+        );
+    }
+
+    /**
+     * Is this the key of the Contract between the given Project and
+     * Contributor, with the given role?
+     * @param project Project.
+     * @param contributor Contributor.
+     * @param role Role.
+     * @return True or false.
+     */
+    public boolean matches(
+        final Project project,
+        final Contributor contributor,
+        final String role
+    ) {
+        return Lowercase.matches(this.role, role)
+            && this.project.matches(project)
+            && this.contributor.matches(
+                contributor.username(), project.provider()
+            );
+    }
+
+    /**
+     * The canonical instance of this key.
+     * @return ContractKey.
+     */
+    public ContractKey intern() {
+        return INTERNED.intern(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        final boolean equals;
+        if(this == obj) {
+            equals = true;
+        } else if(obj instanceof ContractKey) {
+            final ContractKey other = (ContractKey) obj;
+            equals = this.hash == other.hash
+                && this.role.equals(other.role)
+                && this.contributor.equals(other.contributor)
+                && this.project.equals(other.project);
+        } else {
+            equals = false;
+        }
+        return equals;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + this.contributor.username() + "-" + this.role
+            + "-" + this.project.repoFullName()
+            + "-" + this.project.provider() + "]";
+    }
+}
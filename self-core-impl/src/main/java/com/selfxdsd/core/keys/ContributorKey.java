@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.keys;
+
+import com.selfxdsd.api.Contributor;
+
+/**
+ * Canonical identity of a Contributor: username and provider, normalized
+ * once (case-insensitive), with a cached hash.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class ContributorKey {
+
+    /**
+     * Interned keys.
+     */
+    private static final Interner<ContributorKey> INTERNED =
+        new Interner<>();
+
+    /**
+     * Normalized username.
+     */
+    private final String username;
+
+    /**
+     * Normalized provider.
+     */
+    private final String provider;
+
+    /**
+     * Cached hash.
+     */
+    private final int hash;
+
+    /**
+     * Ctor.
+     * @param contributor Contributor.
+     */
+    public ContributorKey(final Contributor contributor) {
+        this(contributor.username(), contributor.provider());
+    }
+
+    /**
+     * Ctor.
+     * @param username Username.
+     * @param provider Provider.
+     */
+    public ContributorKey(final String username, final String provider) {
+        this.username = Lowercase.of(username);
+        this.provider = Lowercase.of(provider);
+        this.hash = 31 * this.username.hashCode() + this.provider.hashCode();
+    }
+
+    /**
+     * Normalized (lowercase) username.
+     * @return String.
+     */
+    public String username() {
+        return this.username;
+    }
+
+    /**
+     * Normalized (lowercase) provider.
+     * @return String.
+     */
+    public String provider() {
+        return this.provider;
+    }
+
+    /**
+     * Is this the key of the given Contributor? It compares the fields
+     * directly, without building another key.
+     * @param contributor Contributor.
+     * @return True or false.
+     */
+    public boolean matches(final Contributor contributor) {
+        return this.matches(contributor.username(), contributor.provider());
+    }
+
+    /**
+     * Is this the key of the given username and provider?
+     * @param username Username.
+     * @param provider Provider.
+     * @return True or false.
+     */
+    public boolean matches(final String username, final String provider) {
+        return Lowercase.matches(this.username, username)
+            && Lowercase.matches(this.provider, provider);
+    }
+
+    /**
+     * The canonical instance of this key.
+     * @return ContributorKey.
+     */
+    public ContributorKey intern() {
+        return INTERNED.intern(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        final boolean equals;
+        if(this == obj) {
+            equals = true;
+        } else if(obj instanceof ContributorKey) {
+            final ContributorKey other = (ContributorKey) obj;
+            equals = this.hash == other.hash
+                && this.username.equals(other.username)
+                && this.provider.equals(other.provider);
+        } else {
+            equals = false;
+        }
+        return equals;
+    }
+
+    @Override
+    public String toString() {
+        return this.username + "@" + this.provider;
+    }
+}
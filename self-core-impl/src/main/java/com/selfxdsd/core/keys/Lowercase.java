@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.keys;
+
+import java.util.Locale;
+
+/**
+ * The normalization of the keys' fields: lowercase, in
+ * {@link Locale#ROOT}. The keys normalize their fields with it and
+ * compare them to the fields of an entity with it, so a key always
+ * matches the entities whose own key is equal to it.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class Lowercase {
+
+    /**
+     * Hidden ctor.
+     */
+    private Lowercase() { }
+
+    /**
+     * Normalize a value.
+     * @param value Value.
+     * @return Normalized value.
+     */
+    static String of(final String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Does the value match the normalized one? A value which is already
+     * normalized (the usual case) is compared without lowercasing it.
+     * @param normalized Normalized value, of a key.
+     * @param value Value, of an entity.
+     * @return True or false.
+     */
+    static boolean matches(final String normalized, final String value) {
+        return normalized.equals(value)
+            || value != null && normalized.equals(Lowercase.of(value));
+    }
+}
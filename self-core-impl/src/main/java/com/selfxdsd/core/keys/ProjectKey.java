@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.keys;
+
+import com.selfxdsd.api.Issue;
+import com.selfxdsd.api.Project;
+
+/**
+ * Canonical identity of a Project: the repo's full name and its provider.
+ * Both are case-insensitive, so they are normalized only once, here, and
+ * the hash is cached. Use it instead of chaining
+ * {@link String#equalsIgnoreCase(String)} calls when filtering or when
+ * keying a Map.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class ProjectKey {
+
+    /**
+     * Interned keys.
+     */
+    private static final Interner<ProjectKey> INTERNED = new Interner<>();
+
+    /**
+     * Normalized full name of the repo.
+     */
+    private final String repoFullName;
+
+    /**
+     * Normalized provider.
+     */
+    private final String provider;
+
+    /**
+     * Cached hash.
+     */
+    private final int hash;
+
+    /**
+     * Ctor.
+     * @param project Project.
+     */
+    public ProjectKey(final Project project) {
+        this(project.repoFullName(), project.provider());
+    }
+
+    /**
+     * Ctor.
+     * @param issue Issue, the key will be of the Issue's Project.
+     */
+    public ProjectKey(final Issue issue) {
+        this(issue.repoFullName(), issue.provider());
+    }
+
+    /**
+     * Ctor.
+     * @param repoFullName Full name of the repo.
+     * @param provider Provider.
+     */
+    public ProjectKey(final String repoFullName, final String provider) {
+        this.repoFullName = Lowercase.of(repoFullName);
+        this.provider = Lowercase.of(provider);
+        this.hash = 31 * this.repoFullName.hashCode()
+            + this.provider.hashCode();
+    }
+
+    /**
+     * Normalized (lowercase) full name of the repo.
+     * @return String.
+     */
+    public String repoFullName() {
+        return this.repoFullName;
+    }
+
+    /**
+     * Normalized (lowercase) provider.
+     * @return String.
+     */
+    public String provider() {
+        return this.provider;
+    }
+
+    /**
+     * Is this the key of the given Project? It compares the fields
+     * directly, without building another key, so it is cheap enough to be
+     * called for every element when filtering.
+     * @param project Project.
+     * @return True or false.
+     */
+    public boolean matches(final Project project) {
+        return this.matches(project.repoFullName(), project.provider());
+    }
+
+    /**
+     * Is this the key of the given repo?
+     * @param repoFullName Full name of the repo.
+     * @param provider Provider.
+     * @return True or false.
+     */
+    public boolean matches(final String repoFullName, final String provider) {
+        return Lowercase.matches(this.repoFullName, repoFullName)
+            && Lowercase.matches(this.provider, provider);
+    }
+
+    /**
+     * The canonical instance of this key.
+     * @return ProjectKey.
+     */
+    public ProjectKey intern() {
+        return INTERNED.intern(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        final boolean equals;
+        if(this == obj) {
+            equals = true;
+        } else if(obj instanceof ProjectKey) {
+            final ProjectKey other = (ProjectKey) obj;
+            equals = this.hash == other.hash
+                && this.repoFullName.equals(other.repoFullName)
+                && this.provider.equals(other.provider);
+        } else {
+            equals = false;
+        }
+        return equals;
+    }
+
+    @Override
+    public String toString() {
+        return this.repoFullName + "@" + this.provider;
+    }
+}
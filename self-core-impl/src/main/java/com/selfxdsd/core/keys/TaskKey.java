@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.keys;
+
+import com.selfxdsd.api.Task;
+
+/**
+ * Canonical identity of a Task: the Project, the Issue's ID and whether
+ * it is a PR or not. The Project part is normalized once, the Issue ID is
+ * kept as it is (it's case-sensitive), and the hash is cached.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class TaskKey {
+
+    /**
+     * Interned keys.
+     */
+    private static final Interner<TaskKey> INTERNED = new Interner<>();
+
+    /**
+     * Key of the Project.
+     */
+    private final ProjectKey project;
+
+    /**
+     * ID of the Issue.
+     */
+    private final String issueId;
+
+    /**
+     * Is it a PR or not?
+     */
+    private final boolean isPullRequest;
+
+    /**
+     * Cached hash.
+     */
+    private final int hash;
+
+    /**
+     * Ctor.
+     * @param task Task.
+     */
+    public TaskKey(final Task task) {
+        this(
+            new ProjectKey(task.project()),
+            task.issueId(),
+            task.isPullRequest()
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param project Key of the Project.
+     * @param issueId ID of the Issue.
+     * @param isPullRequest Is it a PR or not?
+     */
+    public TaskKey(
+        final ProjectKey project,
+        final String issueId,
+        final boolean isPullRequest
+    ) {
+        this.project = project;
+        this.issueId = issueId;
+        this.isPullRequest = isPullRequest;
+        this.hash = 31 * (31 * project.hashCode() + issueId.hashCode())
+            + Boolean.hashCode(isPullRequest);
+    }
+
+    /**
+     * Key of the Task's Project.
+     * @return ProjectKey.
+     */
+    public ProjectKey project() {
+        return this.project;
+    }
+
+    /**
+     * ID of the Issue.
+     * @return String.
+     */
+    public String issueId() {
+        return this.issueId;
+    }
+
+    /**
+     * Is it a PR or not?
+     * @return Boolean.
+     */
+    public boolean isPullRequest() {
+        return this.isPullRequest;
+    }
+
+    /**
+     * The canonical instance of this key.
+     * @return TaskKey.
+     */
+    public TaskKey intern() {
+        return INTERNED.intern(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        final boolean equals;
+        if(this == obj) {
+            equals = true;
+        } else if(obj instanceof TaskKey) {
+            final TaskKey other = (TaskKey) obj;
+            equals = this.hash == other.hash
+                && this.isPullRequest == other.isPullRequest
+                && this.issueId.equals(other.issueId)
+                && this.project.equals(other.project);
+        } else {
+            equals = false;
+        }
+        return equals;
+    }
+
+    @Override
+    public String toString() {
+        return this.project + "#" + this.issueId;
+    }
+}
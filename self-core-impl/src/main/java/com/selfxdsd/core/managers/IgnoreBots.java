@@ -30,9 +30,8 @@ import com.selfxdsd.api.pm.Step;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Conversation where the PM ignores comments coming from other
@@ -50,14 +49,11 @@ public final class IgnoreBots implements Conversation {
     );
 
     /**
-     * Other known bots, besides our PMs.
+     * Other known bots, besides our PMs, per Provider.
      */
-    private final List<KnownBot> others = Arrays.asList(
-        new KnownBot("rultor"),
-        new KnownBot("0pdd"),
-        new KnownBot("0crat"),
-        new KnownBot("dependabot"),
-        new KnownBot("coveralls")
+    private static final Map<String, Set<String>> OTHERS = Map.of(
+        Provider.Names.GITHUB,
+        Set.of("rultor", "0pdd", "0crat", "dependabot", "coveralls")
     );
 
     /**
@@ -78,7 +74,7 @@ public final class IgnoreBots implements Conversation {
         final Step steps;
         final String author = event.comment().author();
         final String provider = event.project().provider();
-        if(this.others.contains(new KnownBot(author, provider))) {
+        if(IgnoreBots.known(author, provider)) {
             steps = ignore -> LOG.debug(
                 "Comment comes from @" + author + " at " + provider
                 + ", who is a known chatbot. Ignoring."
@@ -99,72 +95,13 @@ public final class IgnoreBots implements Conversation {
     }
 
     /**
-     * Known chatbot.
+     * Is the given author a known bot (other than our PMs)?
+     * @param author Username.
+     * @param provider Provider.
+     * @return True or false.
      */
-    private static final class KnownBot {
-
-        /**
-         * Username.
-         */
-        private final String username;
-
-        /**
-         * Provider (github, gitlab etc).
-         */
-        private final String provider;
-
-        /**
-         * Ctor. By default, it will be a Github bot.
-         * @param username Username.
-         */
-        KnownBot(final String username) {
-            this(username, Provider.Names.GITHUB);
-        }
-
-        /**
-         * Ctor.
-         * @param username Username.
-         * @param provider Provider.
-         */
-        KnownBot(final String username, final String provider) {
-            this.username = username;
-            this.provider = provider;
-        }
-
-        /**
-         * Get the username.
-         * @return String.
-         */
-        String username() {
-            return this.username;
-        }
-
-        /**
-         * Get the provider.
-         * @return String.
-         */
-        String provider() {
-            return this.provider;
-        }
-
-        @Override
-        public boolean equals(final Object other) {
-            final boolean result;
-            if (this == other) {
-                result = true;
-            } else if (other == null || getClass() != other.getClass()) {
-                result = false;
-            } else {
-                final KnownBot knownBot = (KnownBot) other;
-                result = Objects.equals(username, knownBot.username)
-                    && Objects.equals(provider, knownBot.provider);
-            }
-            return result;
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(username, provider);
-        }
+    static boolean known(final String author, final String provider) {
+        return author != null
+            && OTHERS.getOrDefault(provider, Set.of()).contains(author);
     }
 }
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.managers;
+
+import com.selfxdsd.api.Comment;
+import com.selfxdsd.api.ProjectManager;
+import com.selfxdsd.api.ProjectManagers;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ContributorKey;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Pre-check of the comments received by a PM, done before any
+ * conversation is started: only comments which mention the PM and which
+ * do not come from the PM itself, another PM or a known bot are worth
+ * a conversation.<br><br>
+ *
+ * The usernames of our PMs are compared case-insensitively, as
+ * {@link ContributorKey}s. They are loaded from the storage and refreshed once
+ * the TTL passed or when a PM is registered, so checking a comment
+ * usually touches neither the storage nor the Provider. There is one
+ * instance per Storage (see {@link #of(Storage)}), so the PMs of one
+ * Storage are never used to check the comments of another.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class Mentions {
+
+    /**
+     * Mentions of each Storage. The Storages are weakly referenced, so
+     * they are not kept alive by this map.
+     */
+    private static final Map<Storage, Mentions> STORAGES =
+        Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * How long the PMs' usernames are used before loading them again.
+     */
+    private final Duration ttl;
+
+    /**
+     * Current time.
+     */
+    private final Supplier<Instant> now;
+
+    /**
+     * Our PMs.
+     */
+    private volatile Set<ContributorKey> managers;
+
+    /**
+     * When the usernames should be loaded again.
+     */
+    private volatile Instant expires;
+
+    /**
+     * Ctor.
+     * @param ttl How long the PMs' usernames are used before loading
+     *  them again.
+     */
+    Mentions(final Duration ttl) {
+        this(ttl, Instant::now);
+    }
+
+    /**
+     * Ctor.
+     * @param ttl How long the PMs' usernames are used before loading
+     *  them again.
+     * @param now Current time.
+     */
+    Mentions(final Duration ttl, final Supplier<Instant> now) {
+        this.ttl = ttl;
+        this.now = now;
+    }
+
+    /**
+     * Mentions of the given Storage. The usernames of its PMs are used for
+     * up to 10 minutes.
+     * @param storage Storage.
+     * @return Mentions.
+     */
+    static Mentions of(final Storage storage) {
+        return STORAGES.computeIfAbsent(
+            storage, key -> new Mentions(Duration.ofMinutes(10))
+        );
+    }
+
+    /**
+     * Load the usernames of the PMs again at the next check, e.g. because
+     * a PM was registered.
+     */
+    void invalidate() {
+        this.expires = null;
+    }
+
+    /**
+     * Is this comment worth a conversation?
+     * @param manager Username of the PM who received the comment.
+     * @param provider Provider.
+     * @param comment Comment.
+     * @param all All the PMs, in case their usernames should be loaded.
+     * @return True or false.
+     */
+    boolean worthAnswering(
+        final String manager,
+        final String provider,
+        final Comment comment,
+        final ProjectManagers all
+    ) {
+        final String body = comment.body();
+        final String author = comment.author();
+        return body != null
+            && body.length() > manager.length()
+            && body.charAt(0) == '@'
+            && body.startsWith(manager, 1)
+            && !manager.equalsIgnoreCase(author)
+            && !IgnoreBots.known(author, provider)
+            && !(author != null && this.managers(all).contains(
+                new ContributorKey(author, provider)
+            ));
+    }
+
+    /**
+     * Our PMs, loaded again if they expired.
+     * @param all All the PMs.
+     * @return Keys of the PMs.
+     */
+    private Set<ContributorKey> managers(final ProjectManagers all) {
+        final Instant time = this.now.get();
+        if(this.expires == null || !time.isBefore(this.expires)) {
+            final Set<ContributorKey> loaded = new HashSet<>();
+            for(final ProjectManager manager : all) {
+                loaded.add(
+                    new ContributorKey(
+                        manager.username(), manager.provider().name()
+                    )
+                );
+            }
+            this.managers = loaded;
+            this.expires = time.plus(this.ttl);
+        }
+        return this.managers;
+    }
+}
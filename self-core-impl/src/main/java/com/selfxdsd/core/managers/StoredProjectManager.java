@@ -26,13 +26,13 @@ import com.selfxdsd.api.*;
 import com.selfxdsd.api.pm.Conversation;
 import com.selfxdsd.api.pm.Step;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.Cents;
 import com.selfxdsd.core.Github;
 import com.selfxdsd.core.Gitlab;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.Period;
 import java.time.temporal.ChronoUnit;
@@ -58,6 +58,25 @@ public final class StoredProjectManager implements ProjectManager {
         StoredProjectManager.class
     );
 
+    /**
+     * Conversation started for the comments worth answering. It is
+     * stateless, so it is built only once. Comments from bots and PMs
+     * are already filtered out by {@link Mentions}.
+     */
+    private static final Conversation CONVERSATION = new Understand(
+        new Hello(
+            new Status(
+                new Resign(
+                    new Deregister(
+                        new Register(
+                            new Confused()
+                        )
+                    )
+                )
+            )
+        )
+    );
+
     /**
      * This PMs id.
      */
@@ -88,6 +107,11 @@ public final class StoredProjectManager implements ProjectManager {
      */
     private final double percentage;
 
+    /**
+     * The percentage, in basis points.
+     */
+    private final long basisPoints;
+
     /**
      * Self's storage.
      */
@@ -156,10 +180,21 @@ public final class StoredProjectManager implements ProjectManager {
         this.provider = provider;
         this.accessToken = accessToken;
         this.percentage = percentage;
+        this.basisPoints = Cents.basisPoints(percentage);
         this.storage = storage;
         this.dateTimeSupplier = dateTimeSupplier;
     }
 
+    /**
+     * A PM was registered in the given Storage, so the PMs' usernames used
+     * to pre-check the comments must be loaded again. Storages should call
+     * it from {@link ProjectManagers#register}.
+     * @param storage Storage where the PM was registered.
+     */
+    public static void registered(final Storage storage) {
+        Mentions.of(storage).invalidate();
+    }
+
     @Override
     public int id() {
         return this.id;
@@ -209,15 +244,7 @@ public final class StoredProjectManager implements ProjectManager {
 
     @Override
     public BigDecimal commission(final BigDecimal value) {
-        return value.multiply(
-            BigDecimal
-                .valueOf(this.percentage)
-                .setScale(2, RoundingMode.HALF_UP)
-        ).divide(
-            BigDecimal.valueOf(100),
-            0,
-            RoundingMode.HALF_UP
-        );
+        return Cents.of(value).percent(this.basisPoints).decimal();
     }
 
     @Override
@@ -455,7 +482,7 @@ public final class StoredProjectManager implements ProjectManager {
             "Checking the assigned tasks of project "
             + project.repoFullName() + " at " + project.provider()
         );
-        for(final Task task : project.tasks()) {
+        for(final Task task : project.tasks().withDetails()) {
             final Contributor assignee = task.assignee();
             if(assignee != null) {
                 final Issue issue = task.issue();
@@ -537,30 +564,19 @@ public final class StoredProjectManager implements ProjectManager {
     @Override
     public void comment(final Event event) {
         final Comment comment = event.comment();
-        if(this.username.equalsIgnoreCase(comment.author())) {
-            return;
-        }
-        if(comment.body().startsWith("@" + this.username)) {
+        final Mentions mentions = Mentions.of(this.storage);
+        final boolean worthAnswering = mentions.worthAnswering(
+            this.username,
+            this.provider,
+            comment,
+            this.storage.projectManagers()
+        );
+        if(worthAnswering) {
             LOG.debug(
                 "Received comment [" + comment.body()
                 + "] from @" + comment.author() + ". Starting conversation..."
             );
-            final Conversation conversation = new IgnoreBots(
-                new Understand(
-                    new Hello(
-                        new Status(
-                            new Resign(
-                                new Deregister(
-                                    new Register(
-                                        new Confused()
-                                    )
-                                )
-                            )
-                        )
-                    )
-                )
-            );
-            final Step steps = conversation.start(event);
+            final Step steps = CONVERSATION.start(event);
             LOG.debug("Executing steps...");
             steps.perform(event);
             LOG.debug("Conversation ended.");
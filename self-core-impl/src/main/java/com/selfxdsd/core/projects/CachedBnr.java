@@ -0,0 +1,362 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import com.selfxdsd.api.Bnr;
+import com.selfxdsd.core.Env;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * BNR publishes the exchange rates once a day, so the EUR-RON rate is
+ * cached. Once the cached rate is older than the refresh interval, it is
+ * still returned, while a fresh one is fetched in the background. Every
+ * fetched rate is persisted as the last known good one, to be used when
+ * BNR cannot be reached (e.g. right after a restart). The hard-coded 487
+ * is only returned if there was never any rate fetched.<br><br>
+ *
+ * Hosts should build one instance, monitor its {@link #age()} and give it
+ * to the {@link StripeWallet}s they create.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ * @checkstyle IllegalCatch (300 lines)
+ */
+public final class CachedBnr implements Bnr {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(
+        CachedBnr.class
+    );
+
+    /**
+     * Default refresh interval.
+     */
+    private static final Duration REFRESH = Duration.ofHours(6);
+
+    /**
+     * Rate to use if there was never any rate fetched.
+     */
+    private static final Rate DEFAULT = new Rate(
+        BigDecimal.valueOf(487), Instant.EPOCH
+    );
+
+    /**
+     * Where the rate comes from.
+     */
+    private final Callable<BigDecimal> source;
+
+    /**
+     * File with the last known good rate. Null if it is not persisted.
+     */
+    private final Path file;
+
+    /**
+     * After how long the rate is refreshed.
+     */
+    private final Duration refresh;
+
+    /**
+     * Current time.
+     */
+    private final Supplier<Instant> now;
+
+    /**
+     * Where the background refresh runs.
+     */
+    private final Executor executor;
+
+    /**
+     * Is a refresh running?
+     */
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /**
+     * Lock for the first fetch.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Current rate; null until it is first loaded.
+     */
+    private volatile Rate current;
+
+    /**
+     * Ctor. Fetches from BNR's API, persists the rate in the file given by
+     * the env variable {@link Env#BNR_RATE_FILE}, if set, and refreshes it
+     * every 6 hours.
+     */
+    public CachedBnr() {
+        this(
+            new XmlBnr()::fetch,
+            CachedBnr.file(System.getenv(Env.BNR_RATE_FILE)),
+            REFRESH,
+            Instant::now,
+            Executors.newSingleThreadExecutor(
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "bnr-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            )
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param source Where the rate comes from.
+     * @param file File with the last known good rate, may be null.
+     * @param refresh After how long the rate is refreshed.
+     * @param now Current time.
+     * @param executor Where the background refresh runs.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    public CachedBnr(
+        final Callable<BigDecimal> source,
+        final Path file,
+        final Duration refresh,
+        final Supplier<Instant> now,
+        final Executor executor
+    ) {
+        this.source = source;
+        this.file = file;
+        this.refresh = refresh;
+        this.now = now;
+        this.executor = executor;
+    }
+
+    @Override
+    public BigDecimal euroToRon() {
+        Rate rate = this.current;
+        if(rate == null) {
+            rate = this.first();
+        } else if(this.age(rate).compareTo(this.refresh) > 0
+            && this.refreshing.compareAndSet(false, true)) {
+            this.refreshLater();
+        }
+        return rate.value;
+    }
+
+    /**
+     * Refresh the rate in the background. If the executor refuses the
+     * refresh (e.g. it is shut down or full), it is tried again at the
+     * next call.
+     */
+    private void refreshLater() {
+        try {
+            this.executor.execute(
+                () -> {
+                    try {
+                        this.fetch();
+                    } finally {
+                        this.refreshing.set(false);
+                    }
+                }
+            );
+        } catch (final RejectedExecutionException ex) {
+            this.refreshing.set(false);
+            LOG.warn("[BNR] Could not schedule the refresh of the rate.", ex);
+        }
+    }
+
+    /**
+     * Age of the current rate, to be monitored: it should not grow much
+     * past a day.
+     * @return Duration since the rate was fetched, or null if there is no
+     *  rate yet.
+     */
+    public Duration age() {
+        final Rate rate = this.current;
+        final Duration age;
+        if(rate == null) {
+            age = null;
+        } else {
+            age = this.age(rate);
+        }
+        return age;
+    }
+
+    /**
+     * Load the first rate: the persisted one, if any (it will be
+     * refreshed in the background if needed), otherwise fetch it now.
+     * @return Rate.
+     */
+    private Rate first() {
+        synchronized (this.lock) {
+            if(this.current == null) {
+                this.current = this.read();
+            }
+            if(this.current == null && !this.fetch()) {
+                LOG.error("[BNR] No EUR-RON rate known yet, using 487.");
+                this.current = DEFAULT;
+            }
+            return this.current;
+        }
+    }
+
+    /**
+     * Fetch the rate from the source, cache it and persist it.
+     * @return True if it was fetched, false otherwise.
+     */
+    private boolean fetch() {
+        boolean fetched;
+        try {
+            final Rate rate = new Rate(this.source.call(), this.now.get());
+            this.current = rate;
+            this.write(rate);
+            fetched = true;
+        } catch (final Exception ex) {
+            LOG.error(
+                "[BNR] Could not refresh EUR-RON rate, keeping the last one"
+                + " (age: " + this.age() + "): " + ex.getMessage()
+            );
+            fetched = false;
+        }
+        return fetched;
+    }
+
+    /**
+     * Read the persisted rate.
+     * @return Rate or null if there is none.
+     */
+    private Rate read() {
+        Rate rate = null;
+        if(this.file != null && Files.exists(this.file)) {
+            try {
+                final String[] parts = Files.readString(
+                    this.file, StandardCharsets.UTF_8
+                ).trim().split(" ");
+                rate = new Rate(
+                    new BigDecimal(parts[0]), Instant.parse(parts[1])
+                );
+                LOG.info(
+                    "[BNR] Loaded last known EUR-RON rate " + rate.value
+                    + " fetched at " + rate.fetched
+                );
+            } catch (final Exception ex) {
+                LOG.error(
+                    "[BNR] Could not read " + this.file + ": "
+                    + ex.getMessage()
+                );
+            }
+        }
+        return rate;
+    }
+
+    /**
+     * Persist a rate, atomically replacing the previous one.
+     * @param rate Rate.
+     */
+    private void write(final Rate rate) {
+        if(this.file != null) {
+            final Path temp = this.file.resolveSibling(
+                this.file.getFileName() + ".tmp"
+            );
+            try {
+                Files.writeString(
+                    temp,
+                    rate.value.toPlainString() + " " + rate.fetched,
+                    StandardCharsets.UTF_8
+                );
+                Files.move(
+                    temp,
+                    this.file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE
+                );
+            } catch (final IOException ex) {
+                LOG.error(
+                    "[BNR] Could not persist EUR-RON rate in " + this.file
+                    + ": " + ex.getMessage()
+                );
+            }
+        }
+    }
+
+    /**
+     * Age of a rate.
+     * @param rate Rate.
+     * @return Duration since it was fetched.
+     */
+    private Duration age(final Rate rate) {
+        return Duration.between(rate.fetched, this.now.get());
+    }
+
+    /**
+     * Path of the rate file.
+     * @param name File name, may be null.
+     * @return Path or null.
+     */
+    private static Path file(final String name) {
+        final Path path;
+        if(name == null || name.isBlank()) {
+            path = null;
+        } else {
+            path = Path.of(name);
+        }
+        return path;
+    }
+
+    /**
+     * A rate and the moment when it was fetched.
+     */
+    private static final class Rate {
+
+        /**
+         * The rate.
+         */
+        private final BigDecimal value;
+
+        /**
+         * When it was fetched.
+         */
+        private final Instant fetched;
+
+        /**
+         * Ctor.
+         * @param value The rate.
+         * @param fetched When it was fetched.
+         */
+        Rate(final BigDecimal value, final Instant fetched) {
+            this.value = value;
+            this.fetched = fetched;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import com.selfxdsd.api.Comment;
+import com.selfxdsd.api.Commit;
+import com.selfxdsd.api.Event;
+import com.selfxdsd.api.Issue;
+import com.selfxdsd.api.Project;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves Events, collapsing the bursts of Issue events. Opening an
+ * Issue with labels and an assignee, for instance, is delivered as
+ * several "issues" events within milliseconds; they are resolved only
+ * once, when the window of the first one ends, against the latest
+ * state of the Issue. The resolved Event has the most significant type
+ * of the burst (a new Issue, then a reopened one).<br><br>
+ *
+ * Any other Event (e.g. comments, which may be commands) is resolved
+ * right away, unless its Issue has a burst waiting: then it is held and
+ * resolved right after the burst, so a comment is never handled before
+ * the registration of its Issue. The Events which arrive while a burst is
+ * being resolved are held as well.<br><br>
+ *
+ * The Issue of a webhook Event is told by the ids in its payload, so
+ * the caller's (webhook) thread never builds the Issue or calls the
+ * Provider; only other Events are asked for their Issue.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ * @checkstyle IllegalCatch (500 lines)
+ */
+public final class DebouncedEvents implements AutoCloseable {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(
+        DebouncedEvents.class
+    );
+
+    /**
+     * Types of the Issue events which are debounced (resolved and raw).
+     */
+    private static final Set<String> DEBOUNCED = Set.of(
+        Event.Type.NEW_ISSUE, Event.Type.REOPENED_ISSUE,
+        "issues", "pull_request", "Issue Hook", "Merge Request Hook"
+    );
+
+    /**
+     * How long to wait for more events of the same Issue.
+     */
+    private final Duration window;
+
+    /**
+     * Schedules the resolutions.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Bursts waiting to be resolved, per Issue.
+     */
+    private final Map<String, Burst> bursts = new ConcurrentHashMap<>();
+
+    /**
+     * Number of Events collapsed into another one.
+     */
+    private final AtomicLong collapsed = new AtomicLong();
+
+    /**
+     * Ctor.
+     * @param window How long to wait for more events of the same Issue.
+     */
+    public DebouncedEvents(final Duration window) {
+        this(
+            window,
+            Executors.newSingleThreadScheduledExecutor(
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "debounce");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            )
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param window How long to wait for more events of the same Issue.
+     * @param scheduler Schedules the resolutions.
+     */
+    public DebouncedEvents(
+        final Duration window,
+        final ScheduledExecutorService scheduler
+    ) {
+        this.window = window;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Resolve the Event, now or at the end of its Issue's window.
+     * @param event Event.
+     */
+    public void resolve(final Event event) {
+        if(DEBOUNCED.contains(event.type())) {
+            this.bursts.compute(
+                DebouncedEvents.key(event),
+                (id, burst) -> {
+                    final Burst merged;
+                    if(burst == null) {
+                        merged = new Burst(event);
+                        this.scheduler.schedule(
+                            () -> this.flush(id),
+                            this.window.toMillis(),
+                            TimeUnit.MILLISECONDS
+                        );
+                    } else if(burst.flushing) {
+                        merged = burst.holding(event);
+                    } else {
+                        merged = burst.with(event);
+                        this.collapsed.incrementAndGet();
+                    }
+                    return merged;
+                }
+            );
+        } else if(this.bursts.isEmpty() || !this.held(event)) {
+            event.project().resolve(event);
+        }
+    }
+
+    /**
+     * Number of Events collapsed into another one so far.
+     * @return Long.
+     */
+    public long collapsed() {
+        return this.collapsed.get();
+    }
+
+    /**
+     * Resolve the waiting bursts right away and stop the scheduler.
+     */
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+        for(final String key : this.bursts.keySet()) {
+            this.flush(key);
+        }
+    }
+
+    /**
+     * Hold an Event until the burst of its Issue is resolved, if there is
+     * one.
+     * @param event Event.
+     * @return True if it was held.
+     */
+    private boolean held(final Event event) {
+        final String key = DebouncedEvents.key(event);
+        return key != null && this.bursts.computeIfPresent(
+            key, (id, burst) -> burst.holding(event)
+        ) != null;
+    }
+
+    /**
+     * Resolve the burst of an Issue, then the Events held behind it, in
+     * the order they arrived.
+     * @param key Key of the Issue.
+     */
+    private void flush(final String key) {
+        final List<Burst> flushing = new ArrayList<>(1);
+        this.bursts.computeIfPresent(
+            key,
+            (id, waiting) -> {
+                Burst burst = waiting;
+                if(!waiting.flushing) {
+                    burst = waiting.flushing();
+                    flushing.add(burst);
+                }
+                return burst;
+            }
+        );
+        if(!flushing.isEmpty()) {
+            DebouncedEvents.settle(flushing.get(0));
+            List<Event> held = this.release(key);
+            while(!held.isEmpty()) {
+                held.forEach(DebouncedEvents::settle);
+                held = this.release(key);
+            }
+        }
+    }
+
+    /**
+     * Release the Events held behind the burst of an Issue, which is being
+     * resolved. The burst is removed once nothing is held anymore.
+     * @param key Key of the Issue.
+     * @return Held Events, in order.
+     */
+    private List<Event> release(final String key) {
+        final List<Event> held = new ArrayList<>();
+        this.bursts.computeIfPresent(
+            key,
+            (id, burst) -> {
+                held.addAll(burst.held);
+                return burst.released();
+            }
+        );
+        return held;
+    }
+
+    /**
+     * Resolve an Event, logging any error.
+     * @param event Event.
+     */
+    private static void settle(final Event event) {
+        try {
+            event.project().resolve(event);
+        } catch (final RuntimeException ex) {
+            LOG.error("Could not resolve " + event.type() + ".", ex);
+        }
+    }
+
+    /**
+     * Key of an Event's Issue. A webhook Event reads it from its payload,
+     * any other Event is asked for its Issue.
+     * @param event Event.
+     * @return Key or null if the Event is not about an Issue.
+     */
+    private static String key(final Event event) {
+        final String issue;
+        if(event instanceof WebhookEvent) {
+            issue = ((WebhookEvent) event).issueKey();
+        } else if(event.issue() != null) {
+            issue = event.issue().isPullRequest() + "/"
+                + event.issue().issueId();
+        } else {
+            issue = null;
+        }
+        final String key;
+        if(issue == null) {
+            key = null;
+        } else {
+            final Project project = event.project();
+            key = project.provider() + "/" + project.repoFullName() + "/"
+                + issue;
+        }
+        return key;
+    }
+
+    /**
+     * Rank of a type, the most significant one wins.
+     * @param type Type.
+     * @return Integer.
+     */
+    private static int rank(final String type) {
+        final int rank;
+        if(Event.Type.NEW_ISSUE.equals(type)) {
+            rank = 2;
+        } else if(Event.Type.REOPENED_ISSUE.equals(type)) {
+            rank = 1;
+        } else {
+            rank = 0;
+        }
+        return rank;
+    }
+
+    /**
+     * Burst of Events of the same Issue: the most significant type, with
+     * the latest state, and the Events held behind it.
+     */
+    private static final class Burst implements Event {
+
+        /**
+         * Most significant type.
+         */
+        private final String type;
+
+        /**
+         * Latest Event.
+         */
+        private final Event latest;
+
+        /**
+         * Events held until this burst is resolved, in order.
+         */
+        private final List<Event> held;
+
+        /**
+         * Is this burst being resolved?
+         */
+        private final boolean flushing;
+
+        /**
+         * Ctor.
+         * @param event First Event.
+         */
+        Burst(final Event event) {
+            this(event.type(), event, List.of(), false);
+        }
+
+        /**
+         * Ctor.
+         * @param type Most significant type.
+         * @param latest Latest Event.
+         * @param held Events held until this burst is resolved.
+         * @param flushing Is this burst being resolved?
+         */
+        Burst(
+            final String type,
+            final Event latest,
+            final List<Event> held,
+            final boolean flushing
+        ) {
+            this.type = type;
+            this.latest = latest;
+            this.held = held;
+            this.flushing = flushing;
+        }
+
+        /**
+         * Add a later Event of the Issue to this burst.
+         * @param event Event.
+         * @return Burst.
+         */
+        Burst with(final Event event) {
+            final String type;
+            if(rank(event.type()) > rank(this.type)) {
+                type = event.type();
+            } else {
+                type = this.type;
+            }
+            return new Burst(type, event, this.held, false);
+        }
+
+        /**
+         * Hold an Event until this burst is resolved.
+         * @param event Event.
+         * @return Burst.
+         */
+        Burst holding(final Event event) {
+            final List<Event> held = new ArrayList<>(this.held);
+            held.add(event);
+            return new Burst(this.type, this.latest, held, this.flushing);
+        }
+
+        /**
+         * This burst, being resolved: later Events are held.
+         * @return Burst.
+         */
+        Burst flushing() {
+            return new Burst(this.type, this.latest, this.held, true);
+        }
+
+        /**
+         * Release the held Events, which the caller resolves.
+         * @return Burst still holding the Events which arrive meanwhile,
+         *  or null if none were held (the burst is done).
+         */
+        Burst released() {
+            final Burst released;
+            if(this.held.isEmpty()) {
+                released = null;
+            } else {
+                released = new Burst(this.type, null, List.of(), true);
+            }
+            return released;
+        }
+
+        @Override
+        public String type() {
+            return this.type;
+        }
+
+        @Override
+        public Issue issue() {
+            return this.latest.issue();
+        }
+
+        @Override
+        public Comment comment() {
+            return this.latest.comment();
+        }
+
+        @Override
+        public Commit commit() {
+            return this.latest.commit();
+        }
+
+        @Override
+        public Project project() {
+            return this.latest.project();
+        }
+    }
+}
@@ -37,6 +37,7 @@ import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -109,13 +110,7 @@ public final class FakeWallet implements Wallet {
 
     @Override
     public Wallet pay(final Invoice invoice) {
-        if (!this.project.equals(invoice.contract().project())) {
-            throw new InvoiceException.NotPartOfProjectContract(invoice,
-                this.project);
-        }
-        if(invoice.isPaid()) {
-            throw new InvoiceException.AlreadyPaid(invoice);
-        }
+        this.checkPayable(invoice);
         final BigDecimal newCash = this.limit.subtract(invoice
             .totalAmount());
         if (newCash.longValueExact() < 0L) {
@@ -126,33 +121,35 @@ public final class FakeWallet implements Wallet {
                 .valueOf(1000), RoundingMode.HALF_UP) + "\u20ac."
             );
         }
-        LOG.debug(
-            "[FAKE] Paying Invoice #" + invoice.invoiceId()
-            + " of Contract " + invoice.contract().contractId()
-            + "..."
-        );
-        final String uuid = UUID.randomUUID().toString().replace("-", "");
-        final boolean paid = this.storage
-            .invoices()
-            .registerAsPaid(
-                new StoredInvoice(
-                    invoice.invoiceId(),
-                    invoice.contract(),
-                    invoice.createdAt(),
-                    LocalDateTime.now(),
-                    "fake_payment_" + uuid,
-                    invoice.billedBy(),
-                    invoice.billedTo(),
-                    this.storage
-                ),
-                BigDecimal.valueOf(0),
-                BigDecimal.valueOf(0)
-            );
-        if (!paid) {
-            throw new WalletPaymentException(
-                "Could not pay invoice #" + invoice.invoiceId()
+        this.registerAsPaid(invoice);
+        return this.updateCash(newCash);
+    }
+
+    /**
+     * Pay several Invoices at once. The total is checked against the
+     * cash limit before paying anything and the cash is updated once.
+     * @param invoices The Invoices to be paid.
+     * @return Wallet having cash deducted with the Invoices' amount.
+     */
+    @Override
+    public Wallet payAll(final List<Invoice> invoices) {
+        BigDecimal total = BigDecimal.valueOf(0);
+        for(final Invoice invoice : invoices) {
+            this.checkPayable(invoice);
+            total = total.add(invoice.totalAmount());
+        }
+        final BigDecimal newCash = this.limit.subtract(total);
+        if (newCash.longValueExact() < 0L) {
+            throw new WalletPaymentException("No cash available in wallet "
+                + "for paying " + invoices.size() + " invoices"
+                + ". Please increase the limit from your dashboard with"
+                + " at least " + newCash.abs().divide(BigDecimal
+                .valueOf(100), RoundingMode.HALF_UP) + "\u20ac."
             );
         }
+        for(final Invoice invoice : invoices) {
+            this.registerAsPaid(invoice);
+        }
         return this.updateCash(newCash);
     }
 
@@ -319,4 +316,53 @@ public final class FakeWallet implements Wallet {
     public int hashCode() {
         return Objects.hash(this.project, this.type());
     }
+
+    /**
+     * Make sure the Invoice belongs to this Wallet's Project and it is
+     * not paid yet.
+     * @param invoice Invoice.
+     */
+    private void checkPayable(final Invoice invoice) {
+        if (!this.project.equals(invoice.contract().project())) {
+            throw new InvoiceException.NotPartOfProjectContract(invoice,
+                this.project);
+        }
+        if(invoice.isPaid()) {
+            throw new InvoiceException.AlreadyPaid(invoice);
+        }
+    }
+
+    /**
+     * Register an Invoice as paid with a fake payment.
+     * @param invoice Invoice.
+     */
+    private void registerAsPaid(final Invoice invoice) {
+        LOG.debug(
+            "[FAKE] Paying Invoice #" + invoice.invoiceId()
+            + " of Contract " + invoice.contract().contractId()
+            + "..."
+        );
+        final String uuid = UUID.randomUUID().toString().replace("-", "");
+        final boolean paid = this.storage
+            .invoices()
+            .registerAsPaid(
+                new StoredInvoice(
+                    invoice.invoiceId(),
+                    invoice.contract(),
+                    invoice.createdAt(),
+                    LocalDateTime.now(),
+                    "fake_payment_" + uuid,
+                    invoice.billedBy(),
+                    invoice.billedTo(),
+                    this.storage
+                ),
+                BigDecimal.valueOf(0),
+                BigDecimal.valueOf(0)
+            );
+        if (!paid) {
+            throw new WalletPaymentException(
+                "Could not pay invoice #" + invoice.invoiceId()
+            );
+        }
+    }
 }
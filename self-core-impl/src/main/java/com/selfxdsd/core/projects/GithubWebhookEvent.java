@@ -24,18 +24,21 @@ package com.selfxdsd.core.projects;
 
 import com.selfxdsd.api.*;
 
-import javax.json.Json;
 import javax.json.JsonObject;
-import java.io.StringReader;
 
 /**
  * Webhook event coming from Github. This is the event which triggers
- * everything (conversations, steps etc).
+ * everything (conversations, steps etc).<br><br>
+ *
+ * The type is resolved from the action, which is read without parsing
+ * the whole payload; the payload is parsed only when the Issue, Comment
+ * or Commit is needed. These, as well as the type and the Repo, are
+ * computed once.
  * @author Mihai Andronache (amihaiemil@gmail.com)
  * @version $Id$
  * @since 0.0.61
  */
-final class GithubWebhookEvent implements Event {
+final class GithubWebhookEvent implements WebhookEvent {
 
     /**
      * Project where the event happened.
@@ -50,7 +53,32 @@ final class GithubWebhookEvent implements Event {
     /**
      * Event payload.
      */
-    private final JsonObject event;
+    private final WebhookPayload event;
+
+    /**
+     * Resolved type, null until it is first needed.
+     */
+    private String resolved;
+
+    /**
+     * Repo where the event happened, null until it is first needed.
+     */
+    private Repo repo;
+
+    /**
+     * Issue, null until it is first needed.
+     */
+    private Issue issue;
+
+    /**
+     * Comment, null until it is first needed.
+     */
+    private Comment comment;
+
+    /**
+     * Commit, null until it is first needed.
+     */
+    private Commit commit;
 
     /**
      * Ctor.
@@ -62,76 +90,125 @@ final class GithubWebhookEvent implements Event {
         final Project project,
         final String type,
         final String payload
+    ) {
+        this(project, type, new WebhookPayload(payload));
+    }
+
+    /**
+     * Ctor.
+     * @param project Project where the event happened.
+     * @param type Type.
+     * @param payload Payload.
+     */
+    GithubWebhookEvent(
+        final Project project,
+        final String type,
+        final WebhookPayload payload
     ) {
         this.project = project;
         this.type = type;
-        this.event  = Json.createReader(
-            new StringReader(payload)
-        ).readObject();
+        this.event = payload;
     }
 
     @Override
     public String type() {
-        final String resolved;
-        if ("issues".equalsIgnoreCase(type)
-            || "pull_request".equalsIgnoreCase(type)) {
-            final String act = event.getString("action");
-            if ("opened".equalsIgnoreCase(act)) {
-                resolved = Type.NEW_ISSUE;
-            } else if ("reopened".equalsIgnoreCase(act)) {
-                resolved = Type.REOPENED_ISSUE;
+        if(this.resolved == null) {
+            if ("issues".equalsIgnoreCase(this.type)
+                || "pull_request".equalsIgnoreCase(this.type)) {
+                final String act = this.event.string("action");
+                if ("opened".equalsIgnoreCase(act)) {
+                    this.resolved = Type.NEW_ISSUE;
+                } else if ("reopened".equalsIgnoreCase(act)) {
+                    this.resolved = Type.REOPENED_ISSUE;
+                } else {
+                    this.resolved = this.type;
+                }
             } else {
-                resolved = type;
+                this.resolved = this.type;
             }
-        } else {
-            resolved = type;
         }
-        return resolved;
+        return this.resolved;
     }
 
     @Override
     public Issue issue() {
-        final JsonObject jsn;
-        if ("pull_request".equalsIgnoreCase(type)) {
-            jsn = this.event.getJsonObject("pull_request");
-        } else {
-            jsn = this.event.getJsonObject("issue");
+        if(this.issue == null) {
+            final JsonObject jsn;
+            if ("pull_request".equalsIgnoreCase(this.type)) {
+                jsn = this.event.json().getJsonObject("pull_request");
+            } else {
+                jsn = this.event.json().getJsonObject("issue");
+            }
+            this.issue = this.repo().issues().received(jsn);
         }
-        final String repoFullName = project.repoFullName();
-        return this.project.projectManager().provider().repo(
-            repoFullName.split("/")[0],
-            repoFullName.split("/")[1]
-        ).issues().received(jsn);
+        return this.issue;
     }
 
     @Override
     public Comment comment() {
-        return this.issue().comments().received(
-            this.event.getJsonObject("comment")
-        );
+        if(this.comment == null) {
+            this.comment = this.issue().comments().received(
+                this.event.json().getJsonObject("comment")
+            );
+        }
+        return this.comment;
     }
 
     @Override
     public Commit commit() {
-        final Commit commit;
-        if("push".equalsIgnoreCase(this.type)) {
-            final JsonObject latest = this.event.getJsonArray(
+        if(this.commit == null && "push".equalsIgnoreCase(this.type)) {
+            final JsonObject latest = this.event.json().getJsonArray(
                 "commits"
             ).getJsonObject(0);
-            final String repoFullName = this.project.repoFullName();
-            commit = this.project.projectManager().provider().repo(
-                repoFullName.split("/")[0],
-                repoFullName.split("/")[1]
-            ).commits().getCommit(latest.getString("id"));
-        } else {
-            commit = null;
+            this.commit = this.repo().commits().getCommit(
+                latest.getString("id")
+            );
         }
-        return commit;
+        return this.commit;
     }
 
     @Override
     public Project project() {
-        return project;
+        return this.project;
+    }
+
+    /**
+     * {@inheritDoc} Issues and Pull Requests share the same numbers on
+     * Github, so the number alone is the key.
+     */
+    @Override
+    public String issueKey() {
+        final String number;
+        if("pull_request".equalsIgnoreCase(this.type)) {
+            number = this.event.id("pull_request", "number");
+        } else if("issues".equalsIgnoreCase(this.type)
+            || "issue_comment".equalsIgnoreCase(this.type)) {
+            number = this.event.id("issue", "number");
+        } else {
+            number = "";
+        }
+        final String key;
+        if(number.isEmpty()) {
+            key = null;
+        } else {
+            key = number;
+        }
+        return key;
+    }
+
+    /**
+     * The Repo where the event happened.
+     * @return Repo.
+     */
+    private Repo repo() {
+        if(this.repo == null) {
+            final String[] repoFullName = this.project.repoFullName()
+                .split("/");
+            this.repo = this.project.projectManager().provider().repo(
+                repoFullName[0], repoFullName[1]
+            );
+        }
+        return this.repo;
     }
 
 }
@@ -25,18 +25,28 @@ package com.selfxdsd.core.projects;
 import com.selfxdsd.api.*;
 
 import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
-import java.io.StringReader;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
 
 /**
  * Webhook event coming from GitLab. This is the event which triggers
- * everything (conversations, steps etc).
+ * everything (conversations, steps etc).<br><br>
+ *
+ * The type is resolved from the routing fields (action, noteable_type),
+ * which are read without parsing the whole payload; the payload is parsed
+ * only when the Issue, Comment or Commit is needed. These, as well as
+ * the type and the Repo, are computed once. The Issue is built from the
+ * payload, without calling the API; the fields which the payload lacks
+ * are read from the API only if they are needed.
  * @author Mihai Andronache (amihaiemil@gmail.com)
  * @version $Id$
  * @since 0.0.61
  * @see <a href="https://docs.gitlab.com/ee/user/project/integrations/webhooks.html">Documentation.</a>
  */
-final class GitlabWebhookEvent implements Event {
+final class GitlabWebhookEvent implements WebhookEvent {
 
     /**
      * Project where the event happened.
@@ -51,11 +61,32 @@ final class GitlabWebhookEvent implements Event {
     /**
      * Event payload.
      */
-    private final JsonObject event;
+    private final WebhookPayload event;
 
     /**
-     * Cached Issue. We need this until we will be able to "receive"
-     * Issues from this event via GitlabIssues.receive (ticket self-core/961).
+     * Resolved type, null until it is first needed.
+     */
+    private String resolved;
+
+    /**
+     * Repo where the event happened, null until it is first needed.
+     */
+    private Repo repo;
+
+    /**
+     * Comment, null until it is first needed.
+     */
+    private Comment comment;
+
+    /**
+     * Commit, null until it is first needed.
+     */
+    private Commit commit;
+
+    /**
+     * Issue, null until it is first needed. It is built from the payload
+     * (via GitlabIssues.received), without calling Gitlab, and then
+     * reused for the rest of the event's steps.
      */
     private Issue issue;
 
@@ -69,95 +100,57 @@ final class GitlabWebhookEvent implements Event {
         final Project project,
         final String type,
         final String payload
+    ) {
+        this(project, type, new WebhookPayload(payload));
+    }
+
+    /**
+     * Ctor.
+     * @param project Project where the event happened.
+     * @param type Type.
+     * @param payload Payload.
+     */
+    GitlabWebhookEvent(
+        final Project project,
+        final String type,
+        final WebhookPayload payload
     ) {
         this.project = project;
         this.type = type;
-        this.event  = Json.createReader(
-            new StringReader(payload)
-        ).readObject();
+        this.event = payload;
     }
 
     @Override
     public String type() {
-        final String resolved;
-        if("Issue Hook".equalsIgnoreCase(this.type)
-            || "Merge Request Hook".equalsIgnoreCase(this.type)) {
-            final String action = this.event.getJsonObject(
-                "object_attributes"
-            ).getString("action", "");
-            if("open".equalsIgnoreCase(action)) {
-                resolved = Type.NEW_ISSUE;
-            } else if ("reopen".equalsIgnoreCase(action)) {
-                resolved = Type.REOPENED_ISSUE;
-            } else {
-                resolved = this.type;
-            }
-        } else if("Note Hook".equalsIgnoreCase(this.type)) {
-            final String noteableType = this.event.getJsonObject(
-                "object_attributes"
-            ).getString("noteable_type", "");
-            if("Issue".equalsIgnoreCase(noteableType)
-                || "MergeRequest".equalsIgnoreCase(noteableType)) {
-                resolved = Type.ISSUE_COMMENT;
-            } else {
-                resolved = this.type;
-            }
-        } else {
-            resolved = this.type;
+        if(this.resolved == null) {
+            this.resolved = this.resolve();
         }
-        return resolved;
+        return this.resolved;
     }
 
     @Override
     public Issue issue() {
         if(this.issue == null) {
-            final String iid;
-            boolean mergeRequest = false;
+            final JsonObject json = this.event.json();
             if ("Issue Hook".equalsIgnoreCase(this.type)
                 || "Merge Request Hook".equalsIgnoreCase(this.type)) {
-                if ("Merge Request Hook".equalsIgnoreCase(this.type)) {
-                    mergeRequest = true;
-                }
-                iid = String.valueOf(
-                    this.event.getJsonObject("object_attributes")
-                        .getInt("iid")
+                this.issue = this.received(
+                    "Merge Request Hook".equalsIgnoreCase(this.type),
+                    this.hooked(json.getJsonObject("object_attributes"), json)
                 );
             } else if ("Note Hook".equalsIgnoreCase(this.type)) {
-                final String noteableType = this.event.getJsonObject(
-                    "object_attributes"
-                ).getString("noteable_type", "");
+                final String noteableType = this.event.string(
+                    "object_attributes", "noteable_type"
+                );
                 if ("Issue".equalsIgnoreCase(noteableType)) {
-                    iid = String.valueOf(
-                        this.event.getJsonObject("issue")
-                            .getInt("iid")
+                    this.issue = this.received(
+                        false, this.noted(json.getJsonObject("issue"))
                     );
                 } else if ("MergeRequest".equalsIgnoreCase(noteableType)) {
-                    iid = String.valueOf(
-                        this.event.getJsonObject("merge_request")
-                            .getInt("iid")
+                    this.issue = this.received(
+                        true, this.noted(json.getJsonObject("merge_request"))
                     );
-                    mergeRequest = true;
-                } else {
-                    iid = null;
                 }
-            } else {
-                iid = null;
-            }
-            if (iid != null) {
-                final String repoFullName = this.project.repoFullName();
-                if (mergeRequest) {
-                    this.issue = this.project.projectManager().provider().repo(
-                        repoFullName.split("/")[0],
-                        repoFullName.split("/")[1]
-                    ).pullRequests().getById(iid);
-                } else {
-                    this.issue = this.project.projectManager().provider().repo(
-                        repoFullName.split("/")[0],
-                        repoFullName.split("/")[1]
-                    ).issues().getById(iid);
-                }
-            } else {
-                this.issue = null;
             }
         }
         return this.issue;
@@ -165,63 +158,271 @@ final class GitlabWebhookEvent implements Event {
 
     @Override
     public Comment comment() {
-        final JsonObject jsonComment;
-        if("Note Hook".equalsIgnoreCase(this.type)) {
-            final JsonObject attributes = this.event.getJsonObject(
-                "object_attributes"
-            );
-            final String noteableType = attributes.getString(
-                "noteable_type", ""
+        if(this.comment == null && "Note Hook".equalsIgnoreCase(this.type)) {
+            final String noteableType = this.event.string(
+                "object_attributes", "noteable_type"
             );
             if ("Issue".equalsIgnoreCase(noteableType)
                 || "MergeRequest".equalsIgnoreCase(noteableType)) {
-                jsonComment = Json.createObjectBuilder()
-                    .add("id", attributes.getInt("id"))
-                    .add("body", attributes.getString("note"))
-                    .add(
-                        "author",
-                        Json.createObjectBuilder()
-                            .add(
-                                "username",
-                                this.event.getJsonObject("user")
-                                    .getString("username")
-                            )
-                    ).build();
-            } else {
-                jsonComment = null;
+                final JsonObject attributes = this.event.json()
+                    .getJsonObject("object_attributes");
+                this.comment = this.issue().comments().received(
+                    Json.createObjectBuilder()
+                        .add("id", attributes.getInt("id"))
+                        .add("body", attributes.getString("note"))
+                        .add(
+                            "author",
+                            Json.createObjectBuilder()
+                                .add(
+                                    "username",
+                                    this.event.json().getJsonObject("user")
+                                        .getString("username")
+                                )
+                        ).build()
+                );
             }
-        } else {
-            jsonComment = null;
-        }
-        final Comment comment;
-        if(jsonComment != null) {
-            comment = this.issue().comments().received(jsonComment);
-        } else {
-            comment = null;
         }
-        return comment;
+        return this.comment;
     }
 
     @Override
     public Commit commit() {
-        final Commit commit;
-        if("Push Hook".equalsIgnoreCase(this.type)) {
-            final JsonObject latest = this.event.getJsonArray(
+        if(this.commit == null && "Push Hook".equalsIgnoreCase(this.type)) {
+            final JsonObject latest = this.event.json().getJsonArray(
                 "commits"
             ).getJsonObject(0);
-            final String repoFullName = this.project.repoFullName();
-            commit = this.project.projectManager().provider().repo(
-                repoFullName.split("/")[0],
-                repoFullName.split("/")[1]
-            ).commits().getCommit(latest.getString("id"));
-        } else {
-            commit = null;
+            this.commit = this.repo().commits().getCommit(
+                latest.getString("id")
+            );
         }
-        return commit;
+        return this.commit;
     }
 
     @Override
     public Project project() {
         return this.project;
     }
-}
\ No newline at end of file
+
+    /**
+     * {@inheritDoc} Issues and Merge Requests are numbered separately on
+     * Gitlab (iid), so the key is prefixed by the kind.
+     */
+    @Override
+    public String issueKey() {
+        String key = null;
+        if("Issue Hook".equalsIgnoreCase(this.type)) {
+            key = GitlabWebhookEvent.key(
+                "issue", this.event.id("object_attributes", "iid")
+            );
+        } else if("Merge Request Hook".equalsIgnoreCase(this.type)) {
+            key = GitlabWebhookEvent.key(
+                "mr", this.event.id("object_attributes", "iid")
+            );
+        } else if("Note Hook".equalsIgnoreCase(this.type)) {
+            final String noteableType = this.event.string(
+                "object_attributes", "noteable_type"
+            );
+            if("Issue".equalsIgnoreCase(noteableType)) {
+                key = GitlabWebhookEvent.key(
+                    "issue", this.event.id("issue", "iid")
+                );
+            } else if("MergeRequest".equalsIgnoreCase(noteableType)) {
+                key = GitlabWebhookEvent.key(
+                    "mr", this.event.id("merge_request", "iid")
+                );
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Key of an Issue or Merge Request.
+     * @param kind Kind (issue or mr).
+     * @param iid Its iid, empty if missing.
+     * @return Key or null if the iid is missing.
+     */
+    private static String key(final String kind, final String iid) {
+        final String key;
+        if(iid.isEmpty()) {
+            key = null;
+        } else {
+            key = kind + "/" + iid;
+        }
+        return key;
+    }
+
+    /**
+     * Build the Issue or Merge Request from its JSON, in the format of
+     * the API.
+     * @param mergeRequest Is it a Merge Request?
+     * @param json JSON built from the payload.
+     * @return Issue.
+     */
+    private Issue received(final boolean mergeRequest, final JsonObject json) {
+        final Issue received;
+        if(mergeRequest) {
+            received = this.repo().pullRequests().received(json);
+        } else {
+            received = this.repo().issues().received(json);
+        }
+        return received;
+    }
+
+    /**
+     * The Issue or Merge Request of an Issue Hook or Merge Request Hook,
+     * in the format of the API. The assignee and labels are top-level in
+     * these payloads, while the author is only known when the Issue is
+     * opened (the user who triggered the hook).
+     * @param attributes The object_attributes of the payload.
+     * @param payload The whole payload.
+     * @return JsonObject.
+     */
+    private JsonObject hooked(
+        final JsonObject attributes,
+        final JsonObject payload
+    ) {
+        final JsonObjectBuilder json = this.api(attributes);
+        if(payload.containsKey("assignees")) {
+            final JsonArray assignees = payload.getJsonArray("assignees");
+            if(assignees.isEmpty()) {
+                json.addNull("assignee");
+            } else {
+                json.add("assignee", assignees.getJsonObject(0));
+            }
+        }
+        if(payload.containsKey("labels")) {
+            json.add(
+                "labels",
+                GitlabWebhookEvent.titles(payload.getJsonArray("labels"))
+            );
+        }
+        if("open".equalsIgnoreCase(attributes.getString("action", ""))
+            && payload.containsKey("user")) {
+            json.add("author", payload.getJsonObject("user"));
+        }
+        return json.build();
+    }
+
+    /**
+     * The Issue or Merge Request of a Note Hook, in the format of the
+     * API. The author and assignee are missing (the payload only has
+     * their ids), so they will be read from the API, if needed.
+     * @param noted The issue or merge_request of the payload.
+     * @return JsonObject.
+     */
+    private JsonObject noted(final JsonObject noted) {
+        final JsonObjectBuilder json = this.api(noted);
+        if(noted.containsKey("labels")) {
+            json.add(
+                "labels",
+                GitlabWebhookEvent.titles(noted.getJsonArray("labels"))
+            );
+        }
+        return json.build();
+    }
+
+    /**
+     * Fields which the payload's Issue or Merge Request have in common
+     * with the API. The hook's object_kind is kept as well, so the Issue
+     * knows it was built from a payload and reads any missing field
+     * from the API.
+     * @param hook Issue or Merge Request from the payload.
+     * @return JsonObjectBuilder.
+     */
+    private JsonObjectBuilder api(final JsonObject hook) {
+        final int iid = hook.getInt("iid");
+        final String separator;
+        if("Merge Request Hook".equalsIgnoreCase(this.type)
+            || hook.containsKey("source_branch")) {
+            separator = "!";
+        } else {
+            separator = "#";
+        }
+        final JsonObjectBuilder json = Json.createObjectBuilder()
+            .add("object_kind", this.event.string("object_kind"))
+            .add("iid", iid)
+            .add(
+                "references",
+                Json.createObjectBuilder().add(
+                    "full", this.project.repoFullName() + separator + iid
+                )
+            );
+        for(final String key : new String[] {"title", "description", "state"}) {
+            if(hook.containsKey(key)) {
+                json.add(key, hook.get(key));
+            }
+        }
+        if(hook.containsKey("url")) {
+            json.add("web_url", hook.get("url"));
+        }
+        return json;
+    }
+
+    /**
+     * Titles of the labels from a payload (which are objects), as the
+     * API has them (Strings).
+     * @param labels Labels from the payload.
+     * @return JsonArray.
+     */
+    private static JsonArray titles(final JsonArray labels) {
+        final JsonArrayBuilder titles = Json.createArrayBuilder();
+        for(final JsonValue label : labels) {
+            if(label instanceof JsonObject) {
+                titles.add(((JsonObject) label).getString("title"));
+            } else {
+                titles.add(label);
+            }
+        }
+        return titles.build();
+    }
+
+    /**
+     * Resolve the type of this event, reading only the routing fields
+     * of the payload.
+     * @return Type.
+     */
+    private String resolve() {
+        final String resolved;
+        if("Issue Hook".equalsIgnoreCase(this.type)
+            || "Merge Request Hook".equalsIgnoreCase(this.type)) {
+            final String action = this.event.string(
+                "object_attributes", "action"
+            );
+            if("open".equalsIgnoreCase(action)) {
+                resolved = Type.NEW_ISSUE;
+            } else if ("reopen".equalsIgnoreCase(action)) {
+                resolved = Type.REOPENED_ISSUE;
+            } else {
+                resolved = this.type;
+            }
+        } else if("Note Hook".equalsIgnoreCase(this.type)) {
+            final String noteableType = this.event.string(
+                "object_attributes", "noteable_type"
+            );
+            if("Issue".equalsIgnoreCase(noteableType)
+                || "MergeRequest".equalsIgnoreCase(noteableType)) {
+                resolved = Type.ISSUE_COMMENT;
+            } else {
+                resolved = this.type;
+            }
+        } else {
+            resolved = this.type;
+        }
+        return resolved;
+    }
+
+    /**
+     * The Repo where the event happened.
+     * @return Repo.
+     */
+    private Repo repo() {
+        if(this.repo == null) {
+            final String[] repoFullName = this.project.repoFullName()
+                .split("/");
+            this.repo = this.project.projectManager().provider().repo(
+                repoFullName[0], repoFullName[1]
+            );
+        }
+        return this.repo;
+    }
+}
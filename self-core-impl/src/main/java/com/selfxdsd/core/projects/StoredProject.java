@@ -25,7 +25,9 @@ package com.selfxdsd.core.projects;
 import com.selfxdsd.api.*;
 import com.selfxdsd.api.exceptions.WalletAlreadyExistsException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.BillingInfoCache;
 import com.selfxdsd.core.Env;
+import com.selfxdsd.core.keys.ProjectKey;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Customer;
@@ -36,7 +38,6 @@ import org.slf4j.LoggerFactory;
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * A Project stored in Self. Use this class whe implementing the storage.
@@ -84,6 +85,11 @@ public final class StoredProject implements Project {
      */
     private final Storage storage;
 
+    /**
+     * Key of this Project, computed on first use.
+     */
+    private volatile ProjectKey key;
+
     /**
      * Constructor.
      * @param owner Owner of the project/repo.
@@ -323,6 +329,9 @@ public final class StoredProject implements Project {
                     .build()
             );
             LOG.debug("Created STRIPE Wallet [" + customer.getId() + "].");
+            BillingInfoCache.of(this.storage).put(
+                customer.getId(), new CustomerBillingInfo(customer)
+            );
             return this.storage.wallets().register(
                 this, Wallet.Type.STRIPE,
                 BigDecimal.valueOf(0), customer.getId()
@@ -353,7 +362,12 @@ public final class StoredProject implements Project {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.repoFullName, this.provider());
+        ProjectKey computed = this.key;
+        if(computed == null) {
+            computed = new ProjectKey(this);
+            this.key = computed;
+        }
+        return computed.hashCode();
     }
 
     @Override
@@ -26,13 +26,18 @@ import com.selfxdsd.api.*;
 import com.selfxdsd.api.exceptions.InvoiceException;
 import com.selfxdsd.api.exceptions.WalletPaymentException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.BillingInfoCache;
+import com.selfxdsd.core.Cents;
 import com.selfxdsd.core.Env;
 import com.selfxdsd.core.contracts.invoices.StoredInvoice;
+import com.selfxdsd.core.keys.ContributorKey;
 import com.stripe.Stripe;
+import com.stripe.exception.CardException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Customer;
 import com.stripe.model.PaymentIntent;
 import com.stripe.model.SetupIntent;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,9 +46,15 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * A Project's Stripe wallet.
@@ -51,6 +62,8 @@ import java.util.Objects;
  * @version $Id$
  * @since 0.0.27
  * @checkstyle ExecutableStatementCount (1000 lines)
+ * @checkstyle ClassFanOutComplexity (1000 lines)
+ * @checkstyle IllegalCatch (1000 lines)
  */
 public final class StripeWallet implements Wallet {
 
@@ -61,6 +74,17 @@ public final class StripeWallet implements Wallet {
         StripeWallet.class
     );
 
+    /**
+     * How many PaymentIntents are submitted in parallel by a payment run.
+     */
+    private static final int PARALLEL_PAYMENTS = 4;
+
+    /**
+     * EUR-RON exchange rate, cached and shared by the wallets which are
+     * not given their own {@link Bnr}.
+     */
+    private static final Bnr BNR = new CachedBnr();
+
     /**
      * Self Storage.
      */
@@ -91,6 +115,11 @@ public final class StripeWallet implements Wallet {
      */
     private final String stripeApiToken;
 
+    /**
+     * EUR-RON exchange rate.
+     */
+    private final Bnr bnr;
+
     /**
      * Ctor.
      * @param storage Self storage.
@@ -107,12 +136,38 @@ public final class StripeWallet implements Wallet {
         final String identifier,
         final boolean active,
         final String stripeApiToken
+    ) {
+        this(
+            storage, project, limit, identifier, active, BNR, stripeApiToken
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param storage Self storage.
+     * @param project Project to which this wallet belongs/
+     * @param limit Cash limit we're allowed to use.
+     * @param identifier Wallet identifier from Stripe's side.
+     * @param active Is this wallet active or not?
+     * @param bnr EUR-RON exchange rate.
+     * @param stripeApiToken Stripe API token.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    StripeWallet(
+        final Storage storage,
+        final Project project,
+        final BigDecimal limit,
+        final String identifier,
+        final boolean active,
+        final Bnr bnr,
+        final String stripeApiToken
     ) {
         this.storage = storage;
         this.project = project;
         this.identifier = identifier;
         this.limit = limit;
         this.active = active;
+        this.bnr = bnr;
         this.stripeApiToken = stripeApiToken;
     }
 
@@ -131,12 +186,37 @@ public final class StripeWallet implements Wallet {
         final String identifier,
         final boolean active
     ) {
-        this(storage,
+        this(storage, project, limit, identifier, active, BNR);
+    }
+
+    /**
+     * Ctor. Hosts should give all their wallets the same {@link Bnr}
+     * (e.g. a {@link CachedBnr} whose age they monitor).
+     * @param storage Self storage.
+     * @param project Project to which this wallet belongs/
+     * @param limit Cash limit we're allowed to use.
+     * @param identifier Wallet identifier from Stripe's side.
+     * @param active Is this wallet active or not?
+     * @param bnr EUR-RON exchange rate.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    public StripeWallet(
+        final Storage storage,
+        final Project project,
+        final BigDecimal limit,
+        final String identifier,
+        final boolean active,
+        final Bnr bnr
+    ) {
+        this(
+            storage,
             project,
             limit,
             identifier,
             active,
-            System.getenv(Env.STRIPE_API_TOKEN));
+            bnr,
+            System.getenv(Env.STRIPE_API_TOKEN)
+        );
     }
 
     @Override
@@ -159,17 +239,7 @@ public final class StripeWallet implements Wallet {
             + " Contract " + contract.contractId()
             + " from Wallet " + this.identifier
         );
-        if (invoice.isPaid()) {
-            LOG.error("[STRIPE] Invoice already paid.");
-            throw new InvoiceException.AlreadyPaid(invoice);
-        }
-
-        if (invoice.totalAmount().longValueExact() < 108 * 100) {
-            LOG.error("[STRIPE] In order to be paid, Invoice amount must"
-                + " be at least 108 €.");
-            throw new WalletPaymentException("In order to be paid, Invoice"
-                + " amount must be at least 108 €.");
-        }
+        this.checkPayable(invoice);
 
         final BigDecimal newLimit = this.limit.subtract(
             invoice.totalAmount()
@@ -186,46 +256,313 @@ public final class StripeWallet implements Wallet {
 
         ensureApiToken();
 
+        final PayoutMethod payoutMethod = this.payoutMethod(
+            contract.contributor()
+        );
+        final PaymentMethod paymentMethod = this.paymentMethod();
+        final BigDecimal vat = this.calculateVat(
+            invoice.commission(),
+            BillingInfoCache.of(this.storage).get(payoutMethod)
+        );
+        final BigDecimal eurToRon = this.bnr.euroToRon();
+        final Invoice paid = this.charge(
+            invoice, paymentMethod, payoutMethod, vat
+        );
         try {
+            this.storage.invoices().registerAsPaid(paid, vat, eurToRon);
+        } catch (final RuntimeException ex) {
+            LOG.error(
+                "[STRIPE] Invoice #" + invoice.invoiceId() + " was charged "
+                + "(transaction " + paid.transactionId() + "), but could "
+                + "not be registered as paid.",
+                ex
+            );
+            throw new WalletPaymentException(
+                "Invoice #" + invoice.invoiceId() + " was charged "
+                + "(transaction " + paid.transactionId() + "), but could "
+                + "not be registered as paid: " + ex.getMessage()
+            );
+        }
+        return this.updateCash(newLimit);
+    }
+
+    /**
+     * Pay several Invoices in one run. Everything that can fail without
+     * Stripe (already paid Invoices, too small amounts, the cash limit,
+     * missing payout or payment methods) is checked before any payment is
+     * made. The payment method, the exchange rate and every Contributor's
+     * payout method and billing info are resolved once per run. The
+     * PaymentIntents are then submitted on at most
+     * {@link #PARALLEL_PAYMENTS} threads, each with an idempotency key,
+     * so retrying a run does not charge an Invoice twice. Finally, the
+     * paid Invoices are registered and the cash is updated once.
+     * @param invoices The Invoices to be paid.
+     * @return Wallet with the updated cash limit.
+     * @throws WalletPaymentException If some Invoices could not be paid;
+     *  the others are registered as paid nevertheless.
+     */
+    @Override
+    public Wallet payAll(final List<Invoice> invoices) {
+        LOG.debug(
+            "[STRIPE] Trying to pay " + invoices.size() + " Invoices"
+            + " from Wallet " + this.identifier
+        );
+        BigDecimal total = BigDecimal.valueOf(0);
+        for(final Invoice invoice : invoices) {
+            this.checkPayable(invoice);
+            total = total.add(invoice.totalAmount());
+        }
+        if (this.limit.compareTo(total) < 0) {
+            LOG.error("[STRIPE] Not enough cash to pay the Invoices.");
+            throw new WalletPaymentException(
+                "Invoices value exceeds wallet limit. "
+                + "Please increase the limit of your wallet with "
+                + "at least " + total.subtract(this.limit)
+                .divide(BigDecimal.valueOf(100), RoundingMode.HALF_UP) + " €."
+            );
+        }
+        ensureApiToken();
+        final Map<ContributorKey, PayoutMethod> payouts = new HashMap<>();
+        for(final Invoice invoice : invoices) {
             final Contributor contributor = invoice.contract().contributor();
-            final PayoutMethod payoutMethod = this.storage
-                .payoutMethods()
-                .ofContributor(contributor)
-                .active();
-            if (payoutMethod == null) {
-                LOG.error(
-                    "[STRIPE] Contributor " + contributor.username()
-                    + " from " + contributor.provider() + " has no "
-                    + "PayoutMethod set up, cannot pay."
+            payouts.computeIfAbsent(
+                new ContributorKey(contributor),
+                key -> this.payoutMethod(contributor)
+            );
+        }
+        final PaymentMethod paymentMethod = this.paymentMethod();
+        final BillingInfoCache cache = BillingInfoCache.of(this.storage);
+        final Map<ContributorKey, BillingInfo> billing = new HashMap<>();
+        payouts.forEach(
+            (key, payout) -> billing.put(key, cache.get(payout))
+        );
+        final List<BigDecimal> vats = new ArrayList<>(invoices.size());
+        for(final Invoice invoice : invoices) {
+            vats.add(
+                this.calculateVat(
+                    invoice.commission(),
+                    billing.get(
+                        new ContributorKey(invoice.contract().contributor())
+                    )
+                )
+            );
+        }
+        final BigDecimal eurToRon = this.bnr.euroToRon();
+        final ExecutorService executor = Executors.newFixedThreadPool(
+            Math.max(1, Math.min(PARALLEL_PAYMENTS, invoices.size()))
+        );
+        try {
+            final List<Future<Invoice>> charges = new ArrayList<>(
+                invoices.size()
+            );
+            for(int idx = 0; idx < invoices.size(); ++idx) {
+                final Invoice invoice = invoices.get(idx);
+                final PayoutMethod payout = payouts.get(
+                    new ContributorKey(invoice.contract().contributor())
                 );
-                throw new WalletPaymentException(
-                    "Contributor " + contributor.username()
-                    + " hasn't finished setting up their Stripe account yet. "
-                    + "We cannot make the payment yet."
-
+                final BigDecimal vat = vats.get(idx);
+                charges.add(
+                    executor.submit(
+                        () -> this.charge(invoice, paymentMethod, payout, vat)
+                    )
                 );
             }
-            final PaymentMethod paymentMethod = this.storage
-                .paymentMethods()
-                .ofWallet(this)
-                .active();
-            if (paymentMethod == null) {
-                LOG.error(
-                    "[STRIPE] Project has no Payment Method (card) set up. "
-                    + "Cannot make payment."
-                );
-                throw new WalletPaymentException(
-                    "No active payment method for wallet #"
-                    + this.identifier + " of project "
-                    + this.project.repoFullName() + "/"
-                    + this.project.provider()
+            return this.register(invoices, vats, eurToRon, charges);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Wait for the charges of a payment run, register the paid Invoices
+     * and update the cash once. Each Invoice is handled on its own: an
+     * Invoice which was charged, but could not be registered as paid,
+     * is reported with its transaction, since it must not be charged
+     * again; the cash is updated for it nevertheless.
+     * @param invoices Invoices of the run.
+     * @param vats VAT of each Invoice.
+     * @param eurToRon EUR-RON exchange rate of the run.
+     * @param charges Charge of each Invoice.
+     * @return Wallet with the updated cash limit.
+     * @throws WalletPaymentException If some Invoices could not be paid
+     *  or registered.
+     */
+    private Wallet register(
+        final List<Invoice> invoices,
+        final List<BigDecimal> vats,
+        final BigDecimal eurToRon,
+        final List<Future<Invoice>> charges
+    ) {
+        BigDecimal paid = BigDecimal.valueOf(0);
+        final List<String> failed = new ArrayList<>();
+        final List<String> unregistered = new ArrayList<>();
+        for(int idx = 0; idx < charges.size(); ++idx) {
+            final Invoice invoice = invoices.get(idx);
+            Invoice charged = null;
+            try {
+                charged = charges.get(idx).get();
+            } catch (final ExecutionException ex) {
+                failed.add(
+                    "#" + invoice.invoiceId() + " ("
+                    + ex.getCause().getMessage() + ")"
                 );
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                failed.add("#" + invoice.invoiceId() + " (interrupted)");
+            }
+            if(charged != null) {
+                paid = paid.add(invoice.totalAmount());
+                try {
+                    this.storage.invoices().registerAsPaid(
+                        charged, vats.get(idx), eurToRon
+                    );
+                } catch (final RuntimeException ex) {
+                    LOG.error(
+                        "[STRIPE] Invoice #" + invoice.invoiceId()
+                        + " was charged, but could not be registered.",
+                        ex
+                    );
+                    unregistered.add(
+                        "#" + invoice.invoiceId() + " (transaction "
+                        + charged.transactionId() + ": "
+                        + ex.getMessage() + ")"
+                    );
+                }
             }
+        }
+        final Wallet updated = this.updateCash(this.limit.subtract(paid));
+        if(!failed.isEmpty() || !unregistered.isEmpty()) {
+            LOG.error(
+                "[STRIPE] Could not pay Invoices " + failed
+                + ", charged but could not register Invoices " + unregistered
+            );
+            throw new WalletPaymentException(
+                StripeWallet.summary(invoices.size(), failed, unregistered)
+            );
+        }
+        return updated;
+    }
+
+    /**
+     * Summary of a payment run which did not go through completely.
+     * @param total Number of Invoices in the run.
+     * @param failed Invoices which could not be paid.
+     * @param unregistered Invoices which were charged, but could not be
+     *  registered as paid.
+     * @return Message.
+     */
+    private static String summary(
+        final int total,
+        final List<String> failed,
+        final List<String> unregistered
+    ) {
+        final StringBuilder summary = new StringBuilder()
+            .append("Paid ").append(total - failed.size())
+            .append(" out of ").append(total).append(" Invoices.");
+        if(!failed.isEmpty()) {
+            summary.append(" Could not pay: ")
+                .append(String.join(", ", failed)).append('.');
+        }
+        if(!unregistered.isEmpty()) {
+            summary.append(" Charged, but not registered as paid: ")
+                .append(String.join(", ", unregistered)).append('.');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Make sure the Invoice can be paid.
+     * @param invoice Invoice.
+     */
+    private void checkPayable(final Invoice invoice) {
+        if (invoice.isPaid()) {
+            LOG.error("[STRIPE] Invoice already paid.");
+            throw new InvoiceException.AlreadyPaid(invoice);
+        }
 
-            final BigDecimal vat = this.calculateVat(
-                invoice.commission(),
-                payoutMethod.billingInfo()
+        if (invoice.totalAmount().longValueExact() < 108 * 100) {
+            LOG.error("[STRIPE] In order to be paid, Invoice amount must"
+                + " be at least 108 €.");
+            throw new WalletPaymentException("In order to be paid, Invoice"
+                + " amount must be at least 108 €.");
+        }
+    }
+
+    /**
+     * Active PayoutMethod of a Contributor.
+     * @param contributor Contributor.
+     * @return PayoutMethod, never null.
+     */
+    private PayoutMethod payoutMethod(final Contributor contributor) {
+        final PayoutMethod payoutMethod = this.storage
+            .payoutMethods()
+            .ofContributor(contributor)
+            .active();
+        if (payoutMethod == null) {
+            LOG.error(
+                "[STRIPE] Contributor " + contributor.username()
+                + " from " + contributor.provider() + " has no "
+                + "PayoutMethod set up, cannot pay."
+            );
+            throw new WalletPaymentException(
+                "Contributor " + contributor.username()
+                + " hasn't finished setting up their Stripe account yet. "
+                + "We cannot make the payment yet."
+
+            );
+        }
+        return payoutMethod;
+    }
+
+    /**
+     * Active PaymentMethod of this Wallet.
+     * @return PaymentMethod, never null.
+     */
+    private PaymentMethod paymentMethod() {
+        final PaymentMethod paymentMethod = this.storage
+            .paymentMethods()
+            .ofWallet(this)
+            .active();
+        if (paymentMethod == null) {
+            LOG.error(
+                "[STRIPE] Project has no Payment Method (card) set up. "
+                + "Cannot make payment."
             );
+            throw new WalletPaymentException(
+                "No active payment method for wallet #"
+                + this.identifier + " of project "
+                + this.project.repoFullName() + "/"
+                + this.project.provider()
+            );
+        }
+        return paymentMethod;
+    }
+
+    /**
+     * Create and confirm the Stripe PaymentIntent of an Invoice. The
+     * idempotency key is made of the Invoice, the PaymentMethod and the
+     * number of failed attempts so far, which every Storage persists with
+     * the Invoice.
+     * Retrying after a crash (no answer from Stripe) reuses the key, so
+     * the same Invoice is never charged twice on the same card. A payment
+     * which Stripe refused (declined card, authentication required etc.)
+     * is registered as a failed attempt, so the next attempt gets a new
+     * key and is not answered with the cached failure.
+     * @param invoice Invoice.
+     * @param paymentMethod PaymentMethod charged.
+     * @param payoutMethod PayoutMethod of the Contributor.
+     * @param vat VAT of Self's commission.
+     * @return The paid Invoice, to be registered.
+     */
+    private Invoice charge(
+        final Invoice invoice,
+        final PaymentMethod paymentMethod,
+        final PayoutMethod payoutMethod,
+        final BigDecimal vat
+    ) {
+        Invoice paid = null;
+        final int attempt = this.storage.invoices().failedPayments(invoice);
+        try {
             final PaymentIntent paymentIntent = PaymentIntent
                 .create(
                     PaymentIntentCreateParams.builder()
@@ -245,10 +582,17 @@ public final class StripeWallet implements Wallet {
                         )
                         .setDescription(
                             "Payment for Invoice #" + invoice.invoiceId() + " "
-                            + "of Contract " + contract.contractId() + ". "
+                            + "of Contract " + invoice.contract().contractId()
+                            + ". "
                         )
                         .setOffSession(true)
                         .setConfirm(true)
+                        .build(),
+                    RequestOptions.builder()
+                        .setIdempotencyKey(
+                            "invoice-" + invoice.invoiceId() + "-"
+                            + paymentMethod.identifier() + "-" + attempt
+                        )
                         .build()
                 );
 
@@ -258,35 +602,36 @@ public final class StripeWallet implements Wallet {
                 final LocalDateTime paymentDate = LocalDateTime
                     .ofEpochSecond(paymentIntent.getCreated(),
                         0, OffsetDateTime.now().getOffset());
-                this.storage.invoices()
-                    .registerAsPaid(
-                        new StoredInvoice(
-                            invoice.invoiceId(),
-                            invoice.contract(),
-                            invoice.createdAt(),
-                            paymentDate,
-                            paymentIntent.getId(),
-                            invoice.billedBy(),
-                            invoice.billedTo(),
-                            this.storage
-                        ),
-                        vat,
-                        new XmlBnr().euroToRon()
-                    );
+                paid = new StoredInvoice(
+                    invoice.invoiceId(),
+                    invoice.contract(),
+                    invoice.createdAt(),
+                    paymentDate,
+                    paymentIntent.getId(),
+                    invoice.billedBy(),
+                    invoice.billedTo(),
+                    this.storage
+                );
             } else {
                 LOG.error("[STRIPE] PaymentIntent status: " + status);
-                LOG.error("[STRIPE] Cancelling PaymentIntent...");
-                paymentIntent.cancel();
-                LOG.error("[STRIPE] PaymentIntent successfully cancelled.");
+                this.storage.invoices().registerFailedPayment(invoice);
+                if (!"canceled".equals(status)) {
+                    LOG.error("[STRIPE] Cancelling PaymentIntent...");
+                    paymentIntent.cancel();
+                    LOG.error("[STRIPE] PaymentIntent successfully cancelled.");
+                }
                 throw new WalletPaymentException(
                     "Could not pay invoice #" + invoice.invoiceId() + " due to"
                     + " Stripe payment intent status \"" + status + "\""
                 );
             }
+        } catch (final CardException ex) {
+            this.storage.invoices().registerFailedPayment(invoice);
+            this.rethrowStripeException(ex, invoice.invoiceId());
         } catch (final StripeException ex) {
             this.rethrowStripeException(ex, invoice.invoiceId());
         }
-        return this.updateCash(newLimit);
+        return paid;
     }
 
     /**
@@ -366,6 +711,17 @@ public final class StripeWallet implements Wallet {
 
     @Override
     public BillingInfo billingInfo() {
+        return BillingInfoCache.of(this.storage).get(
+            this.identifier, StripeWallet::customer
+        );
+    }
+
+    /**
+     * Fetch the BillingInfo of a Stripe Customer.
+     * @param identifier Customer id.
+     * @return BillingInfo.
+     */
+    private static BillingInfo customer(final String identifier) {
         final String apiToken = System.getenv(Env.STRIPE_API_TOKEN);
         if(apiToken == null || apiToken.trim().isEmpty()) {
             throw new IllegalStateException(
@@ -377,7 +733,7 @@ public final class StripeWallet implements Wallet {
         Stripe.apiKey = apiToken;
         try {
             return new CustomerBillingInfo(
-                Customer.retrieve(this.identifier)
+                Customer.retrieve(identifier)
             );
         } catch (final StripeException ex) {
             throw new IllegalStateException(
@@ -470,13 +826,9 @@ public final class StripeWallet implements Wallet {
         final BigDecimal calculated;
         final String countryCode = contributor.country();
         if(Country.isFromEu(countryCode)) {
-            final BigDecimal vat = commission.multiply(
-                BigDecimal.valueOf(19)
-            ).divide(
-                BigDecimal.valueOf(100),
-                0,
-                RoundingMode.HALF_UP
-            );
+            final BigDecimal vat = Cents.of(commission)
+                .ratio(19, 100)
+                .decimal();
             if(!"RO".equalsIgnoreCase(countryCode)) {
                 final String taxId = contributor.taxId();
                 if (taxId != null && !taxId.isEmpty()) {
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Recently seen webhook deliveries, to drop the ones which Github or
+ * Gitlab deliver again (on timeouts or manual retries) before they are
+ * queued or resolved. Deliveries are identified by the X-GitHub-Delivery
+ * or X-Gitlab-Event-UUID header.<br><br>
+ *
+ * A delivery is remembered by {@link #first(String)}, before the event
+ * is accepted, so a duplicate arriving meanwhile is dropped. If the event
+ * is then not accepted (e.g. {@link WebhookQueue#accept} refuses it or
+ * throws), the endpoint must call {@link #forget(String)} before
+ * answering with an error, otherwise the Provider's retry would be
+ * dropped as a duplicate and the event lost.<br><br>
+ *
+ * The ids are kept in two generations: a new generation is started once
+ * the current one is older than the window or holds as many ids as the
+ * capacity allows, and the oldest generation is forgotten. So an id is
+ * remembered for at least one window (unless more than capacity
+ * deliveries arrive in it) and for at most two.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class WebhookDeliveries {
+
+    /**
+     * Duration of a generation.
+     */
+    private final Duration window;
+
+    /**
+     * Maximum number of ids in a generation.
+     */
+    private final int capacity;
+
+    /**
+     * Current time.
+     */
+    private final Supplier<Instant> now;
+
+    /**
+     * Ids of the current generation.
+     */
+    private Set<String> current = new HashSet<>();
+
+    /**
+     * Ids of the previous generation.
+     */
+    private Set<String> previous = new HashSet<>();
+
+    /**
+     * When the current generation started.
+     */
+    private Instant started;
+
+    /**
+     * Number of dropped duplicates.
+     */
+    private long duplicates;
+
+    /**
+     * Ctor. Remembers the deliveries of the last hour, up to 100.000
+     * per half hour.
+     */
+    public WebhookDeliveries() {
+        this(Duration.ofMinutes(30), 100_000);
+    }
+
+    /**
+     * Ctor.
+     * @param window Duration of a generation.
+     * @param capacity Maximum number of ids in a generation.
+     */
+    public WebhookDeliveries(final Duration window, final int capacity) {
+        this(window, capacity, Instant::now);
+    }
+
+    /**
+     * Ctor.
+     * @param window Duration of a generation.
+     * @param capacity Maximum number of ids in a generation.
+     * @param now Current time.
+     */
+    public WebhookDeliveries(
+        final Duration window,
+        final int capacity,
+        final Supplier<Instant> now
+    ) {
+        this.window = window;
+        this.capacity = capacity;
+        this.now = now;
+        this.started = now.get();
+    }
+
+    /**
+     * Is this the first time the delivery is seen? If not, it is counted
+     * as a duplicate. Deliveries without an id are always first.
+     * @param delivery Value of X-GitHub-Delivery or X-Gitlab-Event-UUID.
+     * @return True if it should be processed, false if it is a duplicate.
+     */
+    public synchronized boolean first(final String delivery) {
+        boolean first = true;
+        if(delivery != null && !delivery.isEmpty()) {
+            this.rotate();
+            first = !this.previous.contains(delivery)
+                && this.current.add(delivery);
+            if(!first) {
+                this.duplicates = this.duplicates + 1;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Forget a delivery, so its next delivery is processed. Call it only
+     * if the event of a delivery for which {@link #first(String)}
+     * returned true was not accepted.
+     * @param delivery Value of X-GitHub-Delivery or X-Gitlab-Event-UUID.
+     */
+    public synchronized void forget(final String delivery) {
+        if(delivery != null) {
+            this.current.remove(delivery);
+            this.previous.remove(delivery);
+        }
+    }
+
+    /**
+     * Number of duplicate deliveries seen so far.
+     * @return Long.
+     */
+    public synchronized long duplicates() {
+        return this.duplicates;
+    }
+
+    /**
+     * Start a new generation, if the current one is too old or full.
+     */
+    private void rotate() {
+        final Instant time = this.now.get();
+        final Instant end = this.started.plus(this.window);
+        if(!time.isBefore(end) || this.current.size() >= this.capacity) {
+            if(time.isBefore(end.plus(this.window))) {
+                this.previous = this.current;
+            } else {
+                this.previous = new HashSet<>();
+            }
+            this.current = new HashSet<>();
+            this.started = time;
+        }
+    }
+}
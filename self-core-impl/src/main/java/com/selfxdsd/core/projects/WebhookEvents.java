@@ -26,6 +26,9 @@ import com.selfxdsd.api.Event;
 import com.selfxdsd.api.Project;
 import com.selfxdsd.api.Provider;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * Webhook events factory. This class is used by self-pm and self-todos,
  * to create an Event from the payload they receive from Github/GitLab.
@@ -41,6 +44,11 @@ public final class WebhookEvents {
      */
     private WebhookEvents(){}
 
+    /**
+     * Default limit of a payload's size: 25 MB, the most Github sends.
+     */
+    public static final int MAX_PAYLOAD = 25 * 1024 * 1024;
+
     /**
      * Create the appropriate webhook event.
      * @param project Project where the event took place.
@@ -52,6 +60,76 @@ public final class WebhookEvents {
         final Project project,
         final String type,
         final String payload
+    ){
+        return WebhookEvents.create(
+            project, type, new WebhookPayload(payload)
+        );
+    }
+
+    /**
+     * Create the appropriate webhook event from the raw payload, as
+     * received from the Provider.
+     * @param project Project where the event took place.
+     * @param type Type of the event.
+     * @param payload Payload in JSON, UTF-8 bytes.
+     * @return Event.
+     */
+    public static Event create(
+        final Project project,
+        final String type,
+        final byte[] payload
+    ){
+        return WebhookEvents.create(
+            project, type, new WebhookPayload(payload)
+        );
+    }
+
+    /**
+     * Read the body of a webhook delivery, up to {@link #MAX_PAYLOAD}.
+     * @param body Body of the delivery.
+     * @return The bytes read.
+     * @throws IOException If the body cannot be read.
+     * @throws IllegalArgumentException If the body is bigger than the
+     *  limit.
+     */
+    public static byte[] read(final InputStream body) throws IOException {
+        return WebhookEvents.read(body, MAX_PAYLOAD);
+    }
+
+    /**
+     * Read the body of a webhook delivery, failing as soon as it goes
+     * over the limit, so an oversized delivery is never fully buffered.
+     * @param body Body of the delivery.
+     * @param limit Maximum number of bytes.
+     * @return The bytes read.
+     * @throws IOException If the body cannot be read.
+     * @throws IllegalArgumentException If the body is bigger than the
+     *  limit.
+     */
+    public static byte[] read(
+        final InputStream body,
+        final int limit
+    ) throws IOException {
+        final byte[] bytes = body.readNBytes(limit);
+        if(body.read() != -1) {
+            throw new IllegalArgumentException(
+                "Webhook payload is bigger than " + limit + " bytes."
+            );
+        }
+        return bytes;
+    }
+
+    /**
+     * Create the appropriate webhook event.
+     * @param project Project where the event took place.
+     * @param type Type of the event.
+     * @param payload Payload.
+     * @return Event.
+     */
+    private static Event create(
+        final Project project,
+        final String type,
+        final WebhookPayload payload
     ){
         final String provider = project.provider();
         final Event event;
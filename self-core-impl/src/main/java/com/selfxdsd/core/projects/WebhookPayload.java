@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import javax.json.Json;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Payload of a webhook event, parsed lazily. The routing fields (e.g. the
+ * action) are read with a streaming parser, which stops as soon as it
+ * finds them and skips over the other objects and arrays without building
+ * them. The whole JsonObject is only built (once) when it is needed, so
+ * the events which are filtered out don't pay for it. The payload is
+ * kept as the raw UTF-8 bytes received from the Provider.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class WebhookPayload {
+
+    /**
+     * The raw payload, in UTF-8.
+     */
+    private final byte[] payload;
+
+    /**
+     * The parsed payload, null until it is needed.
+     */
+    private JsonObject json;
+
+    /**
+     * Ctor.
+     * @param payload The raw payload.
+     */
+    WebhookPayload(final String payload) {
+        this(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ctor.
+     * @param payload The raw payload, in UTF-8.
+     */
+    WebhookPayload(final byte[] payload) {
+        this.payload = payload;
+    }
+
+    /**
+     * String value at the given path of keys, e.g.
+     * ("object_attributes", "action").
+     * @param path Path of keys.
+     * @return The value, or the empty String if it is missing or it is
+     *  not a String.
+     */
+    String string(final String... path) {
+        return this.value(false, path);
+    }
+
+    /**
+     * Id at the given path of keys, e.g. ("issue", "number"), read like
+     * {@link #string(String...)}, but it can be a number as well.
+     * @param path Path of keys.
+     * @return The id as text, or the empty String if it is missing or it
+     *  is neither a String nor a number.
+     */
+    String id(final String... path) {
+        return this.value(true, path);
+    }
+
+    /**
+     * The whole payload, parsed the first time it is needed.
+     * @return JsonObject.
+     */
+    JsonObject json() {
+        if(this.json == null) {
+            this.json = Json.createReader(
+                new ByteArrayInputStream(this.payload)
+            ).readObject();
+        }
+        return this.json;
+    }
+
+    /**
+     * Read a value, from the parsed payload if it is already parsed,
+     * otherwise with a streaming parser.
+     * @param numbers Are numbers read as well?
+     * @param path Path of keys.
+     * @return The value or the empty String.
+     */
+    private String value(final boolean numbers, final String... path) {
+        final String value;
+        if(this.json == null) {
+            value = this.streamed(numbers, path);
+        } else {
+            value = WebhookPayload.parsed(this.json, numbers, path);
+        }
+        return value;
+    }
+
+    /**
+     * Read the value with a streaming parser.
+     * @param numbers Are numbers read as well?
+     * @param path Path of keys.
+     * @return The value or the empty String.
+     */
+    private String streamed(final boolean numbers, final String... path) {
+        String value = "";
+        try (JsonParser parser = Json.createParser(
+            new ByteArrayInputStream(this.payload)
+        )) {
+            if(parser.hasNext()
+                && parser.next() == JsonParser.Event.START_OBJECT) {
+                value = WebhookPayload.find(parser, path, 0, numbers);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Find the value in the object the parser has just entered.
+     * @param parser Parser, right after the START_OBJECT event.
+     * @param path Path of keys.
+     * @param level Index of the key to look for in this object.
+     * @param numbers Are numbers read as well?
+     * @return The value or the empty String.
+     */
+    private static String find(
+        final JsonParser parser,
+        final String[] path,
+        final int level,
+        final boolean numbers
+    ) {
+        String value = "";
+        boolean done = false;
+        while(!done && parser.hasNext()) {
+            final JsonParser.Event event = parser.next();
+            if(event == JsonParser.Event.KEY_NAME) {
+                final boolean match = path[level].equals(parser.getString());
+                final JsonParser.Event next = parser.next();
+                if(match) {
+                    value = WebhookPayload.matched(
+                        parser, next, path, level, numbers
+                    );
+                    done = true;
+                } else {
+                    WebhookPayload.skip(parser, next);
+                }
+            } else {
+                done = event == JsonParser.Event.END_OBJECT;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Read the value of a matching key.
+     * @param parser Parser, positioned on the key's value.
+     * @param event Event of the key's value.
+     * @param path Path of keys.
+     * @param level Index of the matching key.
+     * @param numbers Are numbers read as well?
+     * @return The value or the empty String.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    private static String matched(
+        final JsonParser parser,
+        final JsonParser.Event event,
+        final String[] path,
+        final int level,
+        final boolean numbers
+    ) {
+        final String value;
+        if(level == path.length - 1
+            && (event == JsonParser.Event.VALUE_STRING
+            || numbers && event == JsonParser.Event.VALUE_NUMBER)) {
+            value = parser.getString();
+        } else if(level < path.length - 1
+            && event == JsonParser.Event.START_OBJECT) {
+            value = WebhookPayload.find(parser, path, level + 1, numbers);
+        } else {
+            value = "";
+        }
+        return value;
+    }
+
+    /**
+     * Skip over a value: if it is an object or an array, advance the
+     * parser to its end, without building it.
+     * @param parser Parser, positioned on the value.
+     * @param event Event of the value.
+     */
+    private static void skip(
+        final JsonParser parser,
+        final JsonParser.Event event
+    ) {
+        if(event == JsonParser.Event.START_OBJECT
+            || event == JsonParser.Event.START_ARRAY) {
+            int depth = 1;
+            while(depth > 0) {
+                final JsonParser.Event next = parser.next();
+                if(next == JsonParser.Event.START_OBJECT
+                    || next == JsonParser.Event.START_ARRAY) {
+                    depth = depth + 1;
+                } else if(next == JsonParser.Event.END_OBJECT
+                    || next == JsonParser.Event.END_ARRAY) {
+                    depth = depth - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read the value from the parsed payload.
+     * @param json Parsed payload.
+     * @param numbers Are numbers read as well?
+     * @param path Path of keys.
+     * @return The value or the empty String.
+     */
+    private static String parsed(
+        final JsonObject json,
+        final boolean numbers,
+        final String[] path
+    ) {
+        JsonObject object = json;
+        for(int idx = 0; object != null && idx < path.length - 1; ++idx) {
+            final JsonValue value = object.get(path[idx]);
+            if(value instanceof JsonObject) {
+                object = (JsonObject) value;
+            } else {
+                object = null;
+            }
+        }
+        final String value;
+        if(object == null) {
+            value = "";
+        } else if(numbers
+            && object.get(path[path.length - 1]) instanceof JsonNumber) {
+            value = object.get(path[path.length - 1]).toString();
+        } else {
+            value = object.getString(path[path.length - 1], "");
+        }
+        return value;
+    }
+}
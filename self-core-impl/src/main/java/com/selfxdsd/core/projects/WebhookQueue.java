@@ -0,0 +1,838 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Projects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ingestion queue for the webhook events. The webhook endpoint only
+ * calls {@link #accept(Project, String, byte[])}, which writes the raw
+ * payload to the spool directory and queues it, so the endpoint can
+ * acknowledge right away; the event is created and resolved
+ * ({@link WebhookEvents#create(Project, String, byte[])} and
+ * {@link Project#resolve(com.selfxdsd.api.Event)}) later, on a
+ * dispatching thread.<br><br>
+ *
+ * The events are partitioned by Project: each partition has one thread
+ * and a bounded queue, so the events of a Project (and of each of its
+ * Issues) are resolved strictly in the order they were accepted, while
+ * different Projects are resolved in parallel. When a partition's queue
+ * is above the shedding limit, low-priority events (e.g. pushes) are
+ * refused; when it is full, all events are refused. A refused event is
+ * not persisted, so the endpoint should answer with an error and let the
+ * Provider retry it.<br><br>
+ *
+ * The spooled events which were not dispatched before a restart are
+ * queued again by {@link #recover(Projects)}, with their payload exactly
+ * as it was accepted. The recovered events which don't fit in the queue
+ * wait in the spool and are queued as soon as there is room; until all
+ * of a Project's recovered events are queued, its new events are
+ * refused, so they are never resolved before the older ones.<br><br>
+ *
+ * A spooled event is forced to disk before it is moved into the spool,
+ * so it is never partial. The move itself is not forced (the JDK cannot
+ * force a directory portably), so the spool covers process crashes;
+ * after a power loss, the events accepted in the last moments before it
+ * may be missing.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ * @checkstyle ClassDataAbstractionCoupling (500 lines)
+ * @checkstyle IllegalCatch (500 lines)
+ */
+public final class WebhookQueue implements AutoCloseable {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(
+        WebhookQueue.class
+    );
+
+    /**
+     * Extension of the spooled events.
+     */
+    private static final String EXTENSION = ".event";
+
+    /**
+     * Spool directory.
+     */
+    private final Path spool;
+
+    /**
+     * Above how many queued events (per partition) are the low-priority
+     * events shed.
+     */
+    private final int shedAbove;
+
+    /**
+     * Types of the low-priority events.
+     */
+    private final Set<String> lowPriority;
+
+    /**
+     * Resolves the events.
+     */
+    private final Dispatch dispatch;
+
+    /**
+     * The partitions.
+     */
+    private final ThreadPoolExecutor[] partitions;
+
+    /**
+     * Recovered events which are not queued yet, in the order they were
+     * accepted. Guarded by itself.
+     */
+    private final Deque<Recovered> backlog = new ArrayDeque<>();
+
+    /**
+     * Sequence of the spooled events.
+     */
+    private final AtomicLong sequence;
+
+    /**
+     * Number of shed low-priority events.
+     */
+    private final AtomicLong shed = new AtomicLong();
+
+    /**
+     * Number of events refused because the queue was full.
+     */
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Number of dispatched events.
+     */
+    private final AtomicLong dispatched = new AtomicLong();
+
+    /**
+     * Number of events which failed to be resolved.
+     */
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Ctor. Up to 4 partitions of 1000 events each; pushes are shed when
+     * a partition has more than 750 events queued.
+     * @param spool Spool directory.
+     */
+    public WebhookQueue(final Path spool) {
+        this(
+            spool,
+            Math.min(4, Runtime.getRuntime().availableProcessors()),
+            1000,
+            750,
+            Set.of("push", "Push Hook")
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param spool Spool directory.
+     * @param partitions Number of partitions (dispatching threads).
+     * @param capacity Capacity of each partition's queue.
+     * @param shedAbove Above how many queued events (per partition) are
+     *  the low-priority events shed.
+     * @param lowPriority Types of the low-priority events.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    public WebhookQueue(
+        final Path spool,
+        final int partitions,
+        final int capacity,
+        final int shedAbove,
+        final Set<String> lowPriority
+    ) {
+        this(
+            spool, partitions, capacity, shedAbove, lowPriority,
+            (project, type, payload) -> project.resolve(
+                WebhookEvents.create(project, type, payload)
+            )
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param spool Spool directory.
+     * @param partitions Number of partitions (dispatching threads).
+     * @param capacity Capacity of each partition's queue.
+     * @param shedAbove Above how many queued events (per partition) are
+     *  the low-priority events shed.
+     * @param lowPriority Types of the low-priority events.
+     * @param dispatch Resolves the events.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    WebhookQueue(
+        final Path spool,
+        final int partitions,
+        final int capacity,
+        final int shedAbove,
+        final Set<String> lowPriority,
+        final Dispatch dispatch
+    ) {
+        if(partitions < 1 || capacity < 1) {
+            throw new IllegalArgumentException(
+                "There must be at least one partition, with capacity "
+                + "for at least one event."
+            );
+        }
+        this.spool = spool;
+        this.shedAbove = shedAbove;
+        this.lowPriority = lowPriority;
+        this.dispatch = dispatch;
+        this.partitions = new ThreadPoolExecutor[partitions];
+        for(int idx = 0; idx < partitions; ++idx) {
+            this.partitions[idx] = WebhookQueue.partition(idx, capacity);
+        }
+        this.sequence = new AtomicLong(WebhookQueue.last(spool));
+    }
+
+    /**
+     * Accept an event: spool and queue it.
+     * @param project Project where the event happened.
+     * @param type Type of the event, as sent by the Provider.
+     * @param payload Payload in JSON, as received (UTF-8 bytes).
+     * @return True if the event was accepted, false if it was refused
+     *  (shed, the queue is full or older recovered events of the Project
+     *  are still waiting).
+     * @throws IOException If the event cannot be spooled.
+     */
+    public boolean accept(
+        final Project project,
+        final String type,
+        final byte[] payload
+    ) throws IOException {
+        final ThreadPoolExecutor partition = this.partition(project);
+        final boolean accepted;
+        if(this.lowPriority.contains(type)
+            && partition.getQueue().size() >= this.shedAbove) {
+            this.shed.incrementAndGet();
+            LOG.warn(
+                "Shedding " + type + " event of Project "
+                + project.repoFullName() + " at " + project.provider() + "."
+            );
+            accepted = false;
+        } else if(this.behind(partition, project)) {
+            this.rejected.incrementAndGet();
+            LOG.warn(
+                "Recovered events of Project " + project.repoFullName()
+                + " are still waiting, refusing " + type + " event."
+            );
+            accepted = false;
+        } else {
+            final Path file = this.write(project, type, payload);
+            accepted = this.queue(
+                partition, new Item(project, type, payload, file)
+            );
+            if(!accepted && file != null) {
+                Files.deleteIfExists(file);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Queue again the events left in the spool directory (e.g. before a
+     * restart), in the order they were accepted. The events of Projects
+     * which don't exist anymore are dropped; the ones which don't fit in
+     * the queue wait in the spool and are queued as soon as their
+     * partition has room. It should be called once, at startup, before
+     * accepting new events.
+     * @param projects Projects, to find the events' Projects.
+     * @return Number of events queued right away.
+     * @throws IOException If the spool directory cannot be read.
+     */
+    public int recover(final Projects projects) throws IOException {
+        synchronized (this.backlog) {
+            for(final Path file : WebhookQueue.spooled(this.spool)) {
+                final Spooled event = Spooled.read(file);
+                final Project project = projects.getProjectById(
+                    event.repo, event.provider
+                );
+                if(project == null) {
+                    LOG.warn(
+                        "Dropping spooled event " + file + ", no Project."
+                    );
+                    Files.deleteIfExists(file);
+                } else {
+                    this.backlog.add(
+                        new Recovered(project, event.type, file)
+                    );
+                }
+            }
+            int recovered = 0;
+            for(final ThreadPoolExecutor partition : this.partitions) {
+                recovered = recovered + this.drain(partition);
+            }
+            return recovered;
+        }
+    }
+
+    /**
+     * Number of events waiting to be dispatched.
+     * @return Integer.
+     */
+    public int pending() {
+        int pending = 0;
+        for(final ThreadPoolExecutor partition : this.partitions) {
+            pending = pending + partition.getQueue().size();
+        }
+        return pending;
+    }
+
+    /**
+     * Lag of the queue: for how long the oldest waiting event has been
+     * waiting.
+     * @return Duration, zero if no event is waiting.
+     */
+    public Duration lag() {
+        final long now = System.nanoTime();
+        long lag = 0;
+        for(final ThreadPoolExecutor partition : this.partitions) {
+            final Item oldest = (Item) partition.getQueue().peek();
+            if(oldest != null) {
+                lag = Math.max(lag, now - oldest.accepted);
+            }
+        }
+        return Duration.ofNanos(lag);
+    }
+
+    /**
+     * Number of low-priority events which were shed.
+     * @return Long.
+     */
+    public long shed() {
+        return this.shed.get();
+    }
+
+    /**
+     * Number of events refused because the queue was full.
+     * @return Long.
+     */
+    public long rejected() {
+        return this.rejected.get();
+    }
+
+    /**
+     * Number of dispatched events (including the failed ones).
+     * @return Long.
+     */
+    public long dispatched() {
+        return this.dispatched.get();
+    }
+
+    /**
+     * Number of events which failed to be resolved.
+     * @return Long.
+     */
+    public long failed() {
+        return this.failed.get();
+    }
+
+    /**
+     * Stop accepting events and wait (up to 30 seconds) for the queued
+     * ones to be dispatched. The ones left are still in the spool.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        for(final ThreadPoolExecutor partition : this.partitions) {
+            partition.shutdown();
+        }
+        for(final ThreadPoolExecutor partition : this.partitions) {
+            partition.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Queue an event on its partition.
+     * @param partition Partition.
+     * @param item The event.
+     * @return True if it was queued, false if the partition was full.
+     */
+    private boolean queue(
+        final ThreadPoolExecutor partition,
+        final Item item
+    ) {
+        final boolean queued = WebhookQueue.offer(partition, item);
+        if(!queued) {
+            this.rejected.incrementAndGet();
+            LOG.warn(
+                "Webhook queue is full, refusing " + item.type + " event of "
+                + "Project " + item.project.repoFullName() + "."
+            );
+        }
+        return queued;
+    }
+
+    /**
+     * Queue the partition's recovered events, in order, until the
+     * partition is full.
+     * @param partition Partition.
+     * @return Number of queued events.
+     */
+    private int drain(final ThreadPoolExecutor partition) {
+        int queued = 0;
+        synchronized (this.backlog) {
+            final Iterator<Recovered> waiting = this.backlog.iterator();
+            boolean room = true;
+            while(room && waiting.hasNext()) {
+                final Recovered event = waiting.next();
+                if(this.partition(event.project) == partition) {
+                    try {
+                        room = WebhookQueue.offer(partition, event.item());
+                        if(room) {
+                            waiting.remove();
+                            queued = queued + 1;
+                        }
+                    } catch (final IOException ex) {
+                        LOG.error("Could not read " + event.file + ".", ex);
+                        waiting.remove();
+                    }
+                }
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Are recovered events of the Project still waiting, after queueing
+     * as many as fit?
+     * @param partition Partition of the Project.
+     * @param project Project.
+     * @return True if the Project's new events have to wait.
+     */
+    private boolean behind(
+        final ThreadPoolExecutor partition,
+        final Project project
+    ) {
+        synchronized (this.backlog) {
+            boolean behind = false;
+            if(!this.backlog.isEmpty()) {
+                this.drain(partition);
+                final String key = WebhookQueue.key(project);
+                for(final Recovered event : this.backlog) {
+                    if(key.equals(WebhookQueue.key(event.project))) {
+                        behind = true;
+                        break;
+                    }
+                }
+            }
+            return behind;
+        }
+    }
+
+    /**
+     * Partition of a Project.
+     * @param project Project.
+     * @return Partition.
+     */
+    private ThreadPoolExecutor partition(final Project project) {
+        return this.partitions[
+            Math.floorMod(
+                WebhookQueue.key(project).hashCode(), this.partitions.length
+            )
+        ];
+    }
+
+    /**
+     * Key of a Project.
+     * @param project Project.
+     * @return Provider and repo full name.
+     */
+    private static String key(final Project project) {
+        return project.provider() + "/" + project.repoFullName();
+    }
+
+    /**
+     * Queue an event on its partition.
+     * @param partition Partition.
+     * @param item The event.
+     * @return True if it was queued, false if the partition was full.
+     */
+    private static boolean offer(
+        final ThreadPoolExecutor partition,
+        final Runnable item
+    ) {
+        boolean queued;
+        try {
+            partition.execute(item);
+            queued = true;
+        } catch (final RejectedExecutionException ex) {
+            queued = false;
+        }
+        return queued;
+    }
+
+    /**
+     * Spool an event: provider, repo and type, each prefixed by its length
+     * (see {@link DataOutputStream#writeUTF(String)}), followed by the
+     * payload's bytes, as they are. It is written to a temporary file,
+     * forced to disk and then moved, so a crash never leaves a partial
+     * event in the spool.
+     * @param project Project.
+     * @param type Type of the event.
+     * @param payload Payload.
+     * @return Spooled file, null if there is no spool directory.
+     * @throws IOException If it cannot be written.
+     */
+    private Path write(
+        final Project project,
+        final String type,
+        final byte[] payload
+    ) throws IOException {
+        Path file = null;
+        if(this.spool != null) {
+            final String name = String.format(
+                "%019d", this.sequence.incrementAndGet()
+            );
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeUTF(project.provider());
+                out.writeUTF(project.repoFullName());
+                out.writeUTF(type);
+                out.write(payload);
+            }
+            final Path temp = this.spool.resolve(name + ".tmp");
+            try (FileChannel out = FileChannel.open(
+                temp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+            )) {
+                final ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while(buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            file = Files.move(
+                temp,
+                this.spool.resolve(name + EXTENSION),
+                StandardCopyOption.ATOMIC_MOVE
+            );
+        }
+        return file;
+    }
+
+    /**
+     * A partition: one thread with a bounded queue.
+     * @param index Index of the partition.
+     * @param capacity Capacity of the queue.
+     * @return ThreadPoolExecutor.
+     */
+    private static ThreadPoolExecutor partition(
+        final int index,
+        final int capacity
+    ) {
+        return new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacity),
+            runnable -> {
+                final Thread thread = new Thread(
+                    runnable, "webhooks-" + index
+                );
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+    }
+
+    /**
+     * Spooled events, in the order they were accepted.
+     * @param spool Spool directory, can be null.
+     * @return Files.
+     * @throws IOException If the directory cannot be read.
+     */
+    private static List<Path> spooled(final Path spool) throws IOException {
+        final List<Path> files;
+        if(spool == null) {
+            files = List.of();
+        } else {
+            try (Stream<Path> all = Files.list(spool)) {
+                files = all.filter(
+                    file -> file.getFileName().toString().endsWith(EXTENSION)
+                ).sorted().collect(Collectors.toList());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Last sequence number used in the spool directory.
+     * @param spool Spool directory, can be null.
+     * @return Long.
+     */
+    private static long last(final Path spool) {
+        try {
+            final List<Path> files = WebhookQueue.spooled(spool);
+            long last = 0;
+            if(!files.isEmpty()) {
+                final String name = files.get(files.size() - 1)
+                    .getFileName().toString();
+                last = Long.parseLong(
+                    name.substring(0, name.length() - EXTENSION.length())
+                );
+            }
+            return last;
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Resolves an event.
+     */
+    interface Dispatch {
+
+        /**
+         * Resolve the event.
+         * @param project Project where the event happened.
+         * @param type Type of the event.
+         * @param payload Payload, UTF-8 bytes.
+         */
+        void dispatch(Project project, String type, byte[] payload);
+    }
+
+    /**
+     * An event read from the spool.
+     */
+    private static final class Spooled {
+
+        /**
+         * Provider.
+         */
+        private final String provider;
+
+        /**
+         * Repo full name.
+         */
+        private final String repo;
+
+        /**
+         * Type.
+         */
+        private final String type;
+
+        /**
+         * Payload.
+         */
+        private final byte[] payload;
+
+        /**
+         * Ctor.
+         * @param provider Provider.
+         * @param repo Repo full name.
+         * @param type Type.
+         * @param payload Payload.
+         */
+        Spooled(
+            final String provider,
+            final String repo,
+            final String type,
+            final byte[] payload
+        ) {
+            this.provider = provider;
+            this.repo = repo;
+            this.type = type;
+            this.payload = payload;
+        }
+
+        /**
+         * Read a spooled event.
+         * @param file Spooled file.
+         * @return Spooled event.
+         * @throws IOException If it cannot be read.
+         */
+        static Spooled read(final Path file) throws IOException {
+            try (DataInputStream in = new DataInputStream(
+                Files.newInputStream(file)
+            )) {
+                return new Spooled(
+                    in.readUTF(), in.readUTF(), in.readUTF(),
+                    in.readAllBytes()
+                );
+            }
+        }
+    }
+
+    /**
+     * A recovered event which is not queued yet. Its payload stays in the
+     * spool until then.
+     */
+    private final class Recovered {
+
+        /**
+         * Project.
+         */
+        private final Project project;
+
+        /**
+         * Type.
+         */
+        private final String type;
+
+        /**
+         * Spooled file.
+         */
+        private final Path file;
+
+        /**
+         * Ctor.
+         * @param project Project.
+         * @param type Type.
+         * @param file Spooled file.
+         */
+        Recovered(final Project project, final String type, final Path file) {
+            this.project = project;
+            this.type = type;
+            this.file = file;
+        }
+
+        /**
+         * The event to queue, with its payload read from the spool.
+         * @return Item.
+         * @throws IOException If the payload cannot be read.
+         */
+        Item item() throws IOException {
+            return new Item(
+                this.project, this.type, Spooled.read(this.file).payload,
+                this.file
+            );
+        }
+    }
+
+    /**
+     * A queued event.
+     */
+    private final class Item implements Runnable {
+
+        /**
+         * Project.
+         */
+        private final Project project;
+
+        /**
+         * Type.
+         */
+        private final String type;
+
+        /**
+         * Payload.
+         */
+        private final byte[] payload;
+
+        /**
+         * Spooled file, can be null.
+         */
+        private final Path file;
+
+        /**
+         * When it was accepted, in nanos.
+         */
+        private final long accepted;
+
+        /**
+         * Ctor.
+         * @param project Project.
+         * @param type Type.
+         * @param payload Payload.
+         * @param file Spooled file, can be null.
+         */
+        Item(
+            final Project project,
+            final String type,
+            final byte[] payload,
+            final Path file
+        ) {
+            this.project = project;
+            this.type = type;
+            this.payload = payload;
+            this.file = file;
+            this.accepted = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            try {
+                WebhookQueue.this.dispatch.dispatch(
+                    this.project, this.type, this.payload
+                );
+            } catch (final RuntimeException ex) {
+                WebhookQueue.this.failed.incrementAndGet();
+                LOG.error(
+                    "Could not resolve " + this.type + " event of Project "
+                    + this.project.repoFullName() + ".",
+                    ex
+                );
+            } finally {
+                WebhookQueue.this.dispatched.incrementAndGet();
+                this.forget();
+                WebhookQueue.this.drain(
+                    WebhookQueue.this.partition(this.project)
+                );
+            }
+        }
+
+        /**
+         * Delete the spooled file.
+         */
+        private void forget() {
+            if(this.file != null) {
+                try {
+                    Files.deleteIfExists(this.file);
+                } catch (final IOException ex) {
+                    LOG.error("Could not delete " + this.file + ".", ex);
+                }
+            }
+        }
+    }
+}
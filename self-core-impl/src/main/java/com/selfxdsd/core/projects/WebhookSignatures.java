@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Provider;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Verifies the webhook deliveries, before their payload is parsed or
+ * stored. Github signs the raw body with the Project's webhook token
+ * (header X-Hub-Signature-256, HMAC-SHA256), while Gitlab simply sends
+ * the token back (header X-Gitlab-Token). Both are compared in constant
+ * time.<br><br>
+ *
+ * Creating and keying a Mac is more expensive than the hashing of a
+ * usual payload, so the keyed Macs are kept, one per thread, for the
+ * most recently used tokens.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class WebhookSignatures {
+
+    /**
+     * HMAC algorithm used by Github.
+     */
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * Prefix of Github's signature header.
+     */
+    private static final String PREFIX = "sha256=";
+
+    /**
+     * Keyed Macs, per token.
+     */
+    private final Map<String, ThreadLocal<Mac>> macs;
+
+    /**
+     * Ctor. Keeps the Macs of the last 1000 tokens.
+     */
+    public WebhookSignatures() {
+        this(1000);
+    }
+
+    /**
+     * Ctor.
+     * @param tokens For how many tokens to keep the keyed Macs.
+     */
+    public WebhookSignatures(final int tokens) {
+        this.macs = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(
+                    final Map.Entry<String, ThreadLocal<Mac>> eldest
+                ) {
+                    return this.size() > tokens;
+                }
+            }
+        );
+    }
+
+    /**
+     * Is this delivery valid for the given Project?
+     * @param project Project.
+     * @param header Value of X-Hub-Signature-256 (Github)
+     *  or X-Gitlab-Token (Gitlab).
+     * @param body Raw body of the delivery.
+     * @return True or false.
+     */
+    public boolean valid(
+        final Project project,
+        final String header,
+        final byte[] body
+    ) {
+        return this.valid(
+            project.provider(), project.webHookToken(), header, body
+        );
+    }
+
+    /**
+     * Is this delivery valid?
+     * @param provider Provider which sent it.
+     * @param token The Project's webhook token.
+     * @param header Value of X-Hub-Signature-256 (Github)
+     *  or X-Gitlab-Token (Gitlab).
+     * @param body Raw body of the delivery.
+     * @return True or false.
+     */
+    public boolean valid(
+        final String provider,
+        final String token,
+        final String header,
+        final byte[] body
+    ) {
+        final boolean valid;
+        if(token == null || token.isEmpty() || header == null) {
+            valid = false;
+        } else if(Provider.Names.GITHUB.equalsIgnoreCase(provider)) {
+            final byte[] signature = WebhookSignatures.hex(header);
+            valid = signature != null && MessageDigest.isEqual(
+                signature, this.mac(token).doFinal(body)
+            );
+        } else if(Provider.Names.GITLAB.equalsIgnoreCase(provider)) {
+            valid = MessageDigest.isEqual(
+                header.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8)
+            );
+        } else {
+            throw new IllegalStateException(
+                "Provider " + provider + " not yet implemented. "
+                + "Cannot verify its webhook deliveries."
+            );
+        }
+        return valid;
+    }
+
+    /**
+     * This thread's Mac keyed with the given token.
+     * @param token Token.
+     * @return Mac, reset.
+     */
+    private Mac mac(final String token) {
+        return this.macs.computeIfAbsent(
+            token,
+            key -> ThreadLocal.withInitial(() -> WebhookSignatures.keyed(key))
+        ).get();
+    }
+
+    /**
+     * A new Mac keyed with the given token.
+     * @param token Token.
+     * @return Mac.
+     */
+    private static Mac keyed(final String token) {
+        try {
+            final Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(
+                new SecretKeySpec(
+                    token.getBytes(StandardCharsets.UTF_8), ALGORITHM
+                )
+            );
+            return mac;
+        } catch (final GeneralSecurityException ex) {
+            throw new IllegalStateException(
+                "Could not create the " + ALGORITHM + " Mac.", ex
+            );
+        }
+    }
+
+    /**
+     * Decode Github's signature header ("sha256=" followed by the hex
+     * digest).
+     * @param header Header.
+     * @return Bytes of the digest or null if the header is malformed.
+     */
+    private static byte[] hex(final String header) {
+        byte[] bytes = null;
+        final int length = header.length() - PREFIX.length();
+        if(header.startsWith(PREFIX) && length > 0 && length % 2 == 0) {
+            final byte[] digest = new byte[length / 2];
+            boolean malformed = false;
+            for(int idx = 0; idx < digest.length; ++idx) {
+                final int pos = PREFIX.length() + idx * 2;
+                final int high = Character.digit(header.charAt(pos), 16);
+                final int low = Character.digit(header.charAt(pos + 1), 16);
+                malformed = malformed || high < 0 || low < 0;
+                digest[idx] = (byte) (high << 4 | low);
+            }
+            if(!malformed) {
+                bytes = digest;
+            }
+        }
+        return bytes;
+    }
+}
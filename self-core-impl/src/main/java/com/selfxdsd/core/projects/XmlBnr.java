@@ -25,26 +25,27 @@ package com.selfxdsd.core.projects;
 import com.selfxdsd.api.Bnr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.StringReader;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
 
 /**
- * BNR gives us an XML response.
+ * BNR gives us an XML response. It is streamed and parsed with StAX,
+ * stopping at the EUR rate.
  * @author Mihai Andronache (amihaiemil@gmail.com)
  * @version $Id$
  * @since 0.0.51
- * @checkstyle ReturnCount (200 lines)
  * @checkstyle IllegalCatch (200 lines)
  */
 final class XmlBnr implements Bnr {
@@ -56,6 +57,24 @@ final class XmlBnr implements Bnr {
         XmlBnr.class
     );
 
+    /**
+     * Timeout of the HTTP calls.
+     */
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * HTTP client, shared by all the instances.
+     */
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+        .connectTimeout(TIMEOUT)
+        .build();
+
+    /**
+     * StAX factory, shared by all the instances. DTDs and external
+     * entities are not supported.
+     */
+    private static final XMLInputFactory STAX = XmlBnr.stax();
+
     /**
      * BNR exchange rate URI.
      */
@@ -78,60 +97,98 @@ final class XmlBnr implements Bnr {
 
     @Override
     public BigDecimal euroToRon() {
+        BigDecimal rate;
         try {
-            final HttpResponse<String> response = HttpClient.newHttpClient()
-                .send(
-                    HttpRequest.newBuilder()
-                        .uri(this.uri)
-                        .method("GET", HttpRequest.BodyPublishers.noBody())
-                        .build(),
-                    HttpResponse.BodyHandlers.ofString()
-                );
-            return readEurFromXml(response.body());
+            rate = this.fetch();
         } catch (final Exception ex) {
             LOG.error(
-                "[BNR] Could not get EUR-RON exchange rate: ",
-                ex.getMessage()
+                "[BNR] Could not get EUR-RON exchange rate: "
+                + ex.getMessage()
             );
             LOG.error("[BNR] Returning 487 as default exchange rate.");
-            return BigDecimal.valueOf(487);
+            rate = BigDecimal.valueOf(487);
         }
+        return rate;
     }
 
     /**
-     * Parse the response XML to get the EUR -> RON exchange rage.
-     * @param xml XML String.
+     * Fetch the EUR -> RON exchange rate from BNR.
+     * @return BigDecimal (e.g. 487 if 1 EUR = 4,87 RON).
+     * @throws IOException If the rate cannot be fetched or found.
+     */
+    BigDecimal fetch() throws IOException {
+        final HttpResponse<InputStream> response;
+        try {
+            response = HTTP.send(
+                HttpRequest.newBuilder()
+                    .uri(this.uri)
+                    .timeout(TIMEOUT)
+                    .GET()
+                    .build(),
+                HttpResponse.BodyHandlers.ofInputStream()
+            );
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling BNR.", ex);
+        }
+        try (InputStream body = response.body()) {
+            if(response.statusCode() != 200) {
+                throw new IOException(
+                    "BNR responded with status " + response.statusCode()
+                );
+            }
+            return readEurFromXml(body);
+        }
+    }
+
+    /**
+     * Parse the response XML to get the EUR -> RON exchange rage. Reading
+     * stops at the EUR Rate element.
+     * @param xml XML stream.
      * @return BigDecimal.
-     * @checkstyle LineLength (100 lines)
+     * @throws IOException If the XML is invalid or has no EUR rate.
      */
-    private BigDecimal readEurFromXml(final String xml) {
+    private static BigDecimal readEurFromXml(final InputStream xml)
+        throws IOException {
         try {
-            final Document document = DocumentBuilderFactory
-                .newInstance()
-                .newDocumentBuilder()
-                .parse(new InputSource(new StringReader(xml)));
-            final NodeList rates = document
-                .getDocumentElement()
-                .getElementsByTagName("Rate");
-            for(int idx=0; idx<rates.getLength(); idx++) {
-                final Node rate = rates.item(idx);
-                final String name = rate.getAttributes()
-                    .getNamedItem("currency").getTextContent();
-                if("EUR".equalsIgnoreCase(name)) {
-                    final String text = rate.getTextContent();
-                    LOG.info("[BNR] Found EUR-RON exchange rate: " + text);
-                    LOG.info("[BNR] Rounding Half-Up.");
-                    return new BigDecimal(text)
-                        .setScale(2, RoundingMode.HALF_UP)
-                        .multiply(BigDecimal.valueOf(100));
+            final XMLStreamReader reader = STAX.createXMLStreamReader(xml);
+            try {
+                String text = null;
+                while(text == null && reader.hasNext()) {
+                    if(reader.next() == XMLStreamConstants.START_ELEMENT
+                        && "Rate".equals(reader.getLocalName())
+                        && "EUR".equalsIgnoreCase(
+                            reader.getAttributeValue(null, "currency")
+                        )
+                    ) {
+                        text = reader.getElementText().trim();
+                    }
+                }
+                if(text == null) {
+                    throw new IOException("EUR-RON rate not found.");
                 }
+                LOG.info("[BNR] Found EUR-RON exchange rate: " + text);
+                return new BigDecimal(text)
+                    .setScale(2, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100));
+            } finally {
+                reader.close();
             }
-            LOG.warn("[BNR] EUR-RON not found! Returning 487 as default.");
-            return BigDecimal.valueOf(487);
-        } catch (final Exception ex) {
-            LOG.error("[BNR] Exception while parsing XML: ", ex.getMessage());
-            LOG.error("[BNR] Returning 487 as default exchange rate.");
-            return BigDecimal.valueOf(487);
+        } catch (final XMLStreamException | NumberFormatException ex) {
+            throw new IOException("Invalid BNR XML.", ex);
         }
     }
+
+    /**
+     * Build the StAX factory.
+     * @return XMLInputFactory.
+     */
+    private static XMLInputFactory stax() {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(
+            XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false
+        );
+        return factory;
+    }
 }
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Contract;
+import com.selfxdsd.api.Contracts;
+import com.selfxdsd.api.Contributor;
+import com.selfxdsd.core.keys.ContractKey;
+import com.selfxdsd.core.keys.ContributorKey;
+import com.selfxdsd.core.keys.ProjectKey;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+/**
+ * Contracts which cache the lookups by id. Adding, updating, marking
+ * for removal or removing a Contract invalidates its entry. Filtered views
+ * are not cached.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class CachedContracts implements Contracts {
+
+    /**
+     * Original Contracts.
+     */
+    private final Contracts origin;
+
+    /**
+     * Cached Contracts.
+     */
+    private final EntityCache<ContractKey, Contract> cache;
+
+    /**
+     * Ctor.
+     * @param origin Original Contracts.
+     * @param cache Cached Contracts.
+     */
+    CachedContracts(
+        final Contracts origin,
+        final EntityCache<ContractKey, Contract> cache
+    ) {
+        this.origin = origin;
+        this.cache = cache;
+    }
+
+    @Override
+    public int count() {
+        return this.origin.count();
+    }
+
+    @Override
+    public Contracts ofProject(
+        final String repoFullName,
+        final String repoProvider
+    ) {
+        return this.origin.ofProject(repoFullName, repoProvider);
+    }
+
+    @Override
+    public Contracts ofContributor(final Contributor contributor) {
+        return this.origin.ofContributor(contributor);
+    }
+
+    @Override
+    public Contract addContract(
+        final String repoFullName,
+        final String contributorUsername,
+        final String provider,
+        final BigDecimal hourlyRate,
+        final String role
+    ) {
+        final Contract added = this.origin.addContract(
+            repoFullName, contributorUsername, provider, hourlyRate, role
+        );
+        this.cache.invalidate(
+            new ContractKey(
+                new ProjectKey(repoFullName, provider),
+                new ContributorKey(contributorUsername, provider),
+                role
+            )
+        );
+        return added;
+    }
+
+    @Override
+    public void remove(final Contract contract) {
+        this.origin.remove(contract);
+        this.cache.invalidate(new ContractKey(contract.contractId()));
+    }
+
+    @Override
+    public Contract findById(final Contract.Id id) {
+        return this.cache.get(
+            new ContractKey(id),
+            key -> this.origin.findById(id)
+        );
+    }
+
+    @Override
+    public Contract update(
+        final Contract contract,
+        final BigDecimal hourlyRate
+    ) {
+        final Contract updated = this.origin.update(contract, hourlyRate);
+        this.cache.invalidate(new ContractKey(contract.contractId()));
+        return updated;
+    }
+
+    @Override
+    public Contract markForRemoval(
+        final Contract contract,
+        final LocalDateTime time
+    ) {
+        final Contract marked = this.origin.markForRemoval(contract, time);
+        this.cache.invalidate(new ContractKey(contract.contractId()));
+        return marked;
+    }
+
+    @Override
+    public Iterator<Contract> iterator() {
+        return this.origin.iterator();
+    }
+}
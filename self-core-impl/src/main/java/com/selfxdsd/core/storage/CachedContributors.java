@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Contributor;
+import com.selfxdsd.api.Contributors;
+import com.selfxdsd.api.Task;
+import com.selfxdsd.api.storage.Paged;
+import com.selfxdsd.core.keys.ContributorKey;
+
+import java.util.Iterator;
+
+/**
+ * Contributors which cache the lookups by id. Registering a Contributor
+ * invalidates its entry. Filtered views are not cached.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class CachedContributors implements Contributors {
+
+    /**
+     * Original Contributors.
+     */
+    private final Contributors origin;
+
+    /**
+     * Cached Contributors.
+     */
+    private final EntityCache<ContributorKey, Contributor> cache;
+
+    /**
+     * Ctor.
+     * @param origin Original Contributors.
+     * @param cache Cached Contributors.
+     */
+    CachedContributors(
+        final Contributors origin,
+        final EntityCache<ContributorKey, Contributor> cache
+    ) {
+        this.origin = origin;
+        this.cache = cache;
+    }
+
+    @Override
+    public Contributor register(final String username, final String provider) {
+        final Contributor registered = this.origin.register(
+            username, provider
+        );
+        this.cache.invalidate(new ContributorKey(username, provider));
+        return registered;
+    }
+
+    @Override
+    public Contributor getById(final String username, final String provider) {
+        return this.cache.get(
+            new ContributorKey(username, provider),
+            key -> this.origin.getById(username, provider)
+        );
+    }
+
+    @Override
+    public Contributors ofProject(
+        final String repoFullName,
+        final String repoProvider
+    ) {
+        return this.origin.ofProject(repoFullName, repoProvider);
+    }
+
+    @Override
+    public Contributors ofProvider(final String provider) {
+        return this.origin.ofProvider(provider);
+    }
+
+    @Override
+    public Contributors page(final Paged.Page page) {
+        return this.origin.page(page);
+    }
+
+    @Override
+    public Contributor elect(final Task task) {
+        return this.origin.elect(task);
+    }
+
+    @Override
+    public Page current() {
+        return this.origin.current();
+    }
+
+    @Override
+    public int totalPages() {
+        return this.origin.totalPages();
+    }
+
+    @Override
+    public Iterator<Contributor> iterator() {
+        return this.origin.iterator();
+    }
+}
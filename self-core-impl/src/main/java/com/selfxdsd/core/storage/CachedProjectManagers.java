@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.ProjectManager;
+import com.selfxdsd.api.ProjectManagers;
+import com.selfxdsd.core.keys.ContributorKey;
+
+import java.util.Iterator;
+
+/**
+ * ProjectManagers which cache the lookups by id and by username.
+ * Registering a ProjectManager invalidates both caches, since the id
+ * of the new PM is not known before it is stored.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class CachedProjectManagers implements ProjectManagers {
+
+    /**
+     * Original ProjectManagers.
+     */
+    private final ProjectManagers origin;
+
+    /**
+     * PMs cached by id.
+     */
+    private final EntityCache<Integer, ProjectManager> byId;
+
+    /**
+     * PMs cached by username and provider.
+     */
+    private final EntityCache<ContributorKey, ProjectManager> byUsername;
+
+    /**
+     * Ctor.
+     * @param origin Original ProjectManagers.
+     * @param byId PMs cached by id.
+     * @param byUsername PMs cached by username and provider.
+     */
+    CachedProjectManagers(
+        final ProjectManagers origin,
+        final EntityCache<Integer, ProjectManager> byId,
+        final EntityCache<ContributorKey, ProjectManager> byUsername
+    ) {
+        this.origin = origin;
+        this.byId = byId;
+        this.byUsername = byUsername;
+    }
+
+    @Override
+    public ProjectManager getById(final int id) {
+        return this.byId.get(id, key -> this.origin.getById(id));
+    }
+
+    @Override
+    public ProjectManager getByUsername(
+        final String username,
+        final String provider
+    ) {
+        return this.byUsername.get(
+            new ContributorKey(username, provider),
+            key -> this.origin.getByUsername(username, provider)
+        );
+    }
+
+    @Override
+    public ProjectManager pick(final String provider) {
+        return this.origin.pick(provider);
+    }
+
+    @Override
+    public ProjectManager register(
+        final String userId,
+        final String username,
+        final String provider,
+        final String accessToken,
+        final double percentage
+    ) {
+        final ProjectManager registered = this.origin.register(
+            userId, username, provider, accessToken, percentage
+        );
+        this.byId.invalidateAll();
+        this.byUsername.invalidateAll();
+        return registered;
+    }
+
+    @Override
+    public Iterator<ProjectManager> iterator() {
+        return this.origin.iterator();
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.storage.Paged;
+import com.selfxdsd.core.keys.ContractKey;
+import com.selfxdsd.core.keys.ProjectKey;
+
+import java.util.Iterator;
+
+/**
+ * Projects which cache the lookups by id. Registering or removing a Project
+ * invalidates its entry (and the cached Contracts of the removed Project).
+ * Filtered views are not cached.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class CachedProjects implements Projects {
+
+    /**
+     * Original Projects.
+     */
+    private final Projects origin;
+
+    /**
+     * Cached Projects.
+     */
+    private final EntityCache<ProjectKey, Project> projects;
+
+    /**
+     * Cached Contracts.
+     */
+    private final EntityCache<ContractKey, Contract> contracts;
+
+    /**
+     * Ctor.
+     * @param origin Original Projects.
+     * @param projects Cached Projects.
+     * @param contracts Cached Contracts.
+     */
+    CachedProjects(
+        final Projects origin,
+        final EntityCache<ProjectKey, Project> projects,
+        final EntityCache<ContractKey, Contract> contracts
+    ) {
+        this.origin = origin;
+        this.projects = projects;
+        this.contracts = contracts;
+    }
+
+    @Override
+    public Project register(
+        final Repo repo,
+        final ProjectManager manager,
+        final String webHookToken
+    ) {
+        final Project registered = this.origin.register(
+            repo, manager, webHookToken
+        );
+        this.projects.invalidate(
+            new ProjectKey(repo.fullName(), repo.provider())
+        );
+        return registered;
+    }
+
+    @Override
+    public Projects assignedTo(final int projectManagerId) {
+        return this.origin.assignedTo(projectManagerId);
+    }
+
+    @Override
+    public Projects ownedBy(final User user) {
+        return this.origin.ownedBy(user);
+    }
+
+    @Override
+    public Project getProjectById(
+        final String repoFullName,
+        final String repoProvider
+    ) {
+        return this.projects.get(
+            new ProjectKey(repoFullName, repoProvider),
+            key -> this.origin.getProjectById(repoFullName, repoProvider)
+        );
+    }
+
+    @Override
+    public Projects page(final Paged.Page page) {
+        return this.origin.page(page);
+    }
+
+    @Override
+    public void remove(final Project project) {
+        this.origin.remove(project);
+        final ProjectKey removed = new ProjectKey(project);
+        this.projects.invalidate(removed);
+        this.contracts.invalidateIf(key -> key.project().equals(removed));
+    }
+
+    @Override
+    public Page current() {
+        return this.origin.current();
+    }
+
+    @Override
+    public int totalPages() {
+        return this.origin.totalPages();
+    }
+
+    @Override
+    public Iterator<Project> iterator() {
+        return this.origin.iterator();
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ContractKey;
+import com.selfxdsd.core.keys.ContributorKey;
+import com.selfxdsd.core.keys.ProjectKey;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Storage decorator which caches the lookups of Projects, Contributors,
+ * Contracts and ProjectManagers by their canonical ids. Each entity type
+ * has its own bounded cache, with LRU and time-to-live eviction. Writes made
+ * through this Storage invalidate the affected entries; writes made
+ * elsewhere become visible once the entries expire.<br><br>
+ *
+ * The entities hold the Storage which built them and navigate or write
+ * through it (e.g. {@code task.assign(...)}, {@code contract.project()}),
+ * so the origin is always built with this decorator as the Storage of its
+ * entities, for their writes to invalidate the cache and their lookups to
+ * hit it:
+ * <pre>
+ *   new CachedStorage(cache -&gt; new InMemoryStorage(cache));
+ * </pre>
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class CachedStorage implements Storage {
+
+    /**
+     * Default maximum number of entries per entity type.
+     */
+    private static final int DEFAULT_SIZE = 1024;
+
+    /**
+     * Default time-to-live of an entry.
+     */
+    private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    /**
+     * Original Storage.
+     */
+    private final Storage origin;
+
+    /**
+     * Cached Projects.
+     */
+    private final EntityCache<ProjectKey, Project> projects;
+
+    /**
+     * Cached Contributors.
+     */
+    private final EntityCache<ContributorKey, Contributor> contributors;
+
+    /**
+     * Cached Contracts.
+     */
+    private final EntityCache<ContractKey, Contract> contracts;
+
+    /**
+     * ProjectManagers cached by id.
+     */
+    private final EntityCache<Integer, ProjectManager> managersById;
+
+    /**
+     * ProjectManagers cached by username and provider.
+     */
+    private final EntityCache<ContributorKey, ProjectManager> managers;
+
+    /**
+     * Ctor with default size and time-to-live.
+     * @param origin Builds the original Storage, with this decorator as
+     *  the Storage of its entities.
+     */
+    public CachedStorage(final Function<Storage, Storage> origin) {
+        this(origin, DEFAULT_SIZE, DEFAULT_TTL);
+    }
+
+    /**
+     * Ctor.
+     * @param origin Builds the original Storage, with this decorator as
+     *  the Storage of its entities.
+     * @param size Maximum number of entries per entity type.
+     * @param ttl Time-to-live of an entry.
+     */
+    public CachedStorage(
+        final Function<Storage, Storage> origin,
+        final int size,
+        final Duration ttl
+    ) {
+        this(origin, size, ttl, Clock.systemUTC());
+    }
+
+    /**
+     * Ctor.
+     * @param origin Builds the original Storage, with this decorator as
+     *  the Storage of its entities. It must not use the decorator until
+     *  it is built.
+     * @param size Maximum number of entries per entity type.
+     * @param ttl Time-to-live of an entry.
+     * @param clock Clock used to expire the entries.
+     */
+    public CachedStorage(
+        final Function<Storage, Storage> origin,
+        final int size,
+        final Duration ttl,
+        final Clock clock
+    ) {
+        this.projects = new EntityCache<>(size, ttl, clock);
+        this.contributors = new EntityCache<>(size, ttl, clock);
+        this.contracts = new EntityCache<>(size, ttl, clock);
+        this.managersById = new EntityCache<>(size, ttl, clock);
+        this.managers = new EntityCache<>(size, ttl, clock);
+        this.origin = origin.apply(this);
+    }
+
+    /**
+     * Statistics of each cache, by entity type.
+     * @return Map of stats.
+     */
+    public Map<String, EntityCache.Stats> stats() {
+        final Map<String, EntityCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("projects", this.projects.stats());
+        stats.put("contributors", this.contributors.stats());
+        stats.put("contracts", this.contracts.stats());
+        stats.put("projectManagersById", this.managersById.stats());
+        stats.put("projectManagersByUsername", this.managers.stats());
+        return stats;
+    }
+
+    @Override
+    public Users users() {
+        return this.origin.users();
+    }
+
+    @Override
+    public ProjectManagers projectManagers() {
+        return new CachedProjectManagers(
+            this.origin.projectManagers(),
+            this.managersById,
+            this.managers
+        );
+    }
+
+    @Override
+    public Projects projects() {
+        return new CachedProjects(
+            this.origin.projects(), this.projects, this.contracts
+        );
+    }
+
+    @Override
+    public Wallets wallets() {
+        return new CachedWallets(this.origin.wallets(), this.projects);
+    }
+
+    @Override
+    public Contracts contracts() {
+        return new CachedContracts(this.origin.contracts(), this.contracts);
+    }
+
+    @Override
+    public Invoices invoices() {
+        return this.origin.invoices();
+    }
+
+    @Override
+    public InvoicedTasks invoicedTasks() {
+        return this.origin.invoicedTasks();
+    }
+
+    @Override
+    public Contributors contributors() {
+        return new CachedContributors(
+            this.origin.contributors(), this.contributors
+        );
+    }
+
+    @Override
+    public Tasks tasks() {
+        return this.origin.tasks();
+    }
+
+    @Override
+    public Resignations resignations() {
+        return this.origin.resignations();
+    }
+
+    @Override
+    public PayoutMethods payoutMethods() {
+        return this.origin.payoutMethods();
+    }
+
+    @Override
+    public PaymentMethods paymentMethods() {
+        return this.origin.paymentMethods();
+    }
+
+    @Override
+    public PlatformInvoices platformInvoices() {
+        return this.origin.platformInvoices();
+    }
+
+    @Override
+    public ApiTokens apiTokens() {
+        return this.origin.apiTokens();
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.origin.close();
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Wallet;
+import com.selfxdsd.api.Wallets;
+import com.selfxdsd.core.keys.ProjectKey;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+
+/**
+ * Wallets which invalidate the cached Project when one of its Wallets
+ * is registered, activated or has its cash updated. Wallets themselves
+ * are not cached.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class CachedWallets implements Wallets {
+
+    /**
+     * Original Wallets.
+     */
+    private final Wallets origin;
+
+    /**
+     * Cached Projects.
+     */
+    private final EntityCache<ProjectKey, Project> projects;
+
+    /**
+     * Ctor.
+     * @param origin Original Wallets.
+     * @param projects Cached Projects.
+     */
+    CachedWallets(
+        final Wallets origin,
+        final EntityCache<ProjectKey, Project> projects
+    ) {
+        this.origin = origin;
+        this.projects = projects;
+    }
+
+    @Override
+    public Wallet register(
+        final Project project,
+        final String type,
+        final BigDecimal cash,
+        final String identifier
+    ) {
+        final Wallet registered = this.origin.register(
+            project, type, cash, identifier
+        );
+        this.projects.invalidate(new ProjectKey(project));
+        return registered;
+    }
+
+    @Override
+    public Wallets ofProject(final Project project) {
+        return this.origin.ofProject(project);
+    }
+
+    @Override
+    public Wallet active() {
+        return this.origin.active();
+    }
+
+    @Override
+    public Wallet activate(final Wallet wallet) {
+        final Wallet active = this.origin.activate(wallet);
+        this.projects.invalidate(new ProjectKey(wallet.project()));
+        return active;
+    }
+
+    @Override
+    public Wallet updateCash(final Wallet wallet, final BigDecimal cash) {
+        final Wallet updated = this.origin.updateCash(wallet, cash);
+        this.projects.invalidate(new ProjectKey(wallet.project()));
+        return updated;
+    }
+
+    @Override
+    public Iterator<Wallet> iterator() {
+        return this.origin.iterator();
+    }
+}
@@ -0,0 +1,271 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Invoice;
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Task;
+import com.selfxdsd.core.keys.ContractKey;
+import com.selfxdsd.core.keys.TaskKey;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Value and revenue of every Contract, maintained incrementally as
+ * Tasks are assigned, unassigned, invoiced and as Invoices are paid, so
+ * that reading them is O(1) instead of iterating over the Tasks and the
+ * active Invoice. The contribution of every Task and unpaid Invoice is
+ * remembered, so it is subtracted exactly as it was added.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class ContractCounters {
+
+    /**
+     * Nothing counted.
+     */
+    private static final Sums NONE = new Sums(
+        BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO
+    );
+
+    /**
+     * Sums per Contract.
+     */
+    private final Map<ContractKey, Sums> contracts =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Contributions of the assigned Tasks.
+     */
+    private final Map<TaskKey, Map.Entry<ContractKey, Sums>> tasks =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Contributions of the unpaid Invoices, by Invoice id.
+     */
+    private final Map<Integer, Map.Entry<ContractKey, Sums>> invoices =
+        new ConcurrentHashMap<>();
+
+    /**
+     * A Task was assigned to a Contract.
+     * @param key Key of the Task.
+     * @param contract Key of the Contract.
+     * @param task The assigned Task.
+     */
+    void assigned(
+        final TaskKey key,
+        final ContractKey contract,
+        final Task task
+    ) {
+        final BigDecimal value = task.value();
+        final Project project = task.project();
+        final BigDecimal commission;
+        if(project == null || project.projectManager() == null) {
+            commission = BigDecimal.ZERO;
+        } else {
+            commission = project.projectManager().commission(value);
+        }
+        this.add(
+            this.tasks,
+            key,
+            contract,
+            new Sums(value, commission, BigDecimal.ZERO, BigDecimal.ZERO)
+        );
+    }
+
+    /**
+     * A Task is not assigned anymore (or it was removed).
+     * @param key Key of the Task.
+     */
+    void unassigned(final TaskKey key) {
+        this.subtract(this.tasks.remove(key));
+    }
+
+    /**
+     * A Task was added to an Invoice. It only counts while the Invoice
+     * is not paid.
+     * @param invoice Invoice.
+     * @param value Value of the invoiced Task.
+     * @param commission Commission of the invoiced Task.
+     */
+    void invoiced(
+        final Invoice invoice,
+        final BigDecimal value,
+        final BigDecimal commission
+    ) {
+        if(!invoice.isPaid()) {
+            this.add(
+                this.invoices,
+                invoice.invoiceId(),
+                new ContractKey(invoice.contract().contractId()),
+                new Sums(BigDecimal.ZERO, BigDecimal.ZERO, value, commission)
+            );
+        }
+    }
+
+    /**
+     * An Invoice was paid.
+     * @param invoice Id of the Invoice.
+     */
+    void paid(final int invoice) {
+        this.subtract(this.invoices.remove(invoice));
+    }
+
+    /**
+     * Value of a Contract: open Tasks and active Invoice, commission
+     * included.
+     * @param contract Key of the Contract.
+     * @return Value.
+     */
+    BigDecimal value(final ContractKey contract) {
+        final Sums sums = this.contracts.getOrDefault(contract, NONE);
+        return sums.open.add(sums.openCommission)
+            .add(sums.invoiced)
+            .add(sums.invoicedCommission);
+    }
+
+    /**
+     * Revenue of a Contract: open Tasks and active Invoice, without
+     * commission.
+     * @param contract Key of the Contract.
+     * @return Revenue.
+     */
+    BigDecimal revenue(final ContractKey contract) {
+        final Sums sums = this.contracts.getOrDefault(contract, NONE);
+        return sums.open.add(sums.invoiced);
+    }
+
+    /**
+     * Count a contribution.
+     * @param contributions Contributions map.
+     * @param key Key of the contribution.
+     * @param contract Key of the Contract.
+     * @param sums The contribution.
+     * @param <K> Type of the key.
+     */
+    private <K> void add(
+        final Map<K, Map.Entry<ContractKey, Sums>> contributions,
+        final K key,
+        final ContractKey contract,
+        final Sums sums
+    ) {
+        contributions.merge(
+            key,
+            Map.entry(contract, sums),
+            (old, added) -> Map.entry(
+                contract, old.getValue().plus(added.getValue())
+            )
+        );
+        this.contracts.merge(contract, sums, Sums::plus);
+    }
+
+    /**
+     * Subtract a removed contribution.
+     * @param removed The contribution; null if there was none.
+     */
+    private void subtract(final Map.Entry<ContractKey, Sums> removed) {
+        if(removed != null) {
+            this.contracts.merge(
+                removed.getKey(),
+                removed.getValue(),
+                (old, sums) -> old.minus(sums)
+            );
+        }
+    }
+
+    /**
+     * Immutable sums.
+     */
+    private static final class Sums {
+
+        /**
+         * Value of the open Tasks.
+         */
+        private final BigDecimal open;
+
+        /**
+         * Commission of the open Tasks.
+         */
+        private final BigDecimal openCommission;
+
+        /**
+         * Value of the invoiced Tasks.
+         */
+        private final BigDecimal invoiced;
+
+        /**
+         * Commission of the invoiced Tasks.
+         */
+        private final BigDecimal invoicedCommission;
+
+        /**
+         * Ctor.
+         * @param open Value of the open Tasks.
+         * @param openCommission Commission of the open Tasks.
+         * @param invoiced Value of the invoiced Tasks.
+         * @param invoicedCommission Commission of the invoiced Tasks.
+         */
+        Sums(
+            final BigDecimal open,
+            final BigDecimal openCommission,
+            final BigDecimal invoiced,
+            final BigDecimal invoicedCommission
+        ) {
+            this.open = open;
+            this.openCommission = openCommission;
+            this.invoiced = invoiced;
+            this.invoicedCommission = invoicedCommission;
+        }
+
+        /**
+         * Add other sums.
+         * @param other Other sums.
+         * @return New sums.
+         */
+        Sums plus(final Sums other) {
+            return new Sums(
+                this.open.add(other.open),
+                this.openCommission.add(other.openCommission),
+                this.invoiced.add(other.invoiced),
+                this.invoicedCommission.add(other.invoicedCommission)
+            );
+        }
+
+        /**
+         * Subtract other sums.
+         * @param other Other sums.
+         * @return New sums.
+         */
+        Sums minus(final Sums other) {
+            return new Sums(
+                this.open.subtract(other.open),
+                this.openCommission.subtract(other.openCommission),
+                this.invoiced.subtract(other.invoiced),
+                this.invoicedCommission.subtract(other.invoicedCommission)
+            );
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Contract;
+import com.selfxdsd.api.Contributor;
+import com.selfxdsd.api.Invoice;
+import com.selfxdsd.api.Invoices;
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.ProjectManager;
+import com.selfxdsd.api.Task;
+import com.selfxdsd.api.Tasks;
+import com.selfxdsd.core.Cents;
+import com.selfxdsd.core.keys.ContractKey;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Contract whose value and revenue are read from the
+ * {@link ContractCounters} instead of being computed by iterating over
+ * its Tasks and active Invoice.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class CountedContract implements Contract {
+
+    /**
+     * Original Contract.
+     */
+    private final Contract origin;
+
+    /**
+     * Key of the Contract.
+     */
+    private final ContractKey key;
+
+    /**
+     * Counters.
+     */
+    private final ContractCounters counters;
+
+    /**
+     * Ctor.
+     * @param origin Original Contract.
+     * @param counters Counters.
+     */
+    CountedContract(final Contract origin, final ContractCounters counters) {
+        this.origin = origin;
+        this.key = new ContractKey(origin.contractId());
+        this.counters = counters;
+    }
+
+    @Override
+    public Id contractId() {
+        return this.origin.contractId();
+    }
+
+    @Override
+    public Project project() {
+        return this.origin.project();
+    }
+
+    @Override
+    public Contributor contributor() {
+        return this.origin.contributor();
+    }
+
+    @Override
+    public BigDecimal hourlyRate() {
+        return this.origin.hourlyRate();
+    }
+
+    @Override
+    public String role() {
+        return this.origin.role();
+    }
+
+    @Override
+    public Invoices invoices() {
+        return this.origin.invoices();
+    }
+
+    @Override
+    public Tasks tasks() {
+        return this.origin.tasks();
+    }
+
+    @Override
+    public BigDecimal value() {
+        return this.counters.value(this.key);
+    }
+
+    @Override
+    public BigDecimal revenue() {
+        return this.counters.revenue(this.key);
+    }
+
+    @Override
+    public LocalDateTime markedForRemoval() {
+        return this.origin.markedForRemoval();
+    }
+
+    @Override
+    public Contract update(final BigDecimal hourlyRate) {
+        return this.origin.update(hourlyRate);
+    }
+
+    @Override
+    public Contract markForRemoval() {
+        return this.origin.markForRemoval();
+    }
+
+    @Override
+    public Contract restore() {
+        return this.origin.restore();
+    }
+
+    @Override
+    public void remove() {
+        this.origin.remove();
+    }
+
+    /**
+     * Recompute the value and revenue from the primary data (the
+     * estimation of every Task at this Contract's current hourly rate,
+     * plus the active Invoice) and compare them with the counters. The
+     * Contract each Task holds is not trusted, since it may be an older
+     * version with a different rate.
+     * @return True if the counters are correct.
+     */
+    boolean consistent() {
+        final ProjectManager manager = this.project().projectManager();
+        final Cents rate = Cents.of(this.hourlyRate());
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal value = BigDecimal.ZERO;
+        for(final Task task : this.origin.tasks()) {
+            final BigDecimal open = rate.ratio(task.estimation(), 60)
+                .decimal();
+            revenue = revenue.add(open);
+            value = value.add(open).add(manager.commission(open));
+        }
+        final Invoice active = this.origin.invoices().active();
+        revenue = revenue.add(active.amount());
+        value = value.add(active.totalAmount());
+        return value.compareTo(this.value()) == 0
+            && revenue.compareTo(this.revenue()) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.origin.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return this == obj || this.origin.equals(obj);
+    }
+}
@@ -0,0 +1,334 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bounded, read-through cache of entities. The least recently used entry
+ * is evicted once the maximum size is reached and every entry expires
+ * after the given time-to-live. Null values are never cached.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ * @param <K> Type of the (canonical) key.
+ * @param <V> Type of the cached entity.
+ */
+public final class EntityCache<K, V> {
+
+    /**
+     * Cached entries, in access order.
+     */
+    private final Map<K, Entry<V>> entries;
+
+    /**
+     * Time-to-live of an entry.
+     */
+    private final long ttl;
+
+    /**
+     * Clock.
+     */
+    private final Clock clock;
+
+    /**
+     * Lock guarding the entries and the counters.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Incremented on each invalidation, so that a value loaded
+     * concurrently with an invalidation is not put back in the cache.
+     */
+    private long generation;
+
+    /**
+     * Number of hits.
+     */
+    private long hits;
+
+    /**
+     * Number of misses.
+     */
+    private long misses;
+
+    /**
+     * Number of entries evicted because of size or age.
+     */
+    private long evictions;
+
+    /**
+     * Ctor.
+     * @param maxSize Maximum number of entries.
+     * @param ttl Time-to-live of an entry.
+     */
+    public EntityCache(final int maxSize, final Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    /**
+     * Ctor.
+     * @param maxSize Maximum number of entries.
+     * @param ttl Time-to-live of an entry.
+     * @param clock Clock used to expire the entries.
+     */
+    public EntityCache(
+        final int maxSize,
+        final Duration ttl,
+        final Clock clock
+    ) {
+        if(maxSize <= 0) {
+            throw new IllegalArgumentException(
+                "Cache size must be positive."
+            );
+        }
+        this.ttl = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                final Map.Entry<K, Entry<V>> eldest
+            ) {
+                final boolean remove = this.size() > maxSize;
+                if(remove) {
+                    EntityCache.this.evictions += 1;
+                }
+                return remove;
+            }
+        };
+    }
+
+    /**
+     * Get the value of the given key, loading it if it is not cached
+     * or if it has expired.
+     * @param key Key.
+     * @param loader Loads the value on miss.
+     * @return Value or null if the loader returns null.
+     */
+    public V get(final K key, final Function<K, V> loader) {
+        final long now = this.clock.millis();
+        V value = null;
+        long gen = -1;
+        synchronized (this.lock) {
+            final Entry<V> entry = this.entries.get(key);
+            if(entry != null && entry.expires > now) {
+                this.hits += 1;
+                value = entry.value;
+            } else {
+                if(entry != null) {
+                    this.entries.remove(key);
+                    this.evictions += 1;
+                }
+                this.misses += 1;
+                gen = this.generation;
+            }
+        }
+        if(gen >= 0) {
+            value = loader.apply(key);
+            if(value != null) {
+                synchronized (this.lock) {
+                    if(gen == this.generation) {
+                        this.entries.put(
+                            key, new Entry<>(value, now + this.ttl)
+                        );
+                    }
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Remove the given key.
+     * @param key Key.
+     */
+    public void invalidate(final K key) {
+        synchronized (this.lock) {
+            this.generation += 1;
+            this.entries.remove(key);
+        }
+    }
+
+    /**
+     * Remove all the keys matching the given predicate.
+     * @param matching Predicate.
+     */
+    public void invalidateIf(final Predicate<K> matching) {
+        synchronized (this.lock) {
+            this.generation += 1;
+            this.entries.keySet().removeIf(matching);
+        }
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public void invalidateAll() {
+        synchronized (this.lock) {
+            this.generation += 1;
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * Snapshot of this cache's statistics.
+     * @return Stats.
+     */
+    public Stats stats() {
+        synchronized (this.lock) {
+            return new Stats(
+                this.hits, this.misses, this.evictions, this.entries.size()
+            );
+        }
+    }
+
+    /**
+     * Cached value.
+     * @param <V> Type of the value.
+     */
+    private static final class Entry<V> {
+
+        /**
+         * Value.
+         */
+        private final V value;
+
+        /**
+         * Moment (epoch millis) when it expires.
+         */
+        private final long expires;
+
+        /**
+         * Ctor.
+         * @param value Value.
+         * @param expires Moment when it expires.
+         */
+        private Entry(final V value, final long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * Statistics of an EntityCache.
+     */
+    public static final class Stats {
+
+        /**
+         * Hits.
+         */
+        private final long hits;
+
+        /**
+         * Misses.
+         */
+        private final long misses;
+
+        /**
+         * Evictions.
+         */
+        private final long evictions;
+
+        /**
+         * Current size.
+         */
+        private final int size;
+
+        /**
+         * Ctor.
+         * @param hits Hits.
+         * @param misses Misses.
+         * @param evictions Evictions.
+         * @param size Current size.
+         */
+        Stats(
+            final long hits,
+            final long misses,
+            final long evictions,
+            final int size
+        ) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        /**
+         * Number of lookups served from the cache.
+         * @return Long.
+         */
+        public long hits() {
+            return this.hits;
+        }
+
+        /**
+         * Number of lookups which went to the Storage.
+         * @return Long.
+         */
+        public long misses() {
+            return this.misses;
+        }
+
+        /**
+         * Number of entries evicted because of size or age.
+         * @return Long.
+         */
+        public long evictions() {
+            return this.evictions;
+        }
+
+        /**
+         * Number of cached entries.
+         * @return Integer.
+         */
+        public int size() {
+            return this.size;
+        }
+
+        /**
+         * Ratio of hits from all the lookups.
+         * @return Double between 0 and 1.
+         */
+        public double hitRate() {
+            final long total = this.hits + this.misses;
+            final double rate;
+            if(total == 0) {
+                rate = 0;
+            } else {
+                rate = (double) this.hits / total;
+            }
+            return rate;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + this.hits + ", misses=" + this.misses
+                + ", evictions=" + this.evictions + ", size=" + this.size;
+        }
+    }
+}
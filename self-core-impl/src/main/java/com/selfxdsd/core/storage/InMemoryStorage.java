@@ -0,0 +1,540 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.storage.Storage;
+
+import javax.json.JsonObject;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Storage kept entirely in memory. It is thread-safe: every "table" is a
+ * ConcurrentHashMap with concurrent secondary indexes (Tasks by Project,
+ * assignee and Contract, Contracts by Project and Contributor, Invoices
+ * by Contract etc.), so the filtered views never scan all the rows.<br><br>
+ *
+ * By default nothing is persisted; use it like that for local runs, load
+ * tests and benchmarks. Given a {@link Journal}, it becomes durable: every
+ * mutation of the Users, ProjectManagers, Projects, Contributors,
+ * Contracts, Tasks, Invoices, InvoicedTasks, PlatformInvoices and
+ * Wallets is appended to the journal before the call returns, the
+ * journal is compacted into a snapshot once it grows past a threshold,
+ * and both are replayed when the storage is created. Resignations,
+ * PaymentMethods, PayoutMethods and ApiTokens are not journaled.<br><br>
+ *
+ * The value and revenue of the Contracts are maintained incrementally
+ * as Tasks are assigned and invoiced and as Invoices are paid, so
+ * reading them is O(1). Use {@link #inconsistentContracts()} to verify
+ * them against a computation from scratch.<br><br>
+ *
+ * It can be built by a decorator (e.g. {@link CachedStorage}), in which
+ * case the entities it creates use the decorator as their Storage, so
+ * navigating and writing through them goes through the decorator too.
+ * Until the journal is replayed they use this storage directly.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ * @checkstyle ClassFanOutComplexity (500 lines)
+ */
+public final class InMemoryStorage implements Storage {
+
+    /**
+     * Default size of the journal (bytes) which triggers a snapshot.
+     */
+    private static final long SNAPSHOT_THRESHOLD = 64L * 1024 * 1024;
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Value and revenue counters of the Contracts.
+     */
+    private final ContractCounters counters = new ContractCounters();
+
+    /**
+     * Users.
+     */
+    private final MemoryUsers users;
+
+    /**
+     * ProjectManagers.
+     */
+    private final MemoryProjectManagers projectManagers;
+
+    /**
+     * Projects.
+     */
+    private final MemoryProjects projects;
+
+    /**
+     * Wallets.
+     */
+    private final MemoryWallets wallets;
+
+    /**
+     * Contracts.
+     */
+    private final MemoryContracts contracts;
+
+    /**
+     * Contributors.
+     */
+    private final MemoryContributors contributors;
+
+    /**
+     * Tasks.
+     */
+    private final MemoryTasks tasks;
+
+    /**
+     * Resignations.
+     */
+    private final Resignations resignations;
+
+    /**
+     * PlatformInvoices.
+     */
+    private final MemoryPlatformInvoices platformInvoices;
+
+    /**
+     * Invoices.
+     */
+    private final MemoryInvoices invoices;
+
+    /**
+     * InvoicedTasks.
+     */
+    private final MemoryInvoicedTasks invoicedTasks;
+
+    /**
+     * PayoutMethods.
+     */
+    private final PayoutMethods payoutMethods;
+
+    /**
+     * PaymentMethods.
+     */
+    private final PaymentMethods paymentMethods;
+
+    /**
+     * ApiTokens.
+     */
+    private final ApiTokens apiTokens;
+
+    /**
+     * Storage which the entities use, it forwards to the decorator.
+     */
+    private final Storage view = new View();
+
+    /**
+     * Decorator of this storage, null if there is none (yet).
+     */
+    private volatile Storage decorator;
+
+    /**
+     * Ctor. Nothing will be persisted.
+     */
+    public InMemoryStorage() {
+        this(storage -> new Recorder());
+    }
+
+    /**
+     * Ctor for a storage built by a decorator. Nothing will be persisted.
+     * @param decorator Decorator, which the entities will use.
+     */
+    public InMemoryStorage(final Storage decorator) {
+        this();
+        this.decorator = decorator;
+    }
+
+    /**
+     * Ctor for a durable storage built by a decorator. The storage is
+     * restored from the given Journal and every mutation is recorded in
+     * it.
+     * @param decorator Decorator, which the entities will use.
+     * @param journal Journal.
+     * @param snapshotThreshold Size of the journal (bytes) which
+     *  triggers a snapshot.
+     */
+    public InMemoryStorage(
+        final Storage decorator,
+        final Journal journal,
+        final long snapshotThreshold
+    ) {
+        this(journal, snapshotThreshold);
+        this.decorator = decorator;
+    }
+
+    /**
+     * Ctor. The storage is restored from the given Journal and every
+     * mutation is recorded in it.
+     * @param journal Journal.
+     */
+    public InMemoryStorage(final Journal journal) {
+        this(journal, SNAPSHOT_THRESHOLD);
+    }
+
+    /**
+     * Ctor. The storage is restored from the given Journal and every
+     * mutation is recorded in it.
+     * @param journal Journal.
+     * @param snapshotThreshold Size of the journal (bytes) which
+     *  triggers a snapshot.
+     */
+    public InMemoryStorage(
+        final Journal journal,
+        final long snapshotThreshold
+    ) {
+        this(
+            storage -> new Recorder(
+                journal, snapshotThreshold, storage::state
+            )
+        );
+        this.recorder.replay(this::restore);
+    }
+
+    /**
+     * Ctor.
+     * @param recorder Builds the Recorder of the mutations.
+     */
+    private InMemoryStorage(
+        final Function<InMemoryStorage, Recorder> recorder
+    ) {
+        this.recorder = recorder.apply(this);
+        this.users = new MemoryUsers(this.view, this.recorder);
+        this.projectManagers = new MemoryProjectManagers(
+            this.view, this.recorder
+        );
+        this.projects = new MemoryProjects(this.view, this.recorder);
+        this.wallets = new MemoryWallets(this.view, this.recorder);
+        this.contracts = new MemoryContracts(
+            this.view,
+            this.recorder,
+            this.counters,
+            contract -> this.tasks.rebind(contract)
+        );
+        this.contributors = new MemoryContributors(
+            this.view, this.recorder
+        );
+        this.tasks = new MemoryTasks(
+            this.view, this.recorder, this.counters
+        );
+        this.resignations = new MemoryResignations(this.view);
+        this.platformInvoices = new MemoryPlatformInvoices(
+            this.view, this.recorder
+        );
+        this.invoices = new MemoryInvoices(
+            this.view, this.recorder, this.platformInvoices, this.counters
+        );
+        this.invoicedTasks = new MemoryInvoicedTasks(
+            this.view, this.recorder, this.counters
+        );
+        this.payoutMethods = new MemoryPayoutMethods(this.view);
+        this.paymentMethods = new MemoryPaymentMethods(this.view);
+        this.apiTokens = new MemoryApiTokens();
+    }
+
+    @Override
+    public Users users() {
+        return this.users;
+    }
+
+    @Override
+    public ProjectManagers projectManagers() {
+        return this.projectManagers;
+    }
+
+    @Override
+    public Projects projects() {
+        return this.projects;
+    }
+
+    @Override
+    public Wallets wallets() {
+        return this.wallets;
+    }
+
+    @Override
+    public Contracts contracts() {
+        return this.contracts;
+    }
+
+    @Override
+    public Invoices invoices() {
+        return this.invoices;
+    }
+
+    @Override
+    public InvoicedTasks invoicedTasks() {
+        return this.invoicedTasks;
+    }
+
+    @Override
+    public Contributors contributors() {
+        return this.contributors;
+    }
+
+    @Override
+    public Tasks tasks() {
+        return this.tasks;
+    }
+
+    @Override
+    public Resignations resignations() {
+        return this.resignations;
+    }
+
+    @Override
+    public PayoutMethods payoutMethods() {
+        return this.payoutMethods;
+    }
+
+    @Override
+    public PaymentMethods paymentMethods() {
+        return this.paymentMethods;
+    }
+
+    @Override
+    public PlatformInvoices platformInvoices() {
+        return this.platformInvoices;
+    }
+
+    @Override
+    public ApiTokens apiTokens() {
+        return this.apiTokens;
+    }
+
+    /**
+     * Recompute the value and revenue of every Contract from scratch
+     * (iterating over its Tasks and its active Invoice) and compare them
+     * with the incrementally maintained counters.
+     * @return Ids of the Contracts whose counters are wrong; empty if
+     *  all of them are consistent.
+     */
+    public List<Contract.Id> inconsistentContracts() {
+        return this.contracts.inconsistent().collect(Collectors.toList());
+    }
+
+    /**
+     * Write a last snapshot, if the storage is durable, and close the
+     * Journal.
+     * @throws IOException If the snapshot cannot be written or the
+     *  Journal cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.recorder.snapshot();
+        } finally {
+            this.recorder.close();
+        }
+    }
+
+    /**
+     * Records describing the whole state, for the snapshot. The tables
+     * are written in the order in which they have to be restored.
+     * @return Iterator of records.
+     */
+    private Iterator<JsonObject> state() {
+        return Stream.of(
+            this.users.rows(),
+            this.projectManagers.rows(),
+            this.contributors.rows(),
+            this.projects.rows(),
+            this.contracts.rows(),
+            this.wallets.rows(),
+            this.tasks.rows(),
+            this.invoices.rows(),
+            this.invoicedTasks.rows(),
+            this.platformInvoices.rows()
+        ).flatMap(Function.identity()).iterator();
+    }
+
+    /**
+     * Apply a record read from the snapshot or from the journal.
+     * @param record Record.
+     * @checkstyle CyclomaticComplexity (70 lines)
+     */
+    private void restore(final JsonObject record) {
+        final String operation = record.getString("op");
+        switch (operation) {
+            case "user":
+                this.users.restore(record);
+                break;
+            case "pm":
+                this.projectManagers.restore(record);
+                break;
+            case "contributor":
+                this.contributors.restore(record);
+                break;
+            case "project":
+                this.projects.restore(record);
+                break;
+            case "-project":
+                this.projects.restoreRemoval(record);
+                break;
+            case "contract":
+                this.contracts.restore(record);
+                break;
+            case "-contract":
+                this.contracts.restoreRemoval(record);
+                break;
+            case "wallet":
+                this.wallets.restore(record);
+                break;
+            case "activeWallet":
+                this.wallets.restoreActivation(record);
+                break;
+            case "task":
+                this.tasks.restore(record);
+                break;
+            case "-task":
+                this.tasks.restoreRemoval(record);
+                break;
+            case "invoice":
+                this.invoices.restore(record);
+                break;
+            case "failedPayments":
+                this.invoices.restoreFailures(record);
+                break;
+            case "invoicedTask":
+                this.invoicedTasks.restore(
+                    record, this.tasks.task(record.getJsonObject("task"))
+                );
+                break;
+            case "platformInvoice":
+                this.platformInvoices.restore(record);
+                break;
+            default:
+                throw new IllegalStateException(
+                    "Unknown journal record: " + operation
+                );
+        }
+    }
+
+    /**
+     * The Storage of the entities: the decorator, if there is one,
+     * or this storage.
+     * @return Storage.
+     */
+    private Storage entities() {
+        Storage entities = this.decorator;
+        if(entities == null) {
+            entities = this;
+        }
+        return entities;
+    }
+
+    /**
+     * Storage which the entities use. It forwards to the decorator,
+     * once there is one, otherwise to this storage.
+     * @author Mihai Andronache (amihaiemil@gmail.com)
+     * @version $Id$
+     * @since 0.0.62
+     */
+    private final class View implements Storage {
+
+        @Override
+        public Users users() {
+            return InMemoryStorage.this.entities().users();
+        }
+
+        @Override
+        public ProjectManagers projectManagers() {
+            return InMemoryStorage.this.entities().projectManagers();
+        }
+
+        @Override
+        public Projects projects() {
+            return InMemoryStorage.this.entities().projects();
+        }
+
+        @Override
+        public Wallets wallets() {
+            return InMemoryStorage.this.entities().wallets();
+        }
+
+        @Override
+        public Contracts contracts() {
+            return InMemoryStorage.this.entities().contracts();
+        }
+
+        @Override
+        public Invoices invoices() {
+            return InMemoryStorage.this.entities().invoices();
+        }
+
+        @Override
+        public InvoicedTasks invoicedTasks() {
+            return InMemoryStorage.this.entities().invoicedTasks();
+        }
+
+        @Override
+        public Contributors contributors() {
+            return InMemoryStorage.this.entities().contributors();
+        }
+
+        @Override
+        public Tasks tasks() {
+            return InMemoryStorage.this.entities().tasks();
+        }
+
+        @Override
+        public Resignations resignations() {
+            return InMemoryStorage.this.entities().resignations();
+        }
+
+        @Override
+        public PayoutMethods payoutMethods() {
+            return InMemoryStorage.this.entities().payoutMethods();
+        }
+
+        @Override
+        public PaymentMethods paymentMethods() {
+            return InMemoryStorage.this.entities().paymentMethods();
+        }
+
+        @Override
+        public PlatformInvoices platformInvoices() {
+            return InMemoryStorage.this.entities().platformInvoices();
+        }
+
+        @Override
+        public ApiTokens apiTokens() {
+            return InMemoryStorage.this.entities().apiTokens();
+        }
+
+        @Override
+        public void close() throws Exception {
+            InMemoryStorage.this.entities().close();
+        }
+    }
+}
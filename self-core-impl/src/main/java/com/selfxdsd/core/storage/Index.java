@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent secondary index of an in-memory "table": maps a key
+ * (e.g. a Project) to the primary keys of the rows which have it.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ * @param <K> Type of the indexed key.
+ * @param <P> Type of the primary key.
+ */
+final class Index<K, P> {
+
+    /**
+     * Primary keys, by indexed key.
+     */
+    private final Map<K, Set<P>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Index the given primary key under the given key.
+     * @param key Indexed key.
+     * @param primary Primary key.
+     */
+    void add(final K key, final P primary) {
+        this.entries.computeIfAbsent(
+            key, k -> ConcurrentHashMap.newKeySet()
+        ).add(primary);
+    }
+
+    /**
+     * Remove the given primary key from under the given key.
+     * @param key Indexed key.
+     * @param primary Primary key.
+     */
+    void remove(final K key, final P primary) {
+        this.entries.computeIfPresent(
+            key,
+            (k, primaries) -> {
+                primaries.remove(primary);
+                final Set<P> left;
+                if(primaries.isEmpty()) {
+                    left = null;
+                } else {
+                    left = primaries;
+                }
+                return left;
+            }
+        );
+    }
+
+    /**
+     * Primary keys indexed under the given key.
+     * @param key Indexed key.
+     * @return Stream of primary keys, possibly empty.
+     */
+    Stream<P> get(final K key) {
+        return this.entries.getOrDefault(key, Collections.emptySet()).stream();
+    }
+
+    /**
+     * Number of primary keys indexed under the given key.
+     * @param key Indexed key.
+     * @return Integer.
+     */
+    int count(final K key) {
+        return this.entries.getOrDefault(key, Collections.emptySet()).size();
+    }
+
+    /**
+     * The indexed keys.
+     * @return Stream of keys.
+     */
+    Stream<K> keys() {
+        return this.entries.keySet().stream();
+    }
+}
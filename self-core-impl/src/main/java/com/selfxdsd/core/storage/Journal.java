@@ -0,0 +1,407 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, checksummed journal of JSON records, plus a compacted
+ * snapshot. Every record is framed as [length][CRC32][UTF-8 JSON], so
+ * a torn or corrupted tail is detected and cut off at replay.<br><br>
+ *
+ * Appends are group-committed: a thread returns from
+ * {@link #append(JsonObject)} only after its record is fsync'ed, but one
+ * fsync covers all the records appended while the previous one was
+ * running.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class Journal implements AutoCloseable {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(
+        Journal.class
+    );
+
+    /**
+     * Name of the journal file.
+     */
+    private static final String JOURNAL = "journal.log";
+
+    /**
+     * Name of the snapshot file.
+     */
+    private static final String SNAPSHOT = "snapshot.log";
+
+    /**
+     * Size of a record's header (length and checksum).
+     */
+    private static final int HEADER = 8;
+
+    /**
+     * Maximum size of a record's payload. A bigger length means the
+     * header itself is corrupted.
+     */
+    private static final int MAX_RECORD = 16 * 1024 * 1024;
+
+    /**
+     * Directory of the files.
+     */
+    private final Path directory;
+
+    /**
+     * Journal file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Lock for appending (and truncating).
+     */
+    private final Object append = new Object();
+
+    /**
+     * Lock for the group commit.
+     */
+    private final ReentrantLock sync = new ReentrantLock();
+
+    /**
+     * Signalled after each fsync.
+     */
+    private final Condition flushed = this.sync.newCondition();
+
+    /**
+     * Bytes which were compacted into the snapshot so far. Positions
+     * include them, so they keep growing across compactions and a writer
+     * which awaits its record after a compaction finds it durable.
+     */
+    private volatile long compacted;
+
+    /**
+     * End of the written records.
+     */
+    private volatile long written;
+
+    /**
+     * End of the fsync'ed records. Guarded by sync.
+     */
+    private long durable;
+
+    /**
+     * Is an fsync running? Guarded by sync.
+     */
+    private boolean flushing;
+
+    /**
+     * Ctor. Creates the directory and the journal if they are missing.
+     * Records are appended at the end of the existing journal; call
+     * {@link #replay(Consumer)} first to also cut off a corrupted tail.
+     * @param directory Directory of the journal and snapshot files.
+     * @throws IOException If the journal cannot be opened.
+     */
+    public Journal(final Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.channel = FileChannel.open(
+            directory.resolve(JOURNAL),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE
+        );
+        this.written = this.channel.size();
+        this.channel.position(this.written);
+        this.durable = this.written;
+    }
+
+    /**
+     * Read the snapshot and then the journal, in order. A corrupted or
+     * incomplete tail of the journal is truncated, so the next records are
+     * appended right after the last valid one. The snapshot, on the other
+     * hand, is written completely before it replaces the old one, so a
+     * corrupted snapshot means lost state: replay fails instead of
+     * starting with part of it.
+     * @param apply Applies each record.
+     * @throws IOException If the files cannot be read or the snapshot
+     *  is corrupted.
+     */
+    public void replay(final Consumer<JsonObject> apply) throws IOException {
+        final Path snapshot = this.directory.resolve(SNAPSHOT);
+        if(Files.exists(snapshot)) {
+            final long valid;
+            try (InputStream input = Files.newInputStream(snapshot)) {
+                valid = Journal.read(input, apply);
+            }
+            final long size = Files.size(snapshot);
+            if(valid < size) {
+                throw new IOException(
+                    "Corrupted snapshot " + snapshot + ": only " + valid
+                    + " of " + size + " bytes are valid records."
+                );
+            }
+        }
+        synchronized (this.append) {
+            this.channel.position(0);
+            final long valid = Journal.read(
+                Channels.newInputStream(this.channel), apply
+            );
+            if(valid < this.channel.size()) {
+                LOG.warn(
+                    "Truncating corrupted journal tail at byte " + valid
+                    + " (size " + this.channel.size() + ")."
+                );
+                this.channel.truncate(valid);
+            }
+            this.channel.position(valid);
+            this.written = this.compacted + valid;
+            this.sync.lock();
+            try {
+                this.durable = this.written;
+            } finally {
+                this.sync.unlock();
+            }
+        }
+    }
+
+    /**
+     * Append a record and wait until it is durable.
+     * @param record Record.
+     * @throws IOException If the record cannot be written or synced.
+     */
+    public void append(final JsonObject record) throws IOException {
+        this.awaitDurable(this.write(record));
+    }
+
+    /**
+     * Write a record, without waiting for it to be durable. The records
+     * are in the journal in the order in which they were written.
+     * @param record Record.
+     * @return Position of the record's end, to await its durability.
+     * @throws IOException If the record cannot be written.
+     */
+    long write(final JsonObject record) throws IOException {
+        final ByteBuffer frame = Journal.frame(record);
+        final long end;
+        synchronized (this.append) {
+            while(frame.hasRemaining()) {
+                this.channel.write(frame);
+            }
+            end = this.compacted + this.channel.position();
+            this.written = end;
+        }
+        return end;
+    }
+
+    /**
+     * Replace the snapshot with the given records (the compacted state)
+     * and empty the journal. The journal is emptied only after the
+     * renaming of the snapshot is durable (the directory is fsync'ed),
+     * so a crash leaves either the old snapshot with the whole journal
+     * or the new snapshot. The caller must make sure no record is
+     * appended meanwhile.
+     * @param state Records describing the whole state.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public void compact(final Iterator<JsonObject> state) throws IOException {
+        final Path temp = this.directory.resolve(SNAPSHOT + ".tmp");
+        try (FileChannel out = FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE
+        )) {
+            while(state.hasNext()) {
+                final ByteBuffer frame = Journal.frame(state.next());
+                while(frame.hasRemaining()) {
+                    out.write(frame);
+                }
+            }
+            out.force(true);
+        }
+        Files.move(
+            temp,
+            this.directory.resolve(SNAPSHOT),
+            StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE
+        );
+        try (FileChannel dir = FileChannel.open(
+            this.directory, StandardOpenOption.READ
+        )) {
+            dir.force(true);
+        }
+        synchronized (this.append) {
+            this.channel.truncate(0);
+            this.channel.position(0);
+            this.channel.force(true);
+            this.compacted = this.written;
+            this.sync.lock();
+            try {
+                this.durable = this.written;
+            } finally {
+                this.sync.unlock();
+            }
+        }
+    }
+
+    /**
+     * Size of the journal (records appended since the last snapshot).
+     * @return Bytes.
+     */
+    public long size() {
+        return this.written - this.compacted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this.append) {
+            if(this.channel.isOpen()) {
+                this.channel.force(true);
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Wait until the journal is durable up to the given position. If no
+     * fsync is running, this thread runs one for everything written so
+     * far; otherwise it waits for the running one and checks again.
+     * @param position Position.
+     * @throws IOException If the fsync fails.
+     */
+    void awaitDurable(final long position) throws IOException {
+        this.sync.lock();
+        try {
+            while(this.durable < position) {
+                if(this.flushing) {
+                    this.flushed.awaitUninterruptibly();
+                } else {
+                    this.flushing = true;
+                    final long target = this.written;
+                    this.sync.unlock();
+                    try {
+                        this.channel.force(false);
+                    } finally {
+                        this.sync.lock();
+                        this.flushing = false;
+                        this.flushed.signalAll();
+                    }
+                    this.durable = Math.max(this.durable, target);
+                }
+            }
+        } finally {
+            this.sync.unlock();
+        }
+    }
+
+    /**
+     * Frame a record: length, CRC32 and UTF-8 payload.
+     * @param record Record.
+     * @return Buffer ready to be written.
+     */
+    private static ByteBuffer frame(final JsonObject record) {
+        final byte[] payload = record.toString().getBytes(
+            StandardCharsets.UTF_8
+        );
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        final ByteBuffer frame = ByteBuffer.allocate(HEADER + payload.length);
+        frame.putInt(payload.length);
+        frame.putInt((int) crc.getValue());
+        frame.put(payload);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Read framed records until the end of the stream or until the first
+     * incomplete or corrupted one.
+     * @param input Input.
+     * @param apply Applies each record.
+     * @return Number of bytes of the valid records.
+     * @throws IOException If the stream cannot be read.
+     */
+    private static long read(
+        final InputStream input,
+        final Consumer<JsonObject> apply
+    ) throws IOException {
+        final DataInputStream data = new DataInputStream(
+            new BufferedInputStream(input)
+        );
+        long valid = 0;
+        boolean more = true;
+        while(more) {
+            try {
+                final int length = data.readInt();
+                final int checksum = data.readInt();
+                if(length < 0 || length > MAX_RECORD) {
+                    more = false;
+                } else {
+                    final byte[] payload = new byte[length];
+                    data.readFully(payload);
+                    final CRC32 crc = new CRC32();
+                    crc.update(payload);
+                    if((int) crc.getValue() == checksum) {
+                        apply.accept(
+                            Json.createReader(
+                                new StringReader(
+                                    new String(
+                                        payload, StandardCharsets.UTF_8
+                                    )
+                                )
+                            ).readObject()
+                        );
+                        valid = valid + HEADER + length;
+                    } else {
+                        more = false;
+                    }
+                }
+            } catch (final EOFException ex) {
+                more = false;
+            }
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.ApiToken;
+import com.selfxdsd.api.ApiTokens;
+import com.selfxdsd.api.User;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * ApiTokens kept in memory, by token. The API offers no way to issue
+ * tokens, so they can only be found and removed here.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryApiTokens implements ApiTokens {
+
+    /**
+     * ApiTokens "table", shared with the filtered views.
+     */
+    private final Map<String, ApiToken> tokens;
+
+    /**
+     * Filter of this view.
+     */
+    private final Predicate<ApiToken> filter;
+
+    /**
+     * Ctor.
+     */
+    MemoryApiTokens() {
+        this(new ConcurrentHashMap<>(), token -> true);
+    }
+
+    /**
+     * Ctor.
+     * @param tokens ApiTokens "table".
+     * @param filter Filter of this view.
+     */
+    private MemoryApiTokens(
+        final Map<String, ApiToken> tokens,
+        final Predicate<ApiToken> filter
+    ) {
+        this.tokens = tokens;
+        this.filter = filter;
+    }
+
+    @Override
+    public ApiToken getById(final String token) {
+        final ApiToken found = this.tokens.get(token);
+        final ApiToken result;
+        if(found != null && this.filter.test(found)) {
+            result = found;
+        } else {
+            result = null;
+        }
+        return result;
+    }
+
+    @Override
+    public ApiTokens ofUser(final User user) {
+        return new MemoryApiTokens(
+            this.tokens,
+            this.filter.and(
+                token -> token.owner().username().equals(user.username())
+                    && token.owner().provider().name()
+                        .equals(user.provider().name())
+            )
+        );
+    }
+
+    @Override
+    public boolean remove(final ApiToken token) {
+        return this.filter.test(token)
+            && this.tokens.remove(token.token()) != null;
+    }
+
+    @Override
+    public Iterator<ApiToken> iterator() {
+        return this.tokens.values().stream().filter(this.filter).iterator();
+    }
+}
@@ -0,0 +1,388 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.exceptions.ContractsException;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.contracts.ContributorContracts;
+import com.selfxdsd.core.contracts.ProjectContracts;
+import com.selfxdsd.core.contracts.StoredContract;
+import com.selfxdsd.core.keys.ContractKey;
+import com.selfxdsd.core.keys.ContributorKey;
+import com.selfxdsd.core.keys.ProjectKey;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Contracts kept in memory, indexed by Project and by Contributor.
+ * Writes are serialized, reads never block. The stored Contracts read
+ * their value and revenue from the {@link ContractCounters}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryContracts implements Contracts {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Value and revenue counters.
+     */
+    private final ContractCounters counters;
+
+    /**
+     * Rebinds the Tasks of a Contract to its new version.
+     */
+    private final Consumer<Contract> rebind;
+
+    /**
+     * Contracts "table".
+     */
+    private final Map<ContractKey, CountedContract> contracts =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Contracts by Project.
+     */
+    private final Index<ProjectKey, ContractKey> byProject = new Index<>();
+
+    /**
+     * Contracts by Contributor.
+     */
+    private final Index<ContributorKey, ContractKey> byContributor =
+        new Index<>();
+
+    /**
+     * Lock for the writes.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     * @param counters Value and revenue counters.
+     * @param rebind Rebinds the Tasks of a Contract to its new version,
+     *  so their value (and the counters) follow the new hourly rate.
+     */
+    MemoryContracts(
+        final Storage storage,
+        final Recorder recorder,
+        final ContractCounters counters,
+        final Consumer<Contract> rebind
+    ) {
+        this.storage = storage;
+        this.recorder = recorder;
+        this.counters = counters;
+        this.rebind = rebind;
+    }
+
+    @Override
+    public int count() {
+        return this.contracts.size();
+    }
+
+    @Override
+    public Contracts ofProject(
+        final String repoFullName,
+        final String repoProvider
+    ) {
+        final ProjectKey project = new ProjectKey(repoFullName, repoProvider);
+        return new ProjectContracts(
+            repoFullName,
+            repoProvider,
+            () -> this.select(this.byProject.get(project)),
+            this.storage
+        );
+    }
+
+    @Override
+    public Contracts ofContributor(final Contributor contributor) {
+        final ContributorKey key = new ContributorKey(contributor);
+        return new ContributorContracts(
+            contributor,
+            () -> this.select(this.byContributor.get(key)),
+            this.storage
+        );
+    }
+
+    @Override
+    public Contract addContract(
+        final String repoFullName,
+        final String contributorUsername,
+        final String provider,
+        final BigDecimal hourlyRate,
+        final String role
+    ) {
+        final Contract.Id id = new Contract.Id(
+            repoFullName, contributorUsername, provider, role
+        );
+        final Project project = this.storage.projects()
+            .getProjectById(repoFullName, provider);
+        if(project == null) {
+            throw new ContractsException.Single.Add(
+                id, "project was not found in storage."
+            );
+        }
+        final Contributor contributor = this.storage.contributors()
+            .getById(contributorUsername, provider);
+        if(contributor == null) {
+            throw new ContractsException.Single.Add(
+                id, "contributor was not found in storage."
+            );
+        }
+        final CountedContract contract = new CountedContract(
+            new StoredContract(
+                project, contributor, hourlyRate, role, null, this.storage
+            ),
+            this.counters
+        );
+        final ContractKey key = new ContractKey(id);
+        return this.recorder.write(
+            () -> {
+                synchronized (this.lock) {
+                    if(this.contracts.containsKey(key)) {
+                        throw new ContractsException.Single.Add(
+                            id, "is already registered."
+                        );
+                    }
+                    this.contracts.put(key, contract);
+                    this.index(key);
+                }
+                return contract;
+            },
+            MemoryContracts::record
+        );
+    }
+
+    @Override
+    public void remove(final Contract contract) {
+        final Contract.Id id = contract.contractId();
+        this.recorder.write(
+            () -> {
+                synchronized (this.lock) {
+                    if(!this.delete(new ContractKey(id))) {
+                        throw new ContractsException.Single.NotFound(id);
+                    }
+                }
+                return id;
+            },
+            removed -> Records.record("-contract")
+                .add("id", Records.contract(removed))
+                .build()
+        );
+    }
+
+    @Override
+    public Contract findById(final Contract.Id id) {
+        return this.contracts.get(new ContractKey(id));
+    }
+
+    @Override
+    public Contract update(
+        final Contract contract,
+        final BigDecimal hourlyRate
+    ) {
+        return this.replace(
+            new CountedContract(
+                new StoredContract(
+                    contract.contractId(),
+                    hourlyRate,
+                    contract.markedForRemoval(),
+                    this.storage
+                ),
+                this.counters
+            )
+        );
+    }
+
+    @Override
+    public Contract markForRemoval(
+        final Contract contract,
+        final LocalDateTime time
+    ) {
+        return this.replace(
+            new CountedContract(
+                new StoredContract(
+                    contract.contractId(),
+                    contract.hourlyRate(),
+                    time,
+                    this.storage
+                ),
+                this.counters
+            )
+        );
+    }
+
+    @Override
+    public Iterator<Contract> iterator() {
+        return Collections.<Contract>unmodifiableCollection(
+            this.contracts.values()
+        ).iterator();
+    }
+
+    /**
+     * Replace an existing Contract. The indexes stay the same, since
+     * the Contract's id does not change. Its Tasks are rebound to the
+     * new version, so a rate change is reflected by their value and by
+     * the counters.
+     * @param contract New version of the Contract.
+     * @return The new version.
+     */
+    private Contract replace(final CountedContract contract) {
+        final ContractKey key = new ContractKey(contract.contractId());
+        return this.recorder.write(
+            () -> {
+                synchronized (this.lock) {
+                    if(this.contracts.replace(key, contract) == null) {
+                        throw new ContractsException.Single.NotFound(
+                            contract.contractId()
+                        );
+                    }
+                }
+                this.rebind.accept(contract);
+                return contract;
+            },
+            MemoryContracts::record
+        );
+    }
+
+    /**
+     * Restore a Contract from the journal.
+     * @param record Record.
+     */
+    void restore(final JsonObject record) {
+        final Contract.Id id = Records.contract(record.getJsonObject("id"));
+        final CountedContract contract = new CountedContract(
+            new StoredContract(
+                id,
+                Records.decimal(record, "rate"),
+                Records.date(record, "removal"),
+                this.storage
+            ),
+            this.counters
+        );
+        synchronized (this.lock) {
+            final ContractKey key = new ContractKey(id);
+            this.contracts.put(key, contract);
+            this.index(key);
+        }
+        this.rebind.accept(contract);
+    }
+
+    /**
+     * Restore the removal of a Contract from the journal.
+     * @param record Record.
+     */
+    void restoreRemoval(final JsonObject record) {
+        synchronized (this.lock) {
+            this.delete(
+                new ContractKey(Records.contract(record.getJsonObject("id")))
+            );
+        }
+    }
+
+    /**
+     * Recompute the value and revenue of every Contract from scratch and
+     * compare them with the counters.
+     * @return Ids of the Contracts whose counters are wrong.
+     */
+    Stream<Contract.Id> inconsistent() {
+        return this.contracts.values().stream()
+            .filter(contract -> !contract.consistent())
+            .map(Contract::contractId);
+    }
+
+    /**
+     * Records of all the Contracts, for the snapshot.
+     * @return Stream of records.
+     */
+    Stream<JsonObject> rows() {
+        return this.contracts.values().stream().map(MemoryContracts::record);
+    }
+
+    /**
+     * Record of a Contract.
+     * @param contract Contract.
+     * @return Record.
+     */
+    private static JsonObject record(final Contract contract) {
+        final JsonObjectBuilder record = Records.record("contract")
+            .add("id", Records.contract(contract.contractId()))
+            .add("rate", contract.hourlyRate());
+        Records.add(record, "removal", contract.markedForRemoval());
+        return record.build();
+    }
+
+    /**
+     * Index a Contract. Call it with the lock held.
+     * @param key Key of the Contract.
+     */
+    private void index(final ContractKey key) {
+        this.byProject.add(key.project(), key);
+        this.byContributor.add(key.contributor(), key);
+    }
+
+    /**
+     * Remove a Contract and its index entries. Call it with the lock held.
+     * @param key Key of the Contract.
+     * @return True if it was removed, false if it was missing.
+     */
+    private boolean delete(final ContractKey key) {
+        final boolean removed = this.contracts.remove(key) != null;
+        if(removed) {
+            this.byProject.remove(key.project(), key);
+            this.byContributor.remove(key.contributor(), key);
+        }
+        return removed;
+    }
+
+    /**
+     * Map the primary keys to Contracts.
+     * @param keys Primary keys.
+     * @return Stream of Contracts.
+     */
+    private Stream<Contract> select(final Stream<ContractKey> keys) {
+        return keys.<Contract>map(this.contracts::get)
+            .filter(Objects::nonNull);
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Contributor;
+import com.selfxdsd.api.Contributors;
+import com.selfxdsd.api.Task;
+import com.selfxdsd.api.exceptions.ContributorsException;
+import com.selfxdsd.api.storage.Paged;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.BasePaged;
+import com.selfxdsd.core.contributors.ProjectContributors;
+import com.selfxdsd.core.contributors.ProviderContributors;
+import com.selfxdsd.core.contributors.StoredContributor;
+import com.selfxdsd.core.keys.ContributorKey;
+
+import javax.json.JsonObject;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Contributors kept in memory. The Contributors of a Project are found
+ * through the Contracts' Project index. Pages are read in the (stable)
+ * order of the Contributors' ids.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryContributors extends BasePaged implements Contributors {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Contributors by id, shared by all the pages.
+     */
+    private final Map<ContributorKey, Contributor> contributors;
+
+    /**
+     * Ids in a stable order, for paging.
+     */
+    private final NavigableSet<ContributorKey> order;
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     */
+    MemoryContributors(final Storage storage, final Recorder recorder) {
+        this(
+            storage,
+            recorder,
+            new ConcurrentHashMap<>(),
+            new ConcurrentSkipListSet<>(
+                Comparator.comparing(ContributorKey::toString)
+            ),
+            Page.all()
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     * @param contributors Contributors by id.
+     * @param order Ids in a stable order.
+     * @param page Current page.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    private MemoryContributors(
+        final Storage storage,
+        final Recorder recorder,
+        final Map<ContributorKey, Contributor> contributors,
+        final NavigableSet<ContributorKey> order,
+        final Page page
+    ) {
+        super(page, contributors::size);
+        this.storage = storage;
+        this.recorder = recorder;
+        this.contributors = contributors;
+        this.order = order;
+    }
+
+    @Override
+    public Contributor register(final String username, final String provider) {
+        final ContributorKey key = new ContributorKey(username, provider);
+        final Contributor contributor = new StoredContributor(
+            username, provider, this.storage
+        );
+        return this.recorder.write(
+            () -> {
+                if(this.contributors.putIfAbsent(key, contributor) != null) {
+                    throw new ContributorsException.Single.Add(
+                        username, provider
+                    );
+                }
+                this.order.add(key);
+                return contributor;
+            },
+            MemoryContributors::record
+        );
+    }
+
+    @Override
+    public Contributor getById(final String username, final String provider) {
+        return this.contributors.get(new ContributorKey(username, provider));
+    }
+
+    @Override
+    public Contributors ofProject(
+        final String repoFullName,
+        final String repoProvider
+    ) {
+        return new ProjectContributors(
+            this.storage.projects().getProjectById(
+                repoFullName, repoProvider
+            ),
+            () -> this.select(
+                StreamSupport.stream(
+                    this.storage.contracts()
+                        .ofProject(repoFullName, repoProvider)
+                        .spliterator(),
+                    false
+                ).map(
+                    contract -> new ContributorKey(
+                        contract.contractId().getContributorUsername(),
+                        contract.contractId().getProvider()
+                    )
+                ).distinct()
+            ),
+            this.storage
+        );
+    }
+
+    @Override
+    public Contributors ofProvider(final String provider) {
+        return new ProviderContributors(
+            provider,
+            () -> this.select(
+                this.order.stream().filter(
+                    key -> key.provider().equalsIgnoreCase(provider)
+                )
+            ),
+            this.storage
+        );
+    }
+
+    @Override
+    public Contributors page(final Paged.Page page) {
+        return new MemoryContributors(
+            this.storage, this.recorder, this.contributors, this.order, page
+        );
+    }
+
+    @Override
+    public Contributor elect(final Task task) {
+        throw new ContributorsException.Election();
+    }
+
+    @Override
+    public Iterator<Contributor> iterator() {
+        final Page page = super.current();
+        return this.select(this.order.stream())
+            .skip((long) (page.getNumber() - 1) * page.getSize())
+            .limit(page.getSize())
+            .iterator();
+    }
+
+    /**
+     * Restore a Contributor from the journal.
+     * @param record Record.
+     */
+    void restore(final JsonObject record) {
+        final String username = record.getString("username");
+        final String provider = record.getString("provider");
+        final ContributorKey key = new ContributorKey(username, provider);
+        this.contributors.put(
+            key, new StoredContributor(username, provider, this.storage)
+        );
+        this.order.add(key);
+    }
+
+    /**
+     * Records of all the Contributors, for the snapshot.
+     * @return Stream of records.
+     */
+    Stream<JsonObject> rows() {
+        return this.contributors.values().stream()
+            .map(MemoryContributors::record);
+    }
+
+    /**
+     * Record of a Contributor.
+     * @param contributor Contributor.
+     * @return Record.
+     */
+    private static JsonObject record(final Contributor contributor) {
+        return Records.record("contributor")
+            .add("username", contributor.username())
+            .add("provider", contributor.provider())
+            .build();
+    }
+
+    /**
+     * Map the primary keys to Contributors.
+     * @param keys Primary keys.
+     * @return Stream of Contributors.
+     */
+    private Stream<Contributor> select(final Stream<ContributorKey> keys) {
+        return keys.map(this.contributors::get).filter(Objects::nonNull);
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Invoice;
+import com.selfxdsd.api.InvoicedTask;
+import com.selfxdsd.api.InvoicedTasks;
+import com.selfxdsd.api.Task;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.contracts.invoices.InvoiceTasks;
+import com.selfxdsd.core.contracts.invoices.StoredInvoicedTask;
+
+import javax.json.JsonObject;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * InvoicedTasks kept in memory, indexed by Invoice. Registering an
+ * InvoicedTask updates the {@link ContractCounters}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryInvoicedTasks implements InvoicedTasks {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Value and revenue counters of the Contracts.
+     */
+    private final ContractCounters counters;
+
+    /**
+     * InvoicedTasks "table".
+     */
+    private final Map<Integer, InvoicedTask> tasks =
+        new ConcurrentHashMap<>();
+
+    /**
+     * InvoicedTasks by Invoice id.
+     */
+    private final Index<Integer, Integer> byInvoice = new Index<>();
+
+    /**
+     * Id generator.
+     */
+    private final AtomicInteger ids = new AtomicInteger();
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     * @param counters Value and revenue counters of the Contracts.
+     */
+    MemoryInvoicedTasks(
+        final Storage storage,
+        final Recorder recorder,
+        final ContractCounters counters
+    ) {
+        this.storage = storage;
+        this.recorder = recorder;
+        this.counters = counters;
+    }
+
+    @Override
+    public InvoicedTasks ofInvoice(final Invoice invoice) {
+        return new InvoiceTasks(
+            invoice,
+            () -> this.byInvoice.get(invoice.invoiceId())
+                .map(this.tasks::get)
+                .filter(Objects::nonNull),
+            this.storage
+        );
+    }
+
+    @Override
+    public InvoicedTask register(
+        final Invoice invoice,
+        final Task finished,
+        final BigDecimal commission
+    ) {
+        return this.recorder.write(
+            () -> this.put(
+                invoice.invoiceId(),
+                new StoredInvoicedTask(
+                    this.ids.incrementAndGet(),
+                    invoice.invoiceId(),
+                    finished.value(),
+                    commission,
+                    finished,
+                    this.storage
+                )
+            ),
+            registered -> MemoryInvoicedTasks.record(
+                invoice.invoiceId(), registered
+            )
+        );
+    }
+
+    @Override
+    public Iterator<InvoicedTask> iterator() {
+        throw new UnsupportedOperationException(
+            "It is not possible to iterate over all invoiced tasks. "
+            + "Call #ofInvoice(...) first."
+        );
+    }
+
+    /**
+     * Restore an InvoicedTask from the journal.
+     * @param record Record.
+     * @param task The invoiced Task, built out of the record's "task".
+     */
+    void restore(final JsonObject record, final Task task) {
+        final int id = record.getInt("id");
+        final int invoice = record.getInt("invoice");
+        this.put(
+            invoice,
+            new StoredInvoicedTask(
+                id,
+                invoice,
+                Records.decimal(record, "value"),
+                Records.decimal(record, "commission"),
+                task,
+                this.storage
+            )
+        );
+        this.ids.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Records of all the InvoicedTasks, for the snapshot.
+     * @return Stream of records.
+     */
+    Stream<JsonObject> rows() {
+        return this.byInvoice.keys().flatMap(
+            invoice -> this.byInvoice.get(invoice)
+                .map(this.tasks::get)
+                .filter(Objects::nonNull)
+                .map(task -> MemoryInvoicedTasks.record(invoice, task))
+        );
+    }
+
+    /**
+     * Add an InvoicedTask, index it and count it.
+     * @param invoice Id of the Invoice.
+     * @param task InvoicedTask.
+     * @return The InvoicedTask.
+     */
+    private InvoicedTask put(final int invoice, final InvoicedTask task) {
+        this.tasks.put(task.invoicedTaskId(), task);
+        this.byInvoice.add(invoice, task.invoicedTaskId());
+        final Invoice stored = this.storage.invoices().getById(invoice);
+        if(stored != null) {
+            this.counters.invoiced(stored, task.value(), task.commission());
+        }
+        return task;
+    }
+
+    /**
+     * Record of an InvoicedTask.
+     * @param invoice Id of the Invoice.
+     * @param task InvoicedTask.
+     * @return Record.
+     */
+    private static JsonObject record(
+        final int invoice,
+        final InvoicedTask task
+    ) {
+        return Records.record("invoicedTask")
+            .add("id", task.invoicedTaskId())
+            .add("invoice", invoice)
+            .add("value", task.value())
+            .add("commission", task.commission())
+            .add("task", MemoryTasks.record(task.task()))
+            .build();
+    }
+}
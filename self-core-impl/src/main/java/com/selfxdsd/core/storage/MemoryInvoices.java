@@ -0,0 +1,341 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Contract;
+import com.selfxdsd.api.Invoice;
+import com.selfxdsd.api.Invoices;
+import com.selfxdsd.api.exceptions.ContractsException;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.contracts.invoices.ContractInvoices;
+import com.selfxdsd.core.contracts.invoices.SealedInvoice;
+import com.selfxdsd.core.contracts.invoices.StoredInvoice;
+import com.selfxdsd.core.keys.ContractKey;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Invoices kept in memory, indexed by Contract. Registering a real
+ * (non-fake) payment also registers the corresponding PlatformInvoice.
+ * Paying an Invoice updates the {@link ContractCounters} and seals it
+ * (see {@link SealedInvoice}), so the paid Invoice is read from its
+ * snapshot from then on. The failed payment attempts of each Invoice
+ * are counted as well.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryInvoices implements Invoices {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * PlatformInvoices.
+     */
+    private final MemoryPlatformInvoices platform;
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Value and revenue counters of the Contracts.
+     */
+    private final ContractCounters counters;
+
+    /**
+     * Invoices "table".
+     */
+    private final Map<Integer, Invoice> invoices = new ConcurrentHashMap<>();
+
+    /**
+     * Invoices by Contract.
+     */
+    private final Index<ContractKey, Integer> byContract = new Index<>();
+
+    /**
+     * Failed payment attempts, by Invoice id.
+     */
+    private final Map<Integer, Integer> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Id generator.
+     */
+    private final AtomicInteger ids = new AtomicInteger();
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     * @param platform PlatformInvoices.
+     * @param counters Value and revenue counters of the Contracts.
+     */
+    MemoryInvoices(
+        final Storage storage,
+        final Recorder recorder,
+        final MemoryPlatformInvoices platform,
+        final ContractCounters counters
+    ) {
+        this.storage = storage;
+        this.recorder = recorder;
+        this.platform = platform;
+        this.counters = counters;
+    }
+
+    @Override
+    public Invoice getById(final int id) {
+        return this.invoices.get(id);
+    }
+
+    @Override
+    public Invoice createNewInvoice(final Contract.Id contractId) {
+        final Contract contract = this.storage.contracts().findById(
+            contractId
+        );
+        if(contract == null) {
+            throw new ContractsException.Single.NotFound(contractId);
+        }
+        return this.recorder.write(
+            () -> this.put(
+                new StoredInvoice(
+                    this.ids.incrementAndGet(),
+                    contract,
+                    LocalDateTime.now(),
+                    null,
+                    null,
+                    null,
+                    null,
+                    this.storage
+                )
+            ),
+            MemoryInvoices::record
+        );
+    }
+
+    @Override
+    public Invoice active() {
+        throw new UnsupportedOperationException(
+            "It's not possible to get an active Invoice here. "
+            + "Call Invoices.ofContract(...) first."
+        );
+    }
+
+    @Override
+    public Invoices ofContract(final Contract.Id id) {
+        final ContractKey contract = new ContractKey(id);
+        return new ContractInvoices(
+            id,
+            () -> this.byContract.get(contract)
+                .map(this.invoices::get)
+                .filter(Objects::nonNull),
+            this.storage
+        );
+    }
+
+    @Override
+    public boolean registerAsPaid(
+        final Invoice invoice,
+        final BigDecimal contributorVat,
+        final BigDecimal eurToRon
+    ) {
+        final Invoice sealed;
+        if(invoice.isPaid()) {
+            sealed = SealedInvoice.seal(invoice, this.storage);
+        } else {
+            sealed = invoice;
+        }
+        final boolean paid = this.recorder.write(
+            () -> this.replace(sealed),
+            replaced -> {
+                final JsonObject record;
+                if(replaced) {
+                    record = MemoryInvoices.record(sealed);
+                } else {
+                    record = null;
+                }
+                return record;
+            }
+        );
+        if(paid && !sealed.transactionId().startsWith("fake_payment_")) {
+            this.platform.register(sealed, contributorVat, eurToRon);
+        }
+        return paid;
+    }
+
+    @Override
+    public int failedPayments(final Invoice invoice) {
+        return this.failures.getOrDefault(invoice.invoiceId(), 0);
+    }
+
+    @Override
+    public void registerFailedPayment(final Invoice invoice) {
+        final int id = invoice.invoiceId();
+        this.recorder.write(
+            () -> this.failures.merge(id, 1, Integer::sum),
+            count -> MemoryInvoices.failures(id, count)
+        );
+    }
+
+    @Override
+    public Iterator<Invoice> iterator() {
+        throw new UnsupportedOperationException(
+            "It's not possible to see all the invoices in Self. "
+            + "Add a filter first (e.g. Invoices.ofContract(...)."
+        );
+    }
+
+    /**
+     * Restore an Invoice from the journal.
+     * @param record Record.
+     */
+    void restore(final JsonObject record) {
+        final Contract contract = Records.reference(
+            record.getJsonObject("contract"), this.storage
+        );
+        final Invoice restored;
+        if(record.containsKey("seal")) {
+            restored = this.put(
+                new SealedInvoice(
+                    contract, record.getJsonObject("seal"), this.storage
+                )
+            );
+        } else {
+            restored = this.put(
+                new StoredInvoice(
+                    record.getInt("id"),
+                    contract,
+                    Records.date(record, "created"),
+                    Records.date(record, "paid"),
+                    Records.string(record, "transaction"),
+                    Records.string(record, "billedBy"),
+                    Records.string(record, "billedTo"),
+                    this.storage
+                )
+            );
+        }
+        if(restored.isPaid()) {
+            this.counters.paid(restored.invoiceId());
+        }
+        this.ids.accumulateAndGet(record.getInt("id"), Math::max);
+    }
+
+    /**
+     * Restore the failed payment attempts of an Invoice from the journal.
+     * @param record Record.
+     */
+    void restoreFailures(final JsonObject record) {
+        this.failures.put(record.getInt("id"), record.getInt("failures"));
+    }
+
+    /**
+     * Records of all the Invoices and of their failed payment attempts,
+     * for the snapshot.
+     * @return Stream of records.
+     */
+    Stream<JsonObject> rows() {
+        return Stream.concat(
+            this.invoices.values().stream().map(MemoryInvoices::record),
+            this.failures.entrySet().stream().map(
+                entry -> MemoryInvoices.failures(
+                    entry.getKey(), entry.getValue()
+                )
+            )
+        );
+    }
+
+    /**
+     * Replace an existing Invoice. If it is paid, its InvoicedTasks
+     * don't count anymore.
+     * @param invoice New version of the Invoice.
+     * @return True if it was replaced, false if it was missing.
+     */
+    private boolean replace(final Invoice invoice) {
+        final boolean replaced = this.invoices.replace(
+            invoice.invoiceId(), invoice
+        ) != null;
+        if(replaced && invoice.isPaid()) {
+            this.counters.paid(invoice.invoiceId());
+        }
+        return replaced;
+    }
+
+    /**
+     * Add (or overwrite) an Invoice and index it.
+     * @param invoice Invoice.
+     * @return The Invoice.
+     */
+    private Invoice put(final Invoice invoice) {
+        this.invoices.put(invoice.invoiceId(), invoice);
+        this.byContract.add(
+            new ContractKey(invoice.contract().contractId()),
+            invoice.invoiceId()
+        );
+        return invoice;
+    }
+
+    /**
+     * Record of the failed payment attempts of an Invoice.
+     * @param id Id of the Invoice.
+     * @param count Failed attempts.
+     * @return Record.
+     */
+    private static JsonObject failures(final int id, final int count) {
+        return Records.record("failedPayments")
+            .add("id", id)
+            .add("failures", count)
+            .build();
+    }
+
+    /**
+     * Record of an Invoice.
+     * @param invoice Invoice.
+     * @return Record.
+     */
+    private static JsonObject record(final Invoice invoice) {
+        final JsonObjectBuilder record = Records.record("invoice")
+            .add("id", invoice.invoiceId())
+            .add("contract", Records.reference(invoice.contract()))
+            .add("created", invoice.createdAt().toString());
+        Records.add(record, "paid", invoice.paymentTime());
+        Records.add(record, "transaction", invoice.transactionId());
+        Records.add(record, "billedBy", invoice.billedBy());
+        Records.add(record, "billedTo", invoice.billedTo());
+        if(invoice instanceof SealedInvoice) {
+            record.add("seal", ((SealedInvoice) invoice).json());
+        }
+        return record.build();
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.PaymentMethod;
+import com.selfxdsd.api.PaymentMethods;
+import com.selfxdsd.api.Wallet;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.projects.StripePaymentMethod;
+import com.selfxdsd.core.projects.WalletPaymentMethods;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PaymentMethods kept in memory, by Wallet identifier and by their own
+ * identifier.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryPaymentMethods implements PaymentMethods {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * PaymentMethods of each Wallet, by identifier.
+     */
+    private final Map<String, Map<String, PaymentMethod>> methods =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     */
+    MemoryPaymentMethods(final Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public PaymentMethod register(
+        final Wallet wallet,
+        final String identifier
+    ) {
+        final PaymentMethod method = new StripePaymentMethod(
+            this.storage, identifier, wallet, false
+        );
+        this.methods.computeIfAbsent(
+            wallet.identifier(), key -> new ConcurrentHashMap<>()
+        ).put(identifier, method);
+        return method;
+    }
+
+    @Override
+    public boolean remove(final PaymentMethod paymentMethod) {
+        return this.of(paymentMethod.wallet())
+            .remove(paymentMethod.identifier()) != null;
+    }
+
+    @Override
+    public PaymentMethods ofWallet(final Wallet wallet) {
+        return new WalletPaymentMethods(
+            wallet,
+            () -> this.of(wallet).values().stream(),
+            this.storage
+        );
+    }
+
+    @Override
+    public PaymentMethod active() {
+        throw new UnsupportedOperationException(
+            "You cannot get the active PaymentMethod out of all "
+            + "PaymentMethods in Self. Call #ofWallet(...) first."
+        );
+    }
+
+    @Override
+    public PaymentMethod activate(final PaymentMethod paymentMethod) {
+        final Map<String, PaymentMethod> ofWallet = this.of(
+            paymentMethod.wallet()
+        );
+        synchronized (ofWallet) {
+            for(final PaymentMethod stored : ofWallet.values()) {
+                ofWallet.put(
+                    stored.identifier(),
+                    new StripePaymentMethod(
+                        this.storage,
+                        stored.identifier(),
+                        stored.wallet(),
+                        stored.identifier().equals(
+                            paymentMethod.identifier()
+                        )
+                    )
+                );
+            }
+            return ofWallet.get(paymentMethod.identifier());
+        }
+    }
+
+    @Override
+    public Iterator<PaymentMethod> iterator() {
+        throw new UnsupportedOperationException(
+            "You cannot iterate over all PaymentMethods in Self. "
+            + "Call #ofWallet(...) first."
+        );
+    }
+
+    /**
+     * PaymentMethods of a Wallet.
+     * @param wallet Wallet.
+     * @return PaymentMethods by identifier, possibly empty.
+     */
+    private Map<String, PaymentMethod> of(final Wallet wallet) {
+        return this.methods.getOrDefault(
+            wallet.identifier(), new ConcurrentHashMap<>()
+        );
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Contributor;
+import com.selfxdsd.api.PayoutMethod;
+import com.selfxdsd.api.PayoutMethods;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.BillingInfoCache;
+import com.selfxdsd.core.contributors.ContributorPayoutMethods;
+import com.selfxdsd.core.contributors.StripePayoutMethod;
+import com.selfxdsd.core.keys.ContributorKey;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PayoutMethods kept in memory, by Contributor and type.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryPayoutMethods implements PayoutMethods {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * PayoutMethods of each Contributor, by type.
+     */
+    private final Map<ContributorKey, Map<String, PayoutMethod>> methods =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     */
+    MemoryPayoutMethods(final Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public PayoutMethod register(
+        final Contributor contributor,
+        final String type,
+        final String identifier
+    ) {
+        final PayoutMethod method = new StripePayoutMethod(
+            contributor, identifier, false, BillingInfoCache.of(this.storage)
+        );
+        this.methods.computeIfAbsent(
+            new ContributorKey(contributor), key -> new ConcurrentHashMap<>()
+        ).put(type.toUpperCase(Locale.ROOT), method);
+        return method;
+    }
+
+    @Override
+    public PayoutMethods ofContributor(final Contributor contributor) {
+        return new ContributorPayoutMethods(
+            contributor,
+            new ArrayList<>(this.of(contributor).values()),
+            this.storage
+        );
+    }
+
+    @Override
+    public PayoutMethod active() {
+        throw new UnsupportedOperationException(
+            "You cannot get the active PayoutMethod "
+            + "out of all PayoutMethods in Self. "
+            + "Call #ofContributor(...) first."
+        );
+    }
+
+    @Override
+    public PayoutMethod activate(final PayoutMethod payoutMethod) {
+        final Map<String, PayoutMethod> ofContributor = this.of(
+            payoutMethod.contributor()
+        );
+        final String activated = payoutMethod.type().toUpperCase(Locale.ROOT);
+        synchronized (ofContributor) {
+            for(final Map.Entry<String, PayoutMethod> stored
+                : ofContributor.entrySet()) {
+                ofContributor.put(
+                    stored.getKey(),
+                    new StripePayoutMethod(
+                        stored.getValue().contributor(),
+                        stored.getValue().identifier(),
+                        stored.getKey().equals(activated),
+                        BillingInfoCache.of(this.storage)
+                    )
+                );
+            }
+            return ofContributor.get(activated);
+        }
+    }
+
+    @Override
+    public Iterator<PayoutMethod> iterator() {
+        throw new UnsupportedOperationException(
+            "You cannot iterate over all PayoutMethods in Self. "
+            + "Call #ofContributor(...) first."
+        );
+    }
+
+    /**
+     * PayoutMethods of a Contributor.
+     * @param contributor Contributor.
+     * @return PayoutMethods by type, possibly empty.
+     */
+    private Map<String, PayoutMethod> of(final Contributor contributor) {
+        return this.methods.getOrDefault(
+            new ContributorKey(contributor), new ConcurrentHashMap<>()
+        );
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Invoice;
+import com.selfxdsd.api.PlatformInvoice;
+import com.selfxdsd.api.PlatformInvoices;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.StoredPlatformInvoice;
+
+import javax.json.JsonObject;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * PlatformInvoices kept in memory, by id and by transaction id.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryPlatformInvoices implements PlatformInvoices {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * PlatformInvoices "table".
+     */
+    private final Map<Integer, PlatformInvoice> invoices =
+        new ConcurrentHashMap<>();
+
+    /**
+     * PlatformInvoice ids by transaction id.
+     */
+    private final Map<String, Integer> byTransaction =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Records of the PlatformInvoices, by id. They are kept because a
+     * PlatformInvoice does not expose its EUR to RON rate, which the
+     * snapshot needs.
+     */
+    private final Map<Integer, JsonObject> records =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Id generator.
+     */
+    private final AtomicInteger ids = new AtomicInteger();
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     */
+    MemoryPlatformInvoices(final Storage storage, final Recorder recorder) {
+        this.storage = storage;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public PlatformInvoice getById(final int id) {
+        return this.invoices.get(id);
+    }
+
+    @Override
+    public PlatformInvoice getByPayment(
+        final String transactionId,
+        final LocalDateTime paymentTime
+    ) {
+        final Integer id = this.byTransaction.get(transactionId);
+        PlatformInvoice found = null;
+        if(id != null) {
+            found = this.invoices.get(id);
+            if(found != null && !found.paymentTime().equals(paymentTime)) {
+                found = null;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Iterator<PlatformInvoice> iterator() {
+        return this.invoices.values().iterator();
+    }
+
+    /**
+     * Register the PlatformInvoice (Self's commission) of a paid Invoice.
+     * @param invoice Paid Invoice.
+     * @param vat VAT which Self takes from the Contributor.
+     * @param eurToRon Euro to RON conversion rate.
+     * @return The registered PlatformInvoice.
+     */
+    PlatformInvoice register(
+        final Invoice invoice,
+        final BigDecimal vat,
+        final BigDecimal eurToRon
+    ) {
+        return this.recorder.write(
+            () -> this.restore(
+                Records.record("platformInvoice")
+                    .add("id", this.ids.incrementAndGet())
+                    .add("created", LocalDateTime.now().toString())
+                    .add("billedTo", invoice.billedBy())
+                    .add("commission", invoice.commission())
+                    .add("vat", vat)
+                    .add("transaction", invoice.transactionId())
+                    .add("paid", invoice.paymentTime().toString())
+                    .add("invoice", invoice.invoiceId())
+                    .add("eurToRon", eurToRon)
+                    .build()
+            ),
+            registered -> this.records.get(registered.id())
+        );
+    }
+
+    /**
+     * Restore a PlatformInvoice from the journal.
+     * @param record Record.
+     * @return The restored PlatformInvoice.
+     */
+    PlatformInvoice restore(final JsonObject record) {
+        final PlatformInvoice restored = new StoredPlatformInvoice(
+            record.getInt("id"),
+            Records.date(record, "created"),
+            record.getString("billedTo"),
+            Records.decimal(record, "commission"),
+            Records.decimal(record, "vat"),
+            record.getString("transaction"),
+            Records.date(record, "paid"),
+            record.getInt("invoice"),
+            Records.decimal(record, "eurToRon"),
+            this.storage
+        );
+        this.invoices.put(restored.id(), restored);
+        this.byTransaction.put(restored.transactionId(), restored.id());
+        this.records.put(restored.id(), record);
+        this.ids.accumulateAndGet(restored.id(), Math::max);
+        return restored;
+    }
+
+    /**
+     * Records of all the PlatformInvoices, for the snapshot.
+     * @return Stream of records.
+     */
+    Stream<JsonObject> rows() {
+        return this.records.values().stream();
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.ProjectManager;
+import com.selfxdsd.api.ProjectManagers;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ContributorKey;
+import com.selfxdsd.core.managers.StoredProjectManager;
+
+import javax.json.JsonObject;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * ProjectManagers kept in memory, by id and by username.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryProjectManagers implements ProjectManagers {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * PMs "table".
+     */
+    private final Map<Integer, ProjectManager> managers =
+        new ConcurrentHashMap<>();
+
+    /**
+     * PM ids by username and provider.
+     */
+    private final Map<ContributorKey, Integer> byUsername =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Records of the PMs, by id. They are kept because a PM does not
+     * expose its access token, which the snapshot needs.
+     */
+    private final Map<Integer, JsonObject> records =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Id generator.
+     */
+    private final AtomicInteger ids = new AtomicInteger();
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     */
+    MemoryProjectManagers(final Storage storage, final Recorder recorder) {
+        this.storage = storage;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public ProjectManager getById(final int id) {
+        return this.managers.get(id);
+    }
+
+    @Override
+    public ProjectManager getByUsername(
+        final String username,
+        final String provider
+    ) {
+        final Integer id = this.byUsername.get(
+            new ContributorKey(username, provider)
+        );
+        final ProjectManager found;
+        if(id == null) {
+            found = null;
+        } else {
+            found = this.managers.get(id);
+        }
+        return found;
+    }
+
+    @Override
+    public ProjectManager pick(final String provider) {
+        return this.managers.values().stream()
+            .filter(pm -> pm.provider().name().equalsIgnoreCase(provider))
+            .min(Comparator.comparingInt(ProjectManager::id))
+            .orElse(null);
+    }
+
+    @Override
+    public ProjectManager register(
+        final String userId,
+        final String username,
+        final String provider,
+        final String accessToken,
+        final double percentage
+    ) {
+        final JsonObject record = this.recorder.write(
+            () -> {
+                final JsonObject registered = Records.record("pm")
+                    .add("id", this.ids.incrementAndGet())
+                    .add("userId", userId)
+                    .add("username", username)
+                    .add("provider", provider)
+                    .add("token", accessToken)
+                    .add("percentage", percentage)
+                    .build();
+                this.restore(registered);
+                return registered;
+            },
+            registered -> registered
+        );
+        StoredProjectManager.registered(this.storage);
+        return this.managers.get(record.getInt("id"));
+    }
+
+    @Override
+    public Iterator<ProjectManager> iterator() {
+        return this.managers.values().iterator();
+    }
+
+    /**
+     * Restore a ProjectManager from the journal.
+     * @param record Record.
+     */
+    void restore(final JsonObject record) {
+        final int id = record.getInt("id");
+        final String username = record.getString("username");
+        final String provider = record.getString("provider");
+        this.managers.put(
+            id,
+            new StoredProjectManager(
+                id,
+                record.getString("userId"),
+                username,
+                provider,
+                record.getString("token"),
+                record.getJsonNumber("percentage").doubleValue(),
+                this.storage
+            )
+        );
+        this.byUsername.put(new ContributorKey(username, provider), id);
+        this.records.put(id, record);
+        this.ids.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Records of all the ProjectManagers, for the snapshot.
+     * @return Stream of records.
+     */
+    Stream<JsonObject> rows() {
+        return this.records.values().stream();
+    }
+}
@@ -0,0 +1,358 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.exceptions.ProjectsException;
+import com.selfxdsd.api.storage.Paged;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.BasePaged;
+import com.selfxdsd.core.StoredUser;
+import com.selfxdsd.core.keys.ContributorKey;
+import com.selfxdsd.core.keys.ProjectKey;
+import com.selfxdsd.core.projects.PmProjects;
+import com.selfxdsd.core.projects.StoredProject;
+import com.selfxdsd.core.projects.UserProjects;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Projects kept in memory, indexed by ProjectManager and by owner.
+ * Pages are read in the (stable) order of the Projects' ids.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryProjects extends BasePaged implements Projects {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Projects "table", shared by all the pages.
+     */
+    private final Table table;
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     */
+    MemoryProjects(final Storage storage, final Recorder recorder) {
+        this(storage, recorder, new Table(), Page.all());
+    }
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     * @param table Projects "table".
+     * @param page Current page.
+     */
+    private MemoryProjects(
+        final Storage storage,
+        final Recorder recorder,
+        final Table table,
+        final Page page
+    ) {
+        super(page, table.projects::size);
+        this.storage = storage;
+        this.recorder = recorder;
+        this.table = table;
+    }
+
+    @Override
+    public Project register(
+        final Repo repo,
+        final ProjectManager manager,
+        final String webHookToken
+    ) {
+        if(manager == null
+            || this.storage.projectManagers().getById(manager.id()) == null) {
+            throw new ProjectsException.Single.Add(
+                repo.fullName(),
+                repo.provider(),
+                "PM is missing or not registered!"
+            );
+        }
+        final Project project = new StoredProject(
+            repo.owner(), repo.fullName(), webHookToken,
+            manager, this.storage
+        );
+        final ProjectKey key = new ProjectKey(project);
+        return this.recorder.write(
+            () -> {
+                synchronized (this.table) {
+                    if(this.table.projects.containsKey(key)) {
+                        throw new ProjectsException.Single.Add(
+                            repo.fullName(),
+                            repo.provider(),
+                            "already exists."
+                        );
+                    }
+                    this.table.put(key, project);
+                }
+                return project;
+            },
+            MemoryProjects::record
+        );
+    }
+
+    @Override
+    public Projects assignedTo(final int projectManagerId) {
+        return new PmProjects(
+            projectManagerId,
+            () -> this.table.select(this.table.byManager.get(projectManagerId)),
+            this.storage
+        );
+    }
+
+    @Override
+    public Projects ownedBy(final User user) {
+        final ContributorKey owner = new ContributorKey(
+            user.username(), user.provider().name()
+        );
+        return new UserProjects(
+            user,
+            () -> this.table.select(this.table.byOwner.get(owner)),
+            this.storage
+        );
+    }
+
+    @Override
+    public Project getProjectById(
+        final String repoFullName,
+        final String repoProvider
+    ) {
+        return this.table.projects.get(
+            new ProjectKey(repoFullName, repoProvider)
+        );
+    }
+
+    @Override
+    public Projects page(final Paged.Page page) {
+        return new MemoryProjects(
+            this.storage, this.recorder, this.table, page
+        );
+    }
+
+    @Override
+    public void remove(final Project project) {
+        final ProjectKey key = new ProjectKey(project);
+        this.recorder.write(
+            () -> {
+                synchronized (this.table) {
+                    return this.table.remove(key);
+                }
+            },
+            removed -> {
+                final JsonObject record;
+                if(removed) {
+                    record = Records.record("-project")
+                        .add("repo", project.repoFullName())
+                        .add("provider", project.provider())
+                        .build();
+                } else {
+                    record = null;
+                }
+                return record;
+            }
+        );
+    }
+
+    @Override
+    public Iterator<Project> iterator() {
+        final Page page = super.current();
+        return this.table.select(this.table.order.stream())
+            .skip((long) (page.getNumber() - 1) * page.getSize())
+            .limit(page.getSize())
+            .iterator();
+    }
+
+    /**
+     * Restore a Project from the journal.
+     * @param record Record.
+     */
+    void restore(final JsonObject record) {
+        final String provider = record.getString("provider");
+        final JsonObject owner = record.getJsonObject("owner");
+        final Project project = new StoredProject(
+            new StoredUser(
+                owner.getString("username"),
+                Records.string(owner, "email"),
+                Records.string(owner, "role"),
+                provider,
+                this.storage
+            ),
+            record.getString("repo"),
+            record.getString("token"),
+            this.storage.projectManagers().getById(record.getInt("pm")),
+            this.storage
+        );
+        final ProjectKey key = new ProjectKey(project);
+        synchronized (this.table) {
+            this.table.remove(key);
+            this.table.put(key, project);
+        }
+    }
+
+    /**
+     * Restore the removal of a Project from the journal.
+     * @param record Record.
+     */
+    void restoreRemoval(final JsonObject record) {
+        synchronized (this.table) {
+            this.table.remove(
+                new ProjectKey(
+                    record.getString("repo"), record.getString("provider")
+                )
+            );
+        }
+    }
+
+    /**
+     * Records of all the Projects, for the snapshot.
+     * @return Stream of records.
+     */
+    Stream<JsonObject> rows() {
+        return this.table.projects.values().stream()
+            .map(MemoryProjects::record);
+    }
+
+    /**
+     * Record of a Project.
+     * @param project Project.
+     * @return Record.
+     */
+    private static JsonObject record(final Project project) {
+        final User user = project.owner();
+        final JsonObjectBuilder owner = Json.createObjectBuilder()
+            .add("username", user.username());
+        Records.add(owner, "email", user.email());
+        Records.add(owner, "role", user.role());
+        return Records.record("project")
+            .add("repo", project.repoFullName())
+            .add("provider", project.provider())
+            .add("owner", owner)
+            .add("pm", project.projectManager().id())
+            .add("token", project.webHookToken())
+            .build();
+    }
+
+    /**
+     * Projects "table" with its indexes.
+     */
+    private static final class Table {
+
+        /**
+         * Projects by id.
+         */
+        private final Map<ProjectKey, Project> projects =
+            new ConcurrentHashMap<>();
+
+        /**
+         * Ids in a stable order, for paging.
+         */
+        private final NavigableSet<ProjectKey> order =
+            new ConcurrentSkipListSet<>(
+                Comparator.comparing(ProjectKey::toString)
+            );
+
+        /**
+         * Projects by ProjectManager id.
+         */
+        private final Index<Integer, ProjectKey> byManager = new Index<>();
+
+        /**
+         * Projects by owner.
+         */
+        private final Index<ContributorKey, ProjectKey> byOwner =
+            new Index<>();
+
+        /**
+         * Add a Project and index it. Call it with the table locked.
+         * @param key Key of the Project.
+         * @param project Project.
+         */
+        private void put(final ProjectKey key, final Project project) {
+            this.projects.put(key, project);
+            this.order.add(key);
+            this.byManager.add(project.projectManager().id(), key);
+            this.byOwner.add(Table.owner(project), key);
+        }
+
+        /**
+         * Remove a Project and its index entries. Call it with the table
+         * locked.
+         * @param key Key of the Project.
+         * @return True if the Project was removed, false if missing.
+         */
+        private boolean remove(final ProjectKey key) {
+            final Project removed = this.projects.remove(key);
+            if(removed != null) {
+                this.order.remove(key);
+                this.byManager.remove(removed.projectManager().id(), key);
+                this.byOwner.remove(Table.owner(removed), key);
+            }
+            return removed != null;
+        }
+
+        /**
+         * Map the primary keys to Projects.
+         * @param keys Primary keys.
+         * @return Stream of Projects.
+         */
+        private Stream<Project> select(final Stream<ProjectKey> keys) {
+            return keys.map(this.projects::get).filter(Objects::nonNull);
+        }
+
+        /**
+         * Key of the Project's owner.
+         * @param project Project.
+         * @return ContributorKey.
+         */
+        private static ContributorKey owner(final Project project) {
+            final User owner = project.owner();
+            return new ContributorKey(
+                owner.username(), owner.provider().name()
+            );
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Contributor;
+import com.selfxdsd.api.Resignation;
+import com.selfxdsd.api.Resignations;
+import com.selfxdsd.api.Task;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.TaskKey;
+import com.selfxdsd.core.tasks.StoredResignation;
+import com.selfxdsd.core.tasks.TaskResignations;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Resignations kept in memory, by Task.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryResignations implements Resignations {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Resignations of each Task.
+     */
+    private final Map<TaskKey, List<Resignation>> resignations =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     */
+    MemoryResignations(final Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public Resignations ofTask(final Task task) {
+        final TaskKey key = new TaskKey(task);
+        return new TaskResignations(
+            task,
+            () -> this.resignations.getOrDefault(
+                key, new CopyOnWriteArrayList<>()
+            ).stream(),
+            this.storage
+        );
+    }
+
+    @Override
+    public Resignation register(final Task task, final String reason) {
+        final Contributor assignee = task.assignee();
+        if(assignee == null) {
+            throw new IllegalStateException(
+                "Can't resign from an unassigned Task."
+            );
+        }
+        final Resignation resignation = new StoredResignation(
+            task, assignee, LocalDateTime.now(), reason
+        );
+        this.resignations.computeIfAbsent(
+            new TaskKey(task), key -> new CopyOnWriteArrayList<>()
+        ).add(resignation);
+        return resignation;
+    }
+
+    @Override
+    public Iterator<Resignation> iterator() {
+        throw new UnsupportedOperationException(
+            "You cannot iterate over all Resignations in Self."
+        );
+    }
+}
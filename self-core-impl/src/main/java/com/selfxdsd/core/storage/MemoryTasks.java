@@ -0,0 +1,507 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.exceptions.ProjectsException;
+import com.selfxdsd.api.exceptions.TasksException;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ContractKey;
+import com.selfxdsd.core.keys.ContributorKey;
+import com.selfxdsd.core.keys.ProjectKey;
+import com.selfxdsd.core.keys.TaskKey;
+import com.selfxdsd.core.tasks.ContractTasks;
+import com.selfxdsd.core.tasks.ContributorTasks;
+import com.selfxdsd.core.tasks.ProjectTasks;
+import com.selfxdsd.core.tasks.StoredTask;
+import com.selfxdsd.core.tasks.UnassignedTasks;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tasks kept in memory, indexed by Project, assignee and Contract.
+ * The unassigned Tasks are also indexed. Writes are serialized, reads
+ * never block. Assigning and unassigning Tasks updates the
+ * {@link ContractCounters}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryTasks implements Tasks {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Value and revenue counters of the Contracts.
+     */
+    private final ContractCounters counters;
+
+    /**
+     * Tasks "table".
+     */
+    private final Map<TaskKey, Task> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * Tasks by Project.
+     */
+    private final Index<ProjectKey, TaskKey> byProject = new Index<>();
+
+    /**
+     * Tasks by assignee.
+     */
+    private final Index<ContributorKey, TaskKey> byAssignee = new Index<>();
+
+    /**
+     * Tasks by Contract.
+     */
+    private final Index<ContractKey, TaskKey> byContract = new Index<>();
+
+    /**
+     * Unassigned Tasks.
+     */
+    private final Set<TaskKey> unassigned = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Lock for the writes. Reads are not locked.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     * @param counters Value and revenue counters of the Contracts.
+     */
+    MemoryTasks(
+        final Storage storage,
+        final Recorder recorder,
+        final ContractCounters counters
+    ) {
+        this.storage = storage;
+        this.recorder = recorder;
+        this.counters = counters;
+    }
+
+    @Override
+    public Task getById(
+        final String issueId,
+        final String repoFullName,
+        final String provider,
+        final boolean isPullRequest
+    ) {
+        return this.tasks.get(
+            new TaskKey(
+                new ProjectKey(repoFullName, provider),
+                issueId,
+                isPullRequest
+            )
+        );
+    }
+
+    @Override
+    public Task register(final Issue issue) {
+        final Project project = this.storage.projects().getProjectById(
+            issue.repoFullName(), issue.provider()
+        );
+        if(project == null) {
+            throw new ProjectsException.Single.NotFound(
+                issue.repoFullName(),
+                issue.provider()
+            );
+        }
+        final Task task = new StoredTask(
+            project,
+            issue.issueId(),
+            issue.role(),
+            issue.estimation().minutes(),
+            issue.isPullRequest(),
+            this.storage
+        );
+        final TaskKey key = new TaskKey(task);
+        return this.recorder.write(
+            () -> {
+                synchronized (this.lock) {
+                    if(this.tasks.containsKey(key)) {
+                        throw new TasksException.OfProject.Add(
+                            issue.repoFullName(), issue.provider()
+                        );
+                    }
+                    this.tasks.put(key, task);
+                    this.index(key, task);
+                }
+                return task;
+            },
+            MemoryTasks::record
+        );
+    }
+
+    @Override
+    public Task assign(
+        final Task task,
+        final Contract contract,
+        final int days
+    ) {
+        final LocalDateTime assignmentDate = LocalDateTime.now();
+        final Task assigned = new StoredTask(
+            contract,
+            task.issueId(),
+            this.storage,
+            assignmentDate,
+            assignmentDate.plusDays(days),
+            task.estimation(),
+            task.isPullRequest()
+        );
+        return this.recorder.write(
+            () -> this.replace(new TaskKey(task), assigned),
+            MemoryTasks::record
+        );
+    }
+
+    @Override
+    public Task unassign(final Task task) {
+        final Task unassigned = new StoredTask(
+            task.project(),
+            task.issueId(),
+            task.role(),
+            task.estimation(),
+            task.isPullRequest(),
+            this.storage
+        );
+        return this.recorder.write(
+            () -> this.replace(new TaskKey(task), unassigned),
+            MemoryTasks::record
+        );
+    }
+
+    @Override
+    public Tasks ofProject(
+        final String repoFullName,
+        final String repoProvider
+    ) {
+        final ProjectKey project = new ProjectKey(repoFullName, repoProvider);
+        return new ProjectTasks(
+            repoFullName,
+            repoProvider,
+            () -> this.select(this.byProject.get(project)),
+            this.storage
+        );
+    }
+
+    @Override
+    public Tasks ofContributor(final String username, final String provider) {
+        final ContributorKey assignee = new ContributorKey(username, provider);
+        return new ContributorTasks(
+            username,
+            provider,
+            () -> this.select(this.byAssignee.get(assignee)),
+            this.storage
+        );
+    }
+
+    @Override
+    public Tasks ofContract(final Contract.Id id) {
+        final ContractKey contract = new ContractKey(id);
+        return new ContractTasks(
+            id,
+            () -> this.select(this.byContract.get(contract)),
+            this.storage
+        );
+    }
+
+    @Override
+    public Tasks unassigned() {
+        return new UnassignedTasks(
+            () -> this.select(this.unassigned.stream()),
+            this.storage
+        );
+    }
+
+    @Override
+    public boolean remove(final Task task) {
+        final TaskKey key = new TaskKey(task);
+        return this.recorder.write(
+            () -> this.delete(key),
+            removed -> {
+                final JsonObject record;
+                if(removed) {
+                    record = Records.record("-task")
+                        .add("repo", key.project().repoFullName())
+                        .add("provider", key.project().provider())
+                        .add("issue", key.issueId())
+                        .add("pr", key.isPullRequest())
+                        .build();
+                } else {
+                    record = null;
+                }
+                return record;
+            }
+        );
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return this.tasks.values().iterator();
+    }
+
+    /**
+     * Restore a Task from the journal.
+     * @param record Record.
+     */
+    void restore(final JsonObject record) {
+        final Task task = this.task(record);
+        this.replace(new TaskKey(task), task);
+    }
+
+    /**
+     * A Contract was updated (e.g. its hourly rate changed): replace its
+     * Tasks with versions bound to the new Contract, so their value and
+     * the counters are recomputed at the new rate.
+     * @param contract New version of the Contract.
+     */
+    void rebind(final Contract contract) {
+        final ContractKey ctk = new ContractKey(contract.contractId());
+        synchronized (this.lock) {
+            for(final TaskKey key : this.byContract.get(ctk)
+                .collect(Collectors.toList())) {
+                final Task task = this.tasks.get(key);
+                this.replace(
+                    key,
+                    new StoredTask(
+                        contract,
+                        task.issueId(),
+                        this.storage,
+                        task.assignmentDate(),
+                        task.deadline(),
+                        task.estimation(),
+                        task.isPullRequest()
+                    )
+                );
+            }
+        }
+    }
+
+    /**
+     * Restore the removal of a Task from the journal.
+     * @param record Record.
+     */
+    void restoreRemoval(final JsonObject record) {
+        this.delete(
+            new TaskKey(
+                new ProjectKey(
+                    record.getString("repo"), record.getString("provider")
+                ),
+                record.getString("issue"),
+                record.getBoolean("pr")
+            )
+        );
+    }
+
+    /**
+     * Records of all the Tasks, for the snapshot.
+     * @return Stream of records.
+     */
+    Stream<JsonObject> rows() {
+        return this.tasks.values().stream().map(MemoryTasks::record);
+    }
+
+    /**
+     * Build a Task out of its record.
+     * @param record Record.
+     * @return Task.
+     */
+    Task task(final JsonObject record) {
+        final Task task;
+        if(record.containsKey("contract")) {
+            task = new StoredTask(
+                Records.reference(
+                    record.getJsonObject("contract"), this.storage
+                ),
+                record.getString("issue"),
+                this.storage,
+                Records.date(record, "assigned"),
+                Records.date(record, "deadline"),
+                record.getInt("estimation"),
+                record.getBoolean("pr")
+            );
+        } else {
+            final String repo = record.getString("repo");
+            final String provider = record.getString("provider");
+            final Project project = this.storage.projects().getProjectById(
+                repo, provider
+            );
+            if(project == null) {
+                throw new IllegalStateException(
+                    "Cannot restore Task " + record.getString("issue")
+                    + ", Project " + repo + " at " + provider
+                    + " is missing."
+                );
+            }
+            task = new StoredTask(
+                project,
+                record.getString("issue"),
+                record.getString("role"),
+                record.getInt("estimation"),
+                record.getBoolean("pr"),
+                this.storage
+            );
+        }
+        return task;
+    }
+
+    /**
+     * Record of a Task.
+     * @param task Task.
+     * @return Record.
+     */
+    static JsonObject record(final Task task) {
+        final Contract.Id id = MemoryTasks.contractId(task);
+        final JsonObjectBuilder record = Records.record("task");
+        if(id == null) {
+            final Project project = task.project();
+            record.add("repo", project.repoFullName())
+                .add("provider", project.provider());
+        } else {
+            record.add("repo", id.getRepoFullName())
+                .add("provider", id.getProvider())
+                .add("contract", Records.reference(task.contract()));
+            Records.add(record, "assigned", task.assignmentDate());
+            Records.add(record, "deadline", task.deadline());
+        }
+        return record
+            .add("issue", task.issueId())
+            .add("role", task.role())
+            .add("estimation", task.estimation())
+            .add("pr", task.isPullRequest())
+            .build();
+    }
+
+    /**
+     * Replace the stored Task, keeping the indexes in sync.
+     * @param key Key of the Task.
+     * @param task New version of the Task.
+     * @return The new version.
+     */
+    private Task replace(final TaskKey key, final Task task) {
+        synchronized (this.lock) {
+            final Task old = this.tasks.put(key, task);
+            if(old != null) {
+                this.unindex(key, old);
+            }
+            this.index(key, task);
+        }
+        return task;
+    }
+
+    /**
+     * Remove a Task, keeping the indexes in sync.
+     * @param key Key of the Task.
+     * @return True if it was removed, false if it was missing.
+     */
+    private boolean delete(final TaskKey key) {
+        final Task removed;
+        synchronized (this.lock) {
+            removed = this.tasks.remove(key);
+            if(removed != null) {
+                this.unindex(key, removed);
+            }
+        }
+        return removed != null;
+    }
+
+    /**
+     * Map the primary keys to Tasks.
+     * @param keys Primary keys.
+     * @return Stream of Tasks.
+     */
+    private Stream<Task> select(final Stream<TaskKey> keys) {
+        return keys.map(this.tasks::get).filter(Objects::nonNull);
+    }
+
+    /**
+     * Add the Task to the indexes.
+     * @param key Key of the Task.
+     * @param task Task.
+     */
+    private void index(final TaskKey key, final Task task) {
+        this.byProject.add(key.project(), key);
+        final Contract.Id id = MemoryTasks.contractId(task);
+        if(id == null) {
+            this.unassigned.add(key);
+        } else {
+            final ContractKey ctk = new ContractKey(id);
+            this.byContract.add(ctk, key);
+            this.byAssignee.add(ctk.contributor(), key);
+            this.counters.assigned(key, ctk, task);
+        }
+    }
+
+    /**
+     * Remove the Task from the indexes.
+     * @param key Key of the Task.
+     * @param task Task.
+     */
+    private void unindex(final TaskKey key, final Task task) {
+        this.byProject.remove(key.project(), key);
+        final Contract.Id id = MemoryTasks.contractId(task);
+        if(id == null) {
+            this.unassigned.remove(key);
+        } else {
+            final ContractKey ctk = new ContractKey(id);
+            this.byContract.remove(ctk, key);
+            this.byAssignee.remove(ctk.contributor(), key);
+            this.counters.unassigned(key);
+        }
+    }
+
+    /**
+     * Id of the Task's Contract. An unassigned Task has a placeholder
+     * Contract without an id (see StoredTask.Unassigned), or none at all.
+     * @param task Task.
+     * @return Contract.Id or null if the Task is not assigned.
+     */
+    private static Contract.Id contractId(final Task task) {
+        final Contract contract = task.contract();
+        Contract.Id id = null;
+        if(contract != null) {
+            id = contract.contractId();
+        }
+        return id;
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.User;
+import com.selfxdsd.api.Users;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.StoredUser;
+import com.selfxdsd.core.keys.ContributorKey;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Users kept in memory, by username and provider.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryUsers implements Users {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Users "table".
+     */
+    private final Map<ContributorKey, User> users = new ConcurrentHashMap<>();
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     */
+    MemoryUsers(final Storage storage, final Recorder recorder) {
+        this.storage = storage;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public User signUp(
+        final String username,
+        final String provider,
+        final String email,
+        final String role
+    ) {
+        final ContributorKey key = new ContributorKey(username, provider);
+        final User found = this.users.get(key);
+        final User user;
+        if(found == null) {
+            user = this.recorder.write(
+                () -> this.users.computeIfAbsent(
+                    key,
+                    k -> new StoredUser(
+                        username, email, role, provider, this.storage
+                    )
+                ),
+                MemoryUsers::record
+            );
+        } else {
+            user = found;
+        }
+        return user;
+    }
+
+    @Override
+    public User user(final String username, final String provider) {
+        return this.users.get(new ContributorKey(username, provider));
+    }
+
+    @Override
+    public Iterator<User> iterator() {
+        return this.users.values().iterator();
+    }
+
+    /**
+     * Restore a User from the journal.
+     * @param record Record.
+     */
+    void restore(final JsonObject record) {
+        final String username = record.getString("username");
+        final String provider = record.getString("provider");
+        this.users.put(
+            new ContributorKey(username, provider),
+            new StoredUser(
+                username,
+                Records.string(record, "email"),
+                Records.string(record, "role"),
+                provider,
+                this.storage
+            )
+        );
+    }
+
+    /**
+     * Records of all the Users, for the snapshot.
+     * @return Stream of records.
+     */
+    Stream<JsonObject> rows() {
+        return this.users.values().stream().map(MemoryUsers::record);
+    }
+
+    /**
+     * Record of a User.
+     * @param user User.
+     * @return Record.
+     */
+    private static JsonObject record(final User user) {
+        final JsonObjectBuilder record = Records.record("user")
+            .add("username", user.username())
+            .add("provider", user.provider().name());
+        Records.add(record, "email", user.email());
+        Records.add(record, "role", user.role());
+        return record.build();
+    }
+}
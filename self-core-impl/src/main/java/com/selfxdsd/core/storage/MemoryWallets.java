@@ -0,0 +1,321 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Wallet;
+import com.selfxdsd.api.Wallets;
+import com.selfxdsd.api.exceptions.WalletAlreadyExistsException;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ProjectKey;
+import com.selfxdsd.core.projects.FakeWallet;
+import com.selfxdsd.core.projects.ProjectWallets;
+import com.selfxdsd.core.projects.StripeWallet;
+
+import javax.json.JsonObject;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Wallets kept in memory, by Project and type.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class MemoryWallets implements Wallets {
+
+    /**
+     * Parent storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Recorder of the mutations.
+     */
+    private final Recorder recorder;
+
+    /**
+     * Wallets of each Project, by type.
+     */
+    private final Map<ProjectKey, Map<String, Wallet>> wallets =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Ctor.
+     * @param storage Parent storage.
+     * @param recorder Recorder of the mutations.
+     */
+    MemoryWallets(final Storage storage, final Recorder recorder) {
+        this.storage = storage;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public Wallet register(
+        final Project project,
+        final String type,
+        final BigDecimal cash,
+        final String identifier
+    ) {
+        final Wallet wallet = this.wallet(
+            project, type, cash, identifier, false
+        );
+        final Map<String, Wallet> ofProject = this.wallets.computeIfAbsent(
+            new ProjectKey(project), key -> new ConcurrentHashMap<>()
+        );
+        return this.recorder.write(
+            () -> {
+                final String key = MemoryWallets.type(type);
+                if(ofProject.putIfAbsent(key, wallet) != null) {
+                    throw new WalletAlreadyExistsException(project, type);
+                }
+                return wallet;
+            },
+            MemoryWallets::record
+        );
+    }
+
+    @Override
+    public Wallets ofProject(final Project project) {
+        return new ProjectWallets(
+            project,
+            new ArrayList<>(this.of(project).values()),
+            this.storage
+        );
+    }
+
+    @Override
+    public Wallet active() {
+        throw new UnsupportedOperationException(
+            "You cannot get the active wallet out of all wallets in Self. "
+            + "Call #ofProject(...) first."
+        );
+    }
+
+    @Override
+    public Wallet activate(final Wallet wallet) {
+        return this.recorder.write(
+            () -> this.activate(
+                this.of(wallet.project()), MemoryWallets.type(wallet.type())
+            ),
+            activated -> {
+                final JsonObject record;
+                if(activated == null) {
+                    record = null;
+                } else {
+                    record = Records.record("activeWallet")
+                        .add("repo", activated.project().repoFullName())
+                        .add("provider", activated.project().provider())
+                        .add("type", activated.type())
+                        .build();
+                }
+                return record;
+            }
+        );
+    }
+
+    @Override
+    public Wallet updateCash(final Wallet wallet, final BigDecimal cash) {
+        return this.recorder.write(
+            () -> this.of(wallet.project()).computeIfPresent(
+                MemoryWallets.type(wallet.type()),
+                (type, stored) -> this.wallet(
+                    stored.project(),
+                    stored.type(),
+                    cash,
+                    stored.identifier(),
+                    stored.active()
+                )
+            ),
+            updated -> {
+                final JsonObject record;
+                if(updated == null) {
+                    record = null;
+                } else {
+                    record = MemoryWallets.record(updated);
+                }
+                return record;
+            }
+        );
+    }
+
+    @Override
+    public Iterator<Wallet> iterator() {
+        throw new UnsupportedOperationException(
+            "You cannot iterate over all wallets in Self. "
+            + "Call #ofProject(...) first."
+        );
+    }
+
+    /**
+     * Restore a Wallet from the journal.
+     * @param record Record.
+     */
+    void restore(final JsonObject record) {
+        final Project project = this.project(record);
+        final String type = record.getString("type");
+        this.wallets.computeIfAbsent(
+            new ProjectKey(project), key -> new ConcurrentHashMap<>()
+        ).put(
+            MemoryWallets.type(type),
+            this.wallet(
+                project,
+                type,
+                Records.decimal(record, "cash"),
+                record.getString("identifier"),
+                record.getBoolean("active")
+            )
+        );
+    }
+
+    /**
+     * Restore the activation of a Wallet from the journal.
+     * @param record Record.
+     */
+    void restoreActivation(final JsonObject record) {
+        this.activate(
+            this.of(this.project(record)),
+            MemoryWallets.type(record.getString("type"))
+        );
+    }
+
+    /**
+     * Records of all the Wallets, for the snapshot.
+     * @return Stream of records.
+     */
+    Stream<JsonObject> rows() {
+        return this.wallets.values().stream()
+            .flatMap(ofProject -> ofProject.values().stream())
+            .map(MemoryWallets::record);
+    }
+
+    /**
+     * Activate the Wallet of the given type, deactivating the others.
+     * @param ofProject Wallets of a Project.
+     * @param activated Type of the Wallet to activate.
+     * @return The activated Wallet.
+     */
+    private Wallet activate(
+        final Map<String, Wallet> ofProject,
+        final String activated
+    ) {
+        synchronized (ofProject) {
+            for(final Wallet stored : ofProject.values()) {
+                final String type = MemoryWallets.type(stored.type());
+                ofProject.put(
+                    type,
+                    this.wallet(
+                        stored.project(),
+                        stored.type(),
+                        stored.cash(),
+                        stored.identifier(),
+                        type.equals(activated)
+                    )
+                );
+            }
+            return ofProject.get(activated);
+        }
+    }
+
+    /**
+     * Wallets of a Project.
+     * @param project Project.
+     * @return Wallets by type, possibly empty.
+     */
+    private Map<String, Wallet> of(final Project project) {
+        return this.wallets.getOrDefault(
+            new ProjectKey(project), new ConcurrentHashMap<>()
+        );
+    }
+
+    /**
+     * Project of a Wallet record.
+     * @param record Record.
+     * @return Project.
+     */
+    private Project project(final JsonObject record) {
+        return this.storage.projects().getProjectById(
+            record.getString("repo"), record.getString("provider")
+        );
+    }
+
+    /**
+     * Record of a Wallet.
+     * @param wallet Wallet.
+     * @return Record.
+     */
+    private static JsonObject record(final Wallet wallet) {
+        return Records.record("wallet")
+            .add("repo", wallet.project().repoFullName())
+            .add("provider", wallet.project().provider())
+            .add("type", wallet.type())
+            .add("cash", wallet.cash())
+            .add("identifier", wallet.identifier())
+            .add("active", wallet.active())
+            .build();
+    }
+
+    /**
+     * Build a Wallet of the given type.
+     * @param project Project.
+     * @param type Type.
+     * @param cash Cash limit.
+     * @param identifier Identifier.
+     * @param active Is it active?
+     * @return Wallet.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    private Wallet wallet(
+        final Project project,
+        final String type,
+        final BigDecimal cash,
+        final String identifier,
+        final boolean active
+    ) {
+        final Wallet wallet;
+        if(Wallet.Type.STRIPE.equalsIgnoreCase(type)) {
+            wallet = new StripeWallet(
+                this.storage, project, cash, identifier, active
+            );
+        } else {
+            wallet = new FakeWallet(
+                this.storage, project, cash, identifier, active
+            );
+        }
+        return wallet;
+    }
+
+    /**
+     * Normalized Wallet type.
+     * @param type Type.
+     * @return Upper-case type.
+     */
+    private static String type(final String type) {
+        return type.toUpperCase(Locale.ROOT);
+    }
+}
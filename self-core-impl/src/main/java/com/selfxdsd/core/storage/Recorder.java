@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import javax.json.JsonObject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Records the mutations of the InMemoryStorage in a {@link Journal}
+ * and compacts the journal into a snapshot once it grows past a
+ * threshold. Without a Journal it only runs the mutations.<br><br>
+ *
+ * A mutation and the writing of its record are done under one lock,
+ * which the snapshot takes as well. This way the journal has the
+ * mutations in the order in which they were applied in memory (so
+ * replaying it ends in the same state) and no mutation is half-way
+ * (applied but not yet journaled) when the journal is emptied. Waiting
+ * for the record to be durable is done outside of the lock, so
+ * concurrent writers still share the fsyncs.<br><br>
+ *
+ * If a record cannot be appended, the mutation is already applied in
+ * memory, but it would be lost on restart. The Recorder then stops:
+ * every further write fails, so nothing else is built on top of a state
+ * which the journal does not have. Restarting replays the journal.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class Recorder {
+
+    /**
+     * Journal, null if the storage is not durable.
+     */
+    private final Journal journal;
+
+    /**
+     * Size of the journal (bytes) which triggers a snapshot.
+     */
+    private final long threshold;
+
+    /**
+     * Records describing the whole state, for the snapshot.
+     */
+    private final Supplier<Iterator<JsonObject>> state;
+
+    /**
+     * Orders the mutations with their records and with the snapshot.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Set when a record could not be journaled.
+     */
+    private volatile IOException failed;
+
+    /**
+     * Are we replaying the journal? If so, nothing is recorded.
+     */
+    private volatile boolean replaying;
+
+    /**
+     * Ctor for a storage which is not durable.
+     */
+    Recorder() {
+        this(null, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * Ctor.
+     * @param journal Journal.
+     * @param threshold Size of the journal which triggers a snapshot.
+     * @param state Records describing the whole state.
+     */
+    Recorder(
+        final Journal journal,
+        final long threshold,
+        final Supplier<Iterator<JsonObject>> state
+    ) {
+        this.journal = journal;
+        this.threshold = threshold;
+        this.state = state;
+    }
+
+    /**
+     * Run a mutation and journal its record. Nested writes are allowed;
+     * the snapshot is only taken by the outermost one.
+     * @param mutation Mutation.
+     * @param record Builds the record out of the mutation's result;
+     *  if it returns null, nothing is journaled.
+     * @param <T> Type of the result.
+     * @return The mutation's result.
+     */
+    <T> T write(
+        final Supplier<T> mutation,
+        final Function<T, JsonObject> record
+    ) {
+        final T result;
+        if(this.journal == null || this.replaying) {
+            result = mutation.get();
+        } else {
+            long position = -1;
+            this.lock.lock();
+            try {
+                if(this.failed != null) {
+                    throw new IllegalStateException(
+                        "The journal failed, the storage is stopped. "
+                        + "Restart it to replay the journal.",
+                        this.failed
+                    );
+                }
+                result = mutation.get();
+                final JsonObject json = record.apply(result);
+                if(json != null) {
+                    position = this.journal.write(json);
+                }
+            } catch (final IOException ex) {
+                throw this.fail(ex);
+            } finally {
+                this.lock.unlock();
+            }
+            if(position >= 0) {
+                try {
+                    this.journal.awaitDurable(position);
+                } catch (final IOException ex) {
+                    throw this.fail(ex);
+                }
+            }
+            if(this.journal.size() >= this.threshold
+                && !this.lock.isHeldByCurrentThread()) {
+                this.snapshot();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stop the Recorder after the journal failed.
+     * @param ex Failure of the journal.
+     * @return Exception to throw.
+     */
+    private UncheckedIOException fail(final IOException ex) {
+        this.failed = ex;
+        return new UncheckedIOException(
+            "Could not write to the journal.", ex
+        );
+    }
+
+    /**
+     * Replay the snapshot and the journal, without recording anything.
+     * @param apply Applies a record.
+     */
+    void replay(final Consumer<JsonObject> apply) {
+        if(this.journal != null) {
+            this.replaying = true;
+            try {
+                this.journal.replay(apply);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(
+                    "Could not replay the journal.", ex
+                );
+            } finally {
+                this.replaying = false;
+            }
+        }
+    }
+
+    /**
+     * Write the whole state as the new snapshot and empty the journal.
+     */
+    void snapshot() {
+        if(this.journal != null) {
+            this.lock.lock();
+            try {
+                if(this.journal.size() > 0) {
+                    this.journal.compact(this.state.get());
+                }
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(
+                    "Could not write the snapshot.", ex
+                );
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Close the journal.
+     * @throws IOException If it cannot be closed.
+     */
+    void close() throws IOException {
+        if(this.journal != null) {
+            this.journal.close();
+        }
+    }
+}
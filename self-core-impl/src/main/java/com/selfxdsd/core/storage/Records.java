@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.Contract;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.contracts.StoredContract;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Helpers for reading and writing the journal's records. Each record
+ * is a JsonObject with an "op" attribute saying which table it belongs
+ * to; removals have the table's name prefixed with "-".
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+final class Records {
+
+    /**
+     * Hidden ctor.
+     */
+    private Records() {}
+
+    /**
+     * Start a record.
+     * @param operation Operation (table name, or "-" + table name).
+     * @return Builder of the record.
+     */
+    static JsonObjectBuilder record(final String operation) {
+        return Json.createObjectBuilder().add("op", operation);
+    }
+
+    /**
+     * Add a nullable String.
+     * @param record Builder of the record.
+     * @param name Name of the attribute.
+     * @param value Value, can be null.
+     * @return The builder.
+     */
+    static JsonObjectBuilder add(
+        final JsonObjectBuilder record,
+        final String name,
+        final String value
+    ) {
+        if(value == null) {
+            record.addNull(name);
+        } else {
+            record.add(name, value);
+        }
+        return record;
+    }
+
+    /**
+     * Add a nullable date.
+     * @param record Builder of the record.
+     * @param name Name of the attribute.
+     * @param value Value, can be null.
+     * @return The builder.
+     */
+    static JsonObjectBuilder add(
+        final JsonObjectBuilder record,
+        final String name,
+        final LocalDateTime value
+    ) {
+        final String date;
+        if(value == null) {
+            date = null;
+        } else {
+            date = value.toString();
+        }
+        return Records.add(record, name, date);
+    }
+
+    /**
+     * Nullable String attribute.
+     * @param record Record.
+     * @param name Name of the attribute.
+     * @return String or null.
+     */
+    static String string(final JsonObject record, final String name) {
+        final String value;
+        if(record.containsKey(name) && !record.isNull(name)) {
+            value = record.getString(name);
+        } else {
+            value = null;
+        }
+        return value;
+    }
+
+    /**
+     * Nullable date attribute.
+     * @param record Record.
+     * @param name Name of the attribute.
+     * @return LocalDateTime or null.
+     */
+    static LocalDateTime date(final JsonObject record, final String name) {
+        final String value = Records.string(record, name);
+        final LocalDateTime date;
+        if(value == null) {
+            date = null;
+        } else {
+            date = LocalDateTime.parse(value);
+        }
+        return date;
+    }
+
+    /**
+     * Decimal attribute. Decimals are written as JSON numbers, so
+     * they keep their exact value and scale.
+     * @param record Record.
+     * @param name Name of the attribute.
+     * @return BigDecimal.
+     */
+    static BigDecimal decimal(final JsonObject record, final String name) {
+        return record.getJsonNumber(name).bigDecimalValue();
+    }
+
+    /**
+     * Id of a Contract, as a JsonObject.
+     * @param id Id of the Contract.
+     * @return JsonObject.
+     */
+    static JsonObject contract(final Contract.Id id) {
+        return Json.createObjectBuilder()
+            .add("repo", id.getRepoFullName())
+            .add("username", id.getContributorUsername())
+            .add("provider", id.getProvider())
+            .add("role", id.getRole())
+            .build();
+    }
+
+    /**
+     * Id of a Contract, read from a JsonObject.
+     * @param json JsonObject.
+     * @return Id of the Contract.
+     */
+    static Contract.Id contract(final JsonObject json) {
+        return new Contract.Id(
+            json.getString("repo"),
+            json.getString("username"),
+            json.getString("provider"),
+            json.getString("role")
+        );
+    }
+
+    /**
+     * Reference to a Contract: its id and its hourly rate. The rate is
+     * kept so the Contract can still be built if it has been removed
+     * in the meantime.
+     * @param contract Contract.
+     * @return JsonObject.
+     */
+    static JsonObject reference(final Contract contract) {
+        return Json.createObjectBuilder()
+            .add("id", Records.contract(contract.contractId()))
+            .add("rate", contract.hourlyRate())
+            .build();
+    }
+
+    /**
+     * Contract out of its reference. It is looked up in the Storage
+     * first.
+     * @param json Reference.
+     * @param storage Storage.
+     * @return Contract.
+     */
+    static Contract reference(final JsonObject json, final Storage storage) {
+        final Contract.Id id = Records.contract(json.getJsonObject("id"));
+        final Contract found = storage.contracts().findById(id);
+        final Contract contract;
+        if(found == null) {
+            contract = new StoredContract(
+                id, Records.decimal(json, "rate"), null, storage
+            );
+        } else {
+            contract = found;
+        }
+        return contract;
+    }
+}
@@ -6,6 +6,7 @@ import com.selfxdsd.api.Task;
 import com.selfxdsd.api.Tasks;
 import com.selfxdsd.api.exceptions.TasksException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ProjectKey;
 
 import java.util.Iterator;
 import java.util.function.Supplier;
@@ -56,11 +57,11 @@ public final class ContractTasks implements Tasks {
         final String provider,
         final boolean isPullRequest
     ) {
+        final ProjectKey project = new ProjectKey(repoFullName, provider);
         return this.tasks.get()
-            .filter(t -> t.issueId().equals(issueId)
-                && t.project().repoFullName().equalsIgnoreCase(repoFullName)
-                && t.project().provider().equalsIgnoreCase(provider)
-                && t.isPullRequest() == isPullRequest)
+            .filter(t -> issueId.equals(t.issueId())
+                && t.isPullRequest() == isPullRequest
+                && project.matches(t.project()))
             .findFirst()
             .orElse(null);
     }
@@ -140,6 +141,11 @@ public final class ContractTasks implements Tasks {
         return this.storage.tasks().remove(task);
     }
 
+    @Override
+    public Tasks withDetails() {
+        return new DetailedTasks(this, this.storage);
+    }
+
     @Override
     public Iterator<Task> iterator() {
         return this.tasks.get().iterator();
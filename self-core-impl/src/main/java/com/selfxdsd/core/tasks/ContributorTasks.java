@@ -6,6 +6,9 @@ import com.selfxdsd.api.Task;
 import com.selfxdsd.api.Tasks;
 import com.selfxdsd.api.exceptions.TasksException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ContractKey;
+import com.selfxdsd.core.keys.ContributorKey;
+import com.selfxdsd.core.keys.ProjectKey;
 
 import java.util.Iterator;
 import java.util.function.Supplier;
@@ -67,11 +70,11 @@ public final class ContributorTasks implements Tasks {
         final String provider,
         final boolean isPullRequest
     ) {
+        final ProjectKey project = new ProjectKey(repoFullName, provider);
         return this.tasks.get()
-            .filter(t -> t.issueId().equals(issueId)
-                && t.project().repoFullName().equalsIgnoreCase(repoFullName)
-                && t.project().provider().equalsIgnoreCase(provider)
-                && t.isPullRequest() == isPullRequest)
+            .filter(t -> issueId.equals(t.issueId())
+                && t.isPullRequest() == isPullRequest
+                && project.matches(t.project()))
             .findFirst()
             .orElse(null);
     }
@@ -93,8 +96,8 @@ public final class ContributorTasks implements Tasks {
     @Override
     public Task unassign(final Task task) {
         final boolean isOfContributor = task.assignee() != null
-            && task.assignee().username().equalsIgnoreCase(this.username)
-            && task.assignee().provider().equalsIgnoreCase(this.provider);
+            && new ContributorKey(this.username, this.provider)
+                .matches(task.assignee());
         if (!isOfContributor) {
             throw new TasksException.OfContributor
                 .NotFound(this.username, this.provider);
@@ -105,9 +108,9 @@ public final class ContributorTasks implements Tasks {
     @Override
     public Tasks ofProject(final String repoFullName,
                            final String repoProvider) {
+        final ProjectKey project = new ProjectKey(repoFullName, provider);
         final Supplier<Stream<Task>> ofProject = () -> tasks.get()
-            .filter(t -> t.project().repoFullName().equalsIgnoreCase(repoFullName)
-                && t.project().provider().equalsIgnoreCase(provider));
+            .filter(t -> project.matches(t.project()));
         return new ProjectTasks(repoFullName, provider, ofProject, storage);
     }
 
@@ -125,14 +128,12 @@ public final class ContributorTasks implements Tasks {
 
     @Override
     public Tasks ofContract(final Contract.Id id) {
+        final ContractKey contract = new ContractKey(id);
         final Supplier<Stream<Task>> tasksOf = () -> this.tasks
             .get()
             .filter(
-                t -> t.project().repoFullName().equalsIgnoreCase(id.getRepoFullName())
-                    && t.project().provider().equalsIgnoreCase(id.getProvider())
-                    && t.assignee().username()
-                    .endsWith(id.getContributorUsername())
-                    && t.role().equals(id.getRole()));
+                t -> contract.matches(t.project(), t.assignee(), t.role())
+            );
         return new ContractTasks(id, tasksOf, this.storage);
 
     }
@@ -162,6 +163,11 @@ public final class ContributorTasks implements Tasks {
         return this.storage.tasks().remove(task);
     }
 
+    @Override
+    public Tasks withDetails() {
+        return new DetailedTasks(this, this.storage);
+    }
+
     @Override
     public Iterator<Task> iterator() {
         return this.tasks.get().iterator();
@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.tasks;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.contracts.StoredContract;
+import com.selfxdsd.core.keys.ContractKey;
+import com.selfxdsd.core.keys.ContributorKey;
+import com.selfxdsd.core.keys.ProjectKey;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.StreamSupport;
+
+/**
+ * Tasks with their Contracts, Contributors and Projects pre-loaded.
+ * While iterating, each distinct Project, Contributor and Contract
+ * is read from the Storage only once and it is shared by all the Tasks
+ * which belong to it, instead of being lazily read again for every
+ * Task.<br><br>
+ * Use it when sweeping over many Tasks (e.g. checking the assigned
+ * Tasks of a Project). Storage implementations which can join everything
+ * in one query should override {@link Tasks#withDetails()} instead.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class DetailedTasks implements Tasks {
+
+    /**
+     * Original Tasks.
+     */
+    private final Tasks origin;
+
+    /**
+     * Self Storage.
+     */
+    private final Storage storage;
+
+    /**
+     * Ctor.
+     * @param origin Original Tasks.
+     * @param storage Self Storage.
+     */
+    public DetailedTasks(final Tasks origin, final Storage storage) {
+        this.origin = origin;
+        this.storage = storage;
+    }
+
+    @Override
+    public Task getById(
+        final String issueId,
+        final String repoFullName,
+        final String provider,
+        final boolean isPullRequest
+    ) {
+        return this.origin.getById(
+            issueId, repoFullName, provider, isPullRequest
+        );
+    }
+
+    @Override
+    public Task register(final Issue issue) {
+        return this.origin.register(issue);
+    }
+
+    @Override
+    public Task assign(
+        final Task task,
+        final Contract contract,
+        final int days
+    ) {
+        return this.origin.assign(task, contract, days);
+    }
+
+    @Override
+    public Task unassign(final Task task) {
+        return this.origin.unassign(task);
+    }
+
+    @Override
+    public Tasks ofProject(
+        final String repoFullName,
+        final String repoProvider
+    ) {
+        return new DetailedTasks(
+            this.origin.ofProject(repoFullName, repoProvider),
+            this.storage
+        );
+    }
+
+    @Override
+    public Tasks ofContributor(
+        final String username,
+        final String provider
+    ) {
+        return new DetailedTasks(
+            this.origin.ofContributor(username, provider),
+            this.storage
+        );
+    }
+
+    @Override
+    public Tasks ofContract(final Contract.Id id) {
+        return new DetailedTasks(this.origin.ofContract(id), this.storage);
+    }
+
+    @Override
+    public Tasks unassigned() {
+        return new DetailedTasks(this.origin.unassigned(), this.storage);
+    }
+
+    @Override
+    public boolean remove(final Task task) {
+        return this.origin.remove(task);
+    }
+
+    @Override
+    public Tasks withDetails() {
+        return this;
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        final Map<ProjectKey, Project> projects = new HashMap<>();
+        final Map<ContributorKey, Contributor> contributors = new HashMap<>();
+        final Map<ContractKey, Contract> contracts = new HashMap<>();
+        return StreamSupport
+            .stream(this.origin.spliterator(), false)
+            .map(
+                task -> this.withDetails(
+                    task, projects, contributors, contracts
+                )
+            ).iterator();
+    }
+
+    /**
+     * Rebuild the given Task on top of a Contract whose Project and
+     * Contributor are already loaded. Unassigned Tasks are returned as
+     * they are, since they already hold their Project. Same if the
+     * Project or the Contributor cannot be found anymore.
+     * @param task Task.
+     * @param projects Projects loaded so far.
+     * @param contributors Contributors loaded so far.
+     * @param contracts Contracts loaded so far.
+     * @return Task.
+     * @checkstyle ParameterNumber (10 lines)
+     */
+    private Task withDetails(
+        final Task task,
+        final Map<ProjectKey, Project> projects,
+        final Map<ContributorKey, Contributor> contributors,
+        final Map<ContractKey, Contract> contracts
+    ) {
+        final Contract original = task.contract();
+        Task detailed = task;
+        if(original != null && original.contractId() != null) {
+            final Contract.Id id = original.contractId();
+            final ContractKey key = new ContractKey(id);
+            final Project project = projects.computeIfAbsent(
+                key.project(),
+                k -> this.storage.projects().getProjectById(
+                    id.getRepoFullName(), id.getProvider()
+                )
+            );
+            final Contributor contributor = contributors.computeIfAbsent(
+                key.contributor(),
+                k -> this.storage.contributors().getById(
+                    id.getContributorUsername(), id.getProvider()
+                )
+            );
+            if(project != null && contributor != null) {
+                detailed = new StoredTask(
+                    contracts.computeIfAbsent(
+                        key,
+                        k -> new StoredContract(
+                            project,
+                            contributor,
+                            original.hourlyRate(),
+                            id.getRole(),
+                            original.markedForRemoval(),
+                            this.storage
+                        )
+                    ),
+                    task.issueId(),
+                    this.storage,
+                    task.assignmentDate(),
+                    task.deadline(),
+                    task.estimation(),
+                    task.isPullRequest()
+                );
+            }
+        }
+        return detailed;
+    }
+}
@@ -28,6 +28,9 @@ import com.selfxdsd.api.Task;
 import com.selfxdsd.api.Tasks;
 import com.selfxdsd.api.exceptions.TasksException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ContractKey;
+import com.selfxdsd.core.keys.ContributorKey;
+import com.selfxdsd.core.keys.ProjectKey;
 
 import java.util.Iterator;
 import java.util.function.Supplier;
@@ -54,6 +57,11 @@ public final class ProjectTasks implements Tasks {
      */
     private final String provider;
 
+    /**
+     * Canonical key of the Project.
+     */
+    private final ProjectKey key;
+
     /**
      * The project's stream tasks supplier.
      */
@@ -79,6 +87,7 @@ public final class ProjectTasks implements Tasks {
     ) {
         this.repoFullName = repoFullName;
         this.provider = provider;
+        this.key = new ProjectKey(repoFullName, provider);
         this.tasks = tasks;
         this.storage = storage;
     }
@@ -90,18 +99,17 @@ public final class ProjectTasks implements Tasks {
         final String provider,
         final boolean isPullRequest
     ) {
+        final ProjectKey project = new ProjectKey(repoFullName, provider);
         return this.tasks.get().filter(
-            task -> task.issueId().equals(issueId)
-                && task.project().repoFullName().equalsIgnoreCase(repoFullName)
-                && task.project().provider().equalsIgnoreCase(provider)
+            task -> issueId.equals(task.issueId())
                 && task.isPullRequest() == isPullRequest
+                && project.matches(task.project())
         ).findFirst().orElse(null);
     }
 
     @Override
     public Task register(final Issue issue) {
-        if(!this.repoFullName.equalsIgnoreCase(issue.repoFullName())
-            || !this.provider.equalsIgnoreCase(issue.provider())) {
+        if(!this.key.matches(issue.repoFullName(), issue.provider())) {
             throw new TasksException.OfProject.Add(
                 this.repoFullName,
                 this.provider
@@ -122,10 +130,7 @@ public final class ProjectTasks implements Tasks {
 
     @Override
     public Task unassign(final Task task) {
-        final boolean isOfProject = task.project().repoFullName()
-            .equalsIgnoreCase(this.repoFullName) && task.project().provider()
-            .equalsIgnoreCase(this.provider);
-        if (!isOfProject) {
+        if (!this.key.matches(task.project())) {
             throw new TasksException.OfProject.NotFound(
                 this.repoFullName,
                 this.provider
@@ -139,8 +144,7 @@ public final class ProjectTasks implements Tasks {
         final String repoFullName,
         final String repoProvider
     ) {
-        if(this.repoFullName.equalsIgnoreCase(repoFullName)
-            && this.provider.equalsIgnoreCase(repoProvider)) {
+        if(this.key.matches(repoFullName, repoProvider)) {
             return this;
         }
         throw new TasksException.OfProject.List(repoFullName, repoProvider);
@@ -148,22 +152,23 @@ public final class ProjectTasks implements Tasks {
 
     @Override
     public Tasks ofContributor(final String username, final String provider) {
+        final ContributorKey contributor = new ContributorKey(
+            username, provider
+        );
         final Supplier<Stream<Task>> ofContributor = () -> tasks
             .get()
             .filter(t -> t.assignee() != null
-                && t.assignee().username().equalsIgnoreCase(username)
-                && t.assignee().provider().equalsIgnoreCase(provider));
+                && contributor.matches(t.assignee()));
         return new ContributorTasks(username, provider, ofContributor, storage);
     }
 
     @Override
     public Tasks ofContract(final Contract.Id id) {
+        final ContractKey contract = new ContractKey(id);
         final Supplier<Stream<Task>> tasksOf = () -> this.tasks
             .get()
-            .filter(t -> t.project().repoFullName().equalsIgnoreCase(id.getRepoFullName())
-                && t.project().provider().equalsIgnoreCase(id.getProvider())
-                && t.assignee().username().endsWith(id.getContributorUsername())
-                && t.role().equals(id.getRole()));
+            .filter(t -> t.assignee() != null
+                && contract.matches(t.project(), t.assignee(), t.role()));
         return new ContractTasks(id, tasksOf, this.storage);
     }
 
@@ -171,8 +176,7 @@ public final class ProjectTasks implements Tasks {
     public Tasks unassigned() {
         final Supplier<Stream<Task>> unassigned = () -> tasks.get()
             .filter(t -> t.assignee() == null
-                && t.project().repoFullName().equalsIgnoreCase(repoFullName)
-                && t.project().provider().equalsIgnoreCase(provider));
+                && this.key.matches(t.project()));
         return new UnassignedTasks(unassigned, storage);
     }
 
@@ -193,6 +197,11 @@ public final class ProjectTasks implements Tasks {
         return this.storage.tasks().remove(task);
     }
 
+    @Override
+    public Tasks withDetails() {
+        return new DetailedTasks(this, this.storage);
+    }
+
     @Override
     public Iterator<Task> iterator() {
         return this.tasks.get().iterator();
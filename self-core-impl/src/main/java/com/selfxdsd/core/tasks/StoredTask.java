@@ -25,11 +25,11 @@ package com.selfxdsd.core.tasks;
 import com.selfxdsd.api.*;
 import com.selfxdsd.api.exceptions.TasksException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.Cents;
+import com.selfxdsd.core.keys.TaskKey;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
-import java.util.Objects;
 
 /**
  * A Task stored and managed by Self.
@@ -75,6 +75,11 @@ public final class StoredTask implements Task {
      */
     private final Storage storage;
 
+    /**
+     * Key of this Task, computed on first use.
+     */
+    private volatile TaskKey key;
+
     /**
      * Constructor for an unassigned task.
      * @param project Project.
@@ -238,12 +243,9 @@ public final class StoredTask implements Task {
 
     @Override
     public BigDecimal value() {
-        return this.contract.hourlyRate().multiply(
-            BigDecimal.valueOf(this.estimation)
-        ).divide(
-            BigDecimal.valueOf(60),
-            RoundingMode.HALF_UP
-        );
+        return Cents.of(this.contract.hourlyRate())
+            .ratio(this.estimation, 60)
+            .decimal();
     }
 
     @Override
@@ -258,10 +260,7 @@ public final class StoredTask implements Task {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.issueId,
-            this.isPullRequest,
-            this.contract.project().repoFullName(),
-            this.contract.project().provider());
+        return this.key().hashCode();
     }
 
     @Override
@@ -273,11 +272,23 @@ public final class StoredTask implements Task {
             return false;
         }
         final Task other = (Task) obj;
-        final Project otherProject = other.project();
         return this.issueId.equals(other.issueId())
             && this.isPullRequest == other.isPullRequest()
-            && this.project().repoFullName().equalsIgnoreCase(otherProject.repoFullName())
-            && this.project().provider().equalsIgnoreCase(otherProject.provider());
+            && this.key().project().matches(other.project());
+    }
+
+    /**
+     * Key of this Task. It is built only once, since the Project and the
+     * Issue never change.
+     * @return TaskKey.
+     */
+    private TaskKey key() {
+        TaskKey computed = this.key;
+        if(computed == null) {
+            computed = new TaskKey(this);
+            this.key = computed;
+        }
+        return computed;
     }
 
     /**
@@ -6,6 +6,7 @@ import com.selfxdsd.api.Task;
 import com.selfxdsd.api.Tasks;
 import com.selfxdsd.api.exceptions.TasksException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.keys.ProjectKey;
 
 import java.util.Iterator;
 import java.util.function.Supplier;
@@ -49,12 +50,11 @@ public final class UnassignedTasks implements Tasks {
         final String provider,
         final boolean isPullRequest
     ) {
-        return this.tasks
-            .get()
-            .filter(t -> t.issueId().equals(issueId)
-                && t.project().repoFullName().equalsIgnoreCase(repoFullName)
-                && t.project().provider().equalsIgnoreCase(provider)
-                && t.isPullRequest() == isPullRequest)
+        final ProjectKey project = new ProjectKey(repoFullName, provider);
+        return this.tasks.get()
+            .filter(t -> issueId.equals(t.issueId())
+                && t.isPullRequest() == isPullRequest
+                && project.matches(t.project()))
             .findFirst()
             .orElse(null);
     }
@@ -82,10 +82,10 @@ public final class UnassignedTasks implements Tasks {
     @Override
     public Tasks ofProject(final String repoFullName,
                            final String repoProvider) {
+        final ProjectKey project = new ProjectKey(repoFullName, repoProvider);
         final Supplier<Stream<Task>> ofProject = () -> tasks.get()
             .filter(t -> t.assignee() == null
-                && t.project().repoFullName().equalsIgnoreCase(repoFullName)
-                && t.project().provider().equalsIgnoreCase(repoProvider));
+                && project.matches(t.project()));
         return new ProjectTasks(repoFullName, repoProvider, ofProject, storage);
     }
 
@@ -121,6 +121,11 @@ public final class UnassignedTasks implements Tasks {
         return this.storage.tasks().remove(task);
     }
 
+    @Override
+    public Tasks withDetails() {
+        return new DetailedTasks(this, this.storage);
+    }
+
     @Override
     public Iterator<Task> iterator() {
         return this.tasks.get().iterator();
@@ -0,0 +1,186 @@
+package com.selfxdsd.core;
+
+import com.selfxdsd.api.BillingInfo;
+import com.selfxdsd.api.storage.Storage;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Unit tests for {@link BillingInfoCache}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class BillingInfoCacheTestCase {
+
+    /**
+     * The BillingInfo is fetched once and then served from the cache,
+     * until it expires.
+     */
+    @Test
+    public void fetchesAgainAfterTtl() {
+        final AtomicReference<Instant> now = new AtomicReference<>(
+            Instant.parse("2021-03-01T10:00:00Z")
+        );
+        final AtomicInteger calls = new AtomicInteger();
+        final Function<String, BillingInfo> fetch = id -> {
+            calls.incrementAndGet();
+            return Mockito.mock(BillingInfo.class);
+        };
+        final BillingInfoCache cache = new BillingInfoCache(
+            Duration.ofMinutes(30), now::get
+        );
+        final BillingInfo first = cache.get("cus_1", fetch);
+        now.set(now.get().plus(Duration.ofMinutes(29)));
+        MatcherAssert.assertThat(
+            cache.get("cus_1", fetch),
+            Matchers.sameInstance(first)
+        );
+        MatcherAssert.assertThat(calls.get(), Matchers.is(1));
+        now.set(now.get().plus(Duration.ofMinutes(1)));
+        MatcherAssert.assertThat(
+            cache.get("cus_1", fetch),
+            Matchers.not(Matchers.sameInstance(first))
+        );
+        MatcherAssert.assertThat(calls.get(), Matchers.is(2));
+    }
+
+    /**
+     * Each id has its own entry.
+     */
+    @Test
+    public void cachesPerId() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Function<String, BillingInfo> fetch = id -> {
+            calls.incrementAndGet();
+            return Mockito.mock(BillingInfo.class);
+        };
+        final BillingInfoCache cache = new BillingInfoCache(
+            Duration.ofMinutes(30)
+        );
+        final BillingInfo customer = cache.get("cus_1", fetch);
+        final BillingInfo account = cache.get("acct_1", fetch);
+        MatcherAssert.assertThat(
+            customer, Matchers.not(Matchers.sameInstance(account))
+        );
+        cache.get("cus_1", fetch);
+        cache.get("acct_1", fetch);
+        MatcherAssert.assertThat(calls.get(), Matchers.is(2));
+    }
+
+    /**
+     * An invalidated entry is fetched again.
+     */
+    @Test
+    public void fetchesAgainAfterInvalidation() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Function<String, BillingInfo> fetch = id -> {
+            calls.incrementAndGet();
+            return Mockito.mock(BillingInfo.class);
+        };
+        final BillingInfoCache cache = new BillingInfoCache(
+            Duration.ofMinutes(30)
+        );
+        cache.get("cus_1", fetch);
+        cache.invalidate("cus_1");
+        cache.get("cus_1", fetch);
+        MatcherAssert.assertThat(calls.get(), Matchers.is(2));
+    }
+
+    /**
+     * A BillingInfo which is put in the cache is served without fetching.
+     */
+    @Test
+    public void servesPutBillingInfo() {
+        final BillingInfo info = Mockito.mock(BillingInfo.class);
+        final BillingInfoCache cache = new BillingInfoCache(
+            Duration.ofMinutes(30)
+        );
+        cache.put("acct_1", info);
+        MatcherAssert.assertThat(
+            cache.get(
+                "acct_1",
+                id -> {
+                    throw new IllegalStateException("Should not fetch!");
+                }
+            ),
+            Matchers.sameInstance(info)
+        );
+    }
+
+    /**
+     * A failed fetch is not cached.
+     */
+    @Test
+    public void doesNotCacheFailures() {
+        final BillingInfo info = Mockito.mock(BillingInfo.class);
+        final BillingInfoCache cache = new BillingInfoCache(
+            Duration.ofMinutes(30)
+        );
+        try {
+            cache.get(
+                "cus_1",
+                id -> {
+                    throw new IllegalStateException("Stripe is down.");
+                }
+            );
+        } catch (final IllegalStateException ex) {
+            MatcherAssert.assertThat(
+                ex.getMessage(), Matchers.equalTo("Stripe is down.")
+            );
+        }
+        MatcherAssert.assertThat(
+            cache.get("cus_1", id -> info),
+            Matchers.sameInstance(info)
+        );
+    }
+
+    /**
+     * Once full, the cache evicts the least recently used entry.
+     */
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Function<String, BillingInfo> fetch = id -> {
+            calls.incrementAndGet();
+            return Mockito.mock(BillingInfo.class);
+        };
+        final BillingInfoCache cache = new BillingInfoCache(
+            Duration.ofMinutes(30), 2
+        );
+        cache.get("cus_1", fetch);
+        cache.get("cus_2", fetch);
+        cache.get("cus_1", fetch);
+        cache.get("cus_3", fetch);
+        MatcherAssert.assertThat(cache.size(), Matchers.is(2));
+        MatcherAssert.assertThat(calls.get(), Matchers.is(3));
+        cache.get("cus_1", fetch);
+        MatcherAssert.assertThat(calls.get(), Matchers.is(3));
+        cache.get("cus_2", fetch);
+        MatcherAssert.assertThat(calls.get(), Matchers.is(4));
+    }
+
+    /**
+     * Each Storage has its own cache.
+     */
+    @Test
+    public void hasOneCachePerStorage() {
+        final Storage storage = Mockito.mock(Storage.class);
+        MatcherAssert.assertThat(
+            BillingInfoCache.of(storage),
+            Matchers.sameInstance(BillingInfoCache.of(storage))
+        );
+        MatcherAssert.assertThat(
+            BillingInfoCache.of(Mockito.mock(Storage.class)),
+            Matchers.not(Matchers.sameInstance(BillingInfoCache.of(storage)))
+        );
+    }
+}
@@ -0,0 +1,188 @@
+package com.selfxdsd.core;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Benchmark of the money hot paths (Task value, PM commission and the
+ * budget check of the election), BigDecimal versus {@link Cents}:
+ * operations per second and heap allocated per operation. Run it with
+ * the itcases profile.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class CentsITCase {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(
+        CentsITCase.class
+    );
+
+    /**
+     * Operations before measuring.
+     */
+    private static final int WARMUP = 200_000;
+
+    /**
+     * Measured operations.
+     */
+    private static final int OPERATIONS = 2_000_000;
+
+    /**
+     * PM commission percentage.
+     */
+    private static final double PERCENTAGE = 8.0;
+
+    /**
+     * Budget of the election.
+     */
+    private static final long BUDGET = 500_000;
+
+    /**
+     * Benchmark the value of a Task (hourly rate * estimation / 60).
+     */
+    @Test
+    public void computesTaskValues() {
+        final long decimal = this.benchmark(
+            "Task value, BigDecimal",
+            idx -> BigDecimal.valueOf(10000 + idx % 1000).multiply(
+                BigDecimal.valueOf(idx % 240)
+            ).divide(
+                BigDecimal.valueOf(60),
+                RoundingMode.HALF_UP
+            ).longValueExact()
+        );
+        final long cents = this.benchmark(
+            "Task value, Cents",
+            idx -> new Cents(10000 + idx % 1000)
+                .ratio(idx % 240, 60)
+                .amount()
+        );
+        MatcherAssert.assertThat(cents, Matchers.equalTo(decimal));
+    }
+
+    /**
+     * Benchmark the commission of a PM.
+     */
+    @Test
+    public void computesCommissions() {
+        final long points = Cents.basisPoints(PERCENTAGE);
+        final long decimal = this.benchmark(
+            "Commission, BigDecimal",
+            idx -> BigDecimal.valueOf(idx % 100_000).multiply(
+                BigDecimal.valueOf(PERCENTAGE)
+                    .setScale(2, RoundingMode.HALF_UP)
+            ).divide(
+                BigDecimal.valueOf(100),
+                0,
+                RoundingMode.HALF_UP
+            ).longValueExact()
+        );
+        final long cents = this.benchmark(
+            "Commission, Cents",
+            idx -> new Cents(idx % 100_000).percent(points).amount()
+        );
+        MatcherAssert.assertThat(cents, Matchers.equalTo(decimal));
+    }
+
+    /**
+     * Benchmark the budget check done for every candidate of an election.
+     */
+    @Test
+    public void checksElectionBudgets() {
+        final long points = Cents.basisPoints(PERCENTAGE);
+        final BigDecimal limit = BigDecimal.valueOf(BUDGET);
+        final long decimal = this.benchmark(
+            "Election budget, BigDecimal",
+            idx -> {
+                BigDecimal price = BigDecimal.valueOf(idx % 50_000).multiply(
+                    BigDecimal.valueOf(idx % 600)
+                ).divide(
+                    BigDecimal.valueOf(60),
+                    RoundingMode.HALF_UP
+                );
+                price = price.add(
+                    price.multiply(
+                        BigDecimal.valueOf(PERCENTAGE)
+                            .setScale(2, RoundingMode.HALF_UP)
+                    ).divide(BigDecimal.valueOf(100), 0, RoundingMode.HALF_UP)
+                );
+                return Boolean.compare(price.compareTo(limit) <= 0, false);
+            }
+        );
+        final Cents budget = new Cents(BUDGET);
+        final long cents = this.benchmark(
+            "Election budget, Cents",
+            idx -> {
+                final Cents value = new Cents(idx % 50_000)
+                    .ratio(idx % 600, 60);
+                final Cents price = value.plus(value.percent(points));
+                return Boolean.compare(price.compareTo(budget) <= 0, false);
+            }
+        );
+        MatcherAssert.assertThat(cents, Matchers.equalTo(decimal));
+    }
+
+    /**
+     * Run the operations and log the results.
+     * @param name Name of the benchmark.
+     * @param operation Operation, given the iteration index.
+     * @return Sum of the results, to compare the implementations.
+     */
+    private long benchmark(
+        final String name,
+        final LongUnaryOperator operation
+    ) {
+        long sum = 0;
+        for(long idx = 0; idx < WARMUP; ++idx) {
+            sum = sum + operation.applyAsLong(idx);
+        }
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        final long allocated = this.allocated(threads, thread);
+        final long start = System.nanoTime();
+        sum = 0;
+        for(long idx = 0; idx < OPERATIONS; ++idx) {
+            sum = sum + operation.applyAsLong(idx);
+        }
+        final long elapsed = System.nanoTime() - start;
+        final long perOperation =
+            (this.allocated(threads, thread) - allocated) / OPERATIONS;
+        LOG.info(
+            String.format(
+                "%s: %.1f ops/microsecond, %d bytes allocated per op.",
+                name, OPERATIONS * 1000.0 / elapsed, perOperation
+            )
+        );
+        return sum;
+    }
+
+    /**
+     * Bytes allocated so far by the given thread, if the JVM can tell.
+     * @param threads Thread MXBean.
+     * @param thread Thread id.
+     * @return Bytes, or 0 if not supported.
+     */
+    private long allocated(final ThreadMXBean threads, final long thread) {
+        final long bytes;
+        if(threads instanceof com.sun.management.ThreadMXBean) {
+            bytes = ((com.sun.management.ThreadMXBean) threads)
+                .getThreadAllocatedBytes(thread);
+        } else {
+            bytes = 0;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,100 @@
+package com.selfxdsd.core;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+/**
+ * Unit tests for {@link Cents}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class CentsTestCase {
+
+    /**
+     * Cents are converted from and to BigDecimal.
+     */
+    @Test
+    public void convertsBigDecimals() {
+        MatcherAssert.assertThat(
+            Cents.of(BigDecimal.valueOf(12345)).amount(),
+            Matchers.equalTo(12345L)
+        );
+        MatcherAssert.assertThat(
+            Cents.of(new BigDecimal("2500.00")).amount(),
+            Matchers.equalTo(2500L)
+        );
+        MatcherAssert.assertThat(
+            new Cents(250).decimal(),
+            Matchers.equalTo(BigDecimal.valueOf(250))
+        );
+    }
+
+    /**
+     * A fraction of a cent is not rounded before the arithmetic, it is
+     * rejected.
+     */
+    @Test(expected = ArithmeticException.class)
+    public void rejectsFractionsOfCents() {
+        Cents.of(new BigDecimal("10.5"));
+    }
+
+    /**
+     * Ratios are rounded HALF_UP, like BigDecimal does.
+     */
+    @Test
+    public void roundsRatiosHalfUp() {
+        MatcherAssert.assertThat(
+            new Cents(25000).ratio(45, 60),
+            Matchers.equalTo(new Cents(18750))
+        );
+        MatcherAssert.assertThat(
+            new Cents(5).ratio(1, 2),
+            Matchers.equalTo(new Cents(3))
+        );
+        MatcherAssert.assertThat(
+            new Cents(-5).ratio(1, 2),
+            Matchers.equalTo(new Cents(-3))
+        );
+        MatcherAssert.assertThat(
+            new Cents(14).ratio(1, 10),
+            Matchers.equalTo(new Cents(1))
+        );
+    }
+
+    /**
+     * Percentages are applied in basis points.
+     */
+    @Test
+    public void appliesPercentages() {
+        final long points = Cents.basisPoints(8.6345);
+        MatcherAssert.assertThat(points, Matchers.equalTo(863L));
+        MatcherAssert.assertThat(
+            new Cents(1000).percent(points),
+            Matchers.equalTo(new Cents(86))
+        );
+        MatcherAssert.assertThat(
+            new Cents(100).percent(points),
+            Matchers.equalTo(new Cents(9))
+        );
+    }
+
+    /**
+     * Overflows are not silent.
+     */
+    @Test(expected = ArithmeticException.class)
+    public void complainsOnOverflow() {
+        new Cents(Long.MAX_VALUE).plus(new Cents(1));
+    }
+
+    /**
+     * The denominator of a ratio must be positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void complainsOnZeroDenominator() {
+        new Cents(100).ratio(1, 0);
+    }
+}
@@ -711,4 +711,53 @@ public final class GitlabIssueTestCase {
             )
         );
     }
+
+    /**
+     * A GitlabIssue built from a webhook payload fetches, only once, the
+     * fields which the payload lacks.
+     */
+    @Test
+    public void fetchesFieldsMissingFromPayload() {
+        final MockJsonResources resources = new MockJsonResources(
+            req -> new MockJsonResources.MockResource(
+                200,
+                Json.createObjectBuilder()
+                    .add("iid", 1)
+                    .add(
+                        "author",
+                        Json.createObjectBuilder().add("username", "mihai")
+                    )
+                    .addNull("assignee")
+                    .build()
+            )
+        );
+        final Issue issue = new GitlabIssue(
+            URI.create("https://gitlab.com/api/v4/projects"
+                + "/john%2Ftest/issues/1"),
+            Json.createObjectBuilder()
+                .add("object_kind", "note")
+                .add("iid", 1)
+                .add("state", "closed")
+                .build(),
+            Mockito.mock(Storage.class),
+            resources
+        );
+        MatcherAssert.assertThat(issue.isClosed(), Matchers.is(true));
+        MatcherAssert.assertThat(
+            resources.requests(), Matchers.emptyIterable()
+        );
+        MatcherAssert.assertThat(issue.author(), Matchers.equalTo("mihai"));
+        MatcherAssert.assertThat(issue.assignee(), Matchers.nullValue());
+        MatcherAssert.assertThat(
+            resources.requests(), Matchers.iterableWithSize(1)
+        );
+        MatcherAssert.assertThat(
+            resources.requests().first().getUri(),
+            Matchers.equalTo(
+                URI.create(
+                    "https://gitlab.com/api/v4/projects/john%2Ftest/issues/1"
+                )
+            )
+        );
+    }
 }
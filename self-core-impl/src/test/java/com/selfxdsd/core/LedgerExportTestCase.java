@@ -0,0 +1,205 @@
+package com.selfxdsd.core;
+
+import com.selfxdsd.api.Contract;
+import com.selfxdsd.api.Contracts;
+import com.selfxdsd.api.Invoice;
+import com.selfxdsd.api.Invoices;
+import com.selfxdsd.api.PlatformInvoice;
+import com.selfxdsd.api.PlatformInvoices;
+import com.selfxdsd.api.storage.Storage;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Unit tests for {@link LedgerExport}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class LedgerExportTestCase {
+
+    /**
+     * Payment time used in the tests.
+     */
+    private static final LocalDateTime PAID = LocalDateTime.of(
+        2021, 3, 15, 10, 30
+    );
+
+    /**
+     * It writes one CSV line per PlatformInvoice, joined with its Invoice
+     * if it still exists.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void exportsPlatformInvoicesAsCsv() throws IOException {
+        final Storage storage = Mockito.mock(Storage.class);
+        final Invoices invoices = Mockito.mock(Invoices.class);
+        final Invoice invoice = this.mockInvoice(1, true);
+        Mockito.when(invoices.getById(1)).thenReturn(invoice);
+        Mockito.when(storage.invoices()).thenReturn(invoices);
+        final List<PlatformInvoice> all = List.of(
+            this.platformInvoice(1, storage),
+            this.platformInvoice(2, storage)
+        );
+        final PlatformInvoices platform = Mockito.mock(
+            PlatformInvoices.class
+        );
+        Mockito.when(platform.spliterator()).thenAnswer(
+            invocation -> all.spliterator()
+        );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new LedgerExport(platform).csv(out);
+        final String[] lines = new String(
+            out.toByteArray(), StandardCharsets.UTF_8
+        ).split("\r\n");
+        MatcherAssert.assertThat(lines.length, Matchers.equalTo(3));
+        MatcherAssert.assertThat(
+            lines[0],
+            Matchers.startsWith("invoice,project,provider,contributor,role,")
+        );
+        MatcherAssert.assertThat(
+            lines[1],
+            Matchers.equalTo(
+                "SLFX-1,mihai/test,github,vlad,DEV,transaction1,"
+                + "2021-03-15T10:30,10.00,0.80,10.80,"
+                + "SLF0000001,1.00,0.19,1.19,4.87,4.87,0.93,5.80"
+            )
+        );
+        MatcherAssert.assertThat(
+            lines[2],
+            Matchers.equalTo(
+                ",,,,,transaction2,2021-03-15T10:30,,,,"
+                + "SLF0000002,1.00,0.19,1.19,4.87,4.87,0.93,5.80"
+            )
+        );
+    }
+
+    /**
+     * It writes the paid Invoices of the Contracts as a JSON array.
+     */
+    @Test
+    public void exportsPaidInvoicesAsJson() {
+        final List<Invoice> all = List.of(
+            this.mockInvoice(1, true),
+            this.mockInvoice(2, false)
+        );
+        final Invoices invoices = Mockito.mock(Invoices.class);
+        Mockito.when(invoices.spliterator()).thenAnswer(
+            invocation -> all.spliterator()
+        );
+        final Contract contract = Mockito.mock(Contract.class);
+        Mockito.when(contract.invoices()).thenReturn(invoices);
+        final Contracts contracts = Mockito.mock(Contracts.class);
+        Mockito.when(contracts.spliterator()).thenAnswer(
+            invocation -> List.of(contract).spliterator()
+        );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new LedgerExport(contracts).json(out);
+        final JsonArray rows = Json.createReader(
+            new ByteArrayInputStream(out.toByteArray())
+        ).readArray();
+        MatcherAssert.assertThat(rows, Matchers.iterableWithSize(1));
+        final JsonObject row = rows.getJsonObject(0);
+        MatcherAssert.assertThat(
+            row.getString("invoice"), Matchers.equalTo("SLFX-1")
+        );
+        MatcherAssert.assertThat(
+            row.getJsonNumber("total").bigDecimalValue(),
+            Matchers.equalTo(new BigDecimal("10.80"))
+        );
+        MatcherAssert.assertThat(
+            row.isNull("platformInvoice"), Matchers.is(true)
+        );
+    }
+
+    /**
+     * It exports only the rows paid in the given interval. The rows
+     * outside of it are not even built (their Invoice is not looked up).
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void exportsRowsPaidBetween() throws IOException {
+        final Storage storage = Mockito.mock(Storage.class);
+        final List<PlatformInvoice> all = List.of(
+            this.platformInvoice(1, storage)
+        );
+        final PlatformInvoices platform = Mockito.mock(
+            PlatformInvoices.class
+        );
+        Mockito.when(platform.spliterator()).thenAnswer(
+            invocation -> all.spliterator()
+        );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new LedgerExport(platform)
+            .paidBetween(PAID.plusDays(1), PAID.plusDays(2))
+            .csv(out);
+        MatcherAssert.assertThat(
+            new String(out.toByteArray(), StandardCharsets.UTF_8)
+                .split("\r\n").length,
+            Matchers.equalTo(1)
+        );
+        Mockito.verify(storage, Mockito.never()).invoices();
+    }
+
+    /**
+     * A PlatformInvoice of 1 EUR commission and 0.19 EUR VAT.
+     * @param id Id of the PlatformInvoice and of its Invoice.
+     * @param storage Storage.
+     * @return PlatformInvoice.
+     */
+    private PlatformInvoice platformInvoice(
+        final int id,
+        final Storage storage
+    ) {
+        return new StoredPlatformInvoice(
+            id,
+            PAID,
+            "vlad",
+            BigDecimal.valueOf(100),
+            BigDecimal.valueOf(19),
+            "transaction" + id,
+            PAID,
+            id,
+            BigDecimal.valueOf(487),
+            storage
+        );
+    }
+
+    /**
+     * Mock an Invoice of 10 EUR plus 0.80 EUR commission.
+     * @param id Id.
+     * @param paid Is it paid?
+     * @return Invoice.
+     */
+    private Invoice mockInvoice(final int id, final boolean paid) {
+        final Contract contract = Mockito.mock(Contract.class);
+        Mockito.when(contract.contractId()).thenReturn(
+            new Contract.Id("mihai/test", "vlad", "github", "DEV")
+        );
+        final Invoice invoice = Mockito.mock(Invoice.class);
+        Mockito.when(invoice.invoiceId()).thenReturn(id);
+        Mockito.when(invoice.contract()).thenReturn(contract);
+        Mockito.when(invoice.isPaid()).thenReturn(paid);
+        Mockito.when(invoice.paymentTime()).thenReturn(PAID);
+        Mockito.when(invoice.transactionId()).thenReturn("transaction" + id);
+        Mockito.when(invoice.totals()).thenReturn(
+            new Invoice.Totals(
+                BigDecimal.valueOf(1000), BigDecimal.valueOf(80), 1
+            )
+        );
+        return invoice;
+    }
+}
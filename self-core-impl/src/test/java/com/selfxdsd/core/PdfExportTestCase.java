@@ -0,0 +1,197 @@
+package com.selfxdsd.core;
+
+import com.selfxdsd.api.Invoice;
+import com.selfxdsd.api.Invoices;
+import com.selfxdsd.api.PlatformInvoice;
+import com.selfxdsd.api.PlatformInvoices;
+import com.selfxdsd.api.storage.Storage;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Unit tests for {@link PdfExport}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class PdfExportTestCase {
+
+    /**
+     * It writes one ZIP entry per Invoice, in order.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void zipsInvoicesInOrder() throws IOException {
+        final List<Invoice> all = new ArrayList<>();
+        for(int idx = 1; idx <= 10; ++idx) {
+            all.add(this.mockInvoice(idx, LocalDateTime.now()));
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PdfExport(this.mockInvoices(all)).threads(3).zip(out);
+        final List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(
+            new ByteArrayInputStream(out.toByteArray())
+        )) {
+            ZipEntry entry = zip.getNextEntry();
+            while(entry != null) {
+                MatcherAssert.assertThat(
+                    new String(zip.readAllBytes(), StandardCharsets.UTF_8),
+                    Matchers.equalTo(entry.getName())
+                );
+                entries.add(entry.getName());
+                entry = zip.getNextEntry();
+            }
+        }
+        MatcherAssert.assertThat(entries, Matchers.iterableWithSize(10));
+        MatcherAssert.assertThat(
+            entries.get(0), Matchers.equalTo("SLFX-1.pdf")
+        );
+        MatcherAssert.assertThat(
+            entries.get(9), Matchers.equalTo("SLFX-10.pdf")
+        );
+    }
+
+    /**
+     * It exports only the Invoices created in the given interval.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void exportsInvoicesCreatedBetween() throws IOException {
+        final LocalDateTime now = LocalDateTime.now();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PdfExport(
+            this.mockInvoices(
+                List.of(
+                    this.mockInvoice(1, now.minusMonths(2)),
+                    this.mockInvoice(2, now.minusDays(2)),
+                    this.mockInvoice(3, now)
+                )
+            )
+        ).createdBetween(now.minusMonths(1), now).zip(out);
+        try (ZipInputStream zip = new ZipInputStream(
+            new ByteArrayInputStream(out.toByteArray())
+        )) {
+            MatcherAssert.assertThat(
+                zip.getNextEntry().getName(),
+                Matchers.equalTo("SLFX-2.pdf")
+            );
+            MatcherAssert.assertThat(
+                zip.getNextEntry(),
+                Matchers.nullValue()
+            );
+        }
+    }
+
+    /**
+     * It fails if one of the Invoices cannot be rendered.
+     * @throws IOException If something goes wrong.
+     */
+    @Test(expected = IOException.class)
+    public void failsIfInvoiceCannotBeRendered() throws IOException {
+        final Invoice broken = this.mockInvoice(2, LocalDateTime.now());
+        Mockito.doThrow(new IOException("broken")).when(broken)
+            .toPdf(Mockito.any(OutputStream.class));
+        new PdfExport(
+            this.mockInvoices(
+                List.of(this.mockInvoice(1, LocalDateTime.now()), broken)
+            )
+        ).zip(new ByteArrayOutputStream());
+    }
+
+    /**
+     * It merges the PlatformInvoices into a single PDF.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void mergesPlatformInvoices() throws IOException {
+        final List<PlatformInvoice> all = new ArrayList<>();
+        for(int idx = 1; idx <= 3; ++idx) {
+            all.add(
+                new StoredPlatformInvoice(
+                    idx,
+                    LocalDateTime.now(),
+                    "mihai",
+                    BigDecimal.valueOf(100),
+                    BigDecimal.valueOf(19),
+                    "transaction" + idx,
+                    LocalDateTime.now(),
+                    idx,
+                    BigDecimal.valueOf(487),
+                    Mockito.mock(Storage.class)
+                )
+            );
+        }
+        final PlatformInvoices invoices = Mockito.mock(PlatformInvoices.class);
+        Mockito.when(invoices.spliterator()).thenAnswer(
+            invocation -> all.spliterator()
+        );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PdfExport(invoices).merge(out);
+        try (PDDocument merged = PDDocument.load(out.toByteArray())) {
+            MatcherAssert.assertThat(
+                merged.getNumberOfPages(), Matchers.equalTo(3)
+            );
+        }
+    }
+
+    /**
+     * The number of threads must be positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void complainsAboutZeroThreads() {
+        new PdfExport(this.mockInvoices(List.of())).threads(0);
+    }
+
+    /**
+     * Mock Invoices over the given list.
+     * @param all Invoices.
+     * @return Invoices.
+     */
+    private Invoices mockInvoices(final List<Invoice> all) {
+        final Invoices invoices = Mockito.mock(Invoices.class);
+        Mockito.when(invoices.spliterator()).thenAnswer(
+            invocation -> all.spliterator()
+        );
+        return invoices;
+    }
+
+    /**
+     * Mock an Invoice whose "PDF" is its file name.
+     * @param id Id.
+     * @param createdAt Creation time.
+     * @return Invoice.
+     * @throws IOException If something goes wrong.
+     */
+    private Invoice mockInvoice(
+        final int id,
+        final LocalDateTime createdAt
+    ) throws IOException {
+        final Invoice invoice = Mockito.mock(Invoice.class);
+        Mockito.when(invoice.invoiceId()).thenReturn(id);
+        Mockito.when(invoice.createdAt()).thenReturn(createdAt);
+        Mockito.doAnswer(
+            invocation -> {
+                ((OutputStream) invocation.getArguments()[0]).write(
+                    ("SLFX-" + id + ".pdf").getBytes(StandardCharsets.UTF_8)
+                );
+                return null;
+            }
+        ).when(invoice).toPdf(Mockito.any(OutputStream.class));
+        return invoice;
+    }
+}
@@ -0,0 +1,202 @@
+package com.selfxdsd.core;
+
+import com.selfxdsd.api.Invoice;
+import com.selfxdsd.api.PlatformInvoice;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.contracts.StoredContract;
+import com.selfxdsd.core.contracts.invoices.StoredInvoice;
+import com.selfxdsd.core.contributors.StoredContributor;
+import com.selfxdsd.core.managers.StoredProjectManager;
+import com.selfxdsd.core.mock.InMemory;
+import com.selfxdsd.core.projects.StoredProject;
+import com.selfxdsd.core.tasks.StoredTask;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Benchmark of the Invoice and PlatformInvoice PDF rendering: renders per
+ * second and heap allocated per render. Run it with the itcases profile.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class PdfRenderingITCase {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(
+        PdfRenderingITCase.class
+    );
+
+    /**
+     * Renders before measuring.
+     */
+    private static final int WARMUP = 50;
+
+    /**
+     * Measured renders.
+     */
+    private static final int RENDERS = 500;
+
+    /**
+     * Benchmark the rendering of an Invoice with 40 tasks.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void rendersInvoices() throws IOException {
+        final Invoice invoice = this.invoice();
+        MatcherAssert.assertThat(
+            this.benchmark("Invoice", invoice::toPdf),
+            Matchers.greaterThan(0.0)
+        );
+    }
+
+    /**
+     * Benchmark the rendering of a PlatformInvoice.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void rendersPlatformInvoices() throws IOException {
+        final PlatformInvoice invoice = new StoredPlatformInvoice(
+            1,
+            LocalDateTime.now(),
+            "mihai",
+            BigDecimal.valueOf(100),
+            BigDecimal.valueOf(19),
+            "transactionId123",
+            LocalDateTime.now(),
+            10,
+            BigDecimal.valueOf(487),
+            Mockito.mock(Storage.class)
+        );
+        MatcherAssert.assertThat(
+            this.benchmark("PlatformInvoice", invoice::toPdf),
+            Matchers.greaterThan(0.0)
+        );
+    }
+
+    /**
+     * Run the renders and log the results.
+     * @param name Name of the benchmark.
+     * @param render Render.
+     * @return Renders per second.
+     * @throws IOException If something goes wrong.
+     */
+    private double benchmark(
+        final String name,
+        final Render render
+    ) throws IOException {
+        final OutputStream out = OutputStream.nullOutputStream();
+        for(int idx = 0; idx < WARMUP; ++idx) {
+            render.toPdf(out);
+        }
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        final long allocated = this.allocated(threads, thread);
+        final long start = System.nanoTime();
+        for(int idx = 0; idx < RENDERS; ++idx) {
+            render.toPdf(out);
+        }
+        final long elapsed = System.nanoTime() - start;
+        final long perRender =
+            (this.allocated(threads, thread) - allocated) / RENDERS;
+        final double perSecond = RENDERS * 1_000_000_000.0 / elapsed;
+        LOG.info(
+            String.format(
+                "%s: %.1f renders/second, %d KB allocated per render.",
+                name, perSecond, perRender / 1024
+            )
+        );
+        return perSecond;
+    }
+
+    /**
+     * Bytes allocated so far by the given thread, if the JVM can tell.
+     * @param threads Thread MXBean.
+     * @param thread Thread id.
+     * @return Bytes, or 0 if not supported.
+     */
+    private long allocated(final ThreadMXBean threads, final long thread) {
+        final long bytes;
+        if(threads instanceof com.sun.management.ThreadMXBean) {
+            bytes = ((com.sun.management.ThreadMXBean) threads)
+                .getThreadAllocatedBytes(thread);
+        } else {
+            bytes = 0;
+        }
+        return bytes;
+    }
+
+    /**
+     * A paid Invoice with 40 tasks (the most the template shows).
+     * @return Invoice.
+     */
+    private Invoice invoice() {
+        final Storage storage = new InMemory();
+        final StoredProject project = new StoredProject(
+            new StoredUser(
+                "owner", "owner@example.com", "ARC", "github", storage
+            ),
+            "repo",
+            "token-1234",
+            new StoredProjectManager(
+                0, "1234", "pm", "github", "token-1235", 0.20, storage
+            ),
+            storage
+        );
+        final Invoice invoice = new StoredInvoice(
+            1,
+            new StoredContract(
+                project,
+                new StoredContributor(
+                    "contributor", "github", storage
+                ),
+                BigDecimal.valueOf(10000),
+                "DEV",
+                null,
+                storage
+            ),
+            LocalDateTime.now(),
+            LocalDateTime.now(),
+            "transaction123",
+            "mihai",
+            "contributor",
+            storage
+        );
+        for(int idx = 0; idx < 40; ++idx) {
+            storage.invoicedTasks().register(
+                invoice,
+                new StoredTask(
+                    project, "#" + idx, "DEV", 60, false, storage
+                ),
+                BigDecimal.valueOf(50)
+            );
+        }
+        return invoice;
+    }
+
+    /**
+     * A PDF render.
+     */
+    private interface Render {
+
+        /**
+         * Render the PDF.
+         * @param out Where to write it.
+         * @throws IOException If something goes wrong.
+         */
+        void toPdf(OutputStream out) throws IOException;
+    }
+}
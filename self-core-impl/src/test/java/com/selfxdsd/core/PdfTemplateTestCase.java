@@ -0,0 +1,67 @@
+package com.selfxdsd.core;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * Unit tests for {@link PdfTemplate}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class PdfTemplateTestCase {
+
+    /**
+     * Each call returns a fresh, independent document of the template.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void returnsFreshDocuments() throws IOException {
+        try (
+            PDDocument first = PdfTemplate.INVOICE.document();
+            PDDocument second = PdfTemplate.INVOICE.document()
+        ) {
+            MatcherAssert.assertThat(
+                first, Matchers.not(Matchers.sameInstance(second))
+            );
+            MatcherAssert.assertThat(
+                first.getDocumentCatalog().getAcroForm(),
+                Matchers.notNullValue()
+            );
+            first.getDocumentCatalog().getAcroForm()
+                .getField("invoiceId").setValue("SLFX-1");
+            MatcherAssert.assertThat(
+                second.getDocumentCatalog().getAcroForm()
+                    .getField("invoiceId").getValueAsString(),
+                Matchers.isEmptyString()
+            );
+        }
+    }
+
+    /**
+     * Both Invoice templates are found on the classpath.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void loadsInvoiceTemplates() throws IOException {
+        try (PDDocument doc = PdfTemplate.PLATFORM_INVOICE.document()) {
+            MatcherAssert.assertThat(
+                doc.getDocumentCatalog().getAcroForm(),
+                Matchers.notNullValue()
+            );
+        }
+    }
+
+    /**
+     * It complains if the template is missing.
+     * @throws IOException If the template is missing.
+     */
+    @Test(expected = IOException.class)
+    public void complainsIfTemplateIsMissing() throws IOException {
+        new PdfTemplate("missing_template.pdf").document();
+    }
+}
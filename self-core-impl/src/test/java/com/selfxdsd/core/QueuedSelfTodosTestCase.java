@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core;
+
+import com.selfxdsd.api.Project;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for {@link QueuedSelfTodos}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class QueuedSelfTodosTestCase {
+
+    /**
+     * A waiting push is replaced by a later push of the same repo, and
+     * pushes which don't fit in the queue are dropped, if there is no
+     * spill directory.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void coalescesAndDrops() throws Exception {
+        final List<String> forwarded = new CopyOnWriteArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final QueuedSelfTodos todos = new QueuedSelfTodos(
+            (provider, repo, push) -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                forwarded.add(
+                    repo + " " + new String(push, StandardCharsets.UTF_8)
+                );
+                return true;
+            },
+            null, 2, 3, Duration.ofMillis(1)
+        );
+        todos.post(this.mockProject("mihai/first"), "1");
+        started.await();
+        todos.post(this.mockProject("mihai/second"), "2");
+        todos.post(this.mockProject("mihai/second"), "3");
+        todos.post(this.mockProject("mihai/third"), "4");
+        todos.post(this.mockProject("mihai/fourth"), "5");
+        MatcherAssert.assertThat(todos.depth(), Matchers.is(2));
+        MatcherAssert.assertThat(todos.coalesced(), Matchers.is(1L));
+        MatcherAssert.assertThat(todos.dropped(), Matchers.is(1L));
+        release.countDown();
+        todos.close();
+        MatcherAssert.assertThat(
+            forwarded,
+            Matchers.contains(
+                "mihai/first 1", "mihai/second 3", "mihai/third 4"
+            )
+        );
+        MatcherAssert.assertThat(todos.forwarded(), Matchers.is(3L));
+    }
+
+    /**
+     * Pushes which fail are retried, then spilled to disk, and loaded back
+     * once self-todos is up again.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void spillsWhileDown() throws Exception {
+        final Path spill = Files.createTempDirectory("selftodos");
+        final AtomicBoolean up = new AtomicBoolean(false);
+        final List<String> forwarded = new CopyOnWriteArrayList<>();
+        final List<String> attempts = new CopyOnWriteArrayList<>();
+        final QueuedSelfTodos todos = new QueuedSelfTodos(
+            (provider, repo, push) -> {
+                attempts.add(repo);
+                if(up.get()) {
+                    forwarded.add(repo);
+                }
+                return up.get();
+            },
+            spill, 10, 3, Duration.ofMillis(1)
+        );
+        todos.post(this.mockProject("mihai/first"), "{}");
+        this.awaitSpilled(todos, 1);
+        MatcherAssert.assertThat(attempts.size(), Matchers.is(3));
+        todos.post(this.mockProject("mihai/second"), "{}");
+        this.awaitSpilled(todos, 2);
+        MatcherAssert.assertThat(attempts.size(), Matchers.is(4));
+        up.set(true);
+        todos.post(this.mockProject("mihai/third"), "{}");
+        todos.close();
+        MatcherAssert.assertThat(
+            forwarded,
+            Matchers.containsInAnyOrder(
+                "mihai/first", "mihai/second", "mihai/third"
+            )
+        );
+        try (Stream<Path> files = Files.list(spill)) {
+            MatcherAssert.assertThat(files.count(), Matchers.is(0L));
+        }
+    }
+
+    /**
+     * A push which fails does not replace a newer push of the same repo,
+     * which was spilled while the failing one was being forwarded.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void keepsNewerSpilledPush() throws Exception {
+        final Path spill = Files.createTempDirectory("selftodos");
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final QueuedSelfTodos todos = new QueuedSelfTodos(
+            (provider, repo, push) -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return false;
+            },
+            spill, 1, 1, Duration.ofMillis(1)
+        );
+        todos.post(this.mockProject("mihai/first"), "old");
+        started.await();
+        todos.post(this.mockProject("mihai/second"), "{}");
+        todos.post(this.mockProject("mihai/first"), "new");
+        this.awaitSpilled(todos, 1);
+        release.countDown();
+        todos.close();
+        MatcherAssert.assertThat(todos.coalesced(), Matchers.is(1L));
+        MatcherAssert.assertThat(
+            new String(
+                Files.readAllBytes(
+                    spill.resolve("github%2Fmihai%2Ffirst.push")
+                ),
+                StandardCharsets.UTF_8
+            ),
+            Matchers.equalTo("new")
+        );
+    }
+
+    /**
+     * An exception thrown by self-todos counts as a failed push, it does
+     * not stop the forwarding thread.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void survivesFailingForward() throws Exception {
+        final List<String> forwarded = new CopyOnWriteArrayList<>();
+        final QueuedSelfTodos todos = new QueuedSelfTodos(
+            (provider, repo, push) -> {
+                if("mihai/first".equals(repo)) {
+                    throw new IllegalStateException("Connection reset.");
+                }
+                forwarded.add(repo);
+                return true;
+            },
+            null, 10, 1, Duration.ofMillis(1)
+        );
+        todos.post(this.mockProject("mihai/first"), "{}");
+        todos.post(this.mockProject("mihai/second"), "{}");
+        todos.close();
+        MatcherAssert.assertThat(forwarded, Matchers.contains("mihai/second"));
+        MatcherAssert.assertThat(todos.dropped(), Matchers.is(1L));
+    }
+
+    /**
+     * While self-todos is down, the spilled pushes are retried
+     * periodically, even if no other push arrives.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void retriesSpilledWhileDown() throws Exception {
+        final Path spill = Files.createTempDirectory("selftodos");
+        final AtomicBoolean up = new AtomicBoolean(false);
+        final QueuedSelfTodos todos = new QueuedSelfTodos(
+            (provider, repo, push) -> up.get(),
+            spill, 10, 1, Duration.ofMillis(1), Duration.ofMillis(50)
+        );
+        todos.post(this.mockProject("mihai/first"), "{}");
+        this.awaitSpilled(todos, 1);
+        up.set(true);
+        final long end = System.currentTimeMillis() + 5000;
+        while(todos.forwarded() < 1 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        todos.close();
+        MatcherAssert.assertThat(todos.forwarded(), Matchers.is(1L));
+        try (Stream<Path> files = Files.list(spill)) {
+            MatcherAssert.assertThat(files.count(), Matchers.is(0L));
+        }
+    }
+
+    /**
+     * Wait until the given number of pushes is spilled.
+     * @param todos QueuedSelfTodos.
+     * @param spilled Number of spilled pushes.
+     * @throws InterruptedException If interrupted.
+     */
+    private void awaitSpilled(
+        final QueuedSelfTodos todos,
+        final long spilled
+    ) throws InterruptedException {
+        final long end = System.currentTimeMillis() + 5000;
+        while(todos.spilled() < spilled && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        MatcherAssert.assertThat(todos.spilled(), Matchers.is(spilled));
+    }
+
+    /**
+     * Mock a Github Project.
+     * @param repo Full name of the repo.
+     * @return Project.
+     */
+    private Project mockProject(final String repo) {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.provider()).thenReturn("github");
+        Mockito.when(project.repoFullName()).thenReturn(repo);
+        return project;
+    }
+}
@@ -617,4 +617,47 @@ public final class StoredContractTestCase {
         );
         contract.restore();
     }
+
+    /**
+     * The lazily loaded Project and Contributor are read from the Storage
+     * only once.
+     */
+    @Test
+    public void memoizesLazyLoadedProjectAndContributor() {
+        final Projects projects = Mockito.mock(Projects.class);
+        Mockito.when(
+            projects.getProjectById("john/test", Provider.Names.GITHUB)
+        ).thenReturn(Mockito.mock(Project.class));
+        final Contributors contributors = Mockito.mock(Contributors.class);
+        Mockito.when(
+            contributors.getById("mihai", Provider.Names.GITHUB)
+        ).thenReturn(Mockito.mock(Contributor.class));
+        final Storage storage = Mockito.mock(Storage.class);
+        Mockito.when(storage.projects()).thenReturn(projects);
+        Mockito.when(storage.contributors()).thenReturn(contributors);
+
+        final Contract contract = new StoredContract(
+            new Contract.Id(
+                "john/test",
+                "mihai",
+                Provider.Names.GITHUB,
+                Contract.Roles.DEV
+            ),
+            BigDecimal.valueOf(10000),
+            null,
+            storage
+        );
+        MatcherAssert.assertThat(
+            contract.project(),
+            Matchers.sameInstance(contract.project())
+        );
+        MatcherAssert.assertThat(
+            contract.contributor(),
+            Matchers.sameInstance(contract.contributor())
+        );
+        Mockito.verify(projects, Mockito.times(1))
+            .getProjectById("john/test", Provider.Names.GITHUB);
+        Mockito.verify(contributors, Mockito.times(1))
+            .getById("mihai", Provider.Names.GITHUB);
+    }
 }
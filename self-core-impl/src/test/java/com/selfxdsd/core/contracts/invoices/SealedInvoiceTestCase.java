@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.contracts.invoices;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.storage.Storage;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import javax.json.JsonObject;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link SealedInvoice}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class SealedInvoiceTestCase {
+
+    /**
+     * The totals are taken from the task lines, when sealing.
+     */
+    @Test
+    public void sealsTotals() {
+        final Invoice paid = this.paidInvoice(
+            this.invoicedTask("#1", 1000, 80),
+            this.invoicedTask("#2", 500, 40)
+        );
+        final SealedInvoice sealed = SealedInvoice.seal(
+            paid, Mockito.mock(Storage.class)
+        );
+        MatcherAssert.assertThat(
+            sealed.amount(), Matchers.comparesEqualTo(BigDecimal.valueOf(1500))
+        );
+        MatcherAssert.assertThat(
+            sealed.commission(),
+            Matchers.comparesEqualTo(BigDecimal.valueOf(120))
+        );
+        MatcherAssert.assertThat(
+            sealed.totalAmount(),
+            Matchers.comparesEqualTo(BigDecimal.valueOf(1620))
+        );
+        MatcherAssert.assertThat(sealed.totals().tasks(), Matchers.is(2));
+        MatcherAssert.assertThat(
+            sealed.json().getJsonArray("lines").getJsonArray(1).getString(0),
+            Matchers.equalTo("#2")
+        );
+    }
+
+    /**
+     * Once sealed, the Invoice doesn't read its tasks or its billing info
+     * anymore.
+     */
+    @Test
+    public void readsFromTheSnapshot() {
+        final Invoice paid = this.paidInvoice(
+            this.invoicedTask("#1", 1000, 80)
+        );
+        final SealedInvoice sealed = new SealedInvoice(
+            paid.contract(),
+            SealedInvoice.seal(paid, Mockito.mock(Storage.class)).json(),
+            Mockito.mock(Storage.class)
+        );
+        MatcherAssert.assertThat(sealed.invoiceId(), Matchers.is(7));
+        MatcherAssert.assertThat(sealed.isPaid(), Matchers.is(true));
+        MatcherAssert.assertThat(
+            sealed.transactionId(), Matchers.equalTo("tx_123")
+        );
+        MatcherAssert.assertThat(sealed.billedBy(), Matchers.equalTo("vlad"));
+        MatcherAssert.assertThat(sealed.billedTo(), Matchers.equalTo("mihai"));
+        MatcherAssert.assertThat(
+            sealed.paymentTime(), Matchers.equalTo(paid.paymentTime())
+        );
+        MatcherAssert.assertThat(
+            sealed.totalAmount(),
+            Matchers.comparesEqualTo(BigDecimal.valueOf(1080))
+        );
+        Mockito.verify(paid, Mockito.times(1)).tasks();
+        Mockito.verify(paid, Mockito.times(1)).billedBy();
+        Mockito.verify(paid, Mockito.times(1)).billedTo();
+    }
+
+    /**
+     * The snapshot printed on the PDF reads the Tasks of its lines only,
+     * while the totals are those of all the invoiced tasks.
+     */
+    @Test
+    public void snapshotsFirstLines() {
+        final InvoicedTask first = this.invoicedTask("#1", 1000, 80);
+        final InvoicedTask second = this.invoicedTask("#2", 500, 40);
+        final Invoice invoice = this.paidInvoice(first, second);
+        Mockito.when(invoice.totals()).thenReturn(
+            new Invoice.Totals(
+                BigDecimal.valueOf(1500), BigDecimal.valueOf(120), 2
+            )
+        );
+        final JsonObject snapshot = SealedInvoice.snapshot(invoice, 1);
+        MatcherAssert.assertThat(
+            snapshot.getJsonArray("lines").size(), Matchers.is(1)
+        );
+        MatcherAssert.assertThat(snapshot.getInt("tasks"), Matchers.is(2));
+        MatcherAssert.assertThat(
+            snapshot.getJsonNumber("amount").bigDecimalValue(),
+            Matchers.comparesEqualTo(BigDecimal.valueOf(1500))
+        );
+        MatcherAssert.assertThat(
+            snapshot.getJsonNumber("commission").bigDecimalValue(),
+            Matchers.comparesEqualTo(BigDecimal.valueOf(120))
+        );
+        Mockito.verify(first, Mockito.times(1)).task();
+        Mockito.verify(second, Mockito.never()).task();
+    }
+
+    /**
+     * An Invoice which is not paid cannot be sealed.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void complainsIfNotPaid() {
+        final Invoice active = Mockito.mock(Invoice.class);
+        Mockito.when(active.isPaid()).thenReturn(false);
+        SealedInvoice.seal(active, Mockito.mock(Storage.class));
+    }
+
+    /**
+     * No Task can be registered on a SealedInvoice.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void complainsOnRegister() {
+        SealedInvoice.seal(
+            this.paidInvoice(this.invoicedTask("#1", 1000, 80)),
+            Mockito.mock(Storage.class)
+        ).register(Mockito.mock(Task.class), BigDecimal.TEN);
+    }
+
+    /**
+     * Mock a paid Invoice.
+     * @param tasks Its InvoicedTasks.
+     * @return Invoice.
+     */
+    private Invoice paidInvoice(final InvoicedTask... tasks) {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn("mihai/test");
+        final Contract contract = Mockito.mock(Contract.class);
+        Mockito.when(contract.project()).thenReturn(project);
+        Mockito.when(contract.role()).thenReturn(Contract.Roles.DEV);
+        Mockito.when(contract.hourlyRate())
+            .thenReturn(BigDecimal.valueOf(10000));
+        final List<InvoicedTask> list = Arrays.asList(tasks);
+        final InvoicedTasks invoiced = Mockito.mock(InvoicedTasks.class);
+        Mockito.when(invoiced.iterator()).thenAnswer(
+            invocation -> list.iterator()
+        );
+        final Invoice invoice = Mockito.mock(Invoice.class);
+        Mockito.when(invoice.invoiceId()).thenReturn(7);
+        Mockito.when(invoice.contract()).thenReturn(contract);
+        Mockito.when(invoice.createdAt()).thenReturn(
+            LocalDateTime.of(2021, 3, 1, 10, 0)
+        );
+        Mockito.when(invoice.paymentTime()).thenReturn(
+            LocalDateTime.of(2021, 3, 15, 10, 0)
+        );
+        Mockito.when(invoice.transactionId()).thenReturn("tx_123");
+        Mockito.when(invoice.billedBy()).thenReturn("vlad");
+        Mockito.when(invoice.billedTo()).thenReturn("mihai");
+        Mockito.when(invoice.isPaid()).thenReturn(true);
+        Mockito.when(invoice.tasks()).thenReturn(invoiced);
+        return invoice;
+    }
+
+    /**
+     * Mock an InvoicedTask.
+     * @param issueId Id of the Issue.
+     * @param value Value.
+     * @param commission Commission.
+     * @return InvoicedTask.
+     */
+    private InvoicedTask invoicedTask(
+        final String issueId,
+        final long value,
+        final long commission
+    ) {
+        final Task task = Mockito.mock(Task.class);
+        Mockito.when(task.issueId()).thenReturn(issueId);
+        Mockito.when(task.estimation()).thenReturn(60);
+        final InvoicedTask invoiced = Mockito.mock(InvoicedTask.class);
+        Mockito.when(invoiced.task()).thenReturn(task);
+        Mockito.when(invoiced.value()).thenReturn(BigDecimal.valueOf(value));
+        Mockito.when(invoiced.commission())
+            .thenReturn(BigDecimal.valueOf(commission));
+        return invoiced;
+    }
+}
@@ -132,6 +132,10 @@ public final class StoredInvoiceTestCase {
                     final InvoicedTask task = Mockito.mock(InvoicedTask.class);
                     Mockito.when(task.totalAmount())
                         .thenReturn(BigDecimal.valueOf(1525));
+                    Mockito.when(task.value())
+                        .thenReturn(BigDecimal.valueOf(1425));
+                    Mockito.when(task.commission())
+                        .thenReturn(BigDecimal.valueOf(100));
                     final List<InvoicedTask> tasks = new ArrayList<>();
                     tasks.add(task);
                     tasks.add(task);
@@ -173,6 +177,8 @@ public final class StoredInvoiceTestCase {
                     final InvoicedTask task = Mockito.mock(InvoicedTask.class);
                     Mockito.when(task.value())
                         .thenReturn(BigDecimal.valueOf(1000));
+                    Mockito.when(task.commission())
+                        .thenReturn(BigDecimal.ZERO);
                     final List<InvoicedTask> tasks = new ArrayList<>();
                     tasks.add(task);
                     tasks.add(task);
@@ -190,6 +196,62 @@ public final class StoredInvoiceTestCase {
         );
     }
 
+    /**
+     * Invoice aggregates its totals in one pass and caches them.
+     */
+    @Test
+    public void aggregatesTotalsOnce() {
+        final Storage storage = Mockito.mock(Storage.class);
+        final Invoice invoice = new StoredInvoice(
+            1,
+            Mockito.mock(Contract.class),
+            LocalDateTime.now(),
+            LocalDateTime.now(),
+            "transactionID",
+            "mihai",
+            "vlad",
+            storage
+        );
+        final InvoicedTasks all = Mockito.mock(InvoicedTasks.class);
+        Mockito.when(all.ofInvoice(invoice)).thenReturn(
+            new InvoiceTasks(
+                invoice,
+                () -> {
+                    final InvoicedTask task = Mockito.mock(InvoicedTask.class);
+                    Mockito.when(task.value())
+                        .thenReturn(BigDecimal.valueOf(1000));
+                    Mockito.when(task.commission())
+                        .thenReturn(BigDecimal.valueOf(80));
+                    final List<InvoicedTask> tasks = new ArrayList<>();
+                    tasks.add(task);
+                    tasks.add(task);
+                    return tasks.stream();
+                },
+                storage
+            )
+        );
+        Mockito.when(storage.invoicedTasks()).thenReturn(all);
+
+        final Invoice.Totals totals = invoice.totals();
+        MatcherAssert.assertThat(
+            totals.amount(), Matchers.equalTo(BigDecimal.valueOf(2000))
+        );
+        MatcherAssert.assertThat(
+            totals.commission(), Matchers.equalTo(BigDecimal.valueOf(160))
+        );
+        MatcherAssert.assertThat(
+            totals.total(), Matchers.equalTo(BigDecimal.valueOf(2160))
+        );
+        MatcherAssert.assertThat(totals.tasks(), Matchers.equalTo(2));
+        MatcherAssert.assertThat(
+            invoice.totalAmount(), Matchers.equalTo(BigDecimal.valueOf(2160))
+        );
+        MatcherAssert.assertThat(
+            invoice.amount(), Matchers.equalTo(BigDecimal.valueOf(2000))
+        );
+        Mockito.verify(all, Mockito.times(1)).ofInvoice(invoice);
+    }
+
     /**
      * Invoice can return its total commission.
      */
@@ -212,6 +274,8 @@ public final class StoredInvoiceTestCase {
                 invoice,
                 () -> {
                     final InvoicedTask task = Mockito.mock(InvoicedTask.class);
+                    Mockito.when(task.value())
+                        .thenReturn(BigDecimal.ZERO);
                     Mockito.when(task.commission())
                         .thenReturn(BigDecimal.valueOf(100));
                     final List<InvoicedTask> tasks = new ArrayList<>();
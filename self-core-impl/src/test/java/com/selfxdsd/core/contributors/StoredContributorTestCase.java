@@ -369,6 +369,38 @@ public final class StoredContributorTestCase {
         );
     }
 
+    /**
+     * StoredContributor caches the BillingInfo of its active Stripe
+     * PayoutMethod in the Storage's cache.
+     */
+    @Test
+    public void cachesBillingInfoOfStripePayoutMethod() {
+        final BillingInfo info = Mockito.mock(BillingInfo.class);
+        final PayoutMethod active = Mockito.mock(PayoutMethod.class);
+        Mockito.when(active.active()).thenReturn(Boolean.TRUE);
+        Mockito.when(active.type()).thenReturn(PayoutMethod.Type.STRIPE);
+        Mockito.when(active.identifier()).thenReturn("acct_cached");
+        Mockito.when(active.billingInfo()).thenReturn(info);
+
+        final PayoutMethods ofContributor = Mockito.mock(PayoutMethods.class);
+        Mockito.when(ofContributor.iterator()).thenAnswer(
+            invocation -> List.of(active).iterator()
+        );
+
+        final PayoutMethods all = Mockito.mock(PayoutMethods.class);
+        final Storage storage = Mockito.mock(Storage.class);
+        Mockito.when(storage.payoutMethods()).thenReturn(all);
+
+        final Contributor contributor = new StoredContributor(
+            "amihaiemil", Provider.Names.GITHUB, storage
+        );
+        Mockito.when(all.ofContributor(contributor)).thenReturn(ofContributor);
+
+        MatcherAssert.assertThat(contributor.billingInfo(), Matchers.is(info));
+        MatcherAssert.assertThat(contributor.billingInfo(), Matchers.is(info));
+        Mockito.verify(active, Mockito.times(1)).billingInfo();
+    }
+
     /**
      * StripeContributor returns its default BillingInfo if it has
      * no PayoutMethods set up.
@@ -0,0 +1,137 @@
+package com.selfxdsd.core.keys;
+
+import com.selfxdsd.api.Contract;
+import com.selfxdsd.api.Contributor;
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Provider;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link ContractKey}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class ContractKeyTestCase {
+
+    /**
+     * Keys built from Contract.Ids differing only in case are equal
+     * and can be used to look up a Map.
+     */
+    @Test
+    public void equalsIgnoringCase() {
+        final ContractKey first = new ContractKey(
+            new Contract.Id(
+                "john/test", "mihai", "github", Contract.Roles.DEV
+            )
+        );
+        final ContractKey second = new ContractKey(
+            new Contract.Id("John/Test", "Mihai", "GitHub", "dev")
+        );
+        MatcherAssert.assertThat(first, Matchers.equalTo(second));
+        final Map<ContractKey, String> map = new HashMap<>();
+        map.put(first, "contract");
+        MatcherAssert.assertThat(map.get(second), Matchers.equalTo("contract"));
+    }
+
+    /**
+     * Keys with different roles are not equal.
+     */
+    @Test
+    public void differentRolesAreNotEqual() {
+        MatcherAssert.assertThat(
+            new ContractKey(
+                new Contract.Id(
+                    "john/test", "mihai", "github", Contract.Roles.DEV
+                )
+            ),
+            Matchers.not(
+                Matchers.equalTo(
+                    new ContractKey(
+                        new Contract.Id(
+                            "john/test", "mihai", "github", Contract.Roles.REV
+                        )
+                    )
+                )
+            )
+        );
+    }
+
+    /**
+     * A key built from the Contract equals the one built from its Id.
+     */
+    @Test
+    public void buildsFromContract() {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn("john/test");
+        Mockito.when(project.provider()).thenReturn(Provider.Names.GITHUB);
+        final Contributor mihai = Mockito.mock(Contributor.class);
+        Mockito.when(mihai.username()).thenReturn("mihai");
+        Mockito.when(mihai.provider()).thenReturn(Provider.Names.GITHUB);
+        final Contract contract = Mockito.mock(Contract.class);
+        Mockito.when(contract.project()).thenReturn(project);
+        Mockito.when(contract.contributor()).thenReturn(mihai);
+        Mockito.when(contract.role()).thenReturn(Contract.Roles.DEV);
+        MatcherAssert.assertThat(
+            new ContractKey(contract),
+            Matchers.equalTo(
+                new ContractKey(
+                    new Contract.Id(
+                        "john/test",
+                        "mihai",
+                        Provider.Names.GITHUB,
+                        Contract.Roles.DEV
+                    )
+                )
+            )
+        );
+    }
+
+    /**
+     * The hash of the Contract.Id is consistent with its equals (both
+     * ignore the case).
+     */
+    @Test
+    public void contractIdHashIgnoresCase() {
+        MatcherAssert.assertThat(
+            new Contract.Id("john/test", "mihai", "github", "DEV").hashCode(),
+            Matchers.equalTo(
+                new Contract.Id("John/Test", "MIHAI", "GitHub", "dev")
+                    .hashCode()
+            )
+        );
+    }
+
+    /**
+     * ContractKey matches the Contract it was built from, and not a
+     * Contract with another role.
+     */
+    @Test
+    public void matchesContract() {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn("John/Test");
+        Mockito.when(project.provider()).thenReturn(Provider.Names.GITHUB);
+        final Contributor mihai = Mockito.mock(Contributor.class);
+        Mockito.when(mihai.username()).thenReturn("Mihai");
+        Mockito.when(mihai.provider()).thenReturn(Provider.Names.GITHUB);
+        final ContractKey key = new ContractKey(
+            new Contract.Id(
+                "john/test", "mihai", Provider.Names.GITHUB, Contract.Roles.DEV
+            )
+        );
+        MatcherAssert.assertThat(
+            key.matches(project, mihai, Contract.Roles.DEV),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            key.matches(project, mihai, Contract.Roles.REV),
+            Matchers.is(false)
+        );
+    }
+}
@@ -0,0 +1,113 @@
+package com.selfxdsd.core.keys;
+
+import com.selfxdsd.api.Contributor;
+import com.selfxdsd.api.Provider;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for {@link ContributorKey}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class ContributorKeyTestCase {
+
+    /**
+     * Keys differing only in case are equal and have the same hash.
+     */
+    @Test
+    public void equalsIgnoringCase() {
+        final ContributorKey first = new ContributorKey("mihai", "github");
+        final ContributorKey second = new ContributorKey("Mihai", "GitHub");
+        MatcherAssert.assertThat(first, Matchers.equalTo(second));
+        MatcherAssert.assertThat(
+            first.hashCode(),
+            Matchers.equalTo(second.hashCode())
+        );
+        MatcherAssert.assertThat(second.username(), Matchers.equalTo("mihai"));
+    }
+
+    /**
+     * Keys of different Contributors are not equal.
+     */
+    @Test
+    public void differentContributorsAreNotEqual() {
+        MatcherAssert.assertThat(
+            new ContributorKey("mihai", Provider.Names.GITHUB),
+            Matchers.not(
+                Matchers.equalTo(
+                    new ContributorKey("mihai", Provider.Names.GITLAB)
+                )
+            )
+        );
+    }
+
+    /**
+     * ContributorKey can be built from a Contributor.
+     */
+    @Test
+    public void buildsFromContributor() {
+        final Contributor mihai = Mockito.mock(Contributor.class);
+        Mockito.when(mihai.username()).thenReturn("Mihai");
+        Mockito.when(mihai.provider()).thenReturn(Provider.Names.GITHUB);
+        MatcherAssert.assertThat(
+            new ContributorKey(mihai),
+            Matchers.equalTo(
+                new ContributorKey("mihai", Provider.Names.GITHUB)
+            )
+        );
+    }
+
+    /**
+     * Equal keys are interned to the same instance.
+     */
+    @Test
+    public void internsEqualKeys() {
+        MatcherAssert.assertThat(
+            new ContributorKey("mihai", "github").intern(),
+            Matchers.sameInstance(
+                new ContributorKey("MIHAI", "github").intern()
+            )
+        );
+    }
+
+    /**
+     * ContributorKey matches a Contributor ignoring the case.
+     */
+    @Test
+    public void matchesIgnoringCase() {
+        final Contributor mihai = Mockito.mock(Contributor.class);
+        Mockito.when(mihai.username()).thenReturn("Mihai");
+        Mockito.when(mihai.provider()).thenReturn(Provider.Names.GITHUB);
+        MatcherAssert.assertThat(
+            new ContributorKey("mihai", "GitHub").matches(mihai),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            new ContributorKey("vlad", "github").matches(mihai),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * ContributorKey matches exactly the Contributors whose key is equal
+     * to it, also for characters which equalsIgnoreCase sees differently
+     * than lowercasing (the dotted capital I lowercases to two chars).
+     */
+    @Test
+    public void matchesLikeEquals() {
+        final Contributor ivan = Mockito.mock(Contributor.class);
+        Mockito.when(ivan.username()).thenReturn("\u0130van");
+        Mockito.when(ivan.provider()).thenReturn(Provider.Names.GITHUB);
+        final ContributorKey key = new ContributorKey(
+            "\u0130van", Provider.Names.GITHUB
+        );
+        MatcherAssert.assertThat(
+            key, Matchers.equalTo(new ContributorKey(ivan))
+        );
+        MatcherAssert.assertThat(key.matches(ivan), Matchers.is(true));
+    }
+}
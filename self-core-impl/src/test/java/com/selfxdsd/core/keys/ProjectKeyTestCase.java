@@ -0,0 +1,124 @@
+package com.selfxdsd.core.keys;
+
+import com.selfxdsd.api.Issue;
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Provider;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link ProjectKey}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class ProjectKeyTestCase {
+
+    /**
+     * ProjectKey normalizes the case of its parts.
+     */
+    @Test
+    public void normalizesCase() {
+        final ProjectKey key = new ProjectKey("John/Test", "GitHub");
+        MatcherAssert.assertThat(
+            key.repoFullName(),
+            Matchers.equalTo("john/test")
+        );
+        MatcherAssert.assertThat(
+            key.provider(),
+            Matchers.equalTo(Provider.Names.GITHUB)
+        );
+    }
+
+    /**
+     * Keys differing only in case are equal and have the same hash.
+     */
+    @Test
+    public void equalsIgnoringCase() {
+        final ProjectKey first = new ProjectKey("john/test", "github");
+        final ProjectKey second = new ProjectKey("JOHN/Test", "GITHUB");
+        MatcherAssert.assertThat(first, Matchers.equalTo(second));
+        MatcherAssert.assertThat(
+            first.hashCode(),
+            Matchers.equalTo(second.hashCode())
+        );
+        final Set<ProjectKey> keys = new HashSet<>();
+        keys.add(first);
+        MatcherAssert.assertThat(keys.contains(second), Matchers.is(true));
+    }
+
+    /**
+     * Keys of different Projects are not equal.
+     */
+    @Test
+    public void differentProjectsAreNotEqual() {
+        MatcherAssert.assertThat(
+            new ProjectKey("john/test", Provider.Names.GITHUB),
+            Matchers.not(
+                Matchers.equalTo(
+                    new ProjectKey("john/test", Provider.Names.GITLAB)
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            new ProjectKey("john/test", Provider.Names.GITHUB),
+            Matchers.not(
+                Matchers.equalTo(
+                    new ProjectKey("john/other", Provider.Names.GITHUB)
+                )
+            )
+        );
+    }
+
+    /**
+     * ProjectKey can be built from a Project or from an Issue.
+     */
+    @Test
+    public void buildsFromProjectAndIssue() {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn("John/Test");
+        Mockito.when(project.provider()).thenReturn(Provider.Names.GITHUB);
+        final Issue issue = Mockito.mock(Issue.class);
+        Mockito.when(issue.repoFullName()).thenReturn("john/test");
+        Mockito.when(issue.provider()).thenReturn("GitHub");
+        MatcherAssert.assertThat(
+            new ProjectKey(project),
+            Matchers.equalTo(new ProjectKey(issue))
+        );
+    }
+
+    /**
+     * Equal keys are interned to the same instance.
+     */
+    @Test
+    public void internsEqualKeys() {
+        final ProjectKey first = new ProjectKey("john/test", "github")
+            .intern();
+        final ProjectKey second = new ProjectKey("John/Test", "Github")
+            .intern();
+        MatcherAssert.assertThat(first, Matchers.sameInstance(second));
+    }
+
+    /**
+     * ProjectKey matches a Project or a repo ignoring the case.
+     */
+    @Test
+    public void matchesIgnoringCase() {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn("John/Test");
+        Mockito.when(project.provider()).thenReturn(Provider.Names.GITHUB);
+        final ProjectKey key = new ProjectKey("john/test", "GitHub");
+        MatcherAssert.assertThat(key.matches(project), Matchers.is(true));
+        MatcherAssert.assertThat(
+            key.matches("john/other", "github"), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            key.matches("john/test", "gitlab"), Matchers.is(false)
+        );
+    }
+}
@@ -0,0 +1,69 @@
+package com.selfxdsd.core.keys;
+
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Provider;
+import com.selfxdsd.api.Task;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for {@link TaskKey}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class TaskKeyTestCase {
+
+    /**
+     * The Project part of the key ignores the case.
+     */
+    @Test
+    public void projectIgnoresCase() {
+        final TaskKey first = new TaskKey(
+            new ProjectKey("john/test", "github"), "123", false
+        );
+        final TaskKey second = new TaskKey(
+            new ProjectKey("John/Test", "GitHub"), "123", false
+        );
+        MatcherAssert.assertThat(first, Matchers.equalTo(second));
+        MatcherAssert.assertThat(
+            first.hashCode(),
+            Matchers.equalTo(second.hashCode())
+        );
+    }
+
+    /**
+     * An Issue and a PR with the same ID are different Tasks.
+     */
+    @Test
+    public void issueAndPullRequestAreDifferent() {
+        final ProjectKey project = new ProjectKey("john/test", "github");
+        MatcherAssert.assertThat(
+            new TaskKey(project, "123", false),
+            Matchers.not(Matchers.equalTo(new TaskKey(project, "123", true)))
+        );
+    }
+
+    /**
+     * TaskKey can be built from a Task.
+     */
+    @Test
+    public void buildsFromTask() {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn("john/test");
+        Mockito.when(project.provider()).thenReturn(Provider.Names.GITHUB);
+        final Task task = Mockito.mock(Task.class);
+        Mockito.when(task.project()).thenReturn(project);
+        Mockito.when(task.issueId()).thenReturn("123");
+        Mockito.when(task.isPullRequest()).thenReturn(Boolean.TRUE);
+        final TaskKey key = new TaskKey(task);
+        MatcherAssert.assertThat(key.issueId(), Matchers.equalTo("123"));
+        MatcherAssert.assertThat(key.isPullRequest(), Matchers.is(true));
+        MatcherAssert.assertThat(
+            key.project(),
+            Matchers.equalTo(new ProjectKey("john/test", "github"))
+        );
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.managers;
+
+import com.selfxdsd.api.Comment;
+import com.selfxdsd.api.ProjectManager;
+import com.selfxdsd.api.ProjectManagers;
+import com.selfxdsd.api.Provider;
+import com.selfxdsd.api.storage.Storage;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for {@link Mentions}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class MentionsTestCase {
+
+    /**
+     * A comment from a human, mentioning the PM, is worth answering.
+     */
+    @Test
+    public void answersMention() {
+        final Mentions mentions = new Mentions(Duration.ofMinutes(10));
+        MatcherAssert.assertThat(
+            mentions.worthAnswering(
+                "zoeself", Provider.Names.GITHUB,
+                this.mockComment("amihaiemil", "@zoeself hello"),
+                this.mockManagers(this.mockManager("zoeself"))
+            ),
+            Matchers.is(true)
+        );
+    }
+
+    /**
+     * Comments which don't mention the PM, or which come from the PM,
+     * a known bot or another PM (in any case) are not worth answering.
+     */
+    @Test
+    public void ignoresOthers() {
+        final Mentions mentions = new Mentions(Duration.ofMinutes(10));
+        final ProjectManagers all = this.mockManagers(
+            this.mockManager("zoeself"), this.mockManager("otherpm")
+        );
+        final String github = Provider.Names.GITHUB;
+        MatcherAssert.assertThat(
+            mentions.worthAnswering(
+                "zoeself", github,
+                this.mockComment("amihaiemil", "hello @zoeself"), all
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            mentions.worthAnswering(
+                "zoeself", github,
+                this.mockComment("amihaiemil", "@zoe hello"), all
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            mentions.worthAnswering(
+                "zoeself", github,
+                this.mockComment("ZoeSelf", "@zoeself hello"), all
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            mentions.worthAnswering(
+                "zoeself", github,
+                this.mockComment("rultor", "@zoeself hello"), all
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            mentions.worthAnswering(
+                "zoeself", github,
+                this.mockComment("otherpm", "@zoeself hello"), all
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            mentions.worthAnswering(
+                "zoeself", github,
+                this.mockComment("OtherPm", "@zoeself hello"), all
+            ),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * The PMs' usernames are loaded only once per TTL.
+     */
+    @Test
+    public void loadsManagersOncePerTtl() {
+        final AtomicReference<Instant> now = new AtomicReference<>(
+            Instant.parse("2021-01-01T10:00:00Z")
+        );
+        final Mentions mentions = new Mentions(
+            Duration.ofMinutes(10), now::get
+        );
+        final ProjectManagers all = this.mockManagers(
+            this.mockManager("zoeself")
+        );
+        final Comment comment = this.mockComment("mihai", "@zoeself hi");
+        for(int idx = 0; idx < 3; ++idx) {
+            mentions.worthAnswering(
+                "zoeself", Provider.Names.GITHUB, comment, all
+            );
+        }
+        Mockito.verify(all, Mockito.times(1)).iterator();
+        now.set(now.get().plus(Duration.ofMinutes(10)));
+        mentions.worthAnswering(
+            "zoeself", Provider.Names.GITHUB, comment, all
+        );
+        Mockito.verify(all, Mockito.times(2)).iterator();
+    }
+
+    /**
+     * A PM registered in a Storage is known at the next check, before the
+     * TTL passes, and only the Mentions of that Storage are affected.
+     */
+    @Test
+    public void reloadsManagersWhenOneIsRegistered() {
+        final Storage storage = Mockito.mock(Storage.class);
+        final Storage other = Mockito.mock(Storage.class);
+        final Mentions mentions = Mentions.of(storage);
+        MatcherAssert.assertThat(
+            Mentions.of(storage), Matchers.sameInstance(mentions)
+        );
+        MatcherAssert.assertThat(
+            Mentions.of(other), Matchers.not(Matchers.sameInstance(mentions))
+        );
+        final ProjectManagers before = this.mockManagers(
+            this.mockManager("zoeself")
+        );
+        final Comment comment = this.mockComment("newpm", "@zoeself hi");
+        MatcherAssert.assertThat(
+            mentions.worthAnswering(
+                "zoeself", Provider.Names.GITHUB, comment, before
+            ),
+            Matchers.is(true)
+        );
+        StoredProjectManager.registered(storage);
+        MatcherAssert.assertThat(
+            mentions.worthAnswering(
+                "zoeself", Provider.Names.GITHUB, comment,
+                this.mockManagers(
+                    this.mockManager("zoeself"), this.mockManager("newpm")
+                )
+            ),
+            Matchers.is(false)
+        );
+    }
+
+    /**
+     * Mock a Comment.
+     * @param author Author.
+     * @param body Body.
+     * @return Comment.
+     */
+    private Comment mockComment(final String author, final String body) {
+        final Comment comment = Mockito.mock(Comment.class);
+        Mockito.when(comment.author()).thenReturn(author);
+        Mockito.when(comment.body()).thenReturn(body);
+        return comment;
+    }
+
+    /**
+     * Mock a Github PM.
+     * @param username Username.
+     * @return ProjectManager.
+     */
+    private ProjectManager mockManager(final String username) {
+        final Provider github = Mockito.mock(Provider.class);
+        Mockito.when(github.name()).thenReturn(Provider.Names.GITHUB);
+        final ProjectManager manager = Mockito.mock(ProjectManager.class);
+        Mockito.when(manager.username()).thenReturn(username);
+        Mockito.when(manager.provider()).thenReturn(github);
+        return manager;
+    }
+
+    /**
+     * Mock all the PMs.
+     * @param managers The PMs.
+     * @return ProjectManagers.
+     */
+    private ProjectManagers mockManagers(final ProjectManager... managers) {
+        final ProjectManagers all = Mockito.mock(ProjectManagers.class);
+        Mockito.when(all.iterator()).thenAnswer(
+            invocation -> List.of(managers).iterator()
+        );
+        return all;
+    }
+}
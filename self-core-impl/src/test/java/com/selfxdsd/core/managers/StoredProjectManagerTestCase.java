@@ -1214,6 +1214,7 @@ public final class StoredProjectManagerTestCase {
             new ArrayList<Task>().iterator()
         );
         Mockito.when(project.tasks()).thenReturn(tasks);
+        Mockito.when(tasks.withDetails()).thenReturn(tasks);
         final Event event = Mockito.mock(Event.class);
         Mockito.when(event.project()).thenReturn(project);
 
@@ -1246,6 +1247,7 @@ public final class StoredProjectManagerTestCase {
         final Tasks tasks = Mockito.mock(Tasks.class);
         Mockito.when(tasks.iterator()).thenReturn(mocks.iterator());
         Mockito.when(project.tasks()).thenReturn(tasks);
+        Mockito.when(tasks.withDetails()).thenReturn(tasks);
         final Event event = Mockito.mock(Event.class);
         Mockito.when(event.project()).thenReturn(project);
 
@@ -1311,6 +1313,7 @@ public final class StoredProjectManagerTestCase {
         final Tasks tasks = Mockito.mock(Tasks.class);
         Mockito.when(tasks.iterator()).thenReturn(mocks.iterator());
         Mockito.when(project.tasks()).thenReturn(tasks);
+        Mockito.when(tasks.withDetails()).thenReturn(tasks);
 
         final Tasks all = Mockito.mock(Tasks.class);
         Mockito.when(all.remove(task)).thenReturn(true);
@@ -1354,6 +1357,7 @@ public final class StoredProjectManagerTestCase {
         final Tasks tasks = Mockito.mock(Tasks.class);
         Mockito.when(tasks.iterator()).thenReturn(List.of(task).iterator());
         Mockito.when(project.tasks()).thenReturn(tasks);
+        Mockito.when(tasks.withDetails()).thenReturn(tasks);
 
         final Resignations resignations = Mockito.mock(Resignations.class);
         Mockito.when(task.resignations()).thenReturn(resignations);
@@ -1410,6 +1414,7 @@ public final class StoredProjectManagerTestCase {
         final Tasks tasks = Mockito.mock(Tasks.class);
         Mockito.when(tasks.iterator()).thenReturn(List.of(task).iterator());
         Mockito.when(project.tasks()).thenReturn(tasks);
+        Mockito.when(tasks.withDetails()).thenReturn(tasks);
 
         final Resignations resignations = Mockito.mock(Resignations.class);
         Mockito.when(task.resignations()).thenReturn(resignations);
@@ -29,6 +29,11 @@ public final class InMemoryInvoices implements Invoices {
      */
     private final Map<Integer, Invoice> invoices = new HashMap<>();
 
+    /**
+     * Failed payment attempts per Invoice id.
+     */
+    private final Map<Integer, Integer> failed = new HashMap<>();
+
     /**
      * Storage context.
      */
@@ -64,6 +69,16 @@ public final class InMemoryInvoices implements Invoices {
         return true;
     }
 
+    @Override
+    public int failedPayments(final Invoice invoice) {
+        return this.failed.getOrDefault(invoice.invoiceId(), 0);
+    }
+
+    @Override
+    public void registerFailedPayment(final Invoice invoice) {
+        this.failed.merge(invoice.invoiceId(), 1, Integer::sum);
+    }
+
     @Override
     public Invoice getById(final int id) {
         return this.invoices.get(id);
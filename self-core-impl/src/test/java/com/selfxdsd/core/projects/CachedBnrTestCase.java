@@ -0,0 +1,174 @@
+package com.selfxdsd.core.projects;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for {@link CachedBnr}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class CachedBnrTestCase {
+
+    /**
+     * Temporary folder for the rate file.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * The rate is fetched once and then served from the cache.
+     */
+    @Test
+    public void cachesRate() {
+        final AtomicInteger calls = new AtomicInteger();
+        final CachedBnr bnr = new CachedBnr(
+            () -> {
+                calls.incrementAndGet();
+                return BigDecimal.valueOf(492);
+            },
+            null,
+            Duration.ofHours(6),
+            Instant::now,
+            Runnable::run
+        );
+        for(int idx = 0; idx < 10; ++idx) {
+            MatcherAssert.assertThat(
+                bnr.euroToRon(),
+                Matchers.equalTo(BigDecimal.valueOf(492))
+            );
+        }
+        MatcherAssert.assertThat(calls.get(), Matchers.equalTo(1));
+    }
+
+    /**
+     * A refresh which the executor refused is tried again at the next
+     * call.
+     */
+    @Test
+    public void retriesRejectedRefresh() {
+        final AtomicReference<Instant> now = new AtomicReference<>(
+            Instant.parse("2026-10-19T10:00:00Z")
+        );
+        final AtomicInteger rate = new AtomicInteger(490);
+        final AtomicInteger rejections = new AtomicInteger(1);
+        final CachedBnr bnr = new CachedBnr(
+            () -> BigDecimal.valueOf(rate.get()),
+            null,
+            Duration.ofHours(6),
+            now::get,
+            task -> {
+                if(rejections.getAndDecrement() > 0) {
+                    throw new RejectedExecutionException("Shut down.");
+                }
+                task.run();
+            }
+        );
+        bnr.euroToRon();
+        rate.set(495);
+        now.set(Instant.parse("2026-10-19T17:00:00Z"));
+        MatcherAssert.assertThat(
+            bnr.euroToRon(), Matchers.equalTo(BigDecimal.valueOf(490))
+        );
+        MatcherAssert.assertThat(
+            bnr.euroToRon(), Matchers.equalTo(BigDecimal.valueOf(490))
+        );
+        MatcherAssert.assertThat(
+            bnr.euroToRon(), Matchers.equalTo(BigDecimal.valueOf(495))
+        );
+    }
+
+    /**
+     * A stale rate is still returned, while it is refreshed in the
+     * background.
+     */
+    @Test
+    public void refreshesAhead() {
+        final AtomicReference<Instant> now = new AtomicReference<>(
+            Instant.parse("2026-10-19T10:00:00Z")
+        );
+        final AtomicInteger rate = new AtomicInteger(490);
+        final CachedBnr bnr = new CachedBnr(
+            () -> BigDecimal.valueOf(rate.get()),
+            null,
+            Duration.ofHours(6),
+            now::get,
+            Runnable::run
+        );
+        MatcherAssert.assertThat(
+            bnr.euroToRon(), Matchers.equalTo(BigDecimal.valueOf(490))
+        );
+        rate.set(495);
+        now.set(Instant.parse("2026-10-19T17:00:00Z"));
+        MatcherAssert.assertThat(
+            bnr.age(), Matchers.equalTo(Duration.ofHours(7))
+        );
+        MatcherAssert.assertThat(
+            bnr.euroToRon(), Matchers.equalTo(BigDecimal.valueOf(490))
+        );
+        MatcherAssert.assertThat(
+            bnr.euroToRon(), Matchers.equalTo(BigDecimal.valueOf(495))
+        );
+        MatcherAssert.assertThat(bnr.age(), Matchers.equalTo(Duration.ZERO));
+    }
+
+    /**
+     * The last known good rate is persisted and used when BNR cannot be
+     * reached.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void usesLastKnownGoodRate() throws IOException {
+        final Path file = this.folder.newFolder().toPath().resolve("bnr");
+        new CachedBnr(
+            () -> BigDecimal.valueOf(493),
+            file,
+            Duration.ofHours(6),
+            Instant::now,
+            Runnable::run
+        ).euroToRon();
+        final Callable<BigDecimal> down = () -> {
+            throw new IOException("BNR is down.");
+        };
+        MatcherAssert.assertThat(
+            new CachedBnr(
+                down, file, Duration.ofHours(6), Instant::now, Runnable::run
+            ).euroToRon(),
+            Matchers.equalTo(BigDecimal.valueOf(493))
+        );
+    }
+
+    /**
+     * The default rate is used only if no rate was ever known.
+     */
+    @Test
+    public void fallsBackToDefault() {
+        final CachedBnr bnr = new CachedBnr(
+            () -> {
+                throw new IOException("BNR is down.");
+            },
+            null,
+            Duration.ofHours(6),
+            Instant::now,
+            Runnable::run
+        );
+        MatcherAssert.assertThat(
+            bnr.euroToRon(), Matchers.equalTo(BigDecimal.valueOf(487))
+        );
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import com.selfxdsd.api.Event;
+import com.selfxdsd.api.Issue;
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Provider;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+
+/**
+ * Unit tests for {@link DebouncedEvents}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class DebouncedEventsTestCase {
+
+    /**
+     * A burst of events of the same Issue is resolved once, with the most
+     * significant type and the latest Issue.
+     */
+    @Test
+    public void collapsesIssueBurst() {
+        final Project project = this.mockProject();
+        final Issue opened = this.mockIssue("1");
+        final Issue labeled = this.mockIssue("1");
+        final DebouncedEvents events = new DebouncedEvents(
+            Duration.ofHours(1)
+        );
+        events.resolve(this.mockEvent(project, Event.Type.NEW_ISSUE, opened));
+        events.resolve(this.mockEvent(project, "issues", labeled));
+        Mockito.verify(project, Mockito.never()).resolve(
+            Mockito.any(Event.class)
+        );
+        events.close();
+        final ArgumentCaptor<Event> resolved = ArgumentCaptor.forClass(
+            Event.class
+        );
+        Mockito.verify(project, Mockito.times(1)).resolve(resolved.capture());
+        MatcherAssert.assertThat(
+            resolved.getValue().type(), Matchers.equalTo(Event.Type.NEW_ISSUE)
+        );
+        MatcherAssert.assertThat(
+            resolved.getValue().issue(), Matchers.is(labeled)
+        );
+        MatcherAssert.assertThat(events.collapsed(), Matchers.is(1L));
+    }
+
+    /**
+     * Events of different Issues are resolved separately.
+     */
+    @Test
+    public void keepsIssuesApart() {
+        final Project project = this.mockProject();
+        final DebouncedEvents events = new DebouncedEvents(
+            Duration.ofHours(1)
+        );
+        events.resolve(
+            this.mockEvent(project, Event.Type.NEW_ISSUE, this.mockIssue("1"))
+        );
+        events.resolve(
+            this.mockEvent(project, Event.Type.NEW_ISSUE, this.mockIssue("2"))
+        );
+        events.close();
+        Mockito.verify(project, Mockito.times(2)).resolve(
+            Mockito.any(Event.class)
+        );
+        MatcherAssert.assertThat(events.collapsed(), Matchers.is(0L));
+    }
+
+    /**
+     * Comments are resolved right away.
+     */
+    @Test
+    public void resolvesCommentsRightAway() {
+        final Project project = this.mockProject();
+        final Event comment = this.mockEvent(
+            project, Event.Type.ISSUE_COMMENT, this.mockIssue("1")
+        );
+        final DebouncedEvents events = new DebouncedEvents(
+            Duration.ofHours(1)
+        );
+        events.resolve(comment);
+        Mockito.verify(project, Mockito.times(1)).resolve(comment);
+        events.close();
+    }
+
+    /**
+     * A comment of an Issue which has a burst waiting is held and resolved
+     * right after the burst; comments of other Issues are not held.
+     */
+    @Test
+    public void holdsCommentsBehindBurst() {
+        final Project project = this.mockProject();
+        final Event opened = this.mockEvent(
+            project, Event.Type.NEW_ISSUE, this.mockIssue("1")
+        );
+        final Event comment = this.mockEvent(
+            project, Event.Type.ISSUE_COMMENT, this.mockIssue("1")
+        );
+        final Event other = this.mockEvent(
+            project, Event.Type.ISSUE_COMMENT, this.mockIssue("2")
+        );
+        final DebouncedEvents events = new DebouncedEvents(
+            Duration.ofHours(1)
+        );
+        events.resolve(opened);
+        events.resolve(comment);
+        events.resolve(other);
+        Mockito.verify(project, Mockito.times(1)).resolve(
+            Mockito.any(Event.class)
+        );
+        Mockito.verify(project, Mockito.times(1)).resolve(other);
+        events.close();
+        final ArgumentCaptor<Event> resolved = ArgumentCaptor.forClass(
+            Event.class
+        );
+        Mockito.verify(project, Mockito.times(3)).resolve(resolved.capture());
+        MatcherAssert.assertThat(
+            resolved.getAllValues().get(1).type(),
+            Matchers.equalTo(Event.Type.NEW_ISSUE)
+        );
+        MatcherAssert.assertThat(
+            resolved.getAllValues().get(2), Matchers.is(comment)
+        );
+    }
+
+    /**
+     * The Issue of a webhook Event is told by its payload, so it is
+     * neither built nor fetched from the Provider when the Event arrives.
+     */
+    @Test
+    public void keysWebhookEventsByPayload() {
+        final Project project = this.mockProject();
+        final DebouncedEvents events = new DebouncedEvents(
+            Duration.ofHours(1)
+        );
+        events.resolve(
+            WebhookEvents.create(
+                project, "issues",
+                "{\"action\": \"opened\", \"issue\": {\"number\": 7}}"
+            )
+        );
+        events.resolve(
+            WebhookEvents.create(
+                project, "issue_comment",
+                "{\"action\": \"created\", \"issue\": {\"number\": 7}}"
+            )
+        );
+        Mockito.verify(project, Mockito.never()).resolve(
+            Mockito.any(Event.class)
+        );
+        Mockito.verify(project, Mockito.never()).projectManager();
+        events.close();
+        final ArgumentCaptor<Event> resolved = ArgumentCaptor.forClass(
+            Event.class
+        );
+        Mockito.verify(project, Mockito.times(2)).resolve(resolved.capture());
+        MatcherAssert.assertThat(
+            resolved.getAllValues().get(0).type(),
+            Matchers.equalTo(Event.Type.NEW_ISSUE)
+        );
+        MatcherAssert.assertThat(
+            resolved.getAllValues().get(1).type(),
+            Matchers.equalTo("issue_comment")
+        );
+    }
+
+    /**
+     * Events of the first burst are resolved when the window ends.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void resolvesWhenWindowEnds() throws Exception {
+        final Project project = this.mockProject();
+        final DebouncedEvents events = new DebouncedEvents(
+            Duration.ofMillis(50)
+        );
+        events.resolve(
+            this.mockEvent(project, Event.Type.NEW_ISSUE, this.mockIssue("1"))
+        );
+        Mockito.verify(project, Mockito.timeout(5000).times(1)).resolve(
+            Mockito.any(Event.class)
+        );
+        events.close();
+        Mockito.verify(project, Mockito.times(1)).resolve(
+            Mockito.any(Event.class)
+        );
+    }
+
+    /**
+     * Mock a Github Project.
+     * @return Project.
+     */
+    private Project mockProject() {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.provider()).thenReturn(Provider.Names.GITHUB);
+        Mockito.when(project.repoFullName()).thenReturn("amihaiemil/repo");
+        return project;
+    }
+
+    /**
+     * Mock an Issue.
+     * @param id Issue id.
+     * @return Issue.
+     */
+    private Issue mockIssue(final String id) {
+        final Issue issue = Mockito.mock(Issue.class);
+        Mockito.when(issue.issueId()).thenReturn(id);
+        return issue;
+    }
+
+    /**
+     * Mock an Event.
+     * @param project Project.
+     * @param type Type.
+     * @param issue Issue.
+     * @return Event.
+     */
+    private Event mockEvent(
+        final Project project,
+        final String type,
+        final Issue issue
+    ) {
+        final Event event = Mockito.mock(Event.class);
+        Mockito.when(event.project()).thenReturn(project);
+        Mockito.when(event.type()).thenReturn(type);
+        Mockito.when(event.issue()).thenReturn(issue);
+        return event;
+    }
+}
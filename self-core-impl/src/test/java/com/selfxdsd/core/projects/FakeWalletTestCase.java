@@ -434,6 +434,92 @@ public final class FakeWalletTestCase {
     }
 
 
+    /**
+     * Wallet.payAll(...) pays all the Invoices and updates the cash once.
+     */
+    @Test
+    public void canPayAllInvoices() {
+        final Storage storage = Mockito.mock(Storage.class);
+        final Project project = Mockito.mock(Project.class);
+        final Wallets wallets = Mockito.mock(Wallets.class);
+        Mockito.when(project.wallets()).thenReturn(wallets);
+        Mockito.when(wallets.updateCash(Mockito.any(), Mockito.any()))
+            .thenAnswer(invocation -> new FakeWallet(
+                storage,
+                project,
+                (BigDecimal) invocation.getArguments()[1],
+                "id",
+                true
+            ));
+        final Invoices invoices = Mockito.mock(Invoices.class);
+        Mockito.when(storage.invoices()).thenReturn(invoices);
+        Mockito.when(
+            invoices.registerAsPaid(
+                Mockito.any(Invoice.class),
+                Mockito.any(BigDecimal.class),
+                Mockito.any(BigDecimal.class)
+            )
+        ).thenReturn(true);
+
+        final Wallet updated = new FakeWallet(
+            storage,
+            project,
+            BigDecimal.valueOf(100),
+            "id",
+            true
+        ).payAll(
+            List.of(
+                this.mockInvoice(1, project, 30),
+                this.mockInvoice(2, project, 50)
+            )
+        );
+
+        MatcherAssert.assertThat(
+            updated.cash(), Matchers.equalTo(BigDecimal.valueOf(20))
+        );
+        Mockito.verify(invoices, Mockito.times(2)).registerAsPaid(
+            Mockito.any(Invoice.class),
+            Mockito.any(BigDecimal.class),
+            Mockito.any(BigDecimal.class)
+        );
+        Mockito.verify(wallets, Mockito.times(1))
+            .updateCash(Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Wallet.payAll(...) pays nothing if the Invoices' total exceeds the
+     * cash limit.
+     */
+    @Test
+    public void payAllComplainsIfTotalExceedsCash() {
+        final Storage storage = Mockito.mock(Storage.class);
+        final Project project = Mockito.mock(Project.class);
+        final Invoices invoices = Mockito.mock(Invoices.class);
+        Mockito.when(storage.invoices()).thenReturn(invoices);
+        try {
+            new FakeWallet(
+                storage,
+                project,
+                BigDecimal.valueOf(100),
+                "id",
+                true
+            ).payAll(
+                List.of(
+                    this.mockInvoice(1, project, 60),
+                    this.mockInvoice(2, project, 50)
+                )
+            );
+            Assert.fail("WalletPaymentException was expected.");
+        } catch (final WalletPaymentException ex) {
+            Mockito.verify(invoices, Mockito.never()).registerAsPaid(
+                Mockito.any(Invoice.class),
+                Mockito.any(BigDecimal.class),
+                Mockito.any(BigDecimal.class)
+            );
+        }
+    }
+
+
     /**
      * FakeWallet.pay(...) throws WalletException if something went wrong
      * when paying the invoice.
@@ -473,4 +559,26 @@ public final class FakeWalletTestCase {
 
     }
 
+    /**
+     * Mock an unpaid Invoice of the given Project.
+     * @param id Invoice id.
+     * @param project Project.
+     * @param total Total amount.
+     * @return Invoice.
+     */
+    private Invoice mockInvoice(
+        final int id,
+        final Project project,
+        final long total
+    ) {
+        final Invoice invoice = Mockito.mock(Invoice.class);
+        Mockito.when(invoice.invoiceId()).thenReturn(id);
+        Mockito.when(invoice.isPaid()).thenReturn(false);
+        Mockito.when(invoice.totalAmount())
+            .thenReturn(BigDecimal.valueOf(total));
+        final Contract contract = Mockito.mock(Contract.class);
+        Mockito.when(contract.project()).thenReturn(project);
+        Mockito.when(invoice.contract()).thenReturn(contract);
+        return invoice;
+    }
 }
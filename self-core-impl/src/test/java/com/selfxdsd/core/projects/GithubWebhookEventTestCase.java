@@ -256,6 +256,51 @@ public final class GithubWebhookEventTestCase {
         );
     }
 
+    /**
+     * GithubWebhookEvent builds its Repo, Issue and Comment only once.
+     */
+    @Test
+    public void cachesIssueAndComment() {
+        final Comment comment = Mockito.mock(Comment.class);
+        final Comments comments = Mockito.mock(Comments.class);
+        final JsonObject jsonComment = Json.createObjectBuilder()
+            .add("body", "test comment").build();
+        Mockito.when(comments.received(jsonComment)).thenReturn(comment);
+        final Issue issue = Mockito.mock(Issue.class);
+        Mockito.when(issue.comments()).thenReturn(comments);
+        final JsonObject json = Json.createObjectBuilder()
+            .add("number", 1).build();
+        final Issues issues = Mockito.mock(Issues.class);
+        Mockito.when(issues.received(json)).thenReturn(issue);
+        final Repo repo = Mockito.mock(Repo.class);
+        Mockito.when(repo.issues()).thenReturn(issues);
+        final Provider provider = Mockito.mock(Provider.class);
+        Mockito.when(provider.repo("mihai", "test")).thenReturn(repo);
+        final ProjectManager manager = Mockito.mock(ProjectManager.class);
+        Mockito.when(manager.provider()).thenReturn(provider);
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn("mihai/test");
+        Mockito.when(project.projectManager()).thenReturn(manager);
+
+        final Event event = new GithubWebhookEvent(
+            project,
+            "issue_comment",
+            Json.createObjectBuilder()
+                .add("action", "created")
+                .add("issue", json)
+                .add("comment", jsonComment)
+                .build()
+                .toString()
+        );
+        for(int idx = 0; idx < 3; ++idx) {
+            MatcherAssert.assertThat(event.issue(), Matchers.is(issue));
+            MatcherAssert.assertThat(event.comment(), Matchers.is(comment));
+        }
+        Mockito.verify(provider, Mockito.times(1)).repo("mihai", "test");
+        Mockito.verify(issues, Mockito.times(1)).received(json);
+        Mockito.verify(comments, Mockito.times(1)).received(jsonComment);
+    }
+
     /**
      * It can return the Commit if the type is push.
      */
@@ -26,6 +26,7 @@ import com.selfxdsd.api.*;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
@@ -527,6 +528,70 @@ public final class GitlabWebhookEventTestCase {
         ).provider();
     }
 
+    /**
+     * The Issue of an Issue Hook is built from the payload, in the format
+     * of the API, without fetching it.
+     */
+    @Test
+    public void buildsIssueFromPayload() {
+        final Project project = Mockito.mock(Project.class);
+        this.mockIssue(project, "3", Boolean.FALSE);
+        final Issues all = project.projectManager().provider()
+            .repo("mihai", "test").issues();
+        final Event gitlabEvent = new GitlabWebhookEvent(
+            project,
+            "Issue Hook",
+            Json.createObjectBuilder()
+                .add("object_kind", "issue")
+                .add("user", Json.createObjectBuilder().add("username", "ami"))
+                .add(
+                    "object_attributes",
+                    Json.createObjectBuilder()
+                        .add("iid", 3)
+                        .add("action", "open")
+                        .add("state", "opened")
+                        .add("description", "Fix it")
+                        .add("url", "https://gitlab.com/mihai/test/issues/3")
+                )
+                .add(
+                    "labels",
+                    Json.createArrayBuilder().add(
+                        Json.createObjectBuilder().add("title", "bug")
+                    )
+                )
+                .add("assignees", Json.createArrayBuilder())
+                .build().toString()
+        );
+        gitlabEvent.issue();
+        final ArgumentCaptor<JsonObject> json = ArgumentCaptor.forClass(
+            JsonObject.class
+        );
+        Mockito.verify(all, Mockito.times(1)).received(json.capture());
+        Mockito.verify(all, Mockito.never()).getById(Mockito.anyString());
+        MatcherAssert.assertThat(
+            json.getValue(),
+            Matchers.equalTo(
+                Json.createObjectBuilder()
+                    .add("object_kind", "issue")
+                    .add("iid", 3)
+                    .add(
+                        "references",
+                        Json.createObjectBuilder().add("full", "mihai/test#3")
+                    )
+                    .add("description", "Fix it")
+                    .add("state", "opened")
+                    .add("web_url", "https://gitlab.com/mihai/test/issues/3")
+                    .addNull("assignee")
+                    .add("labels", Json.createArrayBuilder().add("bug"))
+                    .add(
+                        "author",
+                        Json.createObjectBuilder().add("username", "ami")
+                    )
+                    .build()
+            )
+        );
+    }
+
     /**
      * Issue is null if the comment event is from something else
      * other than Issue or MergeRequest (e.g. commit comment).
@@ -707,7 +772,8 @@ public final class GitlabWebhookEventTestCase {
         final Issue issue = Mockito.mock(Issue.class);
 
         final Issues all = Mockito.mock(Issues.class);
-        Mockito.when(all.getById(iid)).thenReturn(issue);
+        Mockito.when(all.received(Mockito.any(JsonObject.class)))
+            .thenReturn(issue);
         final Repo repo = Mockito.mock(Repo.class);
         if(pullRequest) {
             Mockito.when(repo.pullRequests()).thenReturn(all);
@@ -26,12 +26,16 @@ import com.selfxdsd.api.*;
 import com.selfxdsd.api.exceptions.InvoiceException;
 import com.selfxdsd.api.exceptions.WalletPaymentException;
 import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.BillingInfoCache;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Unit tests for {@link StripeWallet}.
@@ -185,6 +189,27 @@ public final class StripeWalletTestCase {
         ).billingInfo();
     }
 
+    /**
+     * StripeWallet.billingInfo() reads the cached BillingInfo without
+     * calling Stripe.
+     */
+    @Test
+    public void billingInfoIsCached() {
+        final BillingInfo info = Mockito.mock(BillingInfo.class);
+        final Storage storage = Mockito.mock(Storage.class);
+        BillingInfoCache.of(storage).put("cus_cached", info);
+        MatcherAssert.assertThat(
+            new StripeWallet(
+                storage,
+                Mockito.mock(Project.class),
+                BigDecimal.valueOf(1000),
+                "cus_cached",
+                Boolean.TRUE
+            ).billingInfo(),
+            Matchers.sameInstance(info)
+        );
+    }
+
     /**
      * Wallet.pay(...) throws if the Invoice is already paid.
      */
@@ -241,6 +266,36 @@ public final class StripeWalletTestCase {
         ).pay(invoice);
     }
 
+    /**
+     * Wallet.payAll(...) checks the Invoices' total against the cash limit
+     * before resolving anything or paying any Invoice.
+     */
+    @Test
+    public void payAllComplainsIfTotalExceedsLimit(){
+        final Storage storage = Mockito.mock(Storage.class);
+        final List<Invoice> invoices = new ArrayList<>();
+        for(int idx = 0; idx < 2; ++idx) {
+            final Invoice invoice = Mockito.mock(Invoice.class);
+            Mockito.when(invoice.isPaid()).thenReturn(false);
+            Mockito.when(invoice.totalAmount())
+                .thenReturn(BigDecimal.valueOf(10800));
+            invoices.add(invoice);
+        }
+        try {
+            new StripeWallet(
+                storage,
+                Mockito.mock(Project.class),
+                BigDecimal.valueOf(20000),
+                "id",
+                true
+            ).payAll(invoices);
+            Assert.fail("WalletPaymentException was expected.");
+        } catch (final WalletPaymentException ex) {
+            Mockito.verify(storage, Mockito.never()).payoutMethods();
+            Mockito.verify(storage, Mockito.never()).invoices();
+        }
+    }
+
     /**
      * Wallet.pay(...) throws if the is no active payout method.
      */
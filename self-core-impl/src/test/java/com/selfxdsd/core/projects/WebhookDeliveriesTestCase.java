@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Unit tests for {@link WebhookDeliveries}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class WebhookDeliveriesTestCase {
+
+    /**
+     * It drops and counts the duplicate deliveries.
+     */
+    @Test
+    public void dropsDuplicates() {
+        final WebhookDeliveries deliveries = new WebhookDeliveries();
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first("d2"), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(false));
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(false));
+        MatcherAssert.assertThat(deliveries.duplicates(), Matchers.is(2L));
+    }
+
+    /**
+     * A forgotten delivery (its event was not accepted) is processed
+     * again when the Provider retries it.
+     */
+    @Test
+    public void processesForgottenDeliveryAgain() {
+        final WebhookDeliveries deliveries = new WebhookDeliveries();
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(true));
+        deliveries.forget("d1");
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(false));
+        MatcherAssert.assertThat(deliveries.duplicates(), Matchers.is(1L));
+    }
+
+    /**
+     * Deliveries without an id are never dropped.
+     */
+    @Test
+    public void acceptsDeliveriesWithoutId() {
+        final WebhookDeliveries deliveries = new WebhookDeliveries();
+        MatcherAssert.assertThat(deliveries.first(null), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first(null), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first(""), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first(""), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.duplicates(), Matchers.is(0L));
+    }
+
+    /**
+     * Ids are remembered for one more window, then forgotten.
+     */
+    @Test
+    public void forgetsOldDeliveries() {
+        final AtomicReference<Instant> now = new AtomicReference<>(
+            Instant.parse("2021-01-01T10:00:00Z")
+        );
+        final WebhookDeliveries deliveries = new WebhookDeliveries(
+            Duration.ofMinutes(10), 100, now::get
+        );
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(true));
+        now.set(now.get().plus(Duration.ofMinutes(15)));
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(false));
+        now.set(now.get().plus(Duration.ofMinutes(25)));
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(true));
+    }
+
+    /**
+     * A full generation is rotated, so the memory stays bounded.
+     */
+    @Test
+    public void rotatesFullGenerations() {
+        final WebhookDeliveries deliveries = new WebhookDeliveries(
+            Duration.ofHours(1), 2
+        );
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first("d2"), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first("d3"), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first("d4"), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first("d3"), Matchers.is(false));
+        MatcherAssert.assertThat(deliveries.first("d5"), Matchers.is(true));
+        MatcherAssert.assertThat(deliveries.first("d1"), Matchers.is(true));
+    }
+}
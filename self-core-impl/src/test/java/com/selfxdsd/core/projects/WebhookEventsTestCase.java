@@ -30,6 +30,10 @@ import org.hamcrest.Matchers;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Unit tests for {@link WebhookEvents}.
  * @author Mihai Andronache (amihaiemil@gmail.com)
@@ -106,4 +110,48 @@ public final class WebhookEventsTestCase {
         );
     }
 
+    /**
+     * It can create an Event from the raw bytes of the payload.
+     */
+    @Test
+    public void createsEventFromBytes() {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.provider()).thenReturn(Provider.Names.GITHUB);
+        final Event event = WebhookEvents.create(
+            project,
+            "issues",
+            "{\"action\": \"opened\"}".getBytes(StandardCharsets.UTF_8)
+        );
+        MatcherAssert.assertThat(
+            event, Matchers.instanceOf(GithubWebhookEvent.class)
+        );
+        MatcherAssert.assertThat(
+            event.type(), Matchers.equalTo(Event.Type.NEW_ISSUE)
+        );
+    }
+
+    /**
+     * It reads a body which is within the limit.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void readsBodyWithinLimit() throws IOException {
+        final byte[] body = "{\"zen\": \"Keep it simple.\"}".getBytes(
+            StandardCharsets.UTF_8
+        );
+        MatcherAssert.assertThat(
+            WebhookEvents.read(new ByteArrayInputStream(body), body.length),
+            Matchers.equalTo(body)
+        );
+    }
+
+    /**
+     * It refuses a body which is bigger than the limit.
+     * @throws IOException If something goes wrong.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void refusesBodyOverLimit() throws IOException {
+        WebhookEvents.read(new ByteArrayInputStream(new byte[1025]), 1024);
+    }
+
 }
@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import javax.json.Json;
+
+/**
+ * Unit tests for {@link WebhookPayload}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class WebhookPayloadTestCase {
+
+    /**
+     * Payload used in the tests: the routing fields come after other
+     * objects and arrays, which must be skipped.
+     */
+    private static final String PAYLOAD = Json.createObjectBuilder()
+        .add("object_kind", "note")
+        .add(
+            "user",
+            Json.createObjectBuilder()
+                .add("username", "mihai")
+                .add("action", "not this one")
+        )
+        .add(
+            "labels",
+            Json.createArrayBuilder()
+                .add(Json.createObjectBuilder().add("action", "nor this"))
+                .add(Json.createArrayBuilder().add(1).add(2))
+        )
+        .add(
+            "object_attributes",
+            Json.createObjectBuilder()
+                .add("id", 1)
+                .add("noteable_type", "Issue")
+                .add("action", "open")
+        )
+        .add("action", "created")
+        .build()
+        .toString();
+
+    /**
+     * It reads top-level and nested Strings without parsing the payload.
+     */
+    @Test
+    public void readsRoutingFields() {
+        final WebhookPayload payload = new WebhookPayload(PAYLOAD);
+        MatcherAssert.assertThat(
+            payload.string("action"), Matchers.equalTo("created")
+        );
+        MatcherAssert.assertThat(
+            payload.string("object_attributes", "action"),
+            Matchers.equalTo("open")
+        );
+        MatcherAssert.assertThat(
+            payload.string("object_attributes", "noteable_type"),
+            Matchers.equalTo("Issue")
+        );
+    }
+
+    /**
+     * Missing values, or values which are not Strings, are empty.
+     */
+    @Test
+    public void readsMissingFieldsAsEmpty() {
+        final WebhookPayload payload = new WebhookPayload(PAYLOAD);
+        MatcherAssert.assertThat(
+            payload.string("missing"), Matchers.isEmptyString()
+        );
+        MatcherAssert.assertThat(
+            payload.string("object_attributes", "id"),
+            Matchers.isEmptyString()
+        );
+        MatcherAssert.assertThat(
+            payload.string("labels", "action"), Matchers.isEmptyString()
+        );
+    }
+
+    /**
+     * Ids are read as text, whether they are numbers or Strings, both
+     * before and after the payload is parsed.
+     */
+    @Test
+    public void readsIds() {
+        final WebhookPayload payload = new WebhookPayload(PAYLOAD);
+        MatcherAssert.assertThat(
+            payload.id("object_attributes", "id"), Matchers.equalTo("1")
+        );
+        MatcherAssert.assertThat(
+            payload.id("object_kind"), Matchers.equalTo("note")
+        );
+        MatcherAssert.assertThat(
+            payload.id("labels"), Matchers.isEmptyString()
+        );
+        payload.json();
+        MatcherAssert.assertThat(
+            payload.id("object_attributes", "id"), Matchers.equalTo("1")
+        );
+    }
+
+    /**
+     * Once the payload is parsed, the values are read from it and the
+     * JsonObject is the same.
+     */
+    @Test
+    public void parsesOnce() {
+        final WebhookPayload payload = new WebhookPayload(PAYLOAD);
+        MatcherAssert.assertThat(
+            payload.json(), Matchers.sameInstance(payload.json())
+        );
+        MatcherAssert.assertThat(
+            payload.string("object_attributes", "action"),
+            Matchers.equalTo("open")
+        );
+        MatcherAssert.assertThat(
+            payload.string("missing", "action"), Matchers.isEmptyString()
+        );
+    }
+}
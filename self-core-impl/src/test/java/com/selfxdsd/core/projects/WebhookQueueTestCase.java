@@ -0,0 +1,275 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Projects;
+import com.selfxdsd.api.Provider;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Unit tests for {@link WebhookQueue}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class WebhookQueueTestCase {
+
+    /**
+     * The events of each Project are dispatched in the order they were
+     * accepted, and the spool is emptied afterwards.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void dispatchesInOrderPerProject() throws Exception {
+        final Path spool = Files.createTempDirectory("webhooks");
+        final Map<String, List<String>> resolved = new ConcurrentHashMap<>();
+        final WebhookQueue queue = new WebhookQueue(
+            spool, 2, 100, 100, Set.of(),
+            (project, type, payload) -> resolved.computeIfAbsent(
+                project.repoFullName(), repo -> new CopyOnWriteArrayList<>()
+            ).add(new String(payload, StandardCharsets.UTF_8))
+        );
+        final Project first = this.mockProject("amihaiemil/first");
+        final Project second = this.mockProject("amihaiemil/second");
+        for(int idx = 0; idx < 50; ++idx) {
+            MatcherAssert.assertThat(
+                queue.accept(first, "issues", this.bytes("first " + idx)),
+                Matchers.is(true)
+            );
+            MatcherAssert.assertThat(
+                queue.accept(second, "issues", this.bytes("second " + idx)),
+                Matchers.is(true)
+            );
+        }
+        queue.close();
+        for(int idx = 0; idx < 50; ++idx) {
+            MatcherAssert.assertThat(
+                resolved.get("amihaiemil/first").get(idx),
+                Matchers.equalTo("first " + idx)
+            );
+            MatcherAssert.assertThat(
+                resolved.get("amihaiemil/second").get(idx),
+                Matchers.equalTo("second " + idx)
+            );
+        }
+        MatcherAssert.assertThat(queue.dispatched(), Matchers.is(100L));
+        MatcherAssert.assertThat(queue.pending(), Matchers.is(0));
+        try (Stream<Path> files = Files.list(spool)) {
+            MatcherAssert.assertThat(files.count(), Matchers.is(0L));
+        }
+    }
+
+    /**
+     * Low-priority events are shed above the limit and all events are
+     * refused when the queue is full.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void shedsAndRejectsWhenBusy() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final WebhookQueue queue = new WebhookQueue(
+            null, 1, 2, 1, Set.of("push"),
+            (project, type, payload) -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        );
+        final Project project = this.mockProject("amihaiemil/repo");
+        MatcherAssert.assertThat(
+            queue.accept(project, "issues", this.bytes("1")), Matchers.is(true)
+        );
+        started.await(5, TimeUnit.SECONDS);
+        MatcherAssert.assertThat(
+            queue.accept(project, "issues", this.bytes("2")), Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            queue.accept(project, "push", this.bytes("3")), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            queue.accept(project, "issues", this.bytes("4")), Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            queue.accept(project, "issues", this.bytes("5")), Matchers.is(false)
+        );
+        MatcherAssert.assertThat(queue.pending(), Matchers.is(2));
+        MatcherAssert.assertThat(queue.shed(), Matchers.is(1L));
+        MatcherAssert.assertThat(queue.rejected(), Matchers.is(1L));
+        MatcherAssert.assertThat(
+            queue.lag().isNegative(), Matchers.is(false)
+        );
+        release.countDown();
+        queue.close();
+        MatcherAssert.assertThat(queue.dispatched(), Matchers.is(3L));
+        MatcherAssert.assertThat(queue.failed(), Matchers.is(0L));
+    }
+
+    /**
+     * Events left in the spool are queued again, in order, by a new
+     * WebhookQueue, with their payloads byte for byte.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void recoversSpooledEvents() throws Exception {
+        final Path spool = Files.createTempDirectory("webhooks");
+        final CountDownLatch stuck = new CountDownLatch(1);
+        final WebhookQueue crashed = new WebhookQueue(
+            spool, 1, 10, 10, Set.of(),
+            (project, type, payload) -> {
+                try {
+                    stuck.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        );
+        final Project project = this.mockProject("amihaiemil/repo");
+        crashed.accept(project, "issues", this.bytes("{\"n\": 1}"));
+        crashed.accept(
+            project, "issue_comment", this.bytes("{\r\n\"n\": 2\r\n}\n")
+        );
+        final List<String> resolved = new CopyOnWriteArrayList<>();
+        final WebhookQueue queue = new WebhookQueue(
+            spool, 2, 10, 10, Set.of(),
+            (prj, type, payload) -> resolved.add(
+                type + " " + new String(payload, StandardCharsets.UTF_8)
+            )
+        );
+        final Projects projects = Mockito.mock(Projects.class);
+        Mockito.when(
+            projects.getProjectById("amihaiemil/repo", Provider.Names.GITHUB)
+        ).thenReturn(project);
+        MatcherAssert.assertThat(queue.recover(projects), Matchers.is(2));
+        queue.close();
+        stuck.countDown();
+        MatcherAssert.assertThat(
+            resolved,
+            Matchers.contains(
+                "issues {\"n\": 1}", "issue_comment {\r\n\"n\": 2\r\n}\n"
+            )
+        );
+    }
+
+    /**
+     * Recovered events which don't fit in the queue are queued as soon as
+     * there is room, and the Project's new events are refused until then,
+     * so they are never resolved before the recovered ones.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void drainsRecoveredEventsFirst() throws Exception {
+        final Path spool = Files.createTempDirectory("webhooks");
+        final CountDownLatch stuck = new CountDownLatch(1);
+        final WebhookQueue crashed = new WebhookQueue(
+            spool, 1, 10, 10, Set.of(),
+            (project, type, payload) -> {
+                try {
+                    stuck.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        );
+        final Project project = this.mockProject("amihaiemil/repo");
+        for(int idx = 1; idx <= 3; ++idx) {
+            crashed.accept(project, "issues", this.bytes(String.valueOf(idx)));
+        }
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> resolved = new CopyOnWriteArrayList<>();
+        final WebhookQueue queue = new WebhookQueue(
+            spool, 1, 1, 1, Set.of(),
+            (prj, type, payload) -> {
+                try {
+                    release.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                resolved.add(new String(payload, StandardCharsets.UTF_8));
+            }
+        );
+        final Projects projects = Mockito.mock(Projects.class);
+        Mockito.when(
+            projects.getProjectById("amihaiemil/repo", Provider.Names.GITHUB)
+        ).thenReturn(project);
+        queue.recover(projects);
+        MatcherAssert.assertThat(
+            queue.accept(project, "issues", this.bytes("4")),
+            Matchers.is(false)
+        );
+        release.countDown();
+        final long end = System.currentTimeMillis() + 5000;
+        while(queue.dispatched() < 3 && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        MatcherAssert.assertThat(
+            queue.accept(project, "issues", this.bytes("4")),
+            Matchers.is(true)
+        );
+        queue.close();
+        stuck.countDown();
+        MatcherAssert.assertThat(
+            resolved, Matchers.contains("1", "2", "3", "4")
+        );
+    }
+
+    /**
+     * UTF-8 bytes of a payload.
+     * @param payload Payload.
+     * @return Bytes.
+     */
+    private byte[] bytes(final String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Mock a Github Project.
+     * @param repo Full name of the repo.
+     * @return Project.
+     */
+    private Project mockProject(final String repo) {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn(repo);
+        Mockito.when(project.provider()).thenReturn(Provider.Names.GITHUB);
+        return project;
+    }
+}
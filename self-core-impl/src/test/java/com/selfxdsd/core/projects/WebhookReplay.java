@@ -0,0 +1,651 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.ProjectManager;
+import com.selfxdsd.api.Provider;
+import com.selfxdsd.api.Repo;
+import com.selfxdsd.api.User;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.Github;
+import com.selfxdsd.core.Gitlab;
+import com.selfxdsd.core.mock.MockJsonResources;
+import com.selfxdsd.core.mock.MockJsonResources.MockRequest;
+import com.selfxdsd.core.mock.MockJsonResources.MockResource;
+import com.selfxdsd.core.storage.InMemoryStorage;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replays a corpus of recorded webhook deliveries through
+ * {@link WebhookEvents} and {@link Project#resolve(com.selfxdsd.api.Event)},
+ * against an in-memory Storage and a stub of the Providers' APIs, which
+ * answers each call with its recorded response, after a simulated latency.
+ * It reports the throughput, the latency percentiles, the Provider calls
+ * and the bytes allocated per event, so changes to the webhook path can be
+ * compared on the same corpus.
+ * <br/>
+ * The corpus is a directory of files named
+ * {@code <sequence>.<provider>.<type>.json}, where the type is the
+ * URL-encoded event header (e.g. {@code 003.gitlab.Issue+Hook.json}).
+ * Next to each delivery, {@code <sequence>.<provider>.<type>.responses.json}
+ * holds the responses of the Provider calls made while resolving it, as a
+ * JSON object keyed by the method and URI of the call:
+ * <pre>
+ *   {"GET https://api.github.com/repos/o/r/issues/1/labels":
+ *     {"status": 200, "body": [{"name": "60 min"}]}}
+ * </pre>
+ * A call without a recorded response fails the delivery, so the steps
+ * are always measured on real data, never on an empty answer.
+ * Run it from the test classpath with the corpus directory, the simulated
+ * latency in milliseconds and the number of rounds:
+ * <pre>
+ *   java com.selfxdsd.core.projects.WebhookReplay corpus/ 50 10
+ * </pre>
+ * Each round starts with a fresh Storage, so the same deliveries can be
+ * replayed without colliding with the Tasks registered by the previous
+ * round. A delivery which fails is a regression in the steps (or a
+ * missing recording), not a measurement: the first failure is logged with
+ * its stack trace and {@link #main(String[])} exits with status 1 if any
+ * delivery failed.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ * @checkstyle IllegalCatch (500 lines)
+ * @checkstyle ExecutableStatementCount (500 lines)
+ * @checkstyle ClassFanOutComplexity (500 lines)
+ */
+final class WebhookReplay {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(
+        WebhookReplay.class
+    );
+
+    /**
+     * Suffix of the files with the recorded responses.
+     */
+    private static final String RESPONSES = ".responses.json";
+
+    /**
+     * Username of the Project Manager.
+     */
+    private static final String MANAGER = "zoeself";
+
+    /**
+     * Username of the owner of the replayed repos.
+     */
+    private static final String OWNER = "amihaiemil";
+
+    /**
+     * Recorded deliveries, in order.
+     */
+    private final List<Delivery> corpus;
+
+    /**
+     * Simulated latency of each Provider call.
+     */
+    private final Duration latency;
+
+    /**
+     * Ctor.
+     * @param corpus Directory with the recorded deliveries.
+     * @param latency Simulated latency of each Provider call.
+     * @throws IOException If the corpus cannot be read.
+     */
+    WebhookReplay(final Path corpus, final Duration latency)
+        throws IOException {
+        try (Stream<Path> files = Files.list(corpus)) {
+            final List<Delivery> deliveries = new ArrayList<>();
+            for(final Path file : files.filter(
+                path -> {
+                    final String name = path.getFileName().toString();
+                    return name.endsWith(".json") && !name.endsWith(RESPONSES);
+                }
+            ).sorted().collect(Collectors.toList())) {
+                deliveries.add(new Delivery(file));
+            }
+            this.corpus = deliveries;
+        }
+        this.latency = latency;
+    }
+
+    /**
+     * Replay the corpus.
+     * @param args Corpus directory, latency in millis, rounds.
+     * @throws IOException If the corpus cannot be read.
+     */
+    public static void main(final String[] args) throws IOException {
+        final WebhookReplay replay = new WebhookReplay(
+            Paths.get(args[0]), Duration.ofMillis(Long.parseLong(args[1]))
+        );
+        final Report report = replay.run(Integer.parseInt(args[2]));
+        System.out.println(report);
+        if(report.errors() > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Replay the corpus the given number of times.
+     * @param rounds Rounds.
+     * @return Report.
+     */
+    Report run(final int rounds) {
+        final long[] nanos = new long[this.corpus.size() * rounds];
+        int events = 0;
+        int errors = 0;
+        RuntimeException failure = null;
+        long calls = 0;
+        long allocated = 0;
+        for(int round = 0; round < rounds; ++round) {
+            final Storage storage = new InMemoryStorage();
+            final AtomicReference<Delivery> current = new AtomicReference<>();
+            final List<String> unmatched = new ArrayList<>();
+            final MockJsonResources resources = new MockJsonResources(
+                request -> this.respond(current.get(), request, unmatched)
+            );
+            final Map<String, Project> projects = this.register(
+                storage, resources
+            );
+            for(final Delivery delivery : this.corpus) {
+                final Project project = projects.get(delivery.key());
+                final long before = WebhookReplay.allocated();
+                current.set(delivery);
+                unmatched.clear();
+                final long start = System.nanoTime();
+                try {
+                    project.resolve(
+                        WebhookEvents.create(
+                            project, delivery.type, delivery.payload
+                        )
+                    );
+                    if(!unmatched.isEmpty()) {
+                        throw new IllegalStateException(
+                            "Unrecorded Provider calls: " + unmatched
+                        );
+                    }
+                } catch (final RuntimeException ex) {
+                    if(failure == null) {
+                        failure = ex;
+                        LOG.error(
+                            "Delivery " + delivery.name + " failed.", ex
+                        );
+                    }
+                    ++errors;
+                }
+                nanos[events] = System.nanoTime() - start;
+                allocated += WebhookReplay.allocated() - before;
+                ++events;
+            }
+            for(final MockRequest ignored : resources.requests()) {
+                ++calls;
+            }
+        }
+        return new Report(nanos, errors, failure, calls, allocated);
+    }
+
+    /**
+     * Register the owners, Project Managers and Projects of the corpus
+     * in the given Storage. The returned Projects talk to the stubbed
+     * Providers.
+     * @param storage Storage.
+     * @param resources Stub of the Providers' APIs.
+     * @return Projects, by provider and repo full name.
+     */
+    private Map<String, Project> register(
+        final Storage storage,
+        final MockJsonResources resources
+    ) {
+        final Map<String, User> owners = new HashMap<>();
+        final Map<String, ProjectManager> managers = new HashMap<>();
+        final Map<String, Project> projects = new HashMap<>();
+        for(final Delivery delivery : this.corpus) {
+            final User owner = owners.computeIfAbsent(
+                delivery.provider,
+                provider -> storage.users().signUp(
+                    OWNER, provider, OWNER + "@example.com", "user"
+                )
+            );
+            final ProjectManager manager = managers.computeIfAbsent(
+                delivery.provider,
+                provider -> storage.projectManagers().register(
+                    String.valueOf(managers.size() + 1), MANAGER,
+                    provider, "token", 8
+                )
+            );
+            projects.computeIfAbsent(
+                delivery.key(),
+                key -> {
+                    final Repo repo = Mockito.mock(Repo.class);
+                    Mockito.when(repo.fullName()).thenReturn(delivery.repo);
+                    Mockito.when(repo.provider())
+                        .thenReturn(delivery.provider);
+                    Mockito.when(repo.owner()).thenReturn(owner);
+                    return WebhookReplay.stubbed(
+                        storage.projects().register(repo, manager, "wh"),
+                        WebhookReplay.provider(
+                            delivery.provider, owner, storage, resources
+                        )
+                    );
+                }
+            );
+        }
+        return projects;
+    }
+
+    /**
+     * Answer a Provider call with its recorded response, after the
+     * simulated latency. A call which was not recorded is added to the
+     * unmatched ones (in case the step swallows the exception) and fails.
+     * @param delivery Delivery being resolved.
+     * @param request Request.
+     * @param unmatched Calls without a recorded response.
+     * @return MockResource.
+     */
+    private MockResource respond(
+        final Delivery delivery,
+        final MockRequest request,
+        final List<String> unmatched
+    ) {
+        if(!this.latency.isZero()) {
+            try {
+                Thread.sleep(this.latency.toMillis());
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        final String call = request.getMethod() + " " + request.getUri();
+        final MockResource response = delivery.responses.get(call);
+        if(response == null) {
+            unmatched.add(call);
+            throw new IllegalStateException(
+                "No recorded response for [" + call + "] in "
+                + delivery.name + "."
+            );
+        }
+        return response;
+    }
+
+    /**
+     * The Provider of the given owner, talking to the stub.
+     * @param name Provider name.
+     * @param owner Owner.
+     * @param storage Storage.
+     * @param resources Stub of the Providers' APIs.
+     * @return Provider.
+     */
+    private static Provider provider(
+        final String name,
+        final User owner,
+        final Storage storage,
+        final MockJsonResources resources
+    ) {
+        final Provider provider;
+        if(Provider.Names.GITLAB.equalsIgnoreCase(name)) {
+            provider = new Gitlab(owner, storage, resources);
+        } else {
+            provider = new Github(owner, storage, resources);
+        }
+        return provider;
+    }
+
+    /**
+     * The stored Project, with its Repo and its Project Manager's
+     * Provider read from the stub instead of the real API.
+     * @param project Stored Project.
+     * @param provider Stubbed Provider.
+     * @return Project.
+     */
+    private static Project stubbed(
+        final Project project,
+        final Provider provider
+    ) {
+        final String[] name = project.repoFullName().split("/");
+        final ProjectManager manager = WebhookReplay.proxy(
+            ProjectManager.class, project.projectManager(),
+            Map.of("provider", args -> provider)
+        );
+        return WebhookReplay.proxy(
+            Project.class, project,
+            Map.of(
+                "projectManager", args -> manager,
+                "repo", args -> provider.repo(name[0], name[1])
+            )
+        );
+    }
+
+    /**
+     * Proxy which overrides some methods of the origin.
+     * @param type Interface.
+     * @param origin Origin.
+     * @param overrides Overridden methods, by name.
+     * @param <T> Type of the proxy.
+     * @return T.
+     */
+    private static <T> T proxy(
+        final Class<T> type,
+        final T origin,
+        final Map<String, Function<Object[], Object>> overrides
+    ) {
+        return type.cast(
+            Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    final Object result;
+                    if(overrides.containsKey(method.getName())) {
+                        result = overrides.get(method.getName()).apply(args);
+                    } else {
+                        try {
+                            result = method.invoke(origin, args);
+                        } catch (final InvocationTargetException ex) {
+                            throw ex.getCause();
+                        }
+                    }
+                    return result;
+                }
+            )
+        );
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or 0 if the JVM
+     * does not measure them.
+     * @return Long.
+     */
+    private static long allocated() {
+        final java.lang.management.ThreadMXBean threads =
+            ManagementFactory.getThreadMXBean();
+        long bytes = 0;
+        if(threads instanceof com.sun.management.ThreadMXBean) {
+            bytes = ((com.sun.management.ThreadMXBean) threads)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return bytes;
+    }
+
+    /**
+     * A recorded delivery.
+     */
+    private static final class Delivery {
+
+        /**
+         * File name.
+         */
+        private final String name;
+
+        /**
+         * Provider name.
+         */
+        private final String provider;
+
+        /**
+         * Event type (the value of the event header).
+         */
+        private final String type;
+
+        /**
+         * Full name of the repo.
+         */
+        private final String repo;
+
+        /**
+         * Payload, as received.
+         */
+        private final byte[] payload;
+
+        /**
+         * Recorded responses, by method and URI of the call.
+         */
+        private final Map<String, MockResource> responses;
+
+        /**
+         * Ctor.
+         * @param file File named sequence.provider.type.json.
+         * @throws IOException If the file cannot be read.
+         */
+        private Delivery(final Path file) throws IOException {
+            this.name = file.getFileName().toString();
+            final String[] parts = this.name.split("\\.");
+            this.provider = parts[1];
+            this.type = URLDecoder.decode(parts[2], StandardCharsets.UTF_8);
+            this.payload = Files.readAllBytes(file);
+            final WebhookPayload parsed = new WebhookPayload(this.payload);
+            if(Provider.Names.GITLAB.equalsIgnoreCase(this.provider)) {
+                this.repo = parsed.string("project", "path_with_namespace");
+            } else {
+                this.repo = parsed.string("repository", "full_name");
+            }
+            final String base = this.name.substring(
+                0, this.name.length() - ".json".length()
+            );
+            this.responses = Delivery.responses(
+                file.resolveSibling(base + RESPONSES)
+            );
+        }
+
+        /**
+         * Read the recorded responses of a delivery.
+         * @param file File with the responses, which may be missing if
+         *  the delivery makes no Provider calls.
+         * @return Responses, by method and URI of the call.
+         * @throws IOException If the file cannot be read.
+         */
+        private static Map<String, MockResource> responses(final Path file)
+            throws IOException {
+            final Map<String, MockResource> responses = new HashMap<>();
+            if(Files.exists(file)) {
+                try (JsonReader reader = Json.createReader(
+                    Files.newBufferedReader(file, StandardCharsets.UTF_8)
+                )) {
+                    for(final Map.Entry<String, JsonValue> call
+                        : reader.readObject().entrySet()) {
+                        final JsonObject response = call.getValue()
+                            .asJsonObject();
+                        responses.put(
+                            call.getKey(),
+                            new MockResource(
+                                response.getInt("status"),
+                                response.getOrDefault(
+                                    "body", JsonValue.NULL
+                                )
+                            )
+                        );
+                    }
+                }
+            }
+            return responses;
+        }
+
+        /**
+         * Key of the delivery's Project.
+         * @return String.
+         */
+        private String key() {
+            return this.provider + "/" + this.repo;
+        }
+    }
+
+    /**
+     * Results of a replay.
+     */
+    static final class Report {
+
+        /**
+         * Latency of each event, sorted, in nanoseconds.
+         */
+        private final long[] nanos;
+
+        /**
+         * Events which failed.
+         */
+        private final int errors;
+
+        /**
+         * First failure, null if none.
+         */
+        private final RuntimeException failure;
+
+        /**
+         * Provider calls.
+         */
+        private final long calls;
+
+        /**
+         * Bytes allocated.
+         */
+        private final long allocated;
+
+        /**
+         * Ctor.
+         * @param nanos Latency of each event, in nanoseconds.
+         * @param errors Events which failed.
+         * @param failure First failure, null if none.
+         * @param calls Provider calls.
+         * @param allocated Bytes allocated.
+         */
+        private Report(
+            final long[] nanos,
+            final int errors,
+            final RuntimeException failure,
+            final long calls,
+            final long allocated
+        ) {
+            this.nanos = nanos.clone();
+            Arrays.sort(this.nanos);
+            this.errors = errors;
+            this.failure = failure;
+            this.calls = calls;
+            this.allocated = allocated;
+        }
+
+        /**
+         * Replayed events.
+         * @return Integer.
+         */
+        int events() {
+            return this.nanos.length;
+        }
+
+        /**
+         * Events which failed.
+         * @return Integer.
+         */
+        int errors() {
+            return this.errors;
+        }
+
+        /**
+         * First failure.
+         * @return RuntimeException or null if no event failed.
+         */
+        RuntimeException failure() {
+            return this.failure;
+        }
+
+        /**
+         * Events resolved per second.
+         * @return Double.
+         */
+        double perSecond() {
+            return this.nanos.length * 1e9
+                / Math.max(1, Arrays.stream(this.nanos).sum());
+        }
+
+        /**
+         * Latency percentile.
+         * @param percent Percentile, between 0 and 100.
+         * @return Duration.
+         */
+        Duration percentile(final double percent) {
+            Duration latency = Duration.ZERO;
+            if(this.nanos.length > 0) {
+                final int idx = (int) Math.ceil(
+                    percent / 100 * this.nanos.length
+                ) - 1;
+                latency = Duration.ofNanos(
+                    this.nanos[Math.max(0, idx)]
+                );
+            }
+            return latency;
+        }
+
+        /**
+         * Provider calls per event.
+         * @return Double.
+         */
+        double callsPerEvent() {
+            return (double) this.calls / Math.max(1, this.nanos.length);
+        }
+
+        /**
+         * Bytes allocated per event.
+         * @return Long.
+         */
+        long bytesPerEvent() {
+            return this.allocated / Math.max(1, this.nanos.length);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%d events (%d failed), %.1f events/sec, p50 %.3f ms, "
+                + "p99 %.3f ms, %.2f provider calls/event, "
+                + "%d bytes allocated/event",
+                this.events(), this.errors, this.perSecond(),
+                this.percentile(50).toNanos() / 1e6,
+                this.percentile(99).toNanos() / 1e6,
+                this.callsPerEvent(), this.bytesPerEvent()
+            );
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Unit tests for {@link WebhookReplay}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class WebhookReplayTestCase {
+
+    /**
+     * The sample corpus can be replayed several times, each event being
+     * measured and resolved without errors.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void replaysSampleCorpus() throws Exception {
+        final Path corpus = Paths.get(
+            this.getClass().getResource("/webhooks").toURI()
+        );
+        final WebhookReplay.Report report = new WebhookReplay(
+            corpus, Duration.ZERO
+        ).run(2);
+        MatcherAssert.assertThat(report.events(), Matchers.is(8));
+        MatcherAssert.assertThat(
+            "First failure: " + report.failure(),
+            report.errors(),
+            Matchers.is(0)
+        );
+        MatcherAssert.assertThat(
+            report.callsPerEvent(), Matchers.greaterThan(0.0)
+        );
+        MatcherAssert.assertThat(
+            report.percentile(99),
+            Matchers.greaterThanOrEqualTo(report.percentile(50))
+        );
+        MatcherAssert.assertThat(
+            report.toString(),
+            Matchers.startsWith("8 events (0 failed)")
+        );
+    }
+
+    /**
+     * A Provider call without a recorded response fails the delivery.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void failsOnUnrecordedCall() throws Exception {
+        final Path corpus = Files.createTempDirectory("replay");
+        Files.copy(
+            Paths.get(
+                this.getClass()
+                    .getResource("/webhooks/001.github.issues.json").toURI()
+            ),
+            corpus.resolve("001.github.issues.json")
+        );
+        final WebhookReplay.Report report = new WebhookReplay(
+            corpus, Duration.ZERO
+        ).run(1);
+        MatcherAssert.assertThat(report.events(), Matchers.is(1));
+        MatcherAssert.assertThat(report.errors(), Matchers.is(1));
+        MatcherAssert.assertThat(
+            report.failure().getMessage(),
+            Matchers.containsString(
+                "GET https://api.github.com/repos/amihaiemil/replay"
+                + "/issues/1/labels"
+            )
+        );
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2020-2021, Self XDSD Contributors
+ * All rights reserved.
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"),
+ * to read the Software only. Permission is hereby NOT GRANTED to use, copy,
+ * modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software.
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY,
+ * OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT
+ * OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.selfxdsd.core.projects;
+
+import com.selfxdsd.api.Project;
+import com.selfxdsd.api.Provider;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Unit tests for {@link WebhookSignatures}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class WebhookSignaturesTestCase {
+
+    /**
+     * Token used in Github's documentation example.
+     */
+    private static final String TOKEN = "It's a Secret to Everybody";
+
+    /**
+     * Body used in Github's documentation example.
+     */
+    private static final byte[] BODY = "Hello, World!".getBytes(
+        StandardCharsets.UTF_8
+    );
+
+    /**
+     * Signature of BODY, from Github's documentation example.
+     */
+    private static final String SIGNATURE = "sha256=757107ea0eb2509fc2112"
+        + "21cce984b8a37570b6d7586c22c46f4379c8b043e17";
+
+    /**
+     * It accepts a correctly signed Github delivery, more times (the
+     * keyed Mac is reused).
+     */
+    @Test
+    public void acceptsSignedGithubDelivery() {
+        final WebhookSignatures signatures = new WebhookSignatures();
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.provider()).thenReturn(Provider.Names.GITHUB);
+        Mockito.when(project.webHookToken()).thenReturn(TOKEN);
+        MatcherAssert.assertThat(
+            signatures.valid(project, SIGNATURE, BODY), Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            signatures.valid(project, SIGNATURE, BODY), Matchers.is(true)
+        );
+    }
+
+    /**
+     * It rejects Github deliveries with a wrong or malformed signature,
+     * or signed with another token.
+     */
+    @Test
+    public void rejectsBadGithubDeliveries() {
+        final WebhookSignatures signatures = new WebhookSignatures(1);
+        final String github = Provider.Names.GITHUB;
+        MatcherAssert.assertThat(
+            signatures.valid(github, "other token", SIGNATURE, BODY),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            signatures.valid(
+                github, TOKEN, SIGNATURE.replace('7', '8'), BODY
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            signatures.valid(
+                github, TOKEN, SIGNATURE.replace('e', 'x'), BODY
+            ),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            signatures.valid(github, TOKEN, "sha256=", BODY),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            signatures.valid(github, TOKEN, null, BODY),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            signatures.valid(github, TOKEN, SIGNATURE, BODY),
+            Matchers.is(true)
+        );
+    }
+
+    /**
+     * It compares Gitlab's token.
+     */
+    @Test
+    public void checksGitlabToken() {
+        final WebhookSignatures signatures = new WebhookSignatures();
+        final String gitlab = Provider.Names.GITLAB;
+        MatcherAssert.assertThat(
+            signatures.valid(gitlab, TOKEN, TOKEN, BODY),
+            Matchers.is(true)
+        );
+        MatcherAssert.assertThat(
+            signatures.valid(gitlab, TOKEN, "wrong", BODY),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            signatures.valid(gitlab, "", "", BODY),
+            Matchers.is(false)
+        );
+    }
+}
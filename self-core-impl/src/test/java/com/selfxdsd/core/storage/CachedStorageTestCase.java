@@ -0,0 +1,240 @@
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.storage.Storage;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+
+/**
+ * Unit tests for {@link CachedStorage}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class CachedStorageTestCase {
+
+    /**
+     * Projects are read from the original Storage only once, regardless
+     * of the case of the id.
+     */
+    @Test
+    public void cachesProjects() {
+        final Project project = Mockito.mock(Project.class);
+        final Projects projects = Mockito.mock(Projects.class);
+        Mockito.when(
+            projects.getProjectById(
+                Mockito.anyString(), Mockito.anyString()
+            )
+        ).thenReturn(project);
+        final Storage origin = Mockito.mock(Storage.class);
+        Mockito.when(origin.projects()).thenReturn(projects);
+
+        final CachedStorage storage = new CachedStorage(cache -> origin);
+        MatcherAssert.assertThat(
+            storage.projects().getProjectById("john/test", "github"),
+            Matchers.is(project)
+        );
+        MatcherAssert.assertThat(
+            storage.projects().getProjectById("John/Test", "GitHub"),
+            Matchers.is(project)
+        );
+        Mockito.verify(projects, Mockito.times(1)).getProjectById(
+            Mockito.anyString(), Mockito.anyString()
+        );
+        MatcherAssert.assertThat(
+            storage.stats().get("projects").hits(),
+            Matchers.is(1L)
+        );
+    }
+
+    /**
+     * Removing a Project invalidates it.
+     */
+    @Test
+    public void removingProjectInvalidatesIt() {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn("john/test");
+        Mockito.when(project.provider()).thenReturn("github");
+        final Projects projects = Mockito.mock(Projects.class);
+        Mockito.when(projects.getProjectById("john/test", "github"))
+            .thenReturn(project);
+        final Storage origin = Mockito.mock(Storage.class);
+        Mockito.when(origin.projects()).thenReturn(projects);
+
+        final CachedStorage storage = new CachedStorage(cache -> origin);
+        storage.projects().getProjectById("john/test", "github");
+        storage.projects().remove(project);
+        storage.projects().getProjectById("john/test", "github");
+        Mockito.verify(projects, Mockito.times(2))
+            .getProjectById("john/test", "github");
+        Mockito.verify(projects).remove(project);
+    }
+
+    /**
+     * Contributors are cached and registering one invalidates it.
+     */
+    @Test
+    public void cachesContributors() {
+        final Contributor mihai = Mockito.mock(Contributor.class);
+        final Contributors contributors = Mockito.mock(Contributors.class);
+        Mockito.when(contributors.getById("mihai", "github"))
+            .thenReturn(null)
+            .thenReturn(mihai);
+        Mockito.when(contributors.register("mihai", "github"))
+            .thenReturn(mihai);
+        final Storage origin = Mockito.mock(Storage.class);
+        Mockito.when(origin.contributors()).thenReturn(contributors);
+
+        final CachedStorage storage = new CachedStorage(cache -> origin);
+        MatcherAssert.assertThat(
+            storage.contributors().getById("mihai", "github"),
+            Matchers.nullValue()
+        );
+        storage.contributors().register("mihai", "github");
+        MatcherAssert.assertThat(
+            storage.contributors().getById("mihai", "github"),
+            Matchers.is(mihai)
+        );
+        MatcherAssert.assertThat(
+            storage.contributors().getById("mihai", "github"),
+            Matchers.is(mihai)
+        );
+        Mockito.verify(contributors, Mockito.times(2))
+            .getById("mihai", "github");
+    }
+
+    /**
+     * Updating a Contract invalidates it.
+     */
+    @Test
+    public void updatingContractInvalidatesIt() {
+        final Contract.Id id = new Contract.Id(
+            "john/test", "mihai", "github", Contract.Roles.DEV
+        );
+        final Contract contract = Mockito.mock(Contract.class);
+        Mockito.when(contract.contractId()).thenReturn(id);
+        final Contracts contracts = Mockito.mock(Contracts.class);
+        Mockito.when(contracts.findById(id)).thenReturn(contract);
+        final Storage origin = Mockito.mock(Storage.class);
+        Mockito.when(origin.contracts()).thenReturn(contracts);
+
+        final CachedStorage storage = new CachedStorage(cache -> origin);
+        storage.contracts().findById(id);
+        storage.contracts().findById(id);
+        Mockito.verify(contracts, Mockito.times(1)).findById(id);
+        storage.contracts().update(contract, BigDecimal.TEN);
+        storage.contracts().findById(id);
+        Mockito.verify(contracts, Mockito.times(2)).findById(id);
+    }
+
+    /**
+     * ProjectManagers are cached by username and provider.
+     */
+    @Test
+    public void cachesProjectManagers() {
+        final ProjectManager manager = Mockito.mock(ProjectManager.class);
+        final ProjectManagers managers = Mockito.mock(ProjectManagers.class);
+        Mockito.when(managers.getByUsername("zoeself", "github"))
+            .thenReturn(manager);
+        final Storage origin = Mockito.mock(Storage.class);
+        Mockito.when(origin.projectManagers()).thenReturn(managers);
+
+        final CachedStorage storage = new CachedStorage(cache -> origin);
+        for(int idx = 0; idx < 3; idx = idx + 1) {
+            MatcherAssert.assertThat(
+                storage.projectManagers().getByUsername("zoeself", "github"),
+                Matchers.is(manager)
+            );
+        }
+        Mockito.verify(managers, Mockito.times(1))
+            .getByUsername("zoeself", "github");
+    }
+
+    /**
+     * Updating a Wallet's cash invalidates its Project.
+     */
+    @Test
+    public void updatingCashInvalidatesProject() {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn("john/test");
+        Mockito.when(project.provider()).thenReturn("github");
+        final Projects projects = Mockito.mock(Projects.class);
+        Mockito.when(projects.getProjectById("john/test", "github"))
+            .thenReturn(project);
+        final Wallet wallet = Mockito.mock(Wallet.class);
+        Mockito.when(wallet.project()).thenReturn(project);
+        final Storage origin = Mockito.mock(Storage.class);
+        Mockito.when(origin.projects()).thenReturn(projects);
+        Mockito.when(origin.wallets()).thenReturn(Mockito.mock(Wallets.class));
+
+        final CachedStorage storage = new CachedStorage(cache -> origin);
+        storage.projects().getProjectById("john/test", "github");
+        storage.wallets().updateCash(wallet, BigDecimal.ONE);
+        storage.projects().getProjectById("john/test", "github");
+        Mockito.verify(projects, Mockito.times(2))
+            .getProjectById("john/test", "github");
+    }
+
+    /**
+     * Entities which are not cached come from the original Storage.
+     */
+    @Test
+    public void delegatesTheRest() {
+        final Storage origin = Mockito.mock(Storage.class);
+        final Tasks tasks = Mockito.mock(Tasks.class);
+        Mockito.when(origin.tasks()).thenReturn(tasks);
+        MatcherAssert.assertThat(
+            new CachedStorage(cache -> origin).tasks(),
+            Matchers.is(tasks)
+        );
+    }
+
+    /**
+     * Writes made through an entity of the cached Storage go through the
+     * decorator, so they invalidate the cache, when the origin is built
+     * with the decorator.
+     */
+    @Test
+    public void entityWritesInvalidateTheCache() {
+        final CachedStorage storage = new CachedStorage(
+            cache -> new InMemoryStorage(cache)
+        );
+        final Repo repo = Mockito.mock(Repo.class);
+        Mockito.when(repo.fullName()).thenReturn("john/test");
+        Mockito.when(repo.provider()).thenReturn("github");
+        final Provider provider = Mockito.mock(Provider.class);
+        Mockito.when(provider.name()).thenReturn("github");
+        final User owner = Mockito.mock(User.class);
+        Mockito.when(owner.username()).thenReturn("john");
+        Mockito.when(owner.provider()).thenReturn(provider);
+        Mockito.when(repo.owner()).thenReturn(owner);
+        storage.projects().register(
+            repo,
+            storage.projectManagers().register(
+                "1", "zoeself", "github", "token", 8
+            ),
+            "wh123"
+        );
+        storage.contributors().register("mihai", "github");
+        final Contract.Id id = storage.contracts().addContract(
+            "john/test", "mihai", "github",
+            BigDecimal.valueOf(10000), Contract.Roles.DEV
+        ).contractId();
+        final Contract cached = storage.contracts().findById(id);
+        MatcherAssert.assertThat(
+            cached.project(),
+            Matchers.is(
+                storage.projects().getProjectById("john/test", "github")
+            )
+        );
+        cached.update(BigDecimal.valueOf(20000));
+        MatcherAssert.assertThat(
+            storage.contracts().findById(id).hourlyRate(),
+            Matchers.comparesEqualTo(BigDecimal.valueOf(20000))
+        );
+    }
+}
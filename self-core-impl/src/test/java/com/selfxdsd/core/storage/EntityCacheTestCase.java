@@ -0,0 +1,167 @@
+package com.selfxdsd.core.storage;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link EntityCache}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class EntityCacheTestCase {
+
+    /**
+     * The value is loaded only once and the following lookups are hits.
+     */
+    @Test
+    public void loadsOnce() {
+        final EntityCache<String, String> cache = new EntityCache<>(
+            10, Duration.ofMinutes(1)
+        );
+        final AtomicInteger loads = new AtomicInteger();
+        for(int idx = 0; idx < 3; idx = idx + 1) {
+            MatcherAssert.assertThat(
+                cache.get("key", key -> {
+                    loads.incrementAndGet();
+                    return "value";
+                }),
+                Matchers.equalTo("value")
+            );
+        }
+        MatcherAssert.assertThat(loads.get(), Matchers.is(1));
+        MatcherAssert.assertThat(cache.stats().hits(), Matchers.is(2L));
+        MatcherAssert.assertThat(cache.stats().misses(), Matchers.is(1L));
+        MatcherAssert.assertThat(cache.stats().size(), Matchers.is(1));
+    }
+
+    /**
+     * Null values are not cached.
+     */
+    @Test
+    public void doesNotCacheNull() {
+        final EntityCache<String, String> cache = new EntityCache<>(
+            10, Duration.ofMinutes(1)
+        );
+        MatcherAssert.assertThat(
+            cache.get("key", key -> null),
+            Matchers.nullValue()
+        );
+        MatcherAssert.assertThat(
+            cache.get("key", key -> "value"),
+            Matchers.equalTo("value")
+        );
+        MatcherAssert.assertThat(cache.stats().misses(), Matchers.is(2L));
+    }
+
+    /**
+     * The least recently used entry is evicted when the cache is full.
+     */
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final EntityCache<String, String> cache = new EntityCache<>(
+            2, Duration.ofMinutes(1)
+        );
+        cache.get("a", key -> "A");
+        cache.get("b", key -> "B");
+        cache.get("a", key -> "A");
+        cache.get("c", key -> "C");
+        MatcherAssert.assertThat(
+            cache.get("a", key -> "reloaded"),
+            Matchers.equalTo("A")
+        );
+        MatcherAssert.assertThat(
+            cache.get("b", key -> "reloaded"),
+            Matchers.equalTo("reloaded")
+        );
+        MatcherAssert.assertThat(cache.stats().size(), Matchers.is(2));
+        MatcherAssert.assertThat(
+            cache.stats().evictions(),
+            Matchers.greaterThanOrEqualTo(1L)
+        );
+    }
+
+    /**
+     * Entries expire after the time-to-live.
+     */
+    @Test
+    public void expiresEntries() {
+        final Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.millis()).thenReturn(0L);
+        final EntityCache<String, String> cache = new EntityCache<>(
+            10, Duration.ofSeconds(10), clock
+        );
+        cache.get("key", key -> "old");
+        Mockito.when(clock.millis()).thenReturn(9_999L);
+        MatcherAssert.assertThat(
+            cache.get("key", key -> "new"),
+            Matchers.equalTo("old")
+        );
+        Mockito.when(clock.millis()).thenReturn(10_000L);
+        MatcherAssert.assertThat(
+            cache.get("key", key -> "new"),
+            Matchers.equalTo("new")
+        );
+    }
+
+    /**
+     * Invalidated entries are loaded again.
+     */
+    @Test
+    public void invalidatesEntries() {
+        final EntityCache<String, String> cache = new EntityCache<>(
+            10, Duration.ofMinutes(1)
+        );
+        cache.get("a", key -> "A");
+        cache.get("b", key -> "B");
+        cache.get("c", key -> "C");
+        cache.invalidate("a");
+        MatcherAssert.assertThat(
+            cache.get("a", key -> "A2"),
+            Matchers.equalTo("A2")
+        );
+        cache.invalidateIf(key -> "b".equals(key));
+        MatcherAssert.assertThat(
+            cache.get("b", key -> "B2"),
+            Matchers.equalTo("B2")
+        );
+        MatcherAssert.assertThat(
+            cache.get("c", key -> "C2"),
+            Matchers.equalTo("C")
+        );
+        cache.invalidateAll();
+        MatcherAssert.assertThat(cache.stats().size(), Matchers.is(0));
+    }
+
+    /**
+     * A value loaded while its key is being invalidated is not cached.
+     */
+    @Test
+    public void doesNotCacheValueLoadedDuringInvalidation() {
+        final EntityCache<String, String> cache = new EntityCache<>(
+            10, Duration.ofMinutes(1)
+        );
+        cache.get("key", key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+        MatcherAssert.assertThat(
+            cache.get("key", key -> "fresh"),
+            Matchers.equalTo("fresh")
+        );
+    }
+
+    /**
+     * It refuses a non-positive size.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroSize() {
+        new EntityCache<String, String>(0, Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,739 @@
+package com.selfxdsd.core.storage;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.exceptions.ContractsException;
+import com.selfxdsd.api.exceptions.TasksException;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.contracts.invoices.SealedInvoice;
+import com.selfxdsd.core.contracts.invoices.StoredInvoice;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Unit tests for {@link InMemoryStorage}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class InMemoryStorageTestCase {
+
+    /**
+     * Temporary folder for the journal files.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * It registers and finds Projects, by id, by PM and by owner.
+     */
+    @Test
+    public void registersAndFindsProjects() {
+        final Storage storage = new InMemoryStorage();
+        final ProjectManager manager = this.manager(storage);
+        final Repo repo = this.mockRepo("mihai/test", "github");
+        final Project project = storage.projects().register(
+            repo, manager, "wh123"
+        );
+        MatcherAssert.assertThat(
+            storage.projects().getProjectById("Mihai/Test", "GitHub"),
+            Matchers.is(project)
+        );
+        MatcherAssert.assertThat(
+            storage.projects().assignedTo(manager.id()),
+            Matchers.contains(project)
+        );
+        MatcherAssert.assertThat(
+            storage.projects().ownedBy(repo.owner()),
+            Matchers.contains(project)
+        );
+        MatcherAssert.assertThat(
+            storage.projects().assignedTo(manager.id() + 1),
+            Matchers.emptyIterable()
+        );
+        storage.projects().remove(project);
+        MatcherAssert.assertThat(
+            storage.projects().getProjectById("mihai/test", "github"),
+            Matchers.nullValue()
+        );
+        MatcherAssert.assertThat(
+            storage.projects().assignedTo(manager.id()),
+            Matchers.emptyIterable()
+        );
+    }
+
+    /**
+     * It registers Tasks and keeps the Project, assignee, Contract and
+     * unassigned indexes in sync.
+     */
+    @Test
+    public void indexesTasks() {
+        final Storage storage = new InMemoryStorage();
+        final Project project = storage.projects().register(
+            this.mockRepo("mihai/test", "github"),
+            this.manager(storage),
+            "wh123"
+        );
+        storage.contributors().register("vlad", "github");
+        final Contract contract = storage.contracts().addContract(
+            "mihai/test", "vlad", "github",
+            BigDecimal.valueOf(10000), Contract.Roles.DEV
+        );
+        final Task first = storage.tasks().register(
+            this.mockIssue("1", "mihai/test", "github")
+        );
+        storage.tasks().register(this.mockIssue("2", "mihai/test", "github"));
+        MatcherAssert.assertThat(
+            storage.tasks().ofProject("mihai/test", "github"),
+            Matchers.iterableWithSize(2)
+        );
+        MatcherAssert.assertThat(
+            storage.tasks().unassigned(),
+            Matchers.iterableWithSize(2)
+        );
+
+        final Task assigned = storage.tasks().assign(first, contract, 10);
+        MatcherAssert.assertThat(
+            storage.tasks().unassigned(),
+            Matchers.iterableWithSize(1)
+        );
+        MatcherAssert.assertThat(
+            storage.tasks().ofContributor("vlad", "github"),
+            Matchers.contains(assigned)
+        );
+        MatcherAssert.assertThat(
+            storage.tasks().ofContract(contract.contractId()),
+            Matchers.contains(assigned)
+        );
+        MatcherAssert.assertThat(
+            storage.tasks().ofProject("mihai/test", "github"),
+            Matchers.iterableWithSize(2)
+        );
+
+        storage.tasks().unassign(assigned);
+        MatcherAssert.assertThat(
+            storage.tasks().ofContributor("vlad", "github"),
+            Matchers.emptyIterable()
+        );
+        MatcherAssert.assertThat(
+            storage.tasks().unassigned(),
+            Matchers.iterableWithSize(2)
+        );
+
+        MatcherAssert.assertThat(
+            storage.tasks().remove(first),
+            Matchers.is(Boolean.TRUE)
+        );
+        MatcherAssert.assertThat(
+            storage.tasks().remove(first),
+            Matchers.is(Boolean.FALSE)
+        );
+        MatcherAssert.assertThat(
+            storage.tasks().ofProject("mihai/test", "github"),
+            Matchers.iterableWithSize(1)
+        );
+        MatcherAssert.assertThat(project, Matchers.notNullValue());
+    }
+
+    /**
+     * Registering the same Task twice fails.
+     */
+    @Test(expected = TasksException.OfProject.Add.class)
+    public void doesNotRegisterTaskTwice() {
+        final Storage storage = new InMemoryStorage();
+        storage.projects().register(
+            this.mockRepo("mihai/test", "github"),
+            this.manager(storage),
+            "wh123"
+        );
+        storage.tasks().register(this.mockIssue("1", "mihai/test", "github"));
+        storage.tasks().register(this.mockIssue("1", "mihai/test", "github"));
+    }
+
+    /**
+     * It indexes the Contracts by Project and by Contributor and
+     * updates them.
+     */
+    @Test
+    public void indexesContracts() {
+        final Storage storage = new InMemoryStorage();
+        storage.projects().register(
+            this.mockRepo("mihai/test", "github"),
+            this.manager(storage),
+            "wh123"
+        );
+        final Contributor vlad = storage.contributors()
+            .register("vlad", "github");
+        storage.contributors().register("alex", "github");
+        final Contract contract = storage.contracts().addContract(
+            "mihai/test", "vlad", "github",
+            BigDecimal.valueOf(10000), Contract.Roles.DEV
+        );
+        storage.contracts().addContract(
+            "mihai/test", "alex", "github",
+            BigDecimal.valueOf(10000), Contract.Roles.REV
+        );
+        MatcherAssert.assertThat(
+            storage.contracts().ofProject("mihai/test", "github"),
+            Matchers.iterableWithSize(2)
+        );
+        MatcherAssert.assertThat(
+            storage.contracts().ofContributor(vlad),
+            Matchers.contains(contract)
+        );
+        MatcherAssert.assertThat(
+            storage.contributors().ofProject("mihai/test", "github"),
+            Matchers.iterableWithSize(2)
+        );
+        final Contract updated = storage.contracts().update(
+            contract, BigDecimal.valueOf(20000)
+        );
+        MatcherAssert.assertThat(
+            storage.contracts().findById(contract.contractId())
+                .hourlyRate(),
+            Matchers.equalTo(BigDecimal.valueOf(20000))
+        );
+        storage.contracts().remove(updated);
+        MatcherAssert.assertThat(
+            storage.contracts().ofContributor(vlad),
+            Matchers.emptyIterable()
+        );
+    }
+
+    /**
+     * A Contract can't be added for a missing Contributor.
+     */
+    @Test(expected = ContractsException.Single.Add.class)
+    public void doesNotAddContractOfMissingContributor() {
+        final Storage storage = new InMemoryStorage();
+        storage.projects().register(
+            this.mockRepo("mihai/test", "github"),
+            this.manager(storage),
+            "wh123"
+        );
+        storage.contracts().addContract(
+            "mihai/test", "vlad", "github",
+            BigDecimal.valueOf(10000), Contract.Roles.DEV
+        );
+    }
+
+    /**
+     * It finds ProjectManagers by id and username and picks one.
+     */
+    @Test
+    public void findsProjectManagers() {
+        final Storage storage = new InMemoryStorage();
+        final ProjectManager manager = this.manager(storage);
+        MatcherAssert.assertThat(
+            storage.projectManagers().getById(manager.id()),
+            Matchers.is(manager)
+        );
+        MatcherAssert.assertThat(
+            storage.projectManagers().getByUsername("ZoeSelf", "github"),
+            Matchers.is(manager)
+        );
+        MatcherAssert.assertThat(
+            storage.projectManagers().pick("github"),
+            Matchers.is(manager)
+        );
+        MatcherAssert.assertThat(
+            storage.projectManagers().pick("gitlab"),
+            Matchers.nullValue()
+        );
+    }
+
+    /**
+     * Users sign up only once.
+     */
+    @Test
+    public void signsUpUsersOnce() {
+        final Storage storage = new InMemoryStorage();
+        final User user = storage.users().signUp(
+            "mihai", "github", "mihai@example.com", "user"
+        );
+        MatcherAssert.assertThat(
+            storage.users().signUp("mihai", "github", null, "user"),
+            Matchers.sameInstance(user)
+        );
+        MatcherAssert.assertThat(
+            storage.users().user("mihai", "github"),
+            Matchers.sameInstance(user)
+        );
+    }
+
+    /**
+     * The value and revenue of a Contract are maintained as Tasks are
+     * assigned, invoiced and paid, and they match a computation from
+     * scratch.
+     */
+    @Test
+    public void countsContractValueAndRevenue() {
+        final InMemoryStorage storage = new InMemoryStorage();
+        storage.projects().register(
+            this.mockRepo("mihai/test", "github"),
+            this.manager(storage),
+            "wh123"
+        );
+        storage.contributors().register("vlad", "github");
+        final Contract contract = storage.contracts().addContract(
+            "mihai/test", "vlad", "github",
+            BigDecimal.valueOf(10000), Contract.Roles.DEV
+        );
+        final Task first = storage.tasks().assign(
+            storage.tasks().register(
+                this.mockIssue("1", "mihai/test", "github")
+            ),
+            contract, 10
+        );
+        storage.tasks().assign(
+            storage.tasks().register(
+                this.mockIssue("2", "mihai/test", "github")
+            ),
+            contract, 10
+        );
+        this.assertCounted(storage, contract.contractId(), 21600, 20000);
+        final Invoice invoice = storage.invoices()
+            .createNewInvoice(contract.contractId());
+        invoice.register(first, BigDecimal.valueOf(800));
+        storage.tasks().remove(first);
+        this.assertCounted(storage, contract.contractId(), 21600, 20000);
+        storage.invoices().registerAsPaid(
+            new StoredInvoice(
+                invoice.invoiceId(),
+                contract,
+                invoice.createdAt(),
+                LocalDateTime.now(),
+                "fake_payment_1",
+                "mihai",
+                "vlad",
+                storage
+            ),
+            BigDecimal.ZERO,
+            BigDecimal.ONE
+        );
+        this.assertCounted(storage, contract.contractId(), 10800, 10000);
+    }
+
+    /**
+     * When the hourly rate of a Contract changes, its Tasks and counters
+     * follow the new rate, also after the storage is reopened.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void recountsContractOnRateChange() throws Exception {
+        final Path dir = this.folder.newFolder().toPath();
+        final Contract.Id id;
+        try (Storage storage = this.journaled(dir, Long.MAX_VALUE)) {
+            storage.projects().register(
+                this.mockRepo("mihai/test", "github"),
+                this.manager(storage),
+                "wh123"
+            );
+            storage.contributors().register("vlad", "github");
+            final Contract contract = storage.contracts().addContract(
+                "mihai/test", "vlad", "github",
+                BigDecimal.valueOf(10000), Contract.Roles.DEV
+            );
+            id = contract.contractId();
+            storage.tasks().assign(
+                storage.tasks().register(
+                    this.mockIssue("1", "mihai/test", "github")
+                ),
+                contract, 10
+            );
+            storage.contracts().update(contract, BigDecimal.valueOf(20000));
+            this.assertCounted((InMemoryStorage) storage, id, 21600, 20000);
+            MatcherAssert.assertThat(
+                storage.tasks()
+                    .getById("1", "mihai/test", "github", false)
+                    .value(),
+                Matchers.comparesEqualTo(BigDecimal.valueOf(20000))
+            );
+        }
+        try (Storage storage = this.journaled(dir, Long.MAX_VALUE)) {
+            this.assertCounted((InMemoryStorage) storage, id, 21600, 20000);
+        }
+    }
+
+    /**
+     * A paid Invoice is sealed: it is read from the snapshot taken when it
+     * was registered as paid, also after the storage is reopened.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void sealsPaidInvoices() throws Exception {
+        final Path dir = this.folder.newFolder().toPath();
+        final BigDecimal amount;
+        final int id;
+        try (Storage storage = this.journaled(dir, Long.MAX_VALUE)) {
+            storage.projects().register(
+                this.mockRepo("mihai/test", "github"),
+                this.manager(storage),
+                "wh123"
+            );
+            storage.contributors().register("vlad", "github");
+            final Contract contract = storage.contracts().addContract(
+                "mihai/test", "vlad", "github",
+                BigDecimal.valueOf(10000), Contract.Roles.DEV
+            );
+            final Task task = storage.tasks().assign(
+                storage.tasks().register(
+                    this.mockIssue("1", "mihai/test", "github")
+                ),
+                contract, 10
+            );
+            final Invoice invoice = storage.invoices()
+                .createNewInvoice(contract.contractId());
+            invoice.register(task, BigDecimal.valueOf(800));
+            amount = invoice.amount();
+            id = invoice.invoiceId();
+            storage.invoices().registerAsPaid(
+                new StoredInvoice(
+                    id,
+                    contract,
+                    invoice.createdAt(),
+                    LocalDateTime.now(),
+                    "fake_payment_1",
+                    "vlad",
+                    "mihai",
+                    storage
+                ),
+                BigDecimal.ZERO,
+                BigDecimal.ONE
+            );
+            this.assertSealed(storage.invoices().getById(id), amount);
+        }
+        try (Storage storage = this.journaled(dir, Long.MAX_VALUE)) {
+            this.assertSealed(storage.invoices().getById(id), amount);
+        }
+    }
+
+    /**
+     * A journaled storage is restored, after reopening, from its journal.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void restoresFromJournal() throws Exception {
+        this.restoresState(Long.MAX_VALUE);
+    }
+
+    /**
+     * A journaled storage is restored, after reopening, from its
+     * snapshots (one is written after every mutation here).
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void restoresFromSnapshot() throws Exception {
+        this.restoresState(1);
+    }
+
+    /**
+     * A Task which is registered, assigned and unassigned again is
+     * indexed as unassigned and is restored as such from the journal.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void replaysUnassignedTask() throws Exception {
+        final Path dir = this.folder.newFolder().toPath();
+        try (Storage storage = this.journaled(dir, Long.MAX_VALUE)) {
+            storage.projects().register(
+                this.mockRepo("mihai/test", "github"),
+                this.manager(storage),
+                "wh123"
+            );
+            storage.contributors().register("vlad", "github");
+            final Contract contract = storage.contracts().addContract(
+                "mihai/test", "vlad", "github",
+                BigDecimal.valueOf(10000), Contract.Roles.DEV
+            );
+            final Task registered = storage.tasks().register(
+                this.mockIssue("1", "mihai/test", "github")
+            );
+            MatcherAssert.assertThat(
+                registered.assignee(), Matchers.nullValue()
+            );
+            final Task assigned = storage.tasks().assign(
+                registered, contract, 10
+            );
+            MatcherAssert.assertThat(
+                storage.tasks().ofContract(contract.contractId()),
+                Matchers.contains(assigned)
+            );
+            storage.tasks().unassign(assigned);
+            MatcherAssert.assertThat(
+                storage.tasks().ofContract(contract.contractId()),
+                Matchers.emptyIterable()
+            );
+            MatcherAssert.assertThat(
+                storage.tasks().unassigned(),
+                Matchers.iterableWithSize(1)
+            );
+        }
+        try (Storage storage = this.journaled(dir, Long.MAX_VALUE)) {
+            MatcherAssert.assertThat(
+                storage.tasks().unassigned(),
+                Matchers.iterableWithSize(1)
+            );
+            MatcherAssert.assertThat(
+                storage.tasks().ofContributor("vlad", "github"),
+                Matchers.emptyIterable()
+            );
+            MatcherAssert.assertThat(
+                storage.tasks().getById("1", "mihai/test", "github", false)
+                    .assignee(),
+                Matchers.nullValue()
+            );
+        }
+    }
+
+    /**
+     * Once a record cannot be journaled, the storage refuses any further
+     * mutation, instead of building on a state which the journal lacks.
+     * @throws Exception If something goes wrong.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void stopsAfterJournalFailure() throws Exception {
+        final Journal journal = new Journal(this.folder.newFolder().toPath());
+        final Storage storage = new InMemoryStorage(journal, Long.MAX_VALUE);
+        this.manager(storage);
+        journal.close();
+        boolean failed = false;
+        try {
+            storage.contributors().register("vlad", "github");
+        } catch (final UncheckedIOException ex) {
+            failed = true;
+        }
+        MatcherAssert.assertThat(failed, Matchers.is(true));
+        storage.contributors().register("mihai", "github");
+    }
+
+    /**
+     * The failed payment attempts of an Invoice are counted and restored
+     * from the journal.
+     * @throws Exception If something goes wrong.
+     */
+    @Test
+    public void countsFailedPayments() throws Exception {
+        final Path dir = this.folder.newFolder().toPath();
+        final int id;
+        try (Storage storage = this.journaled(dir, Long.MAX_VALUE)) {
+            storage.projects().register(
+                this.mockRepo("mihai/test", "github"),
+                this.manager(storage),
+                "wh123"
+            );
+            storage.contributors().register("vlad", "github");
+            final Contract contract = storage.contracts().addContract(
+                "mihai/test", "vlad", "github",
+                BigDecimal.valueOf(10000), Contract.Roles.DEV
+            );
+            final Invoice invoice = storage.invoices().createNewInvoice(
+                contract.contractId()
+            );
+            id = invoice.invoiceId();
+            MatcherAssert.assertThat(
+                storage.invoices().failedPayments(invoice), Matchers.is(0)
+            );
+            storage.invoices().registerFailedPayment(invoice);
+            storage.invoices().registerFailedPayment(invoice);
+        }
+        try (Storage storage = this.journaled(dir, Long.MAX_VALUE)) {
+            MatcherAssert.assertThat(
+                storage.invoices().failedPayments(
+                    storage.invoices().getById(id)
+                ),
+                Matchers.is(2)
+            );
+        }
+    }
+
+    /**
+     * Mutate a journaled storage, reopen it and check the state.
+     * @param threshold Size of the journal which triggers a snapshot.
+     * @throws Exception If something goes wrong.
+     */
+    private void restoresState(final long threshold) throws Exception {
+        final Path dir = this.folder.newFolder().toPath();
+        try (Storage storage = this.journaled(dir, threshold)) {
+            final ProjectManager manager = this.manager(storage);
+            storage.projects().register(
+                this.mockRepo("mihai/test", "github"), manager, "wh123"
+            );
+            storage.contributors().register("vlad", "github");
+            final Contract contract = storage.contracts().addContract(
+                "mihai/test", "vlad", "github",
+                BigDecimal.valueOf(10000), Contract.Roles.DEV
+            );
+            storage.contracts().update(contract, BigDecimal.valueOf(12000));
+            final Task first = storage.tasks().register(
+                this.mockIssue("1", "mihai/test", "github")
+            );
+            final Task second = storage.tasks().register(
+                this.mockIssue("2", "mihai/test", "github")
+            );
+            storage.tasks().assign(first, contract, 10);
+            storage.tasks().remove(second);
+        }
+        try (Storage storage = this.journaled(dir, threshold)) {
+            MatcherAssert.assertThat(
+                storage.projectManagers().getById(1).username(),
+                Matchers.equalTo("zoeself")
+            );
+            MatcherAssert.assertThat(
+                storage.projects().getProjectById("mihai/test", "github")
+                    .webHookToken(),
+                Matchers.equalTo("wh123")
+            );
+            MatcherAssert.assertThat(
+                storage.contracts().findById(
+                    new Contract.Id(
+                        "mihai/test", "vlad", "github", Contract.Roles.DEV
+                    )
+                ).hourlyRate(),
+                Matchers.equalTo(BigDecimal.valueOf(12000))
+            );
+            MatcherAssert.assertThat(
+                storage.tasks().ofContributor("vlad", "github"),
+                Matchers.iterableWithSize(1)
+            );
+            MatcherAssert.assertThat(
+                storage.tasks().ofProject("mihai/test", "github"),
+                Matchers.iterableWithSize(1)
+            );
+            MatcherAssert.assertThat(
+                storage.tasks().unassigned(),
+                Matchers.emptyIterable()
+            );
+        }
+    }
+
+    /**
+     * Check the counted value and revenue of a Contract and that they
+     * are consistent with a computation from scratch.
+     * @param storage Storage.
+     * @param id Id of the Contract.
+     * @param value Expected value.
+     * @param revenue Expected revenue.
+     */
+    private void assertCounted(
+        final InMemoryStorage storage,
+        final Contract.Id id,
+        final long value,
+        final long revenue
+    ) {
+        final Contract contract = storage.contracts().findById(id);
+        MatcherAssert.assertThat(
+            contract.value(),
+            Matchers.comparesEqualTo(BigDecimal.valueOf(value))
+        );
+        MatcherAssert.assertThat(
+            contract.revenue(),
+            Matchers.comparesEqualTo(BigDecimal.valueOf(revenue))
+        );
+        MatcherAssert.assertThat(
+            storage.inconsistentContracts(),
+            Matchers.emptyIterable()
+        );
+    }
+
+    /**
+     * Check that the Invoice is sealed, with one task line.
+     * @param invoice Invoice.
+     * @param amount Expected amount.
+     */
+    private void assertSealed(final Invoice invoice, final BigDecimal amount) {
+        MatcherAssert.assertThat(
+            invoice, Matchers.instanceOf(SealedInvoice.class)
+        );
+        MatcherAssert.assertThat(invoice.isPaid(), Matchers.is(true));
+        MatcherAssert.assertThat(
+            invoice.amount(), Matchers.comparesEqualTo(amount)
+        );
+        MatcherAssert.assertThat(
+            invoice.commission(),
+            Matchers.comparesEqualTo(BigDecimal.valueOf(800))
+        );
+        MatcherAssert.assertThat(invoice.totals().tasks(), Matchers.is(1));
+        MatcherAssert.assertThat(invoice.billedBy(), Matchers.equalTo("vlad"));
+        MatcherAssert.assertThat(
+            invoice.billedTo(), Matchers.equalTo("mihai")
+        );
+    }
+
+    /**
+     * Open a journaled storage.
+     * @param dir Directory of the journal.
+     * @param threshold Size of the journal which triggers a snapshot.
+     * @return Storage.
+     * @throws IOException If the journal cannot be opened.
+     */
+    private Storage journaled(
+        final Path dir,
+        final long threshold
+    ) throws IOException {
+        return new InMemoryStorage(new Journal(dir), threshold);
+    }
+
+    /**
+     * Register a ProjectManager.
+     * @param storage Storage.
+     * @return ProjectManager.
+     */
+    private ProjectManager manager(final Storage storage) {
+        return storage.projectManagers().register(
+            "1", "zoeself", "github", "token", 8
+        );
+    }
+
+    /**
+     * Mock a Repo.
+     * @param fullName Full name.
+     * @param provider Provider.
+     * @return Repo.
+     */
+    private Repo mockRepo(final String fullName, final String provider) {
+        final Repo repo = Mockito.mock(Repo.class);
+        Mockito.when(repo.fullName()).thenReturn(fullName);
+        Mockito.when(repo.provider()).thenReturn(provider);
+        final Provider prov = Mockito.mock(Provider.class);
+        Mockito.when(prov.name()).thenReturn(provider);
+        final User owner = Mockito.mock(User.class);
+        Mockito.when(owner.username()).thenReturn("mihai");
+        Mockito.when(owner.provider()).thenReturn(prov);
+        Mockito.when(repo.owner()).thenReturn(owner);
+        return repo;
+    }
+
+    /**
+     * Mock an Issue.
+     * @param issueId Id.
+     * @param repoFullName Repo full name.
+     * @param provider Provider.
+     * @return Issue.
+     */
+    private Issue mockIssue(
+        final String issueId,
+        final String repoFullName,
+        final String provider
+    ) {
+        final Issue issue = Mockito.mock(Issue.class);
+        Mockito.when(issue.issueId()).thenReturn(issueId);
+        Mockito.when(issue.repoFullName()).thenReturn(repoFullName);
+        Mockito.when(issue.provider()).thenReturn(provider);
+        Mockito.when(issue.role()).thenReturn(Contract.Roles.DEV);
+        final Estimation estimation = Mockito.mock(Estimation.class);
+        Mockito.when(estimation.minutes()).thenReturn(60);
+        Mockito.when(issue.estimation()).thenReturn(estimation);
+        return issue;
+    }
+}
@@ -0,0 +1,185 @@
+package com.selfxdsd.core.storage;
+
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link Journal}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class JournalTestCase {
+
+    /**
+     * Temporary folder for the journal files.
+     * @checkstyle VisibilityModifierCheck (3 lines)
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Appended records are replayed, in order, after reopening.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void replaysAppendedRecords() throws IOException {
+        final Path dir = this.folder.newFolder().toPath();
+        try (Journal journal = new Journal(dir)) {
+            journal.replay(record -> { });
+            journal.append(this.record(1));
+            journal.append(this.record(2));
+            MatcherAssert.assertThat(
+                journal.size(), Matchers.greaterThan(0L)
+            );
+        }
+        MatcherAssert.assertThat(
+            this.replay(dir),
+            Matchers.contains(this.record(1), this.record(2))
+        );
+    }
+
+    /**
+     * A corrupted tail is cut off, and the next records are appended
+     * after the last valid one.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void truncatesCorruptedTail() throws IOException {
+        final Path dir = this.folder.newFolder().toPath();
+        try (Journal journal = new Journal(dir)) {
+            journal.replay(record -> { });
+            journal.append(this.record(1));
+            journal.append(this.record(2));
+        }
+        Files.write(
+            dir.resolve("journal.log"),
+            "\u0000\u0000\u0000 garbage".getBytes(
+                StandardCharsets.UTF_8
+            ),
+            StandardOpenOption.APPEND
+        );
+        try (Journal journal = new Journal(dir)) {
+            final List<JsonObject> replayed = new ArrayList<>();
+            journal.replay(replayed::add);
+            MatcherAssert.assertThat(
+                replayed,
+                Matchers.contains(this.record(1), this.record(2))
+            );
+            journal.append(this.record(3));
+        }
+        MatcherAssert.assertThat(
+            this.replay(dir),
+            Matchers.contains(
+                this.record(1), this.record(2), this.record(3)
+            )
+        );
+    }
+
+    /**
+     * Compacting replaces the snapshot with the given state and empties
+     * the journal; later records are replayed after the snapshot.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void compactsIntoSnapshot() throws IOException {
+        final Path dir = this.folder.newFolder().toPath();
+        try (Journal journal = new Journal(dir)) {
+            journal.replay(record -> { });
+            journal.append(this.record(1));
+            journal.append(this.record(2));
+            journal.compact(List.of(this.record(12)).iterator());
+            MatcherAssert.assertThat(journal.size(), Matchers.is(0L));
+            journal.append(this.record(3));
+        }
+        MatcherAssert.assertThat(
+            this.replay(dir),
+            Matchers.contains(this.record(12), this.record(3))
+        );
+    }
+
+    /**
+     * A corrupted snapshot is not replayed partially: replay fails.
+     * @throws IOException If something goes wrong.
+     */
+    @Test(expected = IOException.class)
+    public void rejectsCorruptedSnapshot() throws IOException {
+        final Path dir = this.folder.newFolder().toPath();
+        try (Journal journal = new Journal(dir)) {
+            journal.replay(record -> { });
+            journal.compact(
+                List.of(this.record(1), this.record(2)).iterator()
+            );
+        }
+        final Path snapshot = dir.resolve("snapshot.log");
+        final byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 1));
+        this.replay(dir);
+    }
+
+    /**
+     * A record written before a compaction is durable afterwards, so a
+     * writer which awaits it after the compaction does not block.
+     * @throws IOException If something goes wrong.
+     */
+    @Test
+    public void awaitsRecordWrittenBeforeCompaction() throws IOException {
+        final Path dir = this.folder.newFolder().toPath();
+        try (Journal journal = new Journal(dir)) {
+            journal.replay(record -> { });
+            final long position = journal.write(this.record(1));
+            journal.compact(List.of(this.record(1)).iterator());
+            journal.awaitDurable(position);
+            final long next = journal.write(this.record(2));
+            MatcherAssert.assertThat(next, Matchers.greaterThan(position));
+            journal.awaitDurable(next);
+            MatcherAssert.assertThat(
+                journal.size(), Matchers.is(next - position)
+            );
+        }
+        MatcherAssert.assertThat(
+            this.replay(dir),
+            Matchers.contains(this.record(1), this.record(2))
+        );
+    }
+
+    /**
+     * Replay the journal from the given directory.
+     * @param dir Directory.
+     * @return Replayed records.
+     * @throws IOException If something goes wrong.
+     */
+    private List<JsonObject> replay(final Path dir) throws IOException {
+        final List<JsonObject> replayed = new ArrayList<>();
+        try (Journal journal = new Journal(dir)) {
+            journal.replay(replayed::add);
+        }
+        return replayed;
+    }
+
+    /**
+     * A test record.
+     * @param value Value.
+     * @return JsonObject.
+     */
+    private JsonObject record(final int value) {
+        return Json.createObjectBuilder()
+            .add("op", "test")
+            .add("value", value)
+            .build();
+    }
+}
@@ -0,0 +1,144 @@
+package com.selfxdsd.core.tasks;
+
+import com.selfxdsd.api.*;
+import com.selfxdsd.api.storage.Storage;
+import com.selfxdsd.core.contracts.StoredContract;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for {@link DetailedTasks}.
+ * @author Mihai Andronache (amihaiemil@gmail.com)
+ * @version $Id$
+ * @since 0.0.62
+ */
+public final class DetailedTasksTestCase {
+
+    /**
+     * Each Project and Contributor is read from the Storage only once,
+     * no matter how many Tasks they have.
+     */
+    @Test
+    public void loadsProjectAndContributorOnce() {
+        final Project project = Mockito.mock(Project.class);
+        Mockito.when(project.repoFullName()).thenReturn("john/test");
+        Mockito.when(project.provider()).thenReturn(Provider.Names.GITHUB);
+        final Projects projects = Mockito.mock(Projects.class);
+        Mockito.when(
+            projects.getProjectById("john/test", Provider.Names.GITHUB)
+        ).thenReturn(project);
+        final Contributor mihai = Mockito.mock(Contributor.class);
+        Mockito.when(mihai.username()).thenReturn("mihai");
+        Mockito.when(mihai.provider()).thenReturn(Provider.Names.GITHUB);
+        final Contributors contributors = Mockito.mock(Contributors.class);
+        Mockito.when(
+            contributors.getById("mihai", Provider.Names.GITHUB)
+        ).thenReturn(mihai);
+        final Storage storage = Mockito.mock(Storage.class);
+        Mockito.when(storage.projects()).thenReturn(projects);
+        Mockito.when(storage.contributors()).thenReturn(contributors);
+
+        final List<Task> stored = new ArrayList<>();
+        for(int idx = 0; idx < 5; idx = idx + 1) {
+            stored.add(
+                new StoredTask(
+                    new StoredContract(
+                        new Contract.Id(
+                            "john/test",
+                            "mihai",
+                            Provider.Names.GITHUB,
+                            Contract.Roles.DEV
+                        ),
+                        BigDecimal.valueOf(6000),
+                        null,
+                        storage
+                    ),
+                    String.valueOf(idx),
+                    storage,
+                    LocalDateTime.now(),
+                    LocalDateTime.now().plusDays(10),
+                    60,
+                    false
+                )
+            );
+        }
+        final Tasks origin = Mockito.mock(Tasks.class);
+        Mockito.when(origin.spliterator())
+            .thenAnswer(inv -> stored.spliterator());
+
+        int count = 0;
+        for(final Task task : new DetailedTasks(origin, storage)) {
+            MatcherAssert.assertThat(task.project(), Matchers.is(project));
+            MatcherAssert.assertThat(task.assignee(), Matchers.is(mihai));
+            MatcherAssert.assertThat(
+                task.value(),
+                Matchers.equalTo(BigDecimal.valueOf(6000))
+            );
+            count = count + 1;
+        }
+        MatcherAssert.assertThat(count, Matchers.is(5));
+        Mockito.verify(projects, Mockito.times(1))
+            .getProjectById("john/test", Provider.Names.GITHUB);
+        Mockito.verify(contributors, Mockito.times(1))
+            .getById("mihai", Provider.Names.GITHUB);
+    }
+
+    /**
+     * Unassigned Tasks are returned as they are.
+     */
+    @Test
+    public void keepsUnassignedTasks() {
+        final Task unassigned = new StoredTask(
+            Mockito.mock(Project.class),
+            "123",
+            Contract.Roles.DEV,
+            60,
+            false,
+            Mockito.mock(Storage.class)
+        );
+        final Tasks origin = Mockito.mock(Tasks.class);
+        Mockito.when(origin.spliterator())
+            .thenAnswer(inv -> List.of(unassigned).spliterator());
+        MatcherAssert.assertThat(
+            new DetailedTasks(origin, Mockito.mock(Storage.class)),
+            Matchers.contains(unassigned)
+        );
+    }
+
+    /**
+     * Filtering methods return DetailedTasks, the rest are delegated.
+     */
+    @Test
+    public void delegatesToOrigin() {
+        final Tasks origin = Mockito.mock(Tasks.class);
+        final Tasks ofProject = Mockito.mock(Tasks.class);
+        Mockito.when(origin.ofProject("john/test", Provider.Names.GITHUB))
+            .thenReturn(ofProject);
+        final Task task = Mockito.mock(Task.class);
+        Mockito.when(
+            origin.getById("1", "john/test", Provider.Names.GITHUB, false)
+        ).thenReturn(task);
+        final Tasks detailed = new DetailedTasks(
+            origin, Mockito.mock(Storage.class)
+        );
+        MatcherAssert.assertThat(
+            detailed.ofProject("john/test", Provider.Names.GITHUB),
+            Matchers.instanceOf(DetailedTasks.class)
+        );
+        MatcherAssert.assertThat(
+            detailed.getById("1", "john/test", Provider.Names.GITHUB, false),
+            Matchers.is(task)
+        );
+        MatcherAssert.assertThat(
+            detailed.withDetails(),
+            Matchers.sameInstance(detailed)
+        );
+    }
+}